@@ -111,12 +111,14 @@ import org.wordpress.android.util.PackageUtils;
 import org.wordpress.android.util.ProfilingUtils;
 import org.wordpress.android.util.QuickStartUtils;
 import org.wordpress.android.util.RateLimitedTask;
+import org.wordpress.android.util.ServiceTaskExecutor;
 import org.wordpress.android.util.SiteUtils;
 import org.wordpress.android.util.UploadWorkerKt;
 import org.wordpress.android.util.VolleyUtils;
 import org.wordpress.android.util.WPActivityUtils;
 import org.wordpress.android.util.analytics.AnalyticsUtils;
 import org.wordpress.android.util.config.AppConfig;
+import org.wordpress.android.util.crashlogging.CrashLoggingExtKt;
 import org.wordpress.android.util.experiments.ExPlat;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.widgets.AppRatingDialog;
@@ -288,6 +290,8 @@ public class WordPress extends MultiDexApplication implements HasAndroidInjector
                 mCrashLogging.recordEvent(sb.toString(), null);
             }
         });
+        ServiceTaskExecutor.setExceptionReporter(
+                (exception, tag) -> CrashLoggingExtKt.sendReportWithTag(mCrashLogging, exception, tag));
         AppLog.i(T.UTILS, "WordPress.onCreate");
 
         versionName = PackageUtils.getVersionName(this);
@@ -0,0 +1,64 @@
+package org.wordpress.android.datasets;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.util.SqlUtils;
+
+/**
+ * Maps the rows of a cursor to model objects. Column indexes are resolved once when the mapper
+ * is created rather than once per row, so create one mapper per cursor and reuse it for every
+ * row in that cursor. Columns which may be left out of the projection (such as the large text
+ * column of tbl_posts) should be resolved with optionalIndex() and read with the getters below,
+ * which return the passed default when the column is missing.
+ */
+abstract class CursorMapper<T> {
+    private final Cursor mCursor;
+
+    CursorMapper(@NonNull Cursor cursor) {
+        mCursor = cursor;
+    }
+
+    /*
+     * maps the row the cursor is currently positioned on
+     */
+    abstract T map();
+
+    @NonNull Cursor getCursor() {
+        return mCursor;
+    }
+
+    int requiredIndex(@NonNull String columnName) {
+        return mCursor.getColumnIndexOrThrow(columnName);
+    }
+
+    int optionalIndex(@NonNull String columnName) {
+        return mCursor.getColumnIndex(columnName);
+    }
+
+    static boolean hasColumn(int index) {
+        return index > -1;
+    }
+
+    @Nullable String getString(int index) {
+        return hasColumn(index) ? mCursor.getString(index) : null;
+    }
+
+    long getLong(int index) {
+        return hasColumn(index) ? mCursor.getLong(index) : 0;
+    }
+
+    int getInt(int index) {
+        return hasColumn(index) ? mCursor.getInt(index) : 0;
+    }
+
+    double getDouble(int index) {
+        return hasColumn(index) ? mCursor.getDouble(index) : 0;
+    }
+
+    boolean getBoolean(int index) {
+        return hasColumn(index) && SqlUtils.sqlToBool(mCursor.getInt(index));
+    }
+}
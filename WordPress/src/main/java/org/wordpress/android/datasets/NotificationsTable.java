@@ -6,15 +6,22 @@ import android.database.CursorIndexOutOfBoundsException;
 import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.Note;
+import org.wordpress.android.ui.notifications.adapters.NotesAdapter.FILTERS;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.SqlUtils;
+import org.wordpress.android.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,6 +44,23 @@ public class NotificationsTable {
 
     private static final String REWIND_DOWNLOAD_READY_ATTR_SUBSTR = "\"type\":\"rewind_download_ready\"";
 
+    // columns holding the fields shown in the notifications list, which is loaded without the raw note data
+    private static final String[] LIST_COLUMNS = {
+            "note_id",
+            "type",
+            "timestamp",
+            "is_unread",
+            "subject",
+            "comment_subject",
+            "comment_subject_noticon",
+            "icon_url",
+            "noticon",
+            "site_id",
+            "post_id",
+            "comment_id",
+            "comment_status"
+    };
+
     public static void createTables(SQLiteDatabase db) {
         db.execSQL("CREATE TABLE IF NOT EXISTS " + NOTIFICATIONS_TABLE + " ("
                    + "id INTEGER PRIMARY KEY DEFAULT 0,"
@@ -44,8 +68,31 @@ public class NotificationsTable {
                    + "type TEXT,"
                    + "raw_note_data TEXT,"
                    + "timestamp INTEGER,"
+                   + "is_unread INTEGER DEFAULT 0,"
+                   + "subject TEXT,"
+                   + "comment_subject TEXT,"
+                   + "comment_subject_noticon TEXT,"
+                   + "icon_url TEXT,"
+                   + "noticon TEXT,"
+                   + "site_id INTEGER DEFAULT 0,"
+                   + "post_id INTEGER DEFAULT 0,"
+                   + "comment_id INTEGER DEFAULT 0,"
+                   + "comment_status TEXT,"
                    + " UNIQUE (note_id) ON CONFLICT REPLACE"
                    + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_notifications_timestamp ON "
+                   + NOTIFICATIONS_TABLE + "(timestamp)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_notifications_type ON "
+                   + NOTIFICATIONS_TABLE + "(type, timestamp)");
+    }
+
+    /*
+     * indexes on the list columns added in db version 68 - these can't be created by createTables() since
+     * that runs before the upgrade has recreated the table, so they're created by reset() instead
+     */
+    private static void createListIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_notifications_unread ON "
+                   + NOTIFICATIONS_TABLE + "(is_unread, timestamp)");
     }
 
     private static void dropTables(SQLiteDatabase db) {
@@ -53,34 +100,126 @@ public class NotificationsTable {
     }
 
     public static ArrayList<Note> getLatestNotes() {
-        return getLatestNotes(NOTES_TO_RETRIEVE);
+        return getLatestNotes(FILTERS.FILTER_ALL, NOTES_TO_RETRIEVE);
     }
 
     public static ArrayList<Note> getLatestNotes(int limit) {
-        Cursor cursor = getDb().query(NOTIFICATIONS_TABLE, new String[]{"note_id", "raw_note_data"},
-                                      null, null, null, null, "timestamp DESC", "" + limit);
-        ArrayList<Note> notes = new ArrayList<Note>();
-        while (cursor.moveToNext()) {
-            String noteId = cursor.getString(0);
-            String rawNoteData = cursor.getString(1);
+        return getLatestNotes(FILTERS.FILTER_ALL, limit);
+    }
+
+    public static ArrayList<Note> getLatestNotes(FILTERS filter) {
+        return getLatestNotes(filter, NOTES_TO_RETRIEVE);
+    }
+
+    /*
+     * returns the latest notes matching the passed filter - only the list columns are read, the raw
+     * data of each note is loaded the first time it's needed
+     */
+    public static ArrayList<Note> getLatestNotes(FILTERS filter, int limit) {
+        String selection;
+        String[] args;
+        switch (filter) {
+            case FILTER_COMMENT:
+                selection = "type=? OR (type=? AND comment_id<>0)";
+                args = new String[]{Note.NOTE_COMMENT_TYPE, Note.NOTE_MATCHER_TYPE};
+                break;
+            case FILTER_FOLLOW:
+                selection = "type=?";
+                args = new String[]{Note.NOTE_FOLLOW_TYPE};
+                break;
+            case FILTER_LIKE:
+                selection = "type IN (?,?)";
+                args = new String[]{Note.NOTE_LIKE_TYPE, Note.NOTE_COMMENT_LIKE_TYPE};
+                break;
+            case FILTER_UNREAD:
+                selection = "is_unread=1";
+                args = null;
+                break;
+            case FILTER_ALL:
+            default:
+                selection = null;
+                args = null;
+                break;
+        }
+
+        Cursor cursor = getDb().query(NOTIFICATIONS_TABLE, LIST_COLUMNS,
+                                      selection, args, null, null, "timestamp DESC", "" + limit);
+        ArrayList<Note> notes = new ArrayList<>();
+        try {
+            while (cursor.moveToNext()) {
+                notes.add(getNoteFromListColumns(cursor));
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+        return notes;
+    }
+
+    private static Note getNoteFromListColumns(Cursor c) {
+        String noteId = c.getString(c.getColumnIndexOrThrow("note_id"));
+
+        Note.ListFields fields = new Note.ListFields();
+        fields.type = StringUtils.notNullStr(c.getString(c.getColumnIndexOrThrow("type")));
+        fields.timestamp = c.getLong(c.getColumnIndexOrThrow("timestamp"));
+        fields.isUnread = SqlUtils.sqlToBool(c.getInt(c.getColumnIndexOrThrow("is_unread")));
+        fields.commentSubject = StringUtils.notNullStr(c.getString(c.getColumnIndexOrThrow("comment_subject")));
+        fields.commentSubjectNoticon =
+                StringUtils.notNullStr(c.getString(c.getColumnIndexOrThrow("comment_subject_noticon")));
+        fields.iconUrl = StringUtils.notNullStr(c.getString(c.getColumnIndexOrThrow("icon_url")));
+        fields.noticon = StringUtils.notNullStr(c.getString(c.getColumnIndexOrThrow("noticon")));
+        fields.siteId = c.getInt(c.getColumnIndexOrThrow("site_id"));
+        fields.postId = c.getInt(c.getColumnIndexOrThrow("post_id"));
+        fields.commentId = c.getLong(c.getColumnIndexOrThrow("comment_id"));
+        fields.commentStatus = StringUtils.notNullStr(c.getString(c.getColumnIndexOrThrow("comment_status")));
+
+        // the subject is a single small block of the note, parsed here so it isn't parsed when it's shown
+        String subject = c.getString(c.getColumnIndexOrThrow("subject"));
+        if (!TextUtils.isEmpty(subject)) {
             try {
-                Note note = new Note(noteId, new JSONObject(rawNoteData));
-                notes.add(note);
+                fields.subject = new JSONObject(subject);
             } catch (JSONException e) {
-                AppLog.e(AppLog.T.DB, "Can't parse notification with noteId:" + noteId + ", exception:" + e);
+                AppLog.e(AppLog.T.DB, "Can't parse the subject of the notification with noteId:" + noteId, e);
             }
         }
-        cursor.close();
-        return notes;
+
+        return new Note(noteId, fields, NotificationsTable::getNoteJson);
+    }
+
+    @Nullable
+    private static JSONObject getNoteJson(@NonNull String noteId) {
+        String rawNoteData = SqlUtils.stringForQuery(getDb(),
+                "SELECT raw_note_data FROM " + NOTIFICATIONS_TABLE + " WHERE note_id=?",
+                new String[]{noteId});
+        if (TextUtils.isEmpty(rawNoteData)) {
+            AppLog.v(AppLog.T.DB, "No Note found in the DB with this id: " + noteId);
+            return null;
+        }
+        try {
+            return new JSONObject(rawNoteData);
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.DB, "Can't parse notification with noteId:" + noteId + ", exception:" + e);
+            return null;
+        }
     }
 
     private static boolean putNote(Note note, boolean checkBeforeInsert) {
         String rawNote = prepareNote(note.getId(), note.getJSON().toString());
+        JSONObject subject = note.getSubject();
 
         ContentValues values = new ContentValues();
         values.put("type", note.getType());
         values.put("timestamp", note.getTimestamp());
         values.put("raw_note_data", rawNote);
+        values.put("is_unread", SqlUtils.boolToSql(note.isUnread()));
+        values.put("subject", subject != null ? subject.toString() : null);
+        values.put("comment_subject", note.getCommentSubject());
+        values.put("comment_subject_noticon", note.getCommentSubjectNoticon());
+        values.put("icon_url", note.getIconURL());
+        values.put("noticon", note.getNoticonCharacter());
+        values.put("site_id", note.getSiteId());
+        values.put("post_id", note.getPostId());
+        values.put("comment_id", note.getCommentId());
+        values.put("comment_status", note.getCommentStatus().toString());
 
         long result;
         if (checkBeforeInsert && isNoteAvailable(note.getId())) {
@@ -140,6 +279,18 @@ public class NotificationsTable {
         }
     }
 
+    /*
+     * stores the latest notes returned by a refresh - when only the notes newer than the stored ones were
+     * requested and fewer than a full sync were returned they directly follow the stored ones, so they're
+     * added to them and true is returned since the stored ones then need to be reconciled. Otherwise there
+     * may be a gap between the new notes and the stored ones, so the new notes replace them as in a full sync
+     */
+    public static boolean saveRefreshedNotes(List<Note> notes, boolean isIncremental) {
+        boolean isAdded = isIncremental && notes.size() < NOTES_TO_RETRIEVE;
+        saveNotes(notes, !isAdded);
+        return isAdded;
+    }
+
     public static boolean saveNote(Note note) {
         getDb().beginTransaction();
         boolean saved = false;
@@ -152,6 +303,85 @@ public class NotificationsTable {
         return saved;
     }
 
+    /*
+     * returns the timestamp of the newest stored note, or zero if there aren't any
+     */
+    public static long getLatestNoteTimestamp() {
+        return SqlUtils.longForQuery(getDb(), "SELECT MAX(timestamp) FROM " + NOTIFICATIONS_TABLE, null);
+    }
+
+    /*
+     * reconciles the stored notes with the passed remote notes, which only need their id, read state and
+     * timestamp: the read state of stored notes is updated when it changed, and stored notes which aren't
+     * among the remote ones are removed - they've either been deleted or are older than the notes a full
+     * sync would retrieve. Stored notes newer than the remote ones are kept, they may have arrived since the
+     * remote notes were requested.
+     */
+    public static void reconcileNotes(List<Note> remoteNotes) {
+        if (remoteNotes.isEmpty()) {
+            return;
+        }
+        Map<String, Boolean> remoteUnreadById = new HashMap<>(remoteNotes.size() * 2);
+        long newestTimestamp = 0;
+        for (Note note : remoteNotes) {
+            remoteUnreadById.put(note.getId(), note.isUnread());
+            newestTimestamp = Math.max(newestTimestamp, note.getTimestamp());
+        }
+
+        List<String> deletedIds = new ArrayList<>();
+        Map<String, Boolean> changedUnreadById = new HashMap<>();
+        Cursor cursor = getDb().query(NOTIFICATIONS_TABLE, new String[]{"note_id", "is_unread", "timestamp"},
+                                      null, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                String noteId = cursor.getString(0);
+                boolean isUnread = SqlUtils.sqlToBool(cursor.getInt(1));
+                Boolean remoteUnread = remoteUnreadById.get(noteId);
+                if (remoteUnread != null) {
+                    if (remoteUnread != isUnread) {
+                        changedUnreadById.put(noteId, remoteUnread);
+                    }
+                } else if (cursor.getLong(2) <= newestTimestamp) {
+                    deletedIds.add(noteId);
+                }
+            }
+        } finally {
+            SqlUtils.closeCursor(cursor);
+        }
+
+        if (deletedIds.isEmpty() && changedUnreadById.isEmpty()) {
+            return;
+        }
+
+        getDb().beginTransaction();
+        try {
+            for (String noteId : deletedIds) {
+                getDb().delete(NOTIFICATIONS_TABLE, "note_id=?", new String[]{noteId});
+            }
+            for (Map.Entry<String, Boolean> entry : changedUnreadById.entrySet()) {
+                updateReadState(entry.getKey(), entry.getValue());
+            }
+            getDb().setTransactionSuccessful();
+        } finally {
+            getDb().endTransaction();
+        }
+        AppLog.d(AppLog.T.DB, "Reconciled notes - deleted " + deletedIds.size() + ", read state changed "
+                              + changedUnreadById.size());
+    }
+
+    private static void updateReadState(String noteId, boolean isUnread) {
+        JSONObject noteJson = getNoteJson(noteId);
+        if (noteJson == null) {
+            return;
+        }
+        try {
+            noteJson.put("read", isUnread ? 0 : 1);
+            putNote(new Note(noteId, noteJson), true);
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.DB, "Failed to update the read state of the note with noteId:" + noteId, e);
+        }
+    }
+
     private static boolean isNoteAvailable(String noteID) {
         if (TextUtils.isEmpty(noteID)) {
             AppLog.e(AppLog.T.DB, "Asking for a note with null Id. Really?" + noteID);
@@ -215,11 +445,15 @@ public class NotificationsTable {
      * drop & recreate notifications table
      */
     public static void reset() {
-        SQLiteDatabase db = getDb();
+        reset(getDb());
+    }
+
+    public static void reset(SQLiteDatabase db) {
         db.beginTransaction();
         try {
             dropTables(db);
             createTables(db);
+            createListIndexes(db);
             db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
@@ -6,6 +6,8 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteStatement;
 import android.text.TextUtils;
 
+import androidx.annotation.NonNull;
+
 import org.wordpress.android.models.ReaderBlog;
 import org.wordpress.android.models.ReaderBlogList;
 import org.wordpress.android.models.ReaderUrlList;
@@ -15,6 +17,7 @@ import org.wordpress.android.util.DateTimeUtils;
 import org.wordpress.android.util.SqlUtils;
 import org.wordpress.android.util.UrlUtils;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -66,7 +69,7 @@ public class ReaderBlogTable {
             if (!cursor.moveToFirst()) {
                 return null;
             }
-            return getBlogInfoFromCursor(cursor);
+            return new BlogMapper(cursor).map();
         } finally {
             SqlUtils.closeCursor(cursor);
         }
@@ -82,12 +85,49 @@ public class ReaderBlogTable {
             if (!cursor.moveToFirst()) {
                 return null;
             }
-            return getBlogInfoFromCursor(cursor);
+            return new BlogMapper(cursor).map();
         } finally {
             SqlUtils.closeCursor(cursor);
         }
     }
 
+    /*
+     * returns info for all the passed blogs in a single query - blogs which don't exist locally are skipped
+     */
+    @NonNull
+    public static ReaderBlogList getBlogInfoList(@NonNull Collection<Long> blogIds) {
+        return getBlogInfoListWithIds("blog_id", blogIds);
+    }
+
+    /*
+     * returns info for all the passed feeds in a single query - feeds which don't exist locally are skipped
+     */
+    @NonNull
+    public static ReaderBlogList getFeedInfoList(@NonNull Collection<Long> feedIds) {
+        return getBlogInfoListWithIds("feed_id", feedIds);
+    }
+
+    private static ReaderBlogList getBlogInfoListWithIds(@NonNull String idColumn, @NonNull Collection<Long> ids) {
+        ReaderBlogList blogs = new ReaderBlogList();
+        if (ids.isEmpty()) {
+            return blogs;
+        }
+        Cursor c = ReaderDatabase.getReadableDb().rawQuery(
+                "SELECT * FROM tbl_blog_info WHERE " + idColumn + " IN (" + TextUtils.join(",", ids) + ")",
+                null);
+        try {
+            if (c.moveToFirst()) {
+                BlogMapper mapper = new BlogMapper(c);
+                do {
+                    blogs.add(mapper.map());
+                } while (c.moveToNext());
+            }
+            return blogs;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
     public static long getFeedIdFromUrl(String url) {
         if (TextUtils.isEmpty(url)) {
             return 0;
@@ -98,62 +138,100 @@ public class ReaderBlogTable {
                                      args);
     }
 
-    private static ReaderBlog getBlogInfoFromCursor(Cursor c) {
-        if (c == null) {
-            return null;
+    static final class BlogMapper extends CursorMapper<ReaderBlog> {
+        private final int mIdxBlogId;
+        private final int mIdxFeedId;
+        private final int mIdxBlogUrl;
+        private final int mIdxImageUrl;
+        private final int mIdxFeedUrl;
+        private final int mIdxName;
+        private final int mIdxDescription;
+        private final int mIdxIsPrivate;
+        private final int mIdxIsJetpack;
+        private final int mIdxIsFollowing;
+        private final int mIdxIsNotificationsEnabled;
+        private final int mIdxNumFollowers;
+        private final int mIdxOrganizationId;
+        private final int mIdxUnseenCount;
+
+        BlogMapper(@NonNull Cursor c) {
+            super(c);
+            mIdxBlogId = requiredIndex("blog_id");
+            mIdxFeedId = requiredIndex("feed_id");
+            mIdxBlogUrl = requiredIndex("blog_url");
+            mIdxImageUrl = requiredIndex("image_url");
+            mIdxFeedUrl = requiredIndex("feed_url");
+            mIdxName = requiredIndex("name");
+            mIdxDescription = requiredIndex("description");
+            mIdxIsPrivate = requiredIndex("is_private");
+            mIdxIsJetpack = requiredIndex("is_jetpack");
+            mIdxIsFollowing = requiredIndex("is_following");
+            mIdxIsNotificationsEnabled = requiredIndex("is_notifications_enabled");
+            mIdxNumFollowers = requiredIndex("num_followers");
+            mIdxOrganizationId = requiredIndex("organization_id");
+            mIdxUnseenCount = requiredIndex("unseen_count");
         }
 
-        ReaderBlog blogInfo = new ReaderBlog();
-        blogInfo.blogId = c.getLong(c.getColumnIndex("blog_id"));
-        blogInfo.feedId = c.getLong(c.getColumnIndex("feed_id"));
-        blogInfo.setUrl(c.getString(c.getColumnIndex("blog_url")));
-        blogInfo.setImageUrl(c.getString(c.getColumnIndex("image_url")));
-        blogInfo.setFeedUrl(c.getString(c.getColumnIndex("feed_url")));
-        blogInfo.setName(c.getString(c.getColumnIndex("name")));
-        blogInfo.setDescription(c.getString(c.getColumnIndex("description")));
-        blogInfo.isPrivate = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_private")));
-        blogInfo.isJetpack = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_jetpack")));
-        blogInfo.isFollowing = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_following")));
-        blogInfo.isNotificationsEnabled = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_notifications_enabled")));
-        blogInfo.numSubscribers = c.getInt(c.getColumnIndex("num_followers"));
-        blogInfo.organizationId = c.getInt(c.getColumnIndex("organization_id"));
-        blogInfo.numUnseenPosts = c.getInt(c.getColumnIndex("unseen_count"));
-
-        return blogInfo;
+        @Override
+        ReaderBlog map() {
+            ReaderBlog blogInfo = new ReaderBlog();
+            blogInfo.blogId = getLong(mIdxBlogId);
+            blogInfo.feedId = getLong(mIdxFeedId);
+            blogInfo.setUrl(getString(mIdxBlogUrl));
+            blogInfo.setImageUrl(getString(mIdxImageUrl));
+            blogInfo.setFeedUrl(getString(mIdxFeedUrl));
+            blogInfo.setName(getString(mIdxName));
+            blogInfo.setDescription(getString(mIdxDescription));
+            blogInfo.isPrivate = getBoolean(mIdxIsPrivate);
+            blogInfo.isJetpack = getBoolean(mIdxIsJetpack);
+            blogInfo.isFollowing = getBoolean(mIdxIsFollowing);
+            blogInfo.isNotificationsEnabled = getBoolean(mIdxIsNotificationsEnabled);
+            blogInfo.numSubscribers = getInt(mIdxNumFollowers);
+            blogInfo.organizationId = getInt(mIdxOrganizationId);
+            blogInfo.numUnseenPosts = getInt(mIdxUnseenCount);
+
+            return blogInfo;
+        }
     }
 
+    private static final String ADD_OR_UPDATE_BLOG_SQL =
+            "INSERT OR REPLACE INTO tbl_blog_info"
+            + " (blog_id, feed_id, blog_url, image_url, feed_url, name, description, is_private, is_jetpack, "
+            + "  is_following, is_notifications_enabled, num_followers, date_updated, "
+            + "  organization_id, unseen_count)"
+            + " VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10, ?11, ?12, ?13, ?14, ?15)";
+
     public static void addOrUpdateBlog(ReaderBlog blogInfo) {
         if (blogInfo == null) {
             return;
         }
-        String sql = "INSERT OR REPLACE INTO tbl_blog_info"
-                     + " (blog_id, feed_id, blog_url, image_url, feed_url, name, description, is_private, is_jetpack, "
-                     + "  is_following, is_notifications_enabled, num_followers, date_updated, "
-                     + "  organization_id, unseen_count)"
-                     + " VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10, ?11, ?12, ?13, ?14, ?15)";
-        SQLiteStatement stmt = ReaderDatabase.getWritableDb().compileStatement(sql);
+        SQLiteStatement stmt = ReaderDatabase.getWritableDb().compileStatement(ADD_OR_UPDATE_BLOG_SQL);
         try {
-            stmt.bindLong(1, blogInfo.blogId);
-            stmt.bindLong(2, blogInfo.feedId);
-            stmt.bindString(3, blogInfo.getUrl());
-            stmt.bindString(4, blogInfo.getImageUrl());
-            stmt.bindString(5, blogInfo.getFeedUrl());
-            stmt.bindString(6, blogInfo.getName());
-            stmt.bindString(7, blogInfo.getDescription());
-            stmt.bindLong(8, SqlUtils.boolToSql(blogInfo.isPrivate));
-            stmt.bindLong(9, SqlUtils.boolToSql(blogInfo.isJetpack));
-            stmt.bindLong(10, SqlUtils.boolToSql(blogInfo.isFollowing));
-            stmt.bindLong(11, SqlUtils.boolToSql(blogInfo.isNotificationsEnabled));
-            stmt.bindLong(12, blogInfo.numSubscribers);
-            stmt.bindString(13, DateTimeUtils.iso8601FromDate(new Date()));
-            stmt.bindLong(14, blogInfo.organizationId);
-            stmt.bindLong(15, blogInfo.numUnseenPosts);
-            stmt.execute();
+            addOrUpdateBlog(stmt, blogInfo, DateTimeUtils.iso8601FromDate(new Date()));
         } finally {
             SqlUtils.closeStatement(stmt);
         }
     }
 
+    private static void addOrUpdateBlog(SQLiteStatement stmt, ReaderBlog blogInfo, String dateUpdated) {
+        stmt.bindLong(1, blogInfo.blogId);
+        stmt.bindLong(2, blogInfo.feedId);
+        stmt.bindString(3, blogInfo.getUrl());
+        stmt.bindString(4, blogInfo.getImageUrl());
+        stmt.bindString(5, blogInfo.getFeedUrl());
+        stmt.bindString(6, blogInfo.getName());
+        stmt.bindString(7, blogInfo.getDescription());
+        stmt.bindLong(8, SqlUtils.boolToSql(blogInfo.isPrivate));
+        stmt.bindLong(9, SqlUtils.boolToSql(blogInfo.isJetpack));
+        stmt.bindLong(10, SqlUtils.boolToSql(blogInfo.isFollowing));
+        stmt.bindLong(11, SqlUtils.boolToSql(blogInfo.isNotificationsEnabled));
+        stmt.bindLong(12, blogInfo.numSubscribers);
+        stmt.bindString(13, dateUpdated);
+        stmt.bindLong(14, blogInfo.organizationId);
+        stmt.bindLong(15, blogInfo.numUnseenPosts);
+        stmt.execute();
+    }
+
     /*
      * returns blogInfo for all followed blogs
      */
@@ -164,9 +242,9 @@ public class ReaderBlogTable {
         try {
             ReaderBlogList blogs = new ReaderBlogList();
             if (c.moveToFirst()) {
+                BlogMapper mapper = new BlogMapper(c);
                 do {
-                    ReaderBlog blogInfo = getBlogInfoFromCursor(c);
-                    blogs.add(blogInfo);
+                    blogs.add(mapper.map());
                 } while (c.moveToNext());
             }
             return blogs;
@@ -176,25 +254,33 @@ public class ReaderBlogTable {
     }
 
     /*
-     * set followed blogs from the read/following/mine endpoint
+     * applies the changes between the stored followed blogs and the ones returned by the
+     * read/following/mine endpoint - blogs which were added or changed are written and blogs
+     * which are no longer followed are set to not followed, leaving the other rows alone
      */
-    public static void setFollowedBlogs(ReaderBlogList followedBlogs) {
+    public static void updateFollowedBlogs(@NonNull ReaderBlogList addedOrChangedBlogs,
+                                           @NonNull ReaderBlogList removedBlogs) {
         SQLiteDatabase db = ReaderDatabase.getWritableDb();
         db.beginTransaction();
+        SQLiteStatement stmtUpdate = null;
+        SQLiteStatement stmtUnfollow = null;
         try {
-            // first set all existing blogs to not followed
-            db.execSQL("UPDATE tbl_blog_info SET is_following=0");
-
-            // then insert passed ones
-            if (followedBlogs != null) {
-                for (ReaderBlog blog : followedBlogs) {
-                    addOrUpdateBlog(blog);
-                }
+            stmtUpdate = db.compileStatement(ADD_OR_UPDATE_BLOG_SQL);
+            stmtUnfollow = db.compileStatement("UPDATE tbl_blog_info SET is_following=0 WHERE blog_id=?");
+            String dateUpdated = DateTimeUtils.iso8601FromDate(new Date());
+            for (ReaderBlog blog : addedOrChangedBlogs) {
+                addOrUpdateBlog(stmtUpdate, blog, dateUpdated);
+            }
+            for (ReaderBlog blog : removedBlogs) {
+                stmtUnfollow.bindLong(1, blog.blogId);
+                stmtUnfollow.execute();
             }
 
             db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
+            SqlUtils.closeStatement(stmtUpdate);
+            SqlUtils.closeStatement(stmtUnfollow);
         }
     }
 
@@ -236,6 +322,11 @@ public class ReaderBlogTable {
                 new String[]{Long.toString(feedId)});
     }
 
+    public static int getNumFollowedBlogs() {
+        return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(),
+                "SELECT COUNT(*) FROM tbl_blog_info WHERE is_following!=0", null);
+    }
+
     public static boolean hasFollowedBlogs() {
         String sql = "SELECT 1 FROM tbl_blog_info WHERE is_following!=0 LIMIT 1";
         return SqlUtils.boolForQuery(ReaderDatabase.getReadableDb(), sql, null);
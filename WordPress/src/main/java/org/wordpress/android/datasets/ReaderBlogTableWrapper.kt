@@ -21,6 +21,22 @@ class ReaderBlogTableWrapper
         }
     }
 
+    /**
+     * Loads the blogs for all the passed blogId/feedId pairs using one query for blogs and one for feeds.
+     * The returned map is keyed by the passed pairs and skips blogs which don't exist locally.
+     */
+    fun getReaderBlogs(blogIdFeedIdPairs: List<Pair<Long, Long>>): Map<Pair<Long, Long>, ReaderBlog> {
+        val (feeds, blogs) = blogIdFeedIdPairs.partition { (blogId, feedId) ->
+            readerUtilsWrapper.isExternalFeed(blogId, feedId)
+        }
+        val blogsById = ReaderBlogTable.getBlogInfoList(blogs.map { it.first }.toSet()).associateBy { it.blogId }
+        val feedsById = ReaderBlogTable.getFeedInfoList(feeds.map { it.second }.toSet()).associateBy { it.feedId }
+        val result = mutableMapOf<Pair<Long, Long>, ReaderBlog>()
+        blogs.forEach { pair -> blogsById[pair.first]?.let { result[pair] = it } }
+        feeds.forEach { pair -> feedsById[pair.second]?.let { result[pair] = it } }
+        return result
+    }
+
     fun isSiteFollowed(blogId: Long, feedId: Long): Boolean {
         return if (readerUtilsWrapper.isExternalFeed(blogId, feedId)) {
             ReaderBlogTable.isFollowedFeed(feedId)
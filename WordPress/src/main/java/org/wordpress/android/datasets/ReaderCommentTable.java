@@ -4,12 +4,17 @@ import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
 
 import org.wordpress.android.models.ReaderComment;
 import org.wordpress.android.models.ReaderCommentList;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.util.SqlUtils;
 
+import java.util.Collection;
+
 /**
  * stores comments on reader posts
  */
@@ -128,19 +133,78 @@ public class ReaderCommentTable {
                                     "SELECT count(*) FROM tbl_comments WHERE blog_id=? AND post_id=?", args);
     }
 
+    /*
+     * called while pages of comments are requested again to remove the stored comments which were deleted
+     * or moderated since - keepCommentIds holds the ids of every comment returned for the pages requested
+     * so far. Comments are requested hierarchically, so a new reply pushes the comments after it down a
+     * page, which is why a comment missing from its page is only removed once the page after it has been
+     * requested too - the caller passes the page before the one just requested as toPage, or
+     * Integer.MAX_VALUE once the last page has been requested. Local comments which are still being
+     * submitted (they have a fake negative id) are left alone
+     */
+    public static void removeCommentsMissingFromPages(long blogId, long postId, int fromPage, int toPage,
+                                                      @NonNull Collection<Long> keepCommentIds) {
+        if (toPage < fromPage) {
+            return;
+        }
+        StringBuilder where = new StringBuilder(
+                "blog_id=? AND post_id=? AND comment_id>0 AND page_number>=? AND page_number<=?");
+        if (!keepCommentIds.isEmpty()) {
+            where.append(" AND comment_id NOT IN (").append(TextUtils.join(",", keepCommentIds)).append(")");
+        }
+        String[] args = {Long.toString(blogId), Long.toString(postId), Integer.toString(fromPage),
+                Integer.toString(toPage)};
+        ReaderDatabase.getWritableDb().delete("tbl_comments", where.toString(), args);
+    }
+
+    /*
+     * returns the comments stored on the passed page, not including local comments which are still
+     * being submitted
+     */
+    public static ReaderCommentList getCommentsOnPage(long blogId, long postId, int pageNumber) {
+        String[] args = {Long.toString(blogId), Long.toString(postId), Integer.toString(pageNumber)};
+        Cursor c = ReaderDatabase.getReadableDb().rawQuery(
+                "SELECT * FROM tbl_comments WHERE blog_id=? AND post_id=? AND page_number=? AND comment_id>0",
+                args);
+        try {
+            ReaderCommentList comments = new ReaderCommentList();
+            if (c.moveToFirst()) {
+                CommentMapper mapper = new CommentMapper(c);
+                do {
+                    comments.add(mapper.map());
+                } while (c.moveToNext());
+            }
+            return comments;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+    }
+
     public static ReaderCommentList getCommentsForPost(ReaderPost post) {
+        return getCommentsForPost(post, 0, Integer.MAX_VALUE);
+    }
+
+    /*
+     * returns the comments for the passed post which are on the passed range of pages, so the comments
+     * for a post can be read a few pages at a time
+     */
+    public static ReaderCommentList getCommentsForPost(ReaderPost post, int minPageNumber, int maxPageNumber) {
         if (post == null) {
             return new ReaderCommentList();
         }
 
-        String[] args = {Long.toString(post.blogId), Long.toString(post.postId)};
+        String[] args = {Long.toString(post.blogId), Long.toString(post.postId), Integer.toString(minPageNumber),
+                Integer.toString(maxPageNumber)};
         Cursor c = ReaderDatabase.getReadableDb().rawQuery(
-                "SELECT * FROM tbl_comments WHERE blog_id=? AND post_id=? ORDER BY timestamp", args);
+                "SELECT * FROM tbl_comments WHERE blog_id=? AND post_id=? AND page_number>=? AND page_number<=?"
+                + " ORDER BY timestamp",
+                args);
         try {
             ReaderCommentList comments = new ReaderCommentList();
             if (c.moveToFirst()) {
+                CommentMapper mapper = new CommentMapper(c);
                 do {
-                    comments.add(getCommentFromCursor(c));
+                    comments.add(mapper.map());
                 } while (c.moveToNext());
             }
             return comments;
@@ -204,7 +268,7 @@ public class ReaderCommentTable {
             if (!c.moveToFirst()) {
                 return null;
             }
-            return getCommentFromCursor(c);
+            return new CommentMapper(c).map();
         } finally {
             SqlUtils.closeCursor(c);
         }
@@ -307,34 +371,70 @@ public class ReaderCommentTable {
                                      "SELECT 1 FROM tbl_comments WHERE blog_id=? AND post_id=? AND comment_id=?", args);
     }
 
-    private static ReaderComment getCommentFromCursor(Cursor c) {
-        if (c == null) {
-            throw new IllegalArgumentException("null comment cursor");
+    static final class CommentMapper extends CursorMapper<ReaderComment> {
+        private final int mIdxCommentId;
+        private final int mIdxBlogId;
+        private final int mIdxPostId;
+        private final int mIdxParentId;
+        private final int mIdxPublished;
+        private final int mIdxTimestamp;
+        private final int mIdxAuthorAvatar;
+        private final int mIdxAuthorName;
+        private final int mIdxAuthorUrl;
+        private final int mIdxAuthorId;
+        private final int mIdxAuthorBlogId;
+        private final int mIdxStatus;
+        private final int mIdxText;
+        private final int mIdxNumLikes;
+        private final int mIdxIsLiked;
+        private final int mIdxPageNumber;
+
+        CommentMapper(@NonNull Cursor c) {
+            super(c);
+            mIdxCommentId = requiredIndex("comment_id");
+            mIdxBlogId = requiredIndex("blog_id");
+            mIdxPostId = requiredIndex("post_id");
+            mIdxParentId = requiredIndex("parent_id");
+            mIdxPublished = requiredIndex("published");
+            mIdxTimestamp = requiredIndex("timestamp");
+            mIdxAuthorAvatar = requiredIndex("author_avatar");
+            mIdxAuthorName = requiredIndex("author_name");
+            mIdxAuthorUrl = requiredIndex("author_url");
+            mIdxAuthorId = requiredIndex("author_id");
+            mIdxAuthorBlogId = requiredIndex("author_blog_id");
+            mIdxStatus = requiredIndex("status");
+            mIdxText = requiredIndex("text");
+            mIdxNumLikes = requiredIndex("num_likes");
+            mIdxIsLiked = requiredIndex("is_liked");
+            mIdxPageNumber = requiredIndex("page_number");
         }
 
-        ReaderComment comment = new ReaderComment();
+        @Override
+        ReaderComment map() {
+            ReaderComment comment = new ReaderComment();
 
-        comment.commentId = c.getLong(c.getColumnIndex("comment_id"));
-        comment.blogId = c.getLong(c.getColumnIndex("blog_id"));
-        comment.postId = c.getLong(c.getColumnIndex("post_id"));
-        comment.parentId = c.getLong(c.getColumnIndex("parent_id"));
+            comment.commentId = getLong(mIdxCommentId);
+            comment.blogId = getLong(mIdxBlogId);
+            comment.postId = getLong(mIdxPostId);
+            comment.parentId = getLong(mIdxParentId);
 
-        comment.setPublished(c.getString(c.getColumnIndex("published")));
-        comment.timestamp = c.getLong(c.getColumnIndex("timestamp"));
+            comment.setPublished(getString(mIdxPublished));
+            comment.timestamp = getLong(mIdxTimestamp);
 
-        comment.setAuthorAvatar(c.getString(c.getColumnIndex("author_avatar")));
-        comment.setAuthorName(c.getString(c.getColumnIndex("author_name")));
-        comment.setAuthorUrl(c.getString(c.getColumnIndex("author_url")));
-        comment.authorId = c.getLong(c.getColumnIndex("author_id"));
-        comment.authorBlogId = c.getLong(c.getColumnIndex("author_blog_id"));
+            comment.setAuthorAvatar(getString(mIdxAuthorAvatar));
+            comment.setAuthorName(getString(mIdxAuthorName));
+            comment.setAuthorUrl(getString(mIdxAuthorUrl));
+            comment.authorId = getLong(mIdxAuthorId);
+            comment.authorBlogId = getLong(mIdxAuthorBlogId);
 
-        comment.setStatus(c.getString(c.getColumnIndex("status")));
-        comment.setText(c.getString(c.getColumnIndex("text")));
+            comment.setStatus(getString(mIdxStatus));
+            comment.setText(getString(mIdxText));
 
-        comment.numLikes = c.getInt(c.getColumnIndex("num_likes"));
-        comment.isLikedByCurrentUser = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_liked")));
-        comment.pageNumber = c.getInt(c.getColumnIndex("page_number"));
+            comment.numLikes = getInt(mIdxNumLikes);
+            comment.isLikedByCurrentUser = getBoolean(mIdxIsLiked);
+            comment.pageNumber = getInt(mIdxPageNumber);
 
-        return comment;
+            return comment;
+        }
     }
 }
@@ -4,12 +4,16 @@ import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
 import org.greenrobot.eventbus.EventBus;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderPostList;
 import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.ReaderTagList;
 import org.wordpress.android.models.ReaderTagType;
+import org.wordpress.android.ui.reader.ReaderRenderedHtmlCache;
 import org.wordpress.android.ui.reader.repository.ReaderRepositoryEvent.ReaderPostTableActionEnded;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.util.AppLog;
@@ -29,7 +33,7 @@ import java.util.Locale;
  */
 public class ReaderDatabase extends SQLiteOpenHelper {
     protected static final String DB_NAME = "wpreader.db";
-    private static final int DB_VERSION = 151;
+    private static final int DB_VERSION = 155;
     private static final int DB_LAST_VERSION_WITHOUT_MIGRATION_SCRIPT = 136; // do not change this value
 
     /*
@@ -114,6 +118,10 @@ public class ReaderDatabase extends SQLiteOpenHelper {
      * 149 - added tbl_posts.is_seen_supported that will be false for posts created before 2020-07-13
      * 150 - added tbl_posts.author_blog_id and tbl_posts.author_blog_url
      * 151 - removed existing followed-sites, blog posts from tbl_posts to fix duplicate posts issue
+     * 152 - normalized post storage, tbl_posts now stores each post once and tbl_post_tags stores stream membership
+     * 153 - tbl_discover_cards stores one row per card instead of one json blob per page
+     * 154 - added tbl_posts.images_json
+     * 155 - added tbl_post_tags.railcar_json so each stream keeps its own railcar
      */
 
     /*
@@ -136,6 +144,16 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         return mReaderDb;
     }
 
+    /*
+     * replaces the database singleton, so tests can use a database created with their own context
+     */
+    @VisibleForTesting
+    public static void setDatabase(@Nullable ReaderDatabase db) {
+        synchronized (DB_LOCK) {
+            mReaderDb = db;
+        }
+    }
+
     public static SQLiteDatabase getReadableDb() {
         return getDatabase().getReadableDatabase();
     }
@@ -159,6 +177,9 @@ public class ReaderDatabase extends SQLiteOpenHelper {
         // object hasn't been created yet
         SQLiteDatabase db = getWritableDb();
 
+        // the rendered html may contain private content, so it shouldn't outlive the posts
+        ReaderRenderedHtmlCache.getInstance().clear();
+
         if (retainBookmarkedPosts && ReaderPostTable.hasBookmarkedPosts()) {
             ReaderTagList tags = ReaderTagTable.getBookmarkTags();
             if (!tags.isEmpty()) {
@@ -257,6 +278,27 @@ public class ReaderDatabase extends SQLiteOpenHelper {
                         }
                 );
                 currentVersion++;
+            case 151:
+                ReaderPostTable.migrateToPostTagsTable(db);
+                currentVersion++;
+            case 152:
+                // the cards are only a cache of the last fetched pages, so recreate the table and make sure
+                // the Discover feed is fetched again
+                ReaderDiscoverCardsTable.INSTANCE.dropTables(db);
+                ReaderDiscoverCardsTable.INSTANCE.createTable(db);
+                db.execSQL("UPDATE tbl_tags SET date_updated=? WHERE tag_slug='' AND tag_type=?",
+                        new String[]{
+                                DateTimeUtils.iso8601FromDate(new Date(0)),
+                                Integer.toString(ReaderTagType.DISCOVER_POST_CARDS.toInt())
+                        }
+                );
+                currentVersion++;
+            case 153:
+                ReaderPostTable.addImagesJsonColumn(db);
+                currentVersion++;
+            case 154:
+                ReaderPostTable.addPostTagsRailcarColumn(db);
+                currentVersion++;
         }
         if (currentVersion != newVersion) {
             throw new RuntimeException(
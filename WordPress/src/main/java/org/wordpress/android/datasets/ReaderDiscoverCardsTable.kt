@@ -1,29 +1,59 @@
 package org.wordpress.android.datasets
 
-import android.content.ContentValues
 import android.database.sqlite.SQLiteDatabase
 import org.wordpress.android.util.AppLog
 import org.wordpress.android.util.SqlUtils
 
+/**
+ * A single Discover card as stored in tbl_discover_cards. Post cards reference their post by blogId/postId, the
+ * remaining card types keep their (simplified) json in cardJson. The id reflects the position of the card in the
+ * feed, so cards of a newly loaded page always have higher ids than the ones loaded before.
+ */
+data class ReaderDiscoverCardRecord(
+    val type: String,
+    val blogId: Long = 0,
+    val postId: Long = 0,
+    val cardJson: String? = null,
+    val id: Long = 0
+)
+
 object ReaderDiscoverCardsTable {
     private const val DISCOVER_CARDS_TABLE = "tbl_discover_cards"
-    private const val CARDS_JSON_COLUMN = "cards_json"
+    private const val ID_COLUMN = "_id"
+    private const val CARD_TYPE_COLUMN = "card_type"
+    private const val BLOG_ID_COLUMN = "blog_id"
+    private const val POST_ID_COLUMN = "post_id"
+    private const val CARD_JSON_COLUMN = "card_json"
+
+    /**
+     * Incremented whenever the stored cards are cleared or the table is dropped, so the cards which were loaded
+     * into memory before can tell they no longer reflect the table.
+     */
+    @Volatile
+    var generation = 0L
+        private set
+
     fun createTable(db: SQLiteDatabase) {
         db.execSQL(
                 "CREATE TABLE IF NOT EXISTS $DISCOVER_CARDS_TABLE (" +
-                        "  _id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                        " $CARDS_JSON_COLUMN TEXT" +
+                        " $ID_COLUMN INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        " $CARD_TYPE_COLUMN TEXT NOT NULL," +
+                        " $BLOG_ID_COLUMN INTEGER DEFAULT 0," +
+                        " $POST_ID_COLUMN INTEGER DEFAULT 0," +
+                        " $CARD_JSON_COLUMN TEXT" +
                         ")"
         )
     }
 
     fun dropTables(db: SQLiteDatabase) {
-        db.execSQL("DROP TABLE IF EXISTS tbl_discover_cards")
+        db.execSQL("DROP TABLE IF EXISTS $DISCOVER_CARDS_TABLE")
+        generation++
     }
 
     fun clear() {
         AppLog.i(AppLog.T.READER, "clearing ReaderDiscoverCardsTable")
         getWritableDb().delete(DISCOVER_CARDS_TABLE, null, null)
+        generation++
     }
 
     private fun getReadableDb(): SQLiteDatabase {
@@ -34,27 +64,71 @@ object ReaderDiscoverCardsTable {
         return ReaderDatabase.getWritableDb()
     }
 
-    fun addCardsPage(cardsJson: String) {
-        val values = ContentValues()
-        values.put(CARDS_JSON_COLUMN, cardsJson)
-
-        getWritableDb().insert(DISCOVER_CARDS_TABLE, null, values)
+    /*
+     * appends the cards of a single page to the end of the stored feed
+     */
+    fun addCards(cards: List<ReaderDiscoverCardRecord>) {
+        if (cards.isEmpty()) {
+            return
+        }
+        val db = getWritableDb()
+        val stmt = db.compileStatement(
+                "INSERT INTO $DISCOVER_CARDS_TABLE" +
+                        " ($CARD_TYPE_COLUMN, $BLOG_ID_COLUMN, $POST_ID_COLUMN, $CARD_JSON_COLUMN)" +
+                        " VALUES (?1,?2,?3,?4)"
+        )
+        db.beginTransaction()
+        try {
+            cards.forEach { card ->
+                stmt.bindString(1, card.type)
+                stmt.bindLong(2, card.blogId)
+                stmt.bindLong(3, card.postId)
+                if (card.cardJson != null) {
+                    stmt.bindString(4, card.cardJson)
+                } else {
+                    stmt.bindNull(4)
+                }
+                stmt.execute()
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+            SqlUtils.closeStatement(stmt)
+        }
     }
 
-    fun loadDiscoverCardsJsons(): List<String> {
-        val c = getReadableDb()
-                .rawQuery("SELECT * FROM $DISCOVER_CARDS_TABLE ORDER BY _id ASC", null)
-        val cardJsonList = arrayListOf<String>()
+    /*
+     * returns the stored cards in feed order, pass the id of the last card already loaded to only
+     * return the cards which were added after it
+     */
+    fun loadDiscoverCards(afterId: Long = 0): List<ReaderDiscoverCardRecord> {
+        val c = getReadableDb().rawQuery(
+                "SELECT * FROM $DISCOVER_CARDS_TABLE WHERE $ID_COLUMN > ? ORDER BY $ID_COLUMN ASC",
+                arrayOf(afterId.toString())
+        )
+        val cards = arrayListOf<ReaderDiscoverCardRecord>()
         try {
             if (c.moveToFirst()) {
+                val idxId = c.getColumnIndexOrThrow(ID_COLUMN)
+                val idxType = c.getColumnIndexOrThrow(CARD_TYPE_COLUMN)
+                val idxBlogId = c.getColumnIndexOrThrow(BLOG_ID_COLUMN)
+                val idxPostId = c.getColumnIndexOrThrow(POST_ID_COLUMN)
+                val idxJson = c.getColumnIndexOrThrow(CARD_JSON_COLUMN)
                 do {
-                    val cardJson = c.getString(c.getColumnIndex(CARDS_JSON_COLUMN))
-                    cardJsonList.add(cardJson)
+                    cards.add(
+                            ReaderDiscoverCardRecord(
+                                    type = c.getString(idxType),
+                                    blogId = c.getLong(idxBlogId),
+                                    postId = c.getLong(idxPostId),
+                                    cardJson = c.getString(idxJson),
+                                    id = c.getLong(idxId)
+                            )
+                    )
                 } while (c.moveToNext())
             }
         } finally {
             SqlUtils.closeCursor(c)
         }
-        return cardJsonList
+        return cards
     }
 }
@@ -5,5 +5,6 @@ import javax.inject.Inject
 
 @Reusable
 class ReaderDiscoverCardsTableWrapper @Inject constructor() {
-    fun loadDiscoverCardsJsons() = ReaderDiscoverCardsTable.loadDiscoverCardsJsons()
+    fun loadDiscoverCards(afterId: Long = 0) = ReaderDiscoverCardsTable.loadDiscoverCards(afterId)
+    fun getGeneration() = ReaderDiscoverCardsTable.generation
 }
@@ -13,6 +13,8 @@ import androidx.annotation.Nullable;
 import org.greenrobot.eventbus.EventBus;
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
+import org.wordpress.android.models.ReaderBlog;
+import org.wordpress.android.models.ReaderBlogList;
 import org.wordpress.android.models.ReaderCardType;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostList;
@@ -20,27 +22,41 @@ import org.wordpress.android.models.ReaderTag;
 import org.wordpress.android.models.ReaderTagList;
 import org.wordpress.android.models.ReaderTagType;
 import org.wordpress.android.ui.reader.ReaderConstants;
+import org.wordpress.android.ui.reader.ReaderRenderedHtmlCache;
 import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList;
 import org.wordpress.android.ui.reader.repository.ReaderRepositoryEvent.ReaderPostTableActionEnded;
+import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.SqlUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
- * tbl_posts contains all reader posts - the primary key is pseudo_id + tag_name + tag_type,
- * which allows the same post to appear in multiple streams (ex: it can exist in followed
- * sites, liked posts, and tag streams). note that posts in a specific blog or feed are
- * stored here with an empty tag_name.
+ * tbl_posts contains a single copy of each reader post keyed by blog_id + post_id (external feed
+ * posts use their feed_id/feed_item_id here, as returned by the server). tbl_post_tags records
+ * which streams each post belongs to - the primary key is blog_id + post_id + tag_name + tag_type,
+ * which allows the same post to appear in multiple streams (ex: it can exist in followed sites,
+ * liked posts, and tag streams) without duplicating its content. note that posts in a specific
+ * blog or feed are stored in tbl_post_tags with an empty tag_name.
+ *
+ * the railcar (analytics payload) of a post depends on the stream it was returned for, so each
+ * stream's railcar is stored in tbl_post_tags. tbl_posts keeps the railcar the post was last saved
+ * with, which is only used when a post is read without a stream.
  */
 public class ReaderPostTable {
-    private static final String COLUMN_NAMES =
+    // columns which tbl_posts had before images_json was added - used when migrating older tables
+    private static final String COLUMN_NAMES_V152 =
             "post_id," // 1
             + "blog_id," // 2
             + "feed_id," // 3
@@ -61,44 +77,56 @@ public class ReaderPostTable {
             + "featured_image," // 18
             + "featured_video," // 19
             + "post_avatar," // 20
-            + "score," // 21
-            + "date_published," // 22
-            + "date_liked," // 23
-            + "date_tagged," // 24
-            + "num_replies," // 25
-            + "num_likes," // 26
-            + "is_liked," // 27
-            + "is_followed," // 28
-            + "is_comments_open," // 29
-            + "is_external," // 30
-            + "is_private," // 31
-            + "is_videopress," // 32
-            + "is_jetpack," // 33
-            + "primary_tag," // 34
-            + "secondary_tag," // 35
-            + "attachments_json," // 36
-            + "discover_json," // 37
-            + "xpost_post_id," // 38
-            + "xpost_blog_id," // 39
-            + "railcar_json," // 40
-            + "tag_name," // 41
-            + "tag_type," // 42
-            + "has_gap_marker," // 43
-            + "card_type," // 44
-            + "use_excerpt," // 45
-            + "is_bookmarked," // 46
-            + "is_private_atomic," // 47
-            + "tags," // 48
-            + "organization_id," // 49
-            + "is_seen," // 50
-            + "is_seen_supported," // 51
-            + "author_blog_id," // 52
-            + "author_blog_url"; // 53
-
-    // used when querying multiple rows and skipping text column
+            + "date_published," // 21
+            + "date_liked," // 22
+            + "num_replies," // 23
+            + "num_likes," // 24
+            + "is_liked," // 25
+            + "is_followed," // 26
+            + "is_comments_open," // 27
+            + "is_external," // 28
+            + "is_private," // 29
+            + "is_videopress," // 30
+            + "is_jetpack," // 31
+            + "primary_tag," // 32
+            + "secondary_tag," // 33
+            + "attachments_json," // 34
+            + "discover_json," // 35
+            + "xpost_post_id," // 36
+            + "xpost_blog_id," // 37
+            + "railcar_json," // 38
+            + "card_type," // 39
+            + "use_excerpt," // 40
+            + "is_bookmarked," // 41
+            + "is_private_atomic," // 42
+            + "tags," // 43
+            + "organization_id," // 44
+            + "is_seen," // 45
+            + "is_seen_supported," // 46
+            + "author_blog_id," // 47
+            + "author_blog_url"; // 48
+
+    private static final String COLUMN_NAMES =
+            COLUMN_NAMES_V152 + ","
+            + "images_json"; // 49
+
+    private static final String POST_TAG_COLUMN_NAMES =
+            "blog_id," // 1
+            + "post_id," // 2
+            + "tag_name," // 3
+            + "tag_type," // 4
+            + "date_published," // 5
+            + "date_liked," // 6
+            + "date_tagged," // 7
+            + "score," // 8
+            + "has_gap_marker," // 9
+            + "railcar_json"; // 10
+
+    // used when querying multiple rows and skipping text column - columns which exist in both
+    // tbl_posts (p) and tbl_post_tags (t) are qualified so this can be used in joins
     private static final String COLUMN_NAMES_NO_TEXT =
-            "post_id," // 1
-            + "blog_id," // 2
+            "p.post_id," // 1
+            + "p.blog_id," // 2
             + "feed_id," // 3
             + "feed_item_id," // 4
             + "author_id," // 5
@@ -116,42 +144,62 @@ public class ReaderPostTable {
             + "url," // 17
             + "short_url," // 18
             + "post_avatar," // 19
-            + "score," // 20
-            + "date_published," // 21
-            + "date_liked," // 22
-            + "date_tagged," // 23
-            + "num_replies," // 24
-            + "num_likes," // 25
-            + "is_liked," // 26
-            + "is_followed," // 27
-            + "is_comments_open," // 28
-            + "is_external," // 29
-            + "is_private," // 30
-            + "is_videopress," // 31
-            + "is_jetpack," // 32
-            + "primary_tag," // 33
-            + "secondary_tag," // 34
-            + "attachments_json," // 35
-            + "discover_json," // 36
-            + "xpost_post_id," // 37
-            + "xpost_blog_id," // 38
-            + "railcar_json," // 39
-            + "tag_name," // 40
-            + "tag_type," // 41
-            + "has_gap_marker," // 42
-            + "card_type," // 43
-            + "use_excerpt," // 44
-            + "is_bookmarked," // 45
-            + "is_private_atomic," // 46
-            + "tags," // 47
-            + "organization_id," // 48
-            + "is_seen," // 49
-            + "is_seen_supported," // 50
-            + "author_blog_id," // 51
-            + "author_blog_url"; // 52
+            + "p.date_published," // 20
+            + "p.date_liked," // 21
+            + "num_replies," // 22
+            + "num_likes," // 23
+            + "is_liked," // 24
+            + "is_followed," // 25
+            + "is_comments_open," // 26
+            + "is_external," // 27
+            + "is_private," // 28
+            + "is_videopress," // 29
+            + "is_jetpack," // 30
+            + "primary_tag," // 31
+            + "secondary_tag," // 32
+            + "attachments_json," // 33
+            + "discover_json," // 34
+            + "xpost_post_id," // 35
+            + "xpost_blog_id," // 36
+            + "p.railcar_json," // 37
+            + "card_type," // 38
+            + "use_excerpt," // 39
+            + "is_bookmarked," // 40
+            + "is_private_atomic," // 41
+            + "tags," // 42
+            + "organization_id," // 43
+            + "is_seen," // 44
+            + "is_seen_supported," // 45
+            + "author_blog_id," // 46
+            + "author_blog_url," // 47
+            + "images_json"; // 48
+
+    // stream-specific columns returned along with the post columns when querying a stream - the stream's
+    // dates are aliased since tbl_posts has columns with the same names, which other streams may overwrite
+    private static final String COLUMN_NAMES_STREAM =
+            "t.tag_name,"
+            + "t.tag_type,"
+            + "t.date_tagged,"
+            + "t.score,"
+            + "t.has_gap_marker,"
+            + "t.date_published AS stream_date_published,"
+            + "t.date_liked AS stream_date_liked,"
+            + "t.railcar_json AS stream_railcar_json";
+
+    // blog and feed streams are always sorted by the date the post was published
+    private static final String BLOG_SORT_COLUMN = "date_published";
+
+    private static final String FROM_STREAM =
+            " FROM tbl_post_tags t INNER JOIN tbl_posts p ON p.blog_id=t.blog_id AND p.post_id=t.post_id";
 
     protected static void createTables(SQLiteDatabase db) {
-        db.execSQL("CREATE TABLE tbl_posts ("
+        createPostsTable(db, "tbl_posts");
+        createPostTagsTable(db);
+        createIndexes(db);
+    }
+
+    private static void createPostsTable(SQLiteDatabase db, String tableName) {
+        db.execSQL("CREATE TABLE " + tableName + " ("
                    + " post_id INTEGER DEFAULT 0,"
                    + " blog_id INTEGER DEFAULT 0,"
                    + " feed_id INTEGER DEFAULT 0,"
@@ -172,10 +220,8 @@ public class ReaderPostTable {
                    + " featured_image TEXT,"
                    + " featured_video TEXT,"
                    + " post_avatar TEXT,"
-                   + " score REAL DEFAULT 0,"
                    + " date_published TEXT,"
                    + " date_liked TEXT,"
-                   + " date_tagged TEXT,"
                    + " num_replies INTEGER DEFAULT 0,"
                    + " num_likes INTEGER DEFAULT 0,"
                    + " is_liked INTEGER DEFAULT 0,"
@@ -192,9 +238,6 @@ public class ReaderPostTable {
                    + " xpost_post_id INTEGER DEFAULT 0,"
                    + " xpost_blog_id INTEGER DEFAULT 0,"
                    + " railcar_json TEXT,"
-                   + " tag_name TEXT NOT NULL COLLATE NOCASE,"
-                   + " tag_type INTEGER DEFAULT 0,"
-                   + " has_gap_marker INTEGER DEFAULT 0,"
                    + " card_type TEXT,"
                    + " use_excerpt INTEGER DEFAULT 0,"
                    + " is_bookmarked INTEGER DEFAULT 0,"
@@ -205,17 +248,134 @@ public class ReaderPostTable {
                    + " is_seen_supported INTEGER DEFAULT 0,"
                    + " author_blog_id INTEGER DEFAULT 0,"
                    + " author_blog_url TEXT,"
-                   + " PRIMARY KEY (pseudo_id, tag_name, tag_type)"
+                   + " images_json TEXT,"
+                   + " PRIMARY KEY (blog_id, post_id)"
                    + ")");
+    }
+
+    private static void createPostTagsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE tbl_post_tags ("
+                   + " blog_id INTEGER DEFAULT 0,"
+                   + " post_id INTEGER DEFAULT 0,"
+                   + " tag_name TEXT NOT NULL COLLATE NOCASE,"
+                   + " tag_type INTEGER DEFAULT 0,"
+                   + " date_published TEXT,"
+                   + " date_liked TEXT,"
+                   + " date_tagged TEXT,"
+                   + " score REAL DEFAULT 0,"
+                   + " has_gap_marker INTEGER DEFAULT 0,"
+                   + " railcar_json TEXT,"
+                   + " PRIMARY KEY (blog_id, post_id, tag_name, tag_type)"
+                   + ")");
+    }
 
-        db.execSQL("CREATE INDEX idx_posts_post_id_blog_id ON tbl_posts(post_id, blog_id)");
-        db.execSQL("CREATE INDEX idx_posts_date_published ON tbl_posts(date_published)");
-        db.execSQL("CREATE INDEX idx_posts_date_tagged ON tbl_posts(date_tagged)");
-        db.execSQL("CREATE INDEX idx_posts_tag_name ON tbl_posts(tag_name)");
+    private static void createIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX idx_posts_pseudo_id ON tbl_posts(pseudo_id)");
+        db.execSQL("CREATE INDEX idx_posts_feed_id ON tbl_posts(feed_id, feed_item_id)");
+        db.execSQL("CREATE INDEX idx_post_tags_tag_name ON tbl_post_tags(tag_name, tag_type)");
+        db.execSQL("CREATE INDEX idx_post_tags_date_published ON tbl_post_tags(tag_name, tag_type, date_published)");
+        db.execSQL("CREATE INDEX idx_post_tags_date_tagged ON tbl_post_tags(tag_name, tag_type, date_tagged)");
     }
 
     protected static void dropTables(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS tbl_posts");
+        db.execSQL("DROP TABLE IF EXISTS tbl_post_tags");
+    }
+
+    /*
+     * migrates the denormalized tbl_posts (one full row per post per stream) to tbl_posts + tbl_post_tags.
+     * when a post exists in multiple streams the most recently inserted row wins, but its bookmark flag
+     * is kept if any of its rows were bookmarked
+     */
+    protected static void migrateToPostTagsTable(SQLiteDatabase db) {
+        createPostsTable(db, "tbl_posts_new");
+        createPostTagsTable(db);
+
+        db.execSQL("INSERT OR REPLACE INTO tbl_posts_new (" + COLUMN_NAMES_V152 + ")"
+                   + " SELECT " + COLUMN_NAMES_V152 + " FROM tbl_posts ORDER BY rowid");
+        db.execSQL("UPDATE tbl_posts_new SET is_bookmarked=1 WHERE EXISTS (SELECT 1 FROM tbl_posts o"
+                   + " WHERE o.blog_id=tbl_posts_new.blog_id AND o.post_id=tbl_posts_new.post_id"
+                   + " AND o.is_bookmarked != 0)");
+        db.execSQL("INSERT OR REPLACE INTO tbl_post_tags (" + POST_TAG_COLUMN_NAMES + ")"
+                   + " SELECT " + POST_TAG_COLUMN_NAMES + " FROM tbl_posts");
+
+        db.execSQL("DROP TABLE tbl_posts");
+        db.execSQL("ALTER TABLE tbl_posts_new RENAME TO tbl_posts");
+        createIndexes(db);
+    }
+
+    /*
+     * adds tbl_posts.images_json - the column already exists when tbl_posts was rebuilt by
+     * migrateToPostTagsTable() earlier in the same upgrade. existing posts are indexed here
+     * since lists load posts without their text and couldn't scan them later
+     */
+    protected static void addImagesJsonColumn(SQLiteDatabase db) {
+        boolean hasColumn;
+        Cursor c = db.rawQuery("SELECT * FROM tbl_posts LIMIT 0", null);
+        try {
+            hasColumn = c.getColumnIndex("images_json") != -1;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+        if (!hasColumn) {
+            db.execSQL("ALTER TABLE tbl_posts ADD images_json TEXT;");
+        }
+        indexImagesOfStoredPosts(db);
+    }
+
+    /*
+     * adds tbl_post_tags.railcar_json - the column already exists when tbl_post_tags was created by
+     * migrateToPostTagsTable() earlier in the same upgrade. existing streams are given the railcar
+     * their posts were last saved with, since the railcar of each stream wasn't kept
+     */
+    protected static void addPostTagsRailcarColumn(SQLiteDatabase db) {
+        boolean hasColumn;
+        Cursor c = db.rawQuery("SELECT * FROM tbl_post_tags LIMIT 0", null);
+        try {
+            hasColumn = c.getColumnIndex("railcar_json") != -1;
+        } finally {
+            SqlUtils.closeCursor(c);
+        }
+        if (hasColumn) {
+            return;
+        }
+        db.execSQL("ALTER TABLE tbl_post_tags ADD railcar_json TEXT;");
+        db.execSQL("UPDATE tbl_post_tags SET railcar_json=(SELECT p.railcar_json FROM tbl_posts p"
+                   + " WHERE p.blog_id=tbl_post_tags.blog_id AND p.post_id=tbl_post_tags.post_id)");
+    }
+
+    private static final int IMAGE_INDEX_BATCH_SIZE = 25;
+
+    /*
+     * stores the image index of posts saved before images were indexed - posts are read a few
+     * at a time since their text may be too large to fit many of them in a single cursor window
+     */
+    private static void indexImagesOfStoredPosts(SQLiteDatabase db) {
+        SQLiteStatement stmt = db.compileStatement("UPDATE tbl_posts SET images_json=?1 WHERE rowid=?2");
+        try {
+            long lastRowId = 0;
+            int numRows;
+            do {
+                numRows = 0;
+                Cursor c = db.rawQuery("SELECT rowid, text FROM tbl_posts"
+                                       + " WHERE rowid>? AND IFNULL(images_json, '')=''"
+                                       + " ORDER BY rowid LIMIT " + IMAGE_INDEX_BATCH_SIZE,
+                        new String[]{Long.toString(lastRowId)});
+                try {
+                    while (c.moveToNext()) {
+                        numRows++;
+                        lastRowId = c.getLong(0);
+                        stmt.bindString(1, new ReaderImageScanner(c.getString(1)).getImageIndex().toJson());
+                        stmt.bindLong(2, lastRowId);
+                        stmt.execute();
+                    }
+                } finally {
+                    SqlUtils.closeCursor(c);
+                }
+            } while (numRows == IMAGE_INDEX_BATCH_SIZE);
+        } finally {
+            SqlUtils.closeStatement(stmt);
+        }
     }
 
     protected static void reset(SQLiteDatabase db) {
@@ -229,7 +389,7 @@ public class ReaderPostTable {
      */
     protected static int purge(SQLiteDatabase db) {
         // delete posts attached to tags that no longer exist
-        int numDeleted = db.delete("tbl_posts", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null);
+        int numDeleted = db.delete("tbl_post_tags", "tag_name NOT IN (SELECT DISTINCT tag_name FROM tbl_tags)", null);
 
         // delete excess posts on a per-tag basis
         ReaderTagList tags = ReaderTagTable.getAllTags();
@@ -241,6 +401,13 @@ public class ReaderPostTable {
 
         // delete search results
         numDeleted += purgeSearchResults(db);
+
+        // delete posts which no longer belong to any stream
+        int numOrphans = purgeUnattachedPosts(db);
+        if (numOrphans > 0) {
+            AppLog.d(AppLog.T.READER,
+                    String.format(Locale.ENGLISH, "reader post table > purged %d unattached posts", numOrphans));
+        }
         return numDeleted;
     }
 
@@ -255,8 +422,10 @@ public class ReaderPostTable {
             if (tag.isBookmarked()) {
                 // delete posts which has a bookmark tag but is_bookmarked flag is false
                 String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
-                numDeleted += ReaderDatabase.getWritableDb()
-                                            .delete("tbl_posts", "tag_name=? AND tag_type=? AND is_bookmarked=0", args);
+                String where = "tag_name=? AND tag_type=? AND NOT EXISTS (SELECT 1 FROM tbl_posts p"
+                               + " WHERE p.blog_id=tbl_post_tags.blog_id AND p.post_id=tbl_post_tags.post_id"
+                               + " AND p.is_bookmarked != 0)";
+                numDeleted += ReaderDatabase.getWritableDb().delete("tbl_post_tags", where, args);
             }
         }
         if (numDeleted > 0) {
@@ -278,9 +447,9 @@ public class ReaderPostTable {
         String tagName = tag.getTagSlug();
         String tagType = Integer.toString(tag.tagType.toInt());
         String[] args = {tagName, tagType, tagName, tagType, Integer.toString(MAX_POSTS_PER_TAG)};
-        String where = "tag_name=? AND tag_type=? AND pseudo_id NOT IN (SELECT DISTINCT pseudo_id FROM tbl_posts WHERE "
+        String where = "tag_name=? AND tag_type=? AND rowid NOT IN (SELECT rowid FROM tbl_post_tags WHERE "
                        + "tag_name=? AND tag_type=? ORDER BY " + getSortColumnForTag(tag) + " DESC LIMIT ?)";
-        int numDeleted = db.delete("tbl_posts", where, args);
+        int numDeleted = db.delete("tbl_post_tags", where, args);
         AppLog.d(AppLog.T.READER,
                 String.format(Locale.ENGLISH, "reader post table > purged %d posts in tag %s", numDeleted,
                         tag.getTagNameForLog()));
@@ -292,7 +461,15 @@ public class ReaderPostTable {
      */
     private static int purgeSearchResults(SQLiteDatabase db) {
         String[] args = {Integer.toString(ReaderTagType.SEARCH.toInt())};
-        return db.delete("tbl_posts", "tag_type=?", args);
+        return db.delete("tbl_post_tags", "tag_type=?", args);
+    }
+
+    /*
+     * purge posts that aren't attached to any stream
+     */
+    private static int purgeUnattachedPosts(SQLiteDatabase db) {
+        return db.delete("tbl_posts", "NOT EXISTS (SELECT 1 FROM tbl_post_tags t"
+                                      + " WHERE t.blog_id=tbl_posts.blog_id AND t.post_id=tbl_posts.post_id)", null);
     }
 
     public static int getNumPostsInBlog(long blogId) {
@@ -300,7 +477,7 @@ public class ReaderPostTable {
             return 0;
         }
         return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(),
-                "SELECT count(*) FROM tbl_posts WHERE blog_id=? AND tag_name='' AND tag_type=0",
+                "SELECT count(*) FROM tbl_post_tags WHERE blog_id=? AND tag_name='' AND tag_type=0",
                 new String[]{Long.toString(blogId)});
     }
 
@@ -309,7 +486,7 @@ public class ReaderPostTable {
             return 0;
         }
         return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(),
-                "SELECT count(*) FROM tbl_posts WHERE feed_id=? AND tag_name='' AND tag_type=0",
+                "SELECT count(*)" + FROM_STREAM + " WHERE p.feed_id=? AND t.tag_name='' AND t.tag_type=0",
                 new String[]{Long.toString(feedId)});
     }
 
@@ -319,26 +496,13 @@ public class ReaderPostTable {
         }
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
         return SqlUtils.intForQuery(ReaderDatabase.getReadableDb(),
-                "SELECT count(*) FROM tbl_posts WHERE tag_name=? AND tag_type=?",
+                "SELECT count(*) FROM tbl_post_tags WHERE tag_name=? AND tag_type=?",
                 args);
     }
 
     public static void updatePost(@NonNull ReaderPost post) {
-        // we need to update a few important fields across all instances of this post - this is
-        // necessary because a post can exist multiple times in the table with different tags
-        ContentValues values = new ContentValues();
-        values.put("title", post.getTitle());
-        values.put("text", post.getText());
-        values.put("excerpt", post.getExcerpt());
-        values.put("num_replies", post.numReplies);
-        values.put("num_likes", post.numLikes);
-        values.put("is_liked", post.isLikedByCurrentUser);
-        values.put("is_followed", post.isFollowedByCurrentUser);
-        values.put("is_comments_open", post.isCommentsOpen);
-        values.put("use_excerpt", post.useExcerpt);
-        ReaderDatabase.getWritableDb().update(
-                "tbl_posts", values, "pseudo_id=?", new String[]{post.getPseudoId()});
-
+        // posts are stored once regardless of how many streams they appear in, so replacing
+        // the post row updates it everywhere
         ReaderPostList posts = new ReaderPostList();
         posts.add(post);
         addOrUpdatePosts(null, posts);
@@ -370,20 +534,84 @@ public class ReaderPostTable {
 
     @Nullable
     private static ReaderPost getPost(String where, String[] args, boolean excludeTextColumn) {
-        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
-        String sql = "SELECT " + columns + " FROM tbl_posts WHERE " + where + " LIMIT 1";
+        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "p.*");
+        String sql = "SELECT " + columns + " FROM tbl_posts p WHERE " + where + " LIMIT 1";
 
         Cursor c = ReaderDatabase.getReadableDb().rawQuery(sql, args);
         try {
             if (!c.moveToFirst()) {
                 return null;
             }
-            return getPostFromCursor(c);
+            return new PostMapper(c).map();
         } finally {
             SqlUtils.closeCursor(c);
         }
     }
 
+    /*
+     * returns the posts matching the passed blogId/postId pairs - posts are loaded in batches rather than
+     * one query per post, and posts which don't exist locally are skipped. note that the order of the
+     * returned list doesn't necessarily match the order of the passed ids
+     */
+    @NonNull
+    public static ReaderPostList getBlogPosts(@NonNull ReaderBlogIdPostIdList ids, boolean excludeTextColumn) {
+        return getBlogPosts(ids, null, excludeTextColumn);
+    }
+
+    /*
+     * same as above, but the posts have the railcar of the passed stream when they're stored in it
+     */
+    @NonNull
+    public static ReaderPostList getBlogPosts(@NonNull ReaderBlogIdPostIdList ids,
+                                              @Nullable ReaderTag tag,
+                                              boolean excludeTextColumn) {
+        ReaderPostList posts = new ReaderPostList();
+        if (ids.isEmpty()) {
+            return posts;
+        }
+
+        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "p.*");
+        String from = " FROM tbl_posts p";
+        String[] args = null;
+        if (tag != null) {
+            columns += ",t.railcar_json AS stream_railcar_json";
+            from += " LEFT JOIN tbl_post_tags t ON t.blog_id=p.blog_id AND t.post_id=p.post_id"
+                    + " AND t.tag_name=? AND t.tag_type=?";
+            args = new String[]{tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
+        }
+        Set<ReaderBlogIdPostId> requestedIds = new HashSet<>(ids);
+        List<ReaderBlogIdPostId> idList = new ArrayList<>(requestedIds);
+        for (int start = 0; start < idList.size(); start += MAX_IDS_PER_QUERY) {
+            int end = Math.min(start + MAX_IDS_PER_QUERY, idList.size());
+            List<ReaderBlogIdPostId> batch = idList.subList(start, end);
+            Set<Long> blogIds = new HashSet<>();
+            Set<Long> postIds = new HashSet<>();
+            for (ReaderBlogIdPostId id : batch) {
+                blogIds.add(id.getBlogId());
+                postIds.add(id.getPostId());
+            }
+
+            // the IN clauses may match a few extra blog/post combinations, which are filtered out below
+            String sql = "SELECT " + columns + from
+                         + " WHERE p.blog_id IN (" + TextUtils.join(",", blogIds) + ")"
+                         + " AND p.post_id IN (" + TextUtils.join(",", postIds) + ")";
+            Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args);
+            try {
+                for (ReaderPost post : getPostListFromCursor(cursor)) {
+                    if (requestedIds.contains(new ReaderBlogIdPostId(post.blogId, post.postId))) {
+                        posts.add(post);
+                    }
+                }
+            } finally {
+                SqlUtils.closeCursor(cursor);
+            }
+        }
+        return posts;
+    }
+
+    // keeps batched queries well below SQLite's statement length limit
+    private static final int MAX_IDS_PER_QUERY = 200;
+
     public static String getPostTitle(long blogId, long postId) {
         String[] args = {Long.toString(blogId), Long.toString(postId)};
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(),
@@ -416,7 +644,7 @@ public class ReaderPostTable {
         String[] args = {Long.toString(blogId), Long.toString(postId), readerTag.getTagSlug(),
                 Integer.toString(readerTag.tagType.toInt())};
         return SqlUtils.boolForQuery(ReaderDatabase.getReadableDb(),
-                "SELECT 1 FROM tbl_posts WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?",
+                "SELECT 1 FROM tbl_post_tags WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?",
                 args);
     }
 
@@ -583,7 +811,7 @@ public class ReaderPostTable {
 
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
         int rowsDeleted = ReaderDatabase.getWritableDb().delete(
-                "tbl_posts",
+                "tbl_post_tags",
                 "tag_name=? AND tag_type=?",
                 args);
 
@@ -600,7 +828,7 @@ public class ReaderPostTable {
 
         String[] args = {Integer.toString(tagType.toInt()), Long.toString(blogId), Long.toString(postId)};
         int rowsDeleted = ReaderDatabase.getWritableDb().delete(
-                "tbl_posts",
+                "tbl_post_tags",
                 "tag_type=? AND blog_id=? AND post_id=?",
                 args);
 
@@ -612,7 +840,16 @@ public class ReaderPostTable {
 
     public static int deletePostsInBlog(long blogId) {
         String[] args = {Long.toString(blogId)};
-        int rowsDeleted = ReaderDatabase.getWritableDb().delete("tbl_posts", "blog_id = ?", args);
+        SQLiteDatabase db = ReaderDatabase.getWritableDb();
+        int rowsDeleted;
+        db.beginTransaction();
+        try {
+            rowsDeleted = db.delete("tbl_post_tags", "blog_id = ?", args);
+            db.delete("tbl_posts", "blog_id = ?", args);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
         if (rowsDeleted > 0) {
             EventBus.getDefault().post(ReaderPostTableActionEnded.INSTANCE);
         }
@@ -621,24 +858,57 @@ public class ReaderPostTable {
 
     public static void deletePost(long blogId, long postId) {
         String[] args = new String[]{Long.toString(blogId), Long.toString(postId)};
-        ReaderDatabase.getWritableDb().delete("tbl_posts", "blog_id=? AND post_id=?", args);
+        SQLiteDatabase db = ReaderDatabase.getWritableDb();
+        db.beginTransaction();
+        try {
+            db.delete("tbl_post_tags", "blog_id=? AND post_id=?", args);
+            db.delete("tbl_posts", "blog_id=? AND post_id=?", args);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        ReaderRenderedHtmlCache.getInstance().invalidatePost(blogId, postId);
         EventBus.getDefault().post(ReaderPostTableActionEnded.INSTANCE);
     }
 
     /*
-     * ensure that posts in blogs that are no longer followed don't have their followed status
-     * set to true
+     * sets the follow status of the posts in the passed blogs, used when followed blogs are synced
+     * so only the posts of blogs which were followed or unfollowed are updated
      */
-    public static void updateFollowedStatus() {
+    public static void setFollowStatusForPostsInBlogs(@NonNull ReaderBlogList blogs, boolean isFollowed) {
+        if (blogs.isEmpty()) {
+            return;
+        }
+
+        // feeds are stored with their feedId as blogId, while their posts are matched by feed_id
+        StringBuilder blogIds = new StringBuilder();
+        StringBuilder feedIds = new StringBuilder();
+        for (ReaderBlog blog : blogs) {
+            boolean isFeed = blog.feedId != 0 && blog.blogId == blog.feedId;
+            StringBuilder ids = isFeed ? feedIds : blogIds;
+            if (ids.length() > 0) {
+                ids.append(",");
+            }
+            ids.append(isFeed ? blog.feedId : blog.blogId);
+        }
+
+        String where;
+        if (blogIds.length() > 0 && feedIds.length() > 0) {
+            where = "(blog_id IN (" + blogIds + ") OR feed_id IN (" + feedIds + "))";
+        } else if (blogIds.length() > 0) {
+            where = "blog_id IN (" + blogIds + ")";
+        } else {
+            where = "feed_id IN (" + feedIds + ")";
+        }
+
+        int followed = SqlUtils.boolToSql(isFollowed);
         SQLiteStatement statement = ReaderDatabase.getWritableDb().compileStatement(
-                "UPDATE tbl_posts SET is_followed = 0"
-                + " WHERE is_followed != 0"
-                + " AND blog_id NOT IN (SELECT DISTINCT blog_id FROM tbl_blog_info WHERE is_followed != 0)");
+                "UPDATE tbl_posts SET is_followed=" + followed + " WHERE is_followed!=" + followed + " AND " + where);
         try {
             int count = statement.executeUpdateDelete();
             if (count > 0) {
                 AppLog.d(AppLog.T.READER, String.format(Locale.ENGLISH,
-                        "reader post table > marked %d posts unfollowed", count));
+                        "reader post table > marked %d posts %s", count, isFollowed ? "followed" : "unfollowed"));
                 EventBus.getDefault().post(ReaderPostTableActionEnded.INSTANCE);
             }
         } finally {
@@ -656,7 +926,7 @@ public class ReaderPostTable {
 
         // date field depends on the tag
         String dateColumn = getSortColumnForTag(tag);
-        String sql = "SELECT " + dateColumn + " FROM tbl_posts"
+        String sql = "SELECT " + dateColumn + " FROM tbl_post_tags"
                      + " WHERE tag_name=? AND tag_type=?"
                      + " ORDER BY " + dateColumn + " LIMIT 1";
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
@@ -667,16 +937,16 @@ public class ReaderPostTable {
      * returns the iso8601 pub date of the oldest post in the passed blog
      */
     public static String getOldestPubDateInBlog(long blogId) {
-        String sql = "SELECT date_published FROM tbl_posts"
+        String sql = "SELECT date_published FROM tbl_post_tags"
                      + " WHERE blog_id=? AND tag_name='' AND tag_type=0"
                      + " ORDER BY date_published LIMIT 1";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, new String[]{Long.toString(blogId)});
     }
 
     public static String getOldestPubDateInFeed(long feedId) {
-        String sql = "SELECT date_published FROM tbl_posts"
-                     + " WHERE feed_id=? AND tag_name='' AND tag_type=0"
-                     + " ORDER BY date_published LIMIT 1";
+        String sql = "SELECT t.date_published" + FROM_STREAM
+                     + " WHERE p.feed_id=? AND t.tag_name='' AND t.tag_type=0"
+                     + " ORDER BY t.date_published LIMIT 1";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, new String[]{Long.toString(feedId)});
     }
 
@@ -686,7 +956,8 @@ public class ReaderPostTable {
         }
 
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
-        String sql = "UPDATE tbl_posts SET has_gap_marker=0 WHERE has_gap_marker!=0 AND tag_name=? AND tag_type=?";
+        String sql =
+                "UPDATE tbl_post_tags SET has_gap_marker=0 WHERE has_gap_marker!=0 AND tag_name=? AND tag_type=?";
         ReaderDatabase.getWritableDb().execSQL(sql, args);
         EventBus.getDefault().post(ReaderPostTableActionEnded.INSTANCE);
     }
@@ -700,7 +971,8 @@ public class ReaderPostTable {
         }
 
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
-        String sql = "SELECT blog_id, post_id FROM tbl_posts WHERE has_gap_marker!=0 AND tag_name=? AND tag_type=?";
+        String sql =
+                "SELECT blog_id, post_id FROM tbl_post_tags WHERE has_gap_marker!=0 AND tag_name=? AND tag_type=?";
         Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args);
         try {
             if (cursor.moveToFirst()) {
@@ -726,8 +998,8 @@ public class ReaderPostTable {
                 tag.getTagSlug(),
                 Integer.toString(tag.tagType.toInt())
         };
-        String sql =
-                "UPDATE tbl_posts SET has_gap_marker=1 WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?";
+        String sql = "UPDATE tbl_post_tags SET has_gap_marker=1"
+                     + " WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?";
         ReaderDatabase.getWritableDb().execSQL(sql, args);
         EventBus.getDefault().post(ReaderPostTableActionEnded.INSTANCE);
     }
@@ -739,8 +1011,14 @@ public class ReaderPostTable {
         }
 
         String dateColumn = getSortColumnForTag(tag);
-        String[] args = {Long.toString(ids.getBlogId()), Long.toString(ids.getPostId())};
-        String sql = "SELECT " + dateColumn + " FROM tbl_posts WHERE blog_id=? AND post_id=?";
+        String[] args = {
+                Long.toString(ids.getBlogId()),
+                Long.toString(ids.getPostId()),
+                tag.getTagSlug(),
+                Integer.toString(tag.tagType.toInt())
+        };
+        String sql = "SELECT " + dateColumn + " FROM tbl_post_tags"
+                     + " WHERE blog_id=? AND post_id=? AND tag_name=? AND tag_type=?";
         return SqlUtils.stringForQuery(ReaderDatabase.getReadableDb(), sql, args);
     }
 
@@ -766,6 +1044,71 @@ public class ReaderPostTable {
         }
     }
 
+    /*
+     * position of a post in a stream: the value of the column the stream is sorted by along with the
+     * post's pseudo_id, which breaks ties between posts sharing the same sort value
+     */
+    public static final class StreamPosition {
+        @Nullable private final String mSortValue;
+        @NonNull private final String mPseudoId;
+
+        private StreamPosition(@Nullable String sortValue, @NonNull String pseudoId) {
+            mSortValue = sortValue;
+            mPseudoId = pseudoId;
+        }
+
+        /*
+         * returns the position of a post returned by getPostsWithTag() for the passed tag
+         */
+        @NonNull
+        public static StreamPosition forTag(@NonNull ReaderTag tag, @NonNull ReaderPost post) {
+            return forColumn(getSortColumnForTag(tag), post);
+        }
+
+        /*
+         * returns the position of a post returned by getPostsInBlog() or getPostsInFeed()
+         */
+        @NonNull
+        public static StreamPosition forBlog(@NonNull ReaderPost post) {
+            return forColumn(BLOG_SORT_COLUMN, post);
+        }
+
+        private static StreamPosition forColumn(@NonNull String sortColumn, @NonNull ReaderPost post) {
+            String sortValue;
+            switch (sortColumn) {
+                case "date_liked":
+                    sortValue = post.getStreamDateLiked();
+                    break;
+                case "date_tagged":
+                    sortValue = post.getDateTagged();
+                    break;
+                case "score":
+                    sortValue = Double.toString(post.score);
+                    break;
+                default:
+                    sortValue = post.getStreamDatePublished();
+                    break;
+            }
+            return new StreamPosition(TextUtils.isEmpty(sortValue) ? null : sortValue, post.getPseudoId());
+        }
+
+        /*
+         * returns the condition matching the posts which come after this position when sorted by
+         * sortColumn, adding its arguments to args - nulls sort last when descending
+         */
+        private String getAfterClause(@NonNull String sortColumn, @NonNull List<String> args) {
+            String column = "t." + sortColumn;
+            if (mSortValue == null) {
+                args.add(mPseudoId);
+                return "(" + column + " IS NULL AND p.pseudo_id < ?)";
+            }
+            args.add(mSortValue);
+            args.add(mSortValue);
+            args.add(mPseudoId);
+            return "(" + column + " < ? OR (" + column + " = ? AND p.pseudo_id < ?) OR " + column + " IS NULL)";
+        }
+    }
+
     /*
      * delete posts with the passed tag that come before the one with the gap marker for
      * this tag - note this may leave some stray posts in tbl_posts, but these will
@@ -780,7 +1123,7 @@ public class ReaderPostTable {
         String dateColumn = getSortColumnForTag(tag);
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt()), gapMarkerDate};
         String where = "tag_name=? AND tag_type=? AND " + dateColumn + " < ?";
-        int numDeleted = ReaderDatabase.getWritableDb().delete("tbl_posts", where, args);
+        int numDeleted = ReaderDatabase.getWritableDb().delete("tbl_post_tags", where, args);
         if (numDeleted > 0) {
             AppLog.d(AppLog.T.READER, "removed " + numDeleted + " posts older than gap marker");
             EventBus.getDefault().post(ReaderPostTableActionEnded.INSTANCE);
@@ -817,13 +1160,15 @@ public class ReaderPostTable {
             // if blog/feed is no longer followed, remove its posts tagged with "Followed Sites" or "P2"
             if (!isFollowed) {
                 if (blogId != 0) {
-                    db.delete("tbl_posts", "blog_id=? AND (tag_name=? OR tag_name=?)",
+                    db.delete("tbl_post_tags", "blog_id=? AND (tag_name=? OR tag_name=?)",
                             new String[]{Long.toString(blogId), ReaderTag.TAG_TITLE_FOLLOWED_SITES,
                                     ReaderTag.TAG_SLUG_P2});
                 } else {
-                    db.delete("tbl_posts", "feed_id=? AND (tag_name=? OR tag_name=?)",
-                            new String[]{Long.toString(feedId), ReaderTag.TAG_TITLE_FOLLOWED_SITES,
-                                    ReaderTag.TAG_SLUG_P2});
+                    db.delete("tbl_post_tags", "(tag_name=? OR tag_name=?) AND EXISTS (SELECT 1 FROM tbl_posts p"
+                                               + " WHERE p.blog_id=tbl_post_tags.blog_id"
+                                               + " AND p.post_id=tbl_post_tags.post_id AND p.feed_id=?)",
+                            new String[]{ReaderTag.TAG_TITLE_FOLLOWED_SITES, ReaderTag.TAG_SLUG_P2,
+                                    Long.toString(feedId)});
                 }
             }
 
@@ -874,8 +1219,12 @@ public class ReaderPostTable {
                 "INSERT OR REPLACE INTO tbl_posts ("
                 + COLUMN_NAMES
                 + ") VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10,?11,?12,?13,?14,?15,?16,?17,?18,?19,?20,?21,?22,?23,?24,"
-                + "?25,?26,?27,?28,?29,?30,?31,?32,?33,?34,?35,?36,?37,?38,?39,?40,?41,?42,?43,?44, ?45, ?46, ?47,"
-                + "?48,?49,?50,?51,?52,?53)");
+                + "?25,?26,?27,?28,?29,?30,?31,?32,?33,?34,?35,?36,?37,?38,?39,?40,?41,?42,?43,?44,?45,?46,?47,"
+                + "?48,?49)");
+        SQLiteStatement stmtPostTags = db.compileStatement(
+                "INSERT OR REPLACE INTO tbl_post_tags ("
+                + POST_TAG_COLUMN_NAMES
+                + ") VALUES (?1,?2,?3,?4,?5,?6,?7,?8,?9,?10)");
 
         db.beginTransaction();
         try {
@@ -885,9 +1234,6 @@ public class ReaderPostTable {
             ReaderBlogIdPostId postWithGapMarker = getGapMarkerIdsForTag(tag);
 
             for (ReaderPost post : posts) {
-                // keep the gapMarker flag
-                boolean hasGapMarker = postWithGapMarker != null && postWithGapMarker.getPostId() == post.postId
-                                       && postWithGapMarker.getBlogId() == post.blogId;
                 stmtPosts.bindLong(1, post.postId);
                 stmtPosts.bindLong(2, post.blogId);
                 stmtPosts.bindLong(3, post.feedId);
@@ -908,40 +1254,51 @@ public class ReaderPostTable {
                 stmtPosts.bindString(18, post.getFeaturedImage());
                 stmtPosts.bindString(19, post.getFeaturedVideo());
                 stmtPosts.bindString(20, post.getPostAvatar());
-                stmtPosts.bindDouble(21, post.score);
-                stmtPosts.bindString(22, post.getDatePublished());
-                stmtPosts.bindString(23, post.getDateLiked());
-                stmtPosts.bindString(24, post.getDateTagged());
-                stmtPosts.bindLong(25, post.numReplies);
-                stmtPosts.bindLong(26, post.numLikes);
-                stmtPosts.bindLong(27, SqlUtils.boolToSql(post.isLikedByCurrentUser));
-                stmtPosts.bindLong(28, SqlUtils.boolToSql(post.isFollowedByCurrentUser));
-                stmtPosts.bindLong(29, SqlUtils.boolToSql(post.isCommentsOpen));
-                stmtPosts.bindLong(30, SqlUtils.boolToSql(post.isExternal));
-                stmtPosts.bindLong(31, SqlUtils.boolToSql(post.isPrivate));
-                stmtPosts.bindLong(32, SqlUtils.boolToSql(post.isVideoPress));
-                stmtPosts.bindLong(33, SqlUtils.boolToSql(post.isJetpack));
-                stmtPosts.bindString(34, post.getPrimaryTag());
-                stmtPosts.bindString(35, post.getSecondaryTag());
-                stmtPosts.bindString(36, post.getAttachmentsJson());
-                stmtPosts.bindString(37, post.getDiscoverJson());
-                stmtPosts.bindLong(38, post.xpostPostId);
-                stmtPosts.bindLong(39, post.xpostBlogId);
-                stmtPosts.bindString(40, post.getRailcarJson());
-                stmtPosts.bindString(41, tagName);
-                stmtPosts.bindLong(42, tagType);
-                stmtPosts.bindLong(43, SqlUtils.boolToSql(hasGapMarker));
-                stmtPosts.bindString(44, ReaderCardType.toString(post.getCardType()));
-                stmtPosts.bindLong(45, SqlUtils.boolToSql(post.useExcerpt));
-                stmtPosts.bindLong(46, SqlUtils.boolToSql(post.isBookmarked));
-                stmtPosts.bindLong(47, SqlUtils.boolToSql(post.isPrivateAtomic));
-                stmtPosts.bindString(48, ReaderUtils.getCommaSeparatedTagSlugs(post.getTags()));
-                stmtPosts.bindLong(49, post.organizationId);
-                stmtPosts.bindLong(50, SqlUtils.boolToSql(post.isSeen));
-                stmtPosts.bindLong(51, SqlUtils.boolToSql(post.isSeenSupported));
-                stmtPosts.bindLong(52, post.authorBlogId);
-                stmtPosts.bindString(53, post.getAuthorBlogUrl());
+                stmtPosts.bindString(21, post.getDatePublished());
+                stmtPosts.bindString(22, post.getDateLiked());
+                stmtPosts.bindLong(23, post.numReplies);
+                stmtPosts.bindLong(24, post.numLikes);
+                stmtPosts.bindLong(25, SqlUtils.boolToSql(post.isLikedByCurrentUser));
+                stmtPosts.bindLong(26, SqlUtils.boolToSql(post.isFollowedByCurrentUser));
+                stmtPosts.bindLong(27, SqlUtils.boolToSql(post.isCommentsOpen));
+                stmtPosts.bindLong(28, SqlUtils.boolToSql(post.isExternal));
+                stmtPosts.bindLong(29, SqlUtils.boolToSql(post.isPrivate));
+                stmtPosts.bindLong(30, SqlUtils.boolToSql(post.isVideoPress));
+                stmtPosts.bindLong(31, SqlUtils.boolToSql(post.isJetpack));
+                stmtPosts.bindString(32, post.getPrimaryTag());
+                stmtPosts.bindString(33, post.getSecondaryTag());
+                stmtPosts.bindString(34, post.getAttachmentsJson());
+                stmtPosts.bindString(35, post.getDiscoverJson());
+                stmtPosts.bindLong(36, post.xpostPostId);
+                stmtPosts.bindLong(37, post.xpostBlogId);
+                stmtPosts.bindString(38, post.getRailcarJson());
+                stmtPosts.bindString(39, ReaderCardType.toString(post.getCardType()));
+                stmtPosts.bindLong(40, SqlUtils.boolToSql(post.useExcerpt));
+                stmtPosts.bindLong(41, SqlUtils.boolToSql(post.isBookmarked));
+                stmtPosts.bindLong(42, SqlUtils.boolToSql(post.isPrivateAtomic));
+                stmtPosts.bindString(43, ReaderUtils.getCommaSeparatedTagSlugs(post.getTags()));
+                stmtPosts.bindLong(44, post.organizationId);
+                stmtPosts.bindLong(45, SqlUtils.boolToSql(post.isSeen));
+                stmtPosts.bindLong(46, SqlUtils.boolToSql(post.isSeenSupported));
+                stmtPosts.bindLong(47, post.authorBlogId);
+                stmtPosts.bindString(48, post.getAuthorBlogUrl());
+                stmtPosts.bindString(49, post.getImagesJson());
                 stmtPosts.execute();
+
+                // keep the gapMarker flag
+                boolean hasGapMarker = postWithGapMarker != null && postWithGapMarker.getPostId() == post.postId
+                                       && postWithGapMarker.getBlogId() == post.blogId;
+                stmtPostTags.bindLong(1, post.blogId);
+                stmtPostTags.bindLong(2, post.postId);
+                stmtPostTags.bindString(3, tagName);
+                stmtPostTags.bindLong(4, tagType);
+                stmtPostTags.bindString(5, post.getDatePublished());
+                stmtPostTags.bindString(6, post.getDateLiked());
+                stmtPostTags.bindString(7, post.getDateTagged());
+                stmtPostTags.bindDouble(8, post.score);
+                stmtPostTags.bindLong(9, SqlUtils.boolToSql(hasGapMarker));
+                stmtPostTags.bindString(10, post.getRailcarJson());
+                stmtPostTags.execute();
             }
 
             db.setTransactionSuccessful();
@@ -949,62 +1306,65 @@ public class ReaderPostTable {
         } finally {
             db.endTransaction();
             SqlUtils.closeStatement(stmtPosts);
+            SqlUtils.closeStatement(stmtPostTags);
+        }
+
+        // drop the html rendered for previous versions of these posts
+        ReaderRenderedHtmlCache htmlCache = ReaderRenderedHtmlCache.getInstance();
+        for (ReaderPost post : posts) {
+            htmlCache.invalidate(post);
         }
     }
 
     public static ReaderPostList getPostsWithTag(ReaderTag tag, int maxPosts, boolean excludeTextColumn) {
+        return getPostsWithTag(tag, null, null, maxPosts, excludeTextColumn);
+    }
+
+    /*
+     * returns a page of the posts with the passed tag - pass a position for "after" to return the
+     * posts which follow it, and one for "through" to return the posts up to and including it
+     */
+    public static ReaderPostList getPostsWithTag(ReaderTag tag,
+                                                 @Nullable StreamPosition after,
+                                                 @Nullable StreamPosition through,
+                                                 int maxPosts,
+                                                 boolean excludeTextColumn) {
         if (tag == null) {
             return new ReaderPostList();
         }
 
-        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
-        String sql = "SELECT " + columns + " FROM tbl_posts WHERE tag_name=? AND tag_type=?";
+        String where = "t.tag_name=? AND t.tag_type=?";
 
         if (tag.tagType == ReaderTagType.DEFAULT) {
             // skip posts that are no longer liked if this is "Posts I Like", skip posts that are no
             // longer followed if this is "Followed Sites"
             if (tag.isPostsILike()) {
-                sql += " AND is_liked != 0";
+                where += " AND p.is_liked != 0";
             } else if (tag.isFollowedSites()) {
-                sql += " AND is_followed != 0";
+                where += " AND p.is_followed != 0";
             }
         }
 
-        sql += " ORDER BY " + getSortColumnForTag(tag) + " DESC";
-
-        if (maxPosts > 0) {
-            sql += " LIMIT " + maxPosts;
-        }
-
         String[] args = {tag.getTagSlug(), Integer.toString(tag.tagType.toInt())};
-        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args);
-        try {
-            return getPostListFromCursor(cursor);
-        } finally {
-            SqlUtils.closeCursor(cursor);
-        }
+        return getStreamPosts(where, args, getSortColumnForTag(tag), after, through, maxPosts, excludeTextColumn);
     }
 
     public static ReaderPostList getPostsInBlog(long blogId, int maxPosts, boolean excludeTextColumn) {
-        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
-        String sql =
-                "SELECT " + columns + " FROM tbl_posts WHERE blog_id=? AND tag_name='' AND tag_type=0"
-                + " ORDER BY date_published DESC";
-
-        if (maxPosts > 0) {
-            sql += " LIMIT " + maxPosts;
-        }
+        return getPostsInBlog(blogId, null, null, maxPosts, excludeTextColumn);
+    }
 
-        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, new String[]{Long.toString(blogId)});
-        try {
-            return getPostListFromCursor(cursor);
-        } finally {
-            SqlUtils.closeCursor(cursor);
-        }
+    public static ReaderPostList getPostsInBlog(long blogId,
+                                                @Nullable StreamPosition after,
+                                                @Nullable StreamPosition through,
+                                                int maxPosts,
+                                                boolean excludeTextColumn) {
+        String where = "t.blog_id=? AND t.tag_name='' AND t.tag_type=0";
+        String[] args = {Long.toString(blogId)};
+        return getStreamPosts(where, args, BLOG_SORT_COLUMN, after, through, maxPosts, excludeTextColumn);
     }
 
     public static Map<Pair<String, ReaderTagType>, ReaderPostList> getTagPostMap(long blogId) {
-        String sql = "SELECT * FROM tbl_posts WHERE blog_id=?";
+        String sql = "SELECT p.*," + COLUMN_NAMES_STREAM + FROM_STREAM + " WHERE t.blog_id=?";
         Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, new String[]{Long.toString(blogId)});
         try {
             return getTagPostMapFromCursor(cursor);
@@ -1014,16 +1374,49 @@ public class ReaderPostTable {
     }
 
     public static ReaderPostList getPostsInFeed(long feedId, int maxPosts, boolean excludeTextColumn) {
-        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "*");
-        String sql =
-                "SELECT " + columns + " FROM tbl_posts WHERE feed_id=? AND tag_name='' AND tag_type=0"
-                + " ORDER BY date_published DESC";
+        return getPostsInFeed(feedId, null, null, maxPosts, excludeTextColumn);
+    }
+
+    public static ReaderPostList getPostsInFeed(long feedId,
+                                                @Nullable StreamPosition after,
+                                                @Nullable StreamPosition through,
+                                                int maxPosts,
+                                                boolean excludeTextColumn) {
+        String where = "p.feed_id=? AND t.tag_name='' AND t.tag_type=0";
+        String[] args = {Long.toString(feedId)};
+        return getStreamPosts(where, args, BLOG_SORT_COLUMN, after, through, maxPosts, excludeTextColumn);
+    }
+
+    /*
+     * returns the stream posts matching the passed where clause sorted by sortColumn, newest first.
+     * posts sharing the same sort value are ordered by their pseudo_id, so the (sort value, pseudo_id)
+     * pair of a post is a unique position which the next page can be queried from without an OFFSET
+     */
+    private static ReaderPostList getStreamPosts(@NonNull String where,
+                                                 @NonNull String[] whereArgs,
+                                                 @NonNull String sortColumn,
+                                                 @Nullable StreamPosition after,
+                                                 @Nullable StreamPosition through,
+                                                 int maxPosts,
+                                                 boolean excludeTextColumn) {
+        List<String> args = new ArrayList<>(Arrays.asList(whereArgs));
+        String columns = (excludeTextColumn ? COLUMN_NAMES_NO_TEXT : "p.*") + "," + COLUMN_NAMES_STREAM;
+        String sql = "SELECT " + columns + FROM_STREAM + " WHERE " + where;
+
+        if (after != null) {
+            sql += " AND " + after.getAfterClause(sortColumn, args);
+        }
+        if (through != null) {
+            sql += " AND NOT " + through.getAfterClause(sortColumn, args);
+        }
+
+        sql += " ORDER BY t." + sortColumn + " DESC, p.pseudo_id DESC";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + maxPosts;
         }
 
-        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, new String[]{Long.toString(feedId)});
+        Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args.toArray(new String[0]));
         try {
             return getPostListFromCursor(cursor);
         } finally {
@@ -1039,17 +1432,17 @@ public class ReaderPostTable {
             return new ReaderBlogIdPostIdList();
         }
 
-        String sql = "SELECT blog_id, post_id FROM tbl_posts WHERE tag_name=? AND tag_type=?";
+        String sql = "SELECT t.blog_id, t.post_id" + FROM_STREAM + " WHERE t.tag_name=? AND t.tag_type=?";
 
         if (tag.tagType == ReaderTagType.DEFAULT) {
             if (tag.isPostsILike()) {
-                sql += " AND is_liked != 0";
+                sql += " AND p.is_liked != 0";
             } else if (tag.isFollowedSites()) {
-                sql += " AND is_followed != 0";
+                sql += " AND p.is_followed != 0";
             }
         }
 
-        sql += " ORDER BY " + getSortColumnForTag(tag) + " DESC";
+        sql += " ORDER BY t." + getSortColumnForTag(tag) + " DESC";
 
         if (maxPosts > 0) {
             sql += " LIMIT " + maxPosts;
@@ -1059,21 +1452,6 @@ public class ReaderPostTable {
         return getBlogIdPostIds(sql, args);
     }
 
-    private static ReaderBlogIdPostIdList getBlogIdPostIdsWithTagType(ReaderTagType tagType, int maxPosts) {
-        if (tagType == null) {
-            return new ReaderBlogIdPostIdList();
-        }
-
-        String sql = "SELECT blog_id, post_id FROM tbl_posts WHERE tag_type=?";
-
-        if (maxPosts > 0) {
-            sql += " LIMIT " + maxPosts;
-        }
-
-        String[] args = {Integer.toString(tagType.toInt())};
-        return getBlogIdPostIds(sql, args);
-    }
-
     private static ReaderBlogIdPostIdList getBlogIdPostIds(@NonNull String sql, @NonNull String[] args) {
         ReaderBlogIdPostIdList idList = new ReaderBlogIdPostIdList();
         Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(sql, args);
@@ -1093,7 +1471,7 @@ public class ReaderPostTable {
      * same as getPostsInBlog() but only returns the blogId/postId pairs
      */
     public static ReaderBlogIdPostIdList getBlogIdPostIdsInBlog(long blogId, int maxPosts) {
-        String sql = "SELECT post_id FROM tbl_posts WHERE blog_id=? AND tag_name='' AND tag_type=0"
+        String sql = "SELECT post_id FROM tbl_post_tags WHERE blog_id=? AND tag_name='' AND tag_type=0"
                      + " ORDER BY date_published DESC";
 
         if (maxPosts > 0) {
@@ -1115,104 +1493,230 @@ public class ReaderPostTable {
         }
     }
 
-    private static Pair<String, ReaderTagType> getTagNameAndTypeFromCursor(Cursor c) {
-        if (c == null) {
-            throw new IllegalArgumentException("getPostFromCursor > null cursor");
-        }
-        return new Pair<>(
-                c.getString(c.getColumnIndex("tag_name")),
-                ReaderTagType.fromInt(c.getInt(c.getColumnIndex("tag_type")))
-        );
-    }
-
-    private static ReaderPost getPostFromCursor(Cursor c) {
-        if (c == null) {
-            throw new IllegalArgumentException("getPostFromCursor > null cursor");
+    /*
+     * maps tbl_posts rows - stream-specific columns (tag_name, tag_type, date_tagged, score) are only
+     * present when querying a stream, and the text column is skipped when retrieving multiple rows
+     */
+    static final class PostMapper extends CursorMapper<ReaderPost> {
+        private final int mIdxText;
+        private final int mIdxPostId;
+        private final int mIdxBlogId;
+        private final int mIdxFeedId;
+        private final int mIdxFeedItemId;
+        private final int mIdxAuthorId;
+        private final int mIdxPseudoId;
+        private final int mIdxAuthorName;
+        private final int mIdxAuthorFirstName;
+        private final int mIdxBlogName;
+        private final int mIdxBlogUrl;
+        private final int mIdxBlogImageUrl;
+        private final int mIdxExcerpt;
+        private final int mIdxFormat;
+        private final int mIdxFeaturedImage;
+        private final int mIdxFeaturedVideo;
+        private final int mIdxTitle;
+        private final int mIdxUrl;
+        private final int mIdxShortUrl;
+        private final int mIdxPostAvatar;
+        private final int mIdxDatePublished;
+        private final int mIdxDateLiked;
+        private final int mIdxDateTagged;
+        private final int mIdxScore;
+        private final int mIdxNumReplies;
+        private final int mIdxNumLikes;
+        private final int mIdxIsLiked;
+        private final int mIdxIsFollowed;
+        private final int mIdxIsCommentsOpen;
+        private final int mIdxIsExternal;
+        private final int mIdxIsPrivate;
+        private final int mIdxIsPrivateAtomic;
+        private final int mIdxIsVideoPress;
+        private final int mIdxIsJetpack;
+        private final int mIdxIsBookmarked;
+        private final int mIdxPrimaryTag;
+        private final int mIdxSecondaryTag;
+        private final int mIdxAttachmentsJson;
+        private final int mIdxDiscoverJson;
+        private final int mIdxXpostPostId;
+        private final int mIdxXpostBlogId;
+        private final int mIdxRailcarJson;
+        private final int mIdxCardType;
+        private final int mIdxUseExcerpt;
+        private final int mIdxIsSeen;
+        private final int mIdxIsSeenSupported;
+        private final int mIdxTags;
+        private final int mIdxOrganizationId;
+        private final int mIdxAuthorBlogId;
+        private final int mIdxAuthorBlogUrl;
+        private final int mIdxImagesJson;
+        private final int mIdxTagName;
+        private final int mIdxTagType;
+        private final int mIdxStreamDatePublished;
+        private final int mIdxStreamDateLiked;
+        private final int mIdxStreamRailcarJson;
+
+        PostMapper(@NonNull Cursor c) {
+            super(c);
+            mIdxText = optionalIndex("text");
+            mIdxPostId = requiredIndex("post_id");
+            mIdxBlogId = requiredIndex("blog_id");
+            mIdxFeedId = requiredIndex("feed_id");
+            mIdxFeedItemId = requiredIndex("feed_item_id");
+            mIdxAuthorId = requiredIndex("author_id");
+            mIdxPseudoId = requiredIndex("pseudo_id");
+            mIdxAuthorName = requiredIndex("author_name");
+            mIdxAuthorFirstName = requiredIndex("author_first_name");
+            mIdxBlogName = requiredIndex("blog_name");
+            mIdxBlogUrl = requiredIndex("blog_url");
+            mIdxBlogImageUrl = requiredIndex("blog_image_url");
+            mIdxExcerpt = requiredIndex("excerpt");
+            mIdxFormat = requiredIndex("format");
+            mIdxFeaturedImage = requiredIndex("featured_image");
+            mIdxFeaturedVideo = requiredIndex("featured_video");
+            mIdxTitle = requiredIndex("title");
+            mIdxUrl = requiredIndex("url");
+            mIdxShortUrl = requiredIndex("short_url");
+            mIdxPostAvatar = requiredIndex("post_avatar");
+            mIdxDatePublished = requiredIndex("date_published");
+            mIdxDateLiked = requiredIndex("date_liked");
+            mIdxDateTagged = optionalIndex("date_tagged");
+            mIdxScore = optionalIndex("score");
+            mIdxNumReplies = requiredIndex("num_replies");
+            mIdxNumLikes = requiredIndex("num_likes");
+            mIdxIsLiked = requiredIndex("is_liked");
+            mIdxIsFollowed = requiredIndex("is_followed");
+            mIdxIsCommentsOpen = requiredIndex("is_comments_open");
+            mIdxIsExternal = requiredIndex("is_external");
+            mIdxIsPrivate = requiredIndex("is_private");
+            mIdxIsPrivateAtomic = requiredIndex("is_private_atomic");
+            mIdxIsVideoPress = requiredIndex("is_videopress");
+            mIdxIsJetpack = requiredIndex("is_jetpack");
+            mIdxIsBookmarked = requiredIndex("is_bookmarked");
+            mIdxPrimaryTag = requiredIndex("primary_tag");
+            mIdxSecondaryTag = requiredIndex("secondary_tag");
+            mIdxAttachmentsJson = requiredIndex("attachments_json");
+            mIdxDiscoverJson = requiredIndex("discover_json");
+            mIdxXpostPostId = requiredIndex("xpost_post_id");
+            mIdxXpostBlogId = requiredIndex("xpost_blog_id");
+            mIdxRailcarJson = requiredIndex("railcar_json");
+            mIdxCardType = requiredIndex("card_type");
+            mIdxUseExcerpt = requiredIndex("use_excerpt");
+            mIdxIsSeen = requiredIndex("is_seen");
+            mIdxIsSeenSupported = requiredIndex("is_seen_supported");
+            mIdxTags = requiredIndex("tags");
+            mIdxOrganizationId = requiredIndex("organization_id");
+            mIdxAuthorBlogId = requiredIndex("author_blog_id");
+            mIdxAuthorBlogUrl = requiredIndex("author_blog_url");
+            mIdxImagesJson = requiredIndex("images_json");
+            mIdxTagName = optionalIndex("tag_name");
+            mIdxTagType = optionalIndex("tag_type");
+            mIdxStreamDatePublished = optionalIndex("stream_date_published");
+            mIdxStreamDateLiked = optionalIndex("stream_date_liked");
+            mIdxStreamRailcarJson = optionalIndex("stream_railcar_json");
         }
 
-        ReaderPost post = new ReaderPost();
+        @Override
+        ReaderPost map() {
+            ReaderPost post = new ReaderPost();
 
-        // text column is skipped when retrieving multiple rows
-        int idxText = c.getColumnIndex("text");
-        if (idxText > -1) {
-            post.setText(c.getString(idxText));
-        }
+            if (hasColumn(mIdxText)) {
+                post.setText(getString(mIdxText));
+            }
 
-        post.postId = c.getLong(c.getColumnIndex("post_id"));
-        post.blogId = c.getLong(c.getColumnIndex("blog_id"));
-        post.feedId = c.getLong(c.getColumnIndex("feed_id"));
-        post.feedItemId = c.getLong(c.getColumnIndex("feed_item_id"));
-        post.authorId = c.getLong(c.getColumnIndex("author_id"));
-        post.setPseudoId(c.getString(c.getColumnIndex("pseudo_id")));
+            post.postId = getLong(mIdxPostId);
+            post.blogId = getLong(mIdxBlogId);
+            post.feedId = getLong(mIdxFeedId);
+            post.feedItemId = getLong(mIdxFeedItemId);
+            post.authorId = getLong(mIdxAuthorId);
+            post.setPseudoId(getString(mIdxPseudoId));
+
+            post.setAuthorName(getString(mIdxAuthorName));
+            post.setAuthorFirstName(getString(mIdxAuthorFirstName));
+            post.setBlogName(getString(mIdxBlogName));
+            post.setBlogUrl(getString(mIdxBlogUrl));
+            post.setBlogImageUrl(getString(mIdxBlogImageUrl));
+            post.setExcerpt(getString(mIdxExcerpt));
+            post.setFormat(getString(mIdxFormat));
+            post.setFeaturedImage(getString(mIdxFeaturedImage));
+            post.setFeaturedVideo(getString(mIdxFeaturedVideo));
+
+            post.setTitle(getString(mIdxTitle));
+            post.setUrl(getString(mIdxUrl));
+            post.setShortUrl(getString(mIdxShortUrl));
+            post.setPostAvatar(getString(mIdxPostAvatar));
+
+            post.setDatePublished(getString(mIdxDatePublished));
+            post.setDateLiked(getString(mIdxDateLiked));
+            if (hasColumn(mIdxDateTagged)) {
+                post.setDateTagged(getString(mIdxDateTagged));
+            }
+            if (hasColumn(mIdxStreamDatePublished)) {
+                post.setStreamDatePublished(getString(mIdxStreamDatePublished));
+            }
+            if (hasColumn(mIdxStreamDateLiked)) {
+                post.setStreamDateLiked(getString(mIdxStreamDateLiked));
+            }
 
-        post.setAuthorName(c.getString(c.getColumnIndex("author_name")));
-        post.setAuthorFirstName(c.getString(c.getColumnIndex("author_first_name")));
-        post.setBlogName(c.getString(c.getColumnIndex("blog_name")));
-        post.setBlogUrl(c.getString(c.getColumnIndex("blog_url")));
-        post.setBlogImageUrl(c.getString(c.getColumnIndex("blog_image_url")));
-        post.setExcerpt(c.getString(c.getColumnIndex("excerpt")));
-        post.setFormat(c.getString(c.getColumnIndex("format")));
-        post.setFeaturedImage(c.getString(c.getColumnIndex("featured_image")));
-        post.setFeaturedVideo(c.getString(c.getColumnIndex("featured_video")));
+            post.score = getDouble(mIdxScore);
+            post.numReplies = getInt(mIdxNumReplies);
+            post.numLikes = getInt(mIdxNumLikes);
 
-        post.setTitle(c.getString(c.getColumnIndex("title")));
-        post.setUrl(c.getString(c.getColumnIndex("url")));
-        post.setShortUrl(c.getString(c.getColumnIndex("short_url")));
-        post.setPostAvatar(c.getString(c.getColumnIndex("post_avatar")));
+            post.isLikedByCurrentUser = getBoolean(mIdxIsLiked);
+            post.isFollowedByCurrentUser = getBoolean(mIdxIsFollowed);
+            post.isCommentsOpen = getBoolean(mIdxIsCommentsOpen);
+            post.isExternal = getBoolean(mIdxIsExternal);
+            post.isPrivate = getBoolean(mIdxIsPrivate);
+            post.isPrivateAtomic = getBoolean(mIdxIsPrivateAtomic);
+            post.isVideoPress = getBoolean(mIdxIsVideoPress);
+            post.isJetpack = getBoolean(mIdxIsJetpack);
+            post.isBookmarked = getBoolean(mIdxIsBookmarked);
 
-        post.setDatePublished(c.getString(c.getColumnIndex("date_published")));
-        post.setDateLiked(c.getString(c.getColumnIndex("date_liked")));
-        post.setDateTagged(c.getString(c.getColumnIndex("date_tagged")));
+            post.setPrimaryTag(getString(mIdxPrimaryTag));
+            post.setSecondaryTag(getString(mIdxSecondaryTag));
 
-        post.score = c.getDouble(c.getColumnIndex("score"));
-        post.numReplies = c.getInt(c.getColumnIndex("num_replies"));
-        post.numLikes = c.getInt(c.getColumnIndex("num_likes"));
+            post.setAttachmentsJson(getString(mIdxAttachmentsJson));
+            post.setDiscoverJson(getString(mIdxDiscoverJson));
 
-        post.isLikedByCurrentUser = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_liked")));
-        post.isFollowedByCurrentUser = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_followed")));
-        post.isCommentsOpen = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_comments_open")));
-        post.isExternal = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_external")));
-        post.isPrivate = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_private")));
-        post.isPrivateAtomic = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_private_atomic")));
-        post.isVideoPress = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_videopress")));
-        post.isJetpack = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_jetpack")));
-        post.isBookmarked = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_bookmarked")));
+            post.xpostPostId = getLong(mIdxXpostPostId);
+            post.xpostBlogId = getLong(mIdxXpostBlogId);
 
-        post.setPrimaryTag(c.getString(c.getColumnIndex("primary_tag")));
-        post.setSecondaryTag(c.getString(c.getColumnIndex("secondary_tag")));
+            // the railcar of the stream the post was read from replaces the one it was last saved with
+            String streamRailcarJson = getString(mIdxStreamRailcarJson);
+            post.setRailcarJson(streamRailcarJson != null ? streamRailcarJson : getString(mIdxRailcarJson));
+            post.setCardType(ReaderCardType.fromString(getString(mIdxCardType)));
 
-        post.setAttachmentsJson(c.getString(c.getColumnIndex("attachments_json")));
-        post.setDiscoverJson(c.getString(c.getColumnIndex("discover_json")));
+            post.useExcerpt = getBoolean(mIdxUseExcerpt);
 
-        post.xpostPostId = c.getLong(c.getColumnIndex("xpost_post_id"));
-        post.xpostBlogId = c.getLong(c.getColumnIndex("xpost_blog_id"));
+            post.isSeen = getBoolean(mIdxIsSeen);
+            post.isSeenSupported = getBoolean(mIdxIsSeenSupported);
 
-        post.setRailcarJson(c.getString(c.getColumnIndex("railcar_json")));
-        post.setCardType(ReaderCardType.fromString(c.getString(c.getColumnIndex("card_type"))));
+            String commaSeparatedTags = getString(mIdxTags);
+            if (commaSeparatedTags != null) {
+                post.setTags(ReaderUtils.getTagsFromCommaSeparatedSlugs(commaSeparatedTags));
+            }
 
-        post.useExcerpt = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("use_excerpt")));
+            post.organizationId = getInt(mIdxOrganizationId);
+            post.authorBlogId = getLong(mIdxAuthorBlogId);
+            post.setAuthorBlogUrl(getString(mIdxAuthorBlogUrl));
 
-        post.isSeen = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_seen")));
-        post.isSeenSupported = SqlUtils.sqlToBool(c.getInt(c.getColumnIndex("is_seen_supported")));
+            // set after the text since setText() drops the image index
+            post.setImagesJson(getString(mIdxImagesJson));
 
-        String commaSeparatedTags = (c.getString(c.getColumnIndex("tags")));
-        if (commaSeparatedTags != null) {
-            post.setTags(ReaderUtils.getTagsFromCommaSeparatedSlugs(commaSeparatedTags));
+            return post;
         }
 
-        post.organizationId = c.getInt(c.getColumnIndex("organization_id"));
-        post.authorBlogId = c.getLong(c.getColumnIndex("author_blog_id"));
-        post.setAuthorBlogUrl(c.getString(c.getColumnIndex("author_blog_url")));
-
-        return post;
+        @NonNull Pair<String, ReaderTagType> mapTagNameAndType() {
+            return new Pair<>(getString(mIdxTagName), ReaderTagType.fromInt(getInt(mIdxTagType)));
+        }
     }
 
     private static ReaderPostList getPostListFromCursor(Cursor cursor) {
         ReaderPostList posts = new ReaderPostList();
         try {
             if (cursor != null && cursor.moveToFirst()) {
+                PostMapper mapper = new PostMapper(cursor);
                 do {
-                    posts.add(getPostFromCursor(cursor));
+                    posts.add(mapper.map());
                 } while (cursor.moveToNext());
             }
         } catch (IllegalStateException e) {
@@ -1225,9 +1729,10 @@ public class ReaderPostTable {
         Map<Pair<String, ReaderTagType>, ReaderPostList> posts = new LinkedHashMap<>();
         try {
             if (cursor != null && cursor.moveToFirst()) {
+                PostMapper mapper = new PostMapper(cursor);
                 do {
-                    ReaderPost post = getPostFromCursor(cursor);
-                    Pair<String, ReaderTagType> tagNameAndType = getTagNameAndTypeFromCursor(cursor);
+                    ReaderPost post = mapper.map();
+                    Pair<String, ReaderTagType> tagNameAndType = mapper.mapTagNameAndType();
                     if (!posts.containsKey(tagNameAndType)) {
                         posts.put(tagNameAndType, new ReaderPostList());
                     }
@@ -1246,47 +1751,81 @@ public class ReaderPostTable {
      * and synced across all instances(rows) of each post.
      */
     private static void updateIsBookmarkedField(final ReaderPostList posts) {
-        ReaderBlogIdPostIdList bookmarkedPosts = getBookmarkedPostIds();
+        Set<ReaderBlogIdPostId> bookmarkedIds = getBookmarkedIds(posts);
+        if (bookmarkedIds.isEmpty()) {
+            return;
+        }
         for (ReaderPost post : posts) {
-            for (ReaderBlogIdPostId bookmarkedPostId : bookmarkedPosts) {
-                if (isBookmarkedPost(post, bookmarkedPostId)) post.isBookmarked = true;
+            if (bookmarkedIds.contains(new ReaderBlogIdPostId(post.blogId, post.postId))) {
+                post.isBookmarked = true;
             }
         }
     }
 
-    private static boolean isBookmarkedPost(ReaderPost post, ReaderBlogIdPostId bookmarkedPostId) {
-        return post.blogId == bookmarkedPostId.getBlogId() && post.postId == bookmarkedPostId.getPostId();
-    }
-
     public static void updateBookmarkedPostPseudoId(final ReaderPostList posts) {
-        ReaderBlogIdPostIdList bookmarkedPosts = getBookmarkedPostIds();
-        for (ReaderPost post : posts) {
-            for (ReaderBlogIdPostId bookmarkedPostId : bookmarkedPosts) {
-                if (isBookmarkedPost(post, bookmarkedPostId)) updateBookmarkedPostPseudoId(post, bookmarkedPostId);
-            }
+        Set<ReaderBlogIdPostId> bookmarkedIds = getBookmarkedIds(posts);
+        if (bookmarkedIds.isEmpty()) {
+            return;
         }
-    }
 
-    public static void updateBookmarkedPostPseudoId(ReaderPost post, ReaderBlogIdPostId bookmarkedPostIds) {
-        ReaderPost bookmarkedPost = getBlogPost(bookmarkedPostIds.getBlogId(), bookmarkedPostIds.getPostId(), true);
-        if (bookmarkedPost != null && !bookmarkedPost.getPseudoId().equals(post.getPseudoId())) {
-            SQLiteDatabase db = ReaderDatabase.getWritableDb();
-            db.beginTransaction();
-            try {
-                String sql = "UPDATE tbl_posts SET pseudo_id=? WHERE blog_id=? AND post_id=? AND tag_type=?";
-                db.execSQL(sql, new String[]{
-                        post.getPseudoId(),
-                        Long.toString(post.blogId),
-                        Long.toString(post.postId),
-                        Integer.toString(ReaderTagType.BOOKMARKED.toInt())});
-                db.setTransactionSuccessful();
-            } finally {
-                db.endTransaction();
+        SQLiteDatabase db = ReaderDatabase.getWritableDb();
+        SQLiteStatement stmt = db.compileStatement(
+                "UPDATE tbl_posts SET pseudo_id=?1 WHERE blog_id=?2 AND post_id=?3 AND pseudo_id!=?1");
+        db.beginTransaction();
+        try {
+            for (ReaderPost post : posts) {
+                if (bookmarkedIds.contains(new ReaderBlogIdPostId(post.blogId, post.postId))) {
+                    stmt.bindString(1, post.getPseudoId());
+                    stmt.bindLong(2, post.blogId);
+                    stmt.bindLong(3, post.postId);
+                    stmt.execute();
+                }
             }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            SqlUtils.closeStatement(stmt);
         }
     }
 
-    private static ReaderBlogIdPostIdList getBookmarkedPostIds() {
-        return getBlogIdPostIdsWithTagType(ReaderTagType.BOOKMARKED, 99999);
+    /*
+     * returns the ids of the passed posts which are bookmarked - only the bookmarks in the blogs of
+     * these posts are read, so the cost doesn't grow with the number of saved posts
+     */
+    private static Set<ReaderBlogIdPostId> getBookmarkedIds(final ReaderPostList posts) {
+        Set<ReaderBlogIdPostId> bookmarkedIds = new HashSet<>();
+        if (posts == null || posts.isEmpty()) {
+            return bookmarkedIds;
+        }
+
+        Set<ReaderBlogIdPostId> requestedIds = new HashSet<>();
+        for (ReaderPost post : posts) {
+            requestedIds.add(new ReaderBlogIdPostId(post.blogId, post.postId));
+        }
+
+        String[] args = {Integer.toString(ReaderTagType.BOOKMARKED.toInt())};
+        List<ReaderBlogIdPostId> idList = new ArrayList<>(requestedIds);
+        for (int start = 0; start < idList.size(); start += MAX_IDS_PER_QUERY) {
+            int end = Math.min(start + MAX_IDS_PER_QUERY, idList.size());
+            Set<Long> blogIds = new HashSet<>();
+            Set<Long> postIds = new HashSet<>();
+            for (ReaderBlogIdPostId id : idList.subList(start, end)) {
+                blogIds.add(id.getBlogId());
+                postIds.add(id.getPostId());
+            }
+
+            // the IN clauses may match a few extra blog/post combinations, which are filtered out below.
+            // unbookmarked posts keep their bookmark tag row until the next purge so the user can undo,
+            // so the post's own flag decides whether it's still bookmarked
+            String sql = "SELECT t.blog_id, t.post_id" + FROM_STREAM + " WHERE t.tag_type=? AND p.is_bookmarked != 0"
+                         + " AND t.blog_id IN (" + TextUtils.join(",", blogIds) + ")"
+                         + " AND t.post_id IN (" + TextUtils.join(",", postIds) + ")";
+            for (ReaderBlogIdPostId id : getBlogIdPostIds(sql, args)) {
+                if (requestedIds.contains(id)) {
+                    bookmarkedIds.add(id);
+                }
+            }
+        }
+        return bookmarkedIds;
     }
 }
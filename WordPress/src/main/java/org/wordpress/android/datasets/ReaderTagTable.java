@@ -6,6 +6,7 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteStatement;
 import android.text.TextUtils;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.wordpress.android.models.ReaderTag;
@@ -158,18 +159,31 @@ public class ReaderTagTable {
         return tagExistsOfType(tagSlug, ReaderTagType.FOLLOWED);
     }
 
-    private static ReaderTag getTagFromCursor(Cursor c) {
-        if (c == null) {
-            throw new IllegalArgumentException("null tag cursor");
+    static final class TagMapper extends CursorMapper<ReaderTag> {
+        private final int mIdxTagSlug;
+        private final int mIdxTagDisplayName;
+        private final int mIdxTagTitle;
+        private final int mIdxEndpoint;
+        private final int mIdxTagType;
+
+        TagMapper(@NonNull Cursor c) {
+            super(c);
+            mIdxTagSlug = requiredIndex("tag_slug");
+            mIdxTagDisplayName = requiredIndex("tag_display_name");
+            mIdxTagTitle = requiredIndex("tag_title");
+            mIdxEndpoint = requiredIndex("endpoint");
+            mIdxTagType = requiredIndex("tag_type");
         }
 
-        String tagSlug = c.getString(c.getColumnIndex("tag_slug"));
-        String tagDisplayName = c.getString(c.getColumnIndex("tag_display_name"));
-        String tagTitle = c.getString(c.getColumnIndex("tag_title"));
-        String endpoint = c.getString(c.getColumnIndex("endpoint"));
-        ReaderTagType tagType = ReaderTagType.fromInt(c.getInt(c.getColumnIndex("tag_type")));
-
-        return new ReaderTag(tagSlug, tagDisplayName, tagTitle, endpoint, tagType);
+        @Override
+        ReaderTag map() {
+            return new ReaderTag(
+                    getString(mIdxTagSlug),
+                    getString(mIdxTagDisplayName),
+                    getString(mIdxTagTitle),
+                    getString(mIdxEndpoint),
+                    ReaderTagType.fromInt(getInt(mIdxTagType)));
+        }
     }
 
     public static ReaderTag getTag(String tagSlug, ReaderTagType tagType) {
@@ -184,7 +198,7 @@ public class ReaderTagTable {
             if (!c.moveToFirst()) {
                 return null;
             }
-            return getTagFromCursor(c);
+            return new TagMapper(c).map();
         } finally {
             SqlUtils.closeCursor(c);
         }
@@ -200,7 +214,7 @@ public class ReaderTagTable {
         Cursor cursor = ReaderDatabase.getReadableDb().rawQuery(query, args);
 
         try {
-            return cursor.moveToFirst() ? getTagFromCursor(cursor) : null;
+            return cursor.moveToFirst() ? new TagMapper(cursor).map() : null;
         } finally {
             SqlUtils.closeCursor(cursor);
         }
@@ -239,8 +253,9 @@ public class ReaderTagTable {
         try {
             ReaderTagList tagList = new ReaderTagList();
             if (c.moveToFirst()) {
+                TagMapper mapper = new TagMapper(c);
                 do {
-                    tagList.add(getTagFromCursor(c));
+                    tagList.add(mapper.map());
                 } while (c.moveToNext());
             }
             return tagList;
@@ -254,8 +269,9 @@ public class ReaderTagTable {
         try {
             ReaderTagList tagList = new ReaderTagList();
             if (c.moveToFirst()) {
+                TagMapper mapper = new TagMapper(c);
                 do {
-                    tagList.add(getTagFromCursor(c));
+                    tagList.add(mapper.map());
                 } while (c.moveToNext());
             }
             return tagList;
@@ -268,7 +284,7 @@ public class ReaderTagTable {
         Cursor c = ReaderDatabase.getReadableDb().rawQuery("SELECT * FROM tbl_tags ORDER BY tag_slug LIMIT 1", null);
         try {
             if (c.moveToFirst()) {
-                return getTagFromCursor(c);
+                return new TagMapper(c).map();
             }
             return null;
         } finally {
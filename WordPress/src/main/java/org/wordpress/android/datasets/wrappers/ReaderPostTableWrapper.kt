@@ -5,6 +5,7 @@ import org.wordpress.android.datasets.ReaderPostTable
 import org.wordpress.android.models.ReaderPost
 import org.wordpress.android.models.ReaderPostList
 import org.wordpress.android.models.ReaderTag
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList
 import javax.inject.Inject
 
 @Reusable
@@ -12,6 +13,9 @@ class ReaderPostTableWrapper @Inject constructor() {
     fun getBlogPost(blogId: Long, postId: Long, excludeTextColumn: Boolean): ReaderPost? =
             ReaderPostTable.getBlogPost(blogId, postId, excludeTextColumn)
 
+    fun getBlogPosts(ids: ReaderBlogIdPostIdList, tag: ReaderTag?, excludeTextColumn: Boolean): ReaderPostList =
+            ReaderPostTable.getBlogPosts(ids, tag, excludeTextColumn)
+
     fun getFeedPost(blogId: Long, postId: Long, excludeTextColumn: Boolean): ReaderPost? = ReaderPostTable
             .getFeedPost(blogId, postId, excludeTextColumn)
 
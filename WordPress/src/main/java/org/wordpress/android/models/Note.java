@@ -7,6 +7,9 @@ import android.text.Spannable;
 import android.text.TextUtils;
 import android.util.Base64;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import org.apache.commons.lang3.time.DateUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -53,6 +56,10 @@ public class Note {
     private JSONObject mNoteJSON;
     private final String mKey;
 
+    // set for notes loaded for the notifications list, whose JSON is only loaded when it's needed
+    private final ListFields mListFields;
+    private JsonLoader mJsonLoader;
+
     private final Object mSyncLock = new Object();
     private String mLocalStatus;
 
@@ -72,18 +79,65 @@ public class Note {
         GROUP_OLDER_MONTH
     }
 
+    /**
+     * The fields of a note shown in the notifications list, stored in their own columns so the list can be
+     * loaded and filtered without parsing the full note
+     */
+    public static class ListFields {
+        public String type;
+        public long timestamp;
+        public boolean isUnread;
+        public JSONObject subject;
+        public String commentSubject;
+        public String commentSubjectNoticon;
+        public String iconUrl;
+        public String noticon;
+        public int siteId;
+        public int postId;
+        public long commentId;
+        public String commentStatus;
+    }
+
+    public interface JsonLoader {
+        @Nullable JSONObject loadJson(@NonNull String noteId);
+    }
+
     public Note(String key, JSONObject noteJSON) {
         mKey = key;
         mNoteJSON = noteJSON;
+        mListFields = null;
     }
 
     public Note(JSONObject noteJSON) {
         mNoteJSON = noteJSON;
         mKey = mNoteJSON.optString("id", "");
+        mListFields = null;
+    }
+
+    /*
+     * creates a note from its list fields - the full JSON is loaded through the passed loader the first
+     * time something other than the list fields is requested
+     */
+    public Note(@NonNull String key, @NonNull ListFields listFields, @NonNull JsonLoader jsonLoader) {
+        mKey = key;
+        mListFields = listFields;
+        mJsonLoader = jsonLoader;
+    }
+
+    private JSONObject getNoteJSON() {
+        synchronized (mSyncLock) {
+            if (mNoteJSON == null && mJsonLoader != null) {
+                JSONObject noteJSON = mJsonLoader.loadJson(mKey);
+                mNoteJSON = noteJSON != null ? noteJSON : new JSONObject();
+                mJsonLoader = null;
+            }
+            return mNoteJSON;
+        }
     }
 
     public JSONObject getJSON() {
-        return mNoteJSON != null ? mNoteJSON : new JSONObject();
+        JSONObject noteJSON = getNoteJSON();
+        return noteJSON != null ? noteJSON : new JSONObject();
     }
 
     public String getId() {
@@ -91,6 +145,9 @@ public class Note {
     }
 
     public String getType() {
+        if (mListFields != null) {
+            return mListFields.type;
+        }
         return queryJSON("type", NOTE_UNKNOWN_TYPE);
     }
 
@@ -99,8 +156,11 @@ public class Note {
     }
 
     public Boolean isCommentType() {
+        if (mListFields != null) {
+            return (isAutomattcherType() && mListFields.commentId != 0) || isType(NOTE_COMMENT_TYPE);
+        }
         synchronized (mSyncLock) {
-            return (isAutomattcherType() && JSONUtils.queryJSON(mNoteJSON, "meta.ids.comment", -1) != -1)
+            return (isAutomattcherType() && JSONUtils.queryJSON(getNoteJSON(), "meta.ids.comment", -1) != -1)
                    || isType(NOTE_COMMENT_TYPE);
         }
     }
@@ -187,9 +247,12 @@ public class Note {
     }
 
     public JSONObject getSubject() {
+        if (mListFields != null) {
+            return mListFields.subject;
+        }
         try {
             synchronized (mSyncLock) {
-                JSONArray subjectArray = mNoteJSON.getJSONArray("subject");
+                JSONArray subjectArray = getNoteJSON().getJSONArray("subject");
                 if (subjectArray.length() > 0) {
                     return subjectArray.getJSONObject(0);
                 }
@@ -210,12 +273,18 @@ public class Note {
     }
 
     public String getIconURL() {
+        if (mListFields != null) {
+            return mListFields.iconUrl;
+        }
         return queryJSON("icon", "");
     }
 
     public String getCommentSubject() {
+        if (mListFields != null) {
+            return mListFields.commentSubject;
+        }
         synchronized (mSyncLock) {
-            JSONArray subjectArray = mNoteJSON.optJSONArray("subject");
+            JSONArray subjectArray = getNoteJSON().optJSONArray("subject");
             if (subjectArray != null) {
                 String commentSubject = JSONUtils.queryJSON(subjectArray, "subject[1].text", "");
 
@@ -232,6 +301,9 @@ public class Note {
     }
 
     public String getCommentSubjectNoticon() {
+        if (mListFields != null) {
+            return mListFields.commentSubjectNoticon;
+        }
         JSONArray subjectRanges = queryJSON("subject[0].ranges", new JSONArray());
         if (subjectRanges != null) {
             for (int i = 0; i < subjectRanges.length(); i++) {
@@ -277,7 +349,8 @@ public class Note {
     public static class TimeStampComparator implements Comparator<Note> {
         @Override
         public int compare(Note a, Note b) {
-            return b.getTimestampString().compareTo(a.getTimestampString());
+            // compares the timestamps rather than their strings, which would load the JSON of notes loaded for the list
+            return Long.compare(b.getTimestamp(), a.getTimestamp());
         }
     }
 
@@ -289,12 +362,18 @@ public class Note {
     }
 
     private Boolean isRead() {
+        if (mListFields != null) {
+            return !mListFields.isUnread;
+        }
         return queryJSON("read", 0) == 1;
     }
 
     public void setRead() {
+        if (mListFields != null) {
+            mListFields.isUnread = false;
+        }
         try {
-            mNoteJSON.putOpt("read", 1);
+            getJSON().putOpt("read", 1);
         } catch (JSONException e) {
             AppLog.e(AppLog.T.NOTIFS, "Failed to set 'read' property", e);
         }
@@ -304,6 +383,9 @@ public class Note {
      * Get the timestamp provided by the API for the note
      */
     public long getTimestamp() {
+        if (mListFields != null) {
+            return mListFields.timestamp;
+        }
         return DateTimeUtils.timestampFromIso8601(getTimestampString());
     }
 
@@ -314,7 +396,7 @@ public class Note {
     public JSONArray getBody() {
         try {
             synchronized (mSyncLock) {
-                return mNoteJSON.getJSONArray("body");
+                return getNoteJSON().getJSONArray("body");
             }
         } catch (JSONException e) {
             return new JSONArray();
@@ -323,6 +405,9 @@ public class Note {
 
     // returns character code for notification font
     public String getNoticonCharacter() {
+        if (mListFields != null) {
+            return mListFields.noticon;
+        }
         return queryJSON("noticon", "");
     }
 
@@ -382,14 +467,23 @@ public class Note {
     }
 
     public int getSiteId() {
+        if (mListFields != null) {
+            return mListFields.siteId;
+        }
         return queryJSON("meta.ids.site", 0);
     }
 
     public int getPostId() {
+        if (mListFields != null) {
+            return mListFields.postId;
+        }
         return queryJSON("meta.ids.post", 0);
     }
 
     public long getCommentId() {
+        if (mListFields != null) {
+            return mListFields.commentId;
+        }
         return queryJSON("meta.ids.comment", 0);
     }
 
@@ -402,10 +496,11 @@ public class Note {
      */
     private <U> U queryJSON(String query, U defaultObject) {
         synchronized (mSyncLock) {
-            if (mNoteJSON == null) {
+            JSONObject noteJSON = getNoteJSON();
+            if (noteJSON == null) {
                 return defaultObject;
             }
-            return JSONUtils.queryJSON(mNoteJSON, query, defaultObject);
+            return JSONUtils.queryJSON(noteJSON, query, defaultObject);
         }
     }
 
@@ -467,6 +562,9 @@ public class Note {
     }
 
     public CommentStatus getCommentStatus() {
+        if (mListFields != null) {
+            return CommentStatus.fromString(mListFields.commentStatus);
+        }
         EnumSet<EnabledActions> enabledActions = getEnabledActions();
 
         if (enabledActions.contains(EnabledActions.ACTION_UNAPPROVE)) {
@@ -489,7 +587,7 @@ public class Note {
 
     public JSONArray getHeader() {
         synchronized (mSyncLock) {
-            return mNoteJSON.optJSONArray("header");
+            return getNoteJSON().optJSONArray("header");
         }
     }
 
@@ -6,6 +6,8 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ReaderBlogList extends ArrayList<ReaderBlog> {
     @Override
@@ -36,13 +38,15 @@ public class ReaderBlogList extends ArrayList<ReaderBlog> {
         return blogs;
     }
 
-    private int indexOfBlogId(long blogId) {
-        for (int i = 0; i < size(); i++) {
-            if (this.get(i).blogId == blogId) {
-                return i;
-            }
+    /*
+     * maps the blogs in this list by their blogId, which is the key of tbl_blog_info
+     */
+    private Map<Long, ReaderBlog> getBlogIdMap() {
+        Map<Long, ReaderBlog> blogs = new HashMap<>(size());
+        for (ReaderBlog blogInfo : this) {
+            blogs.put(blogInfo.blogId, blogInfo);
         }
-        return -1;
+        return blogs;
     }
 
     public boolean isSameList(ReaderBlogList blogs) {
@@ -50,13 +54,10 @@ public class ReaderBlogList extends ArrayList<ReaderBlog> {
             return false;
         }
 
+        Map<Long, ReaderBlog> thisBlogs = getBlogIdMap();
         for (ReaderBlog blogInfo : blogs) {
-            int index = indexOfBlogId(blogInfo.blogId);
-            if (index == -1) {
-                return false;
-            }
-            ReaderBlog thisInfo = this.get(index);
-            if (!thisInfo.isSameAs(blogInfo)) {
+            ReaderBlog thisInfo = thisBlogs.get(blogInfo.blogId);
+            if (thisInfo == null || !thisInfo.isSameAs(blogInfo)) {
                 return false;
             }
         }
@@ -65,22 +66,42 @@ public class ReaderBlogList extends ArrayList<ReaderBlog> {
     }
 
     /*
-     * returns true if the passed blog list has the same blogs that are in this list - differs
-     * from isSameList() in that isSameList() checks for *any* changes (subscription count, etc.)
-     * whereas this only checks if the passed list has any blogs that are not in this list, or
-     * this list has any blogs that are not in the passed list
+     * returns the blogs in this list which aren't in the passed list
      */
-    public boolean hasSameBlogs(@NonNull ReaderBlogList blogs) {
-        if (blogs.size() != this.size()) {
-            return false;
+    public ReaderBlogList getBlogsNotIn(@NonNull ReaderBlogList blogs) {
+        Map<Long, ReaderBlog> otherBlogs = blogs.getBlogIdMap();
+        ReaderBlogList result = new ReaderBlogList();
+        for (ReaderBlog blogInfo : this) {
+            if (!otherBlogs.containsKey(blogInfo.blogId)) {
+                result.add(blogInfo);
+            }
         }
+        return result;
+    }
 
-        for (ReaderBlog blogInfo : blogs) {
-            if (indexOfBlogId(blogInfo.blogId) == -1) {
-                return false;
+    /*
+     * returns the blogs in this list which are also in the passed list but have changed there, with
+     * the blog from this list
+     */
+    public ReaderBlogList getBlogsChangedFrom(@NonNull ReaderBlogList blogs) {
+        Map<Long, ReaderBlog> otherBlogs = blogs.getBlogIdMap();
+        ReaderBlogList result = new ReaderBlogList();
+        for (ReaderBlog blogInfo : this) {
+            ReaderBlog otherInfo = otherBlogs.get(blogInfo.blogId);
+            if (otherInfo != null && !otherInfo.isSameAs(blogInfo)) {
+                result.add(blogInfo);
             }
         }
+        return result;
+    }
 
-        return true;
+    /*
+     * returns true if the passed blog list has the same blogs that are in this list - differs
+     * from isSameList() in that isSameList() checks for *any* changes (subscription count, etc.)
+     * whereas this only checks if the passed list has any blogs that are not in this list, or
+     * this list has any blogs that are not in the passed list
+     */
+    public boolean hasSameBlogs(@NonNull ReaderBlogList blogs) {
+        return blogs.size() == this.size() && getBlogsNotIn(blogs).isEmpty();
     }
 }
@@ -3,7 +3,6 @@ package org.wordpress.android.models;
 import androidx.annotation.NonNull;
 
 import org.wordpress.android.ui.reader.ReaderConstants;
-import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.util.HtmlUtils;
 
 /**
@@ -36,10 +35,8 @@ public enum ReaderCardType {
         // if this post doesn't have a featured image but has enough usable images to fill the
         // stream's thumbnail strip, treat it as a gallery
         if (!post.hasFeaturedImage()
-            && post.hasImages()
-            && new ReaderImageScanner(post.getText(), post.isPrivate)
-                    .hasUsableImageCount(ReaderConstants.THUMBNAIL_STRIP_IMG_COUNT,
-                            ReaderConstants.MIN_GALLERY_IMAGE_WIDTH)) {
+            && post.getImageIndex().hasUsableImageCount(ReaderConstants.THUMBNAIL_STRIP_IMG_COUNT,
+                    ReaderConstants.MIN_GALLERY_IMAGE_WIDTH)) {
             return GALLERY;
         }
 
@@ -2,12 +2,15 @@ package org.wordpress.android.models;
 
 import android.text.TextUtils;
 
+import androidx.annotation.NonNull;
+
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.wordpress.android.ui.Organization;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
+import org.wordpress.android.ui.reader.models.ReaderImageIndex;
 import org.wordpress.android.ui.reader.utils.ReaderIframeScanner;
 import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
@@ -50,6 +53,11 @@ public class ReaderPost {
     private String mDatePublished;
     public double score;
 
+    // dates of the stream row the post was read from, which the stream is sorted by - unlike the dates
+    // above they aren't overwritten when the post is saved to another stream
+    private String mStreamDatePublished;
+    private String mStreamDateLiked;
+
     private String mUrl;
     private String mShortUrl;
     private String mFeaturedImage;
@@ -76,6 +84,7 @@ public class ReaderPost {
 
     private String mAttachmentsJson;
     private String mDiscoverJson;
+    private String mImagesJson;
     private String mFormat;
 
     public long xpostPostId;
@@ -202,8 +211,7 @@ public class ReaderPost {
         // if the post doesn't have a featured image but it contains an IMG tag, check whether
         // we can find a suitable image from the content
         if (!post.hasFeaturedImage() && post.hasImages()) {
-            post.mFeaturedImage = new ReaderImageScanner(post.mText, post.isPrivate)
-                    .getLargestImage(ReaderConstants.MIN_FEATURED_IMAGE_WIDTH);
+            post.mFeaturedImage = post.getImageIndex().getLargestImage(ReaderConstants.MIN_FEATURED_IMAGE_WIDTH);
         }
 
         // if there's no featured image or featured video and the post contains an iframe, scan
@@ -413,6 +421,9 @@ public class ReaderPost {
 
     public void setText(String text) {
         this.mText = StringUtils.notNullStr(text);
+        // the image index belongs to the previous text
+        mImagesJson = null;
+        mImageIndex = null;
     }
 
     public String getExcerpt() {
@@ -545,6 +556,22 @@ public class ReaderPost {
         this.mDateTagged = StringUtils.notNullStr(dateStr);
     }
 
+    public String getStreamDatePublished() {
+        return StringUtils.notNullStr(mStreamDatePublished);
+    }
+
+    public void setStreamDatePublished(String dateStr) {
+        this.mStreamDatePublished = StringUtils.notNullStr(dateStr);
+    }
+
+    public String getStreamDateLiked() {
+        return StringUtils.notNullStr(mStreamDateLiked);
+    }
+
+    public void setStreamDateLiked(String dateStr) {
+        this.mStreamDateLiked = StringUtils.notNullStr(dateStr);
+    }
+
     public ReaderTagList getTags() {
         return mTags;
     }
@@ -616,6 +643,40 @@ public class ReaderPost {
         return !TextUtils.isEmpty(mDiscoverJson);
     }
 
+    /*
+     * the images in the post's content are indexed once and stored as JSON, so the content
+     * doesn't have to be scanned whenever a thumbnail or featured image is needed - note that
+     * this must be set after the text since setText() drops the index
+     */
+    public String getImagesJson() {
+        if (TextUtils.isEmpty(mImagesJson) && hasText()) {
+            mImagesJson = getImageIndex().toJson();
+        }
+        return StringUtils.notNullStr(mImagesJson);
+    }
+
+    public void setImagesJson(String json) {
+        mImagesJson = StringUtils.notNullStr(json);
+        mImageIndex = null;
+    }
+
+    private transient ReaderImageIndex mImageIndex;
+
+    /*
+     * returns the index of the images in the post's content, scanning the content only when the
+     * post was stored before images were indexed
+     */
+    @NonNull
+    public ReaderImageIndex getImageIndex() {
+        if (mImageIndex == null) {
+            mImageIndex = ReaderImageIndex.fromJson(mImagesJson);
+            if (mImageIndex == null) {
+                mImageIndex = new ReaderImageScanner(mText).getImageIndex();
+            }
+        }
+        return mImageIndex;
+    }
+
     private transient ReaderPostDiscoverData mDiscoverData;
 
     public ReaderPostDiscoverData getDiscoverData() {
@@ -5,6 +5,8 @@ import org.json.JSONObject;
 import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ReaderPostList extends ArrayList<ReaderPost> {
     public static ReaderPostList fromJson(JSONObject json) {
@@ -23,37 +25,69 @@ public class ReaderPostList extends ArrayList<ReaderPost> {
         return posts;
     }
 
+    // lazily built positions of the posts keyed by their blogId/postId and feedId/postId pairs, used
+    // instead of scanning the list when looking up a post - rebuilt once the list has been modified
+    private transient Map<ReaderBlogIdPostId, Integer> mBlogIndex;
+    private transient Map<ReaderBlogIdPostId, Integer> mFeedIndex;
+    private transient int mIndexModCount;
+
     @Override
     public Object clone() {
-        return super.clone();
+        ReaderPostList clone = (ReaderPostList) super.clone();
+        clone.mBlogIndex = null;
+        clone.mFeedIndex = null;
+        return clone;
+    }
+
+    @Override
+    public ReaderPost set(int index, ReaderPost post) {
+        // replacing a post isn't a structural change, so it doesn't update modCount
+        mBlogIndex = null;
+        mFeedIndex = null;
+        return super.set(index, post);
+    }
+
+    private void buildIndexIfNeeded() {
+        if (mBlogIndex != null && mIndexModCount == modCount) {
+            return;
+        }
+        Map<ReaderBlogIdPostId, Integer> blogIndex = new HashMap<>(size() * 2);
+        Map<ReaderBlogIdPostId, Integer> feedIndex = new HashMap<>(size() * 2);
+        for (int i = 0; i < size(); i++) {
+            ReaderPost post = get(i);
+            // the first post with the same ids wins, as it would when scanning the list
+            blogIndex.putIfAbsent(new ReaderBlogIdPostId(post.blogId, post.postId), i);
+            feedIndex.putIfAbsent(new ReaderBlogIdPostId(post.feedId, post.postId), i);
+        }
+        mBlogIndex = blogIndex;
+        mFeedIndex = feedIndex;
+        mIndexModCount = modCount;
+    }
+
+    private static int positionOf(Map<ReaderBlogIdPostId, Integer> index, long id, long postId) {
+        Integer position = index.get(new ReaderBlogIdPostId(id, postId));
+        return position != null ? position : -1;
     }
 
+    /*
+     * external posts are matched by their feedId, all others by their blogId
+     */
     public int indexOfPost(ReaderPost post) {
         if (post == null) {
             return -1;
         }
-        for (int i = 0; i < size(); i++) {
-            if (this.get(i).postId == post.postId) {
-                if (post.isExternal && post.feedId == this.get(i).feedId) {
-                    return i;
-                } else if (!post.isExternal && post.blogId == this.get(i).blogId) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+        buildIndexIfNeeded();
+        return post.isExternal
+                ? positionOf(mFeedIndex, post.feedId, post.postId)
+                : positionOf(mBlogIndex, post.blogId, post.postId);
     }
 
     public int indexOfIds(ReaderBlogIdPostId ids) {
         if (ids == null) {
             return -1;
         }
-        for (int i = 0; i < size(); i++) {
-            if (this.get(i).hasIds(ids)) {
-                return i;
-            }
-        }
-        return -1;
+        buildIndexIfNeeded();
+        return positionOf(mBlogIndex, ids.getBlogId(), ids.getPostId());
     }
 
     /*
@@ -74,35 +108,6 @@ public class ReaderPostList extends ArrayList<ReaderPost> {
         return true;
     }
 
-
-    /*
-     * Does passed list contain the same posts as this list?
-     * Also compares the bookmark flag that is not yet implemented on server
-     * We might want to use original isSameList when bookmarked flag will be implemented on server side and Post model
-     * updated.
-     */
-    public boolean isSameListWithBookmark(ReaderPostList posts) {
-        if (posts == null || posts.size() != this.size()) {
-            return false;
-        }
-
-        for (ReaderPost post : posts) {
-            int index = indexOfPost(post);
-
-            if (index == -1) {
-                return false;
-            }
-
-            ReaderPost postInsideList = this.get(index);
-
-            if (!post.isSamePost(postInsideList) || post.isBookmarked != postInsideList.isBookmarked) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     /*
      * returns posts in this list which are in the passed blog
      */
@@ -36,8 +36,6 @@ import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.DateTimeUtils;
-import org.wordpress.android.util.ImageUtils;
-import org.wordpress.android.util.PhotonUtils;
 import org.wordpress.android.util.StringUtils;
 
 import java.io.UnsupportedEncodingException;
@@ -101,9 +99,10 @@ public class GCMMessageHandler {
     private final NotificationHelper mNotificationHelper;
 
     @Inject
-    GCMMessageHandler(SystemNotificationsTracker systemNotificationsTracker) {
+    GCMMessageHandler(SystemNotificationsTracker systemNotificationsTracker,
+                      NotificationIconCache notificationIconCache) {
         mActiveNotificationsMap = new ArrayMap<>();
-        mNotificationHelper = new NotificationHelper(this, systemNotificationsTracker);
+        mNotificationHelper = new NotificationHelper(this, systemNotificationsTracker, notificationIconCache);
     }
 
     synchronized void rebuildAndUpdateNotificationsOnSystemBarForThisNote(Context context,
@@ -278,11 +277,14 @@ public class GCMMessageHandler {
     public static class NotificationHelper {
         private GCMMessageHandler mGCMMessageHandler;
         private SystemNotificationsTracker mSystemNotificationsTracker;
+        private NotificationIconCache mNotificationIconCache;
 
         NotificationHelper(GCMMessageHandler gCMMessageHandler,
-                           SystemNotificationsTracker systemNotificationsTracker) {
+                           SystemNotificationsTracker systemNotificationsTracker,
+                           NotificationIconCache notificationIconCache) {
             mGCMMessageHandler = gCMMessageHandler;
             mSystemNotificationsTracker = systemNotificationsTracker;
+            mNotificationIconCache = notificationIconCache;
         }
 
         void handleDefaultPush(Context context, @NonNull Bundle data, long wpcomUserId) {
@@ -592,13 +594,7 @@ public class GCMMessageHandler {
             if (iconUrl != null) {
                 try {
                     iconUrl = URLDecoder.decode(iconUrl, "UTF-8");
-                    int largeIconSize = context.getResources().getDimensionPixelSize(
-                            android.R.dimen.notification_large_icon_height);
-                    String resizedUrl = PhotonUtils.getPhotonImageUrl(iconUrl, largeIconSize, largeIconSize);
-                    largeIconBitmap = ImageUtils.downloadBitmap(resizedUrl);
-                    if (largeIconBitmap != null && shouldCircularizeIcon) {
-                        largeIconBitmap = ImageUtils.getCircularBitmap(largeIconBitmap);
-                    }
+                    largeIconBitmap = mNotificationIconCache.getLargeIcon(iconUrl, shouldCircularizeIcon);
                 } catch (UnsupportedEncodingException e) {
                     AppLog.e(T.NOTIFS, e);
                 }
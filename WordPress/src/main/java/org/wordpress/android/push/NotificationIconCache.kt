@@ -0,0 +1,157 @@
+package org.wordpress.android.push
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import androidx.annotation.VisibleForTesting
+import androidx.collection.LruCache
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import org.wordpress.android.util.ImageUtils
+import org.wordpress.android.util.PhotonUtils
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.FutureTask
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * Provides the large icons (usually the avatar of the sender) shown in push notifications. Icons are
+ * downloaded at notification size through Photon, circularized when requested and kept in a memory and
+ * disk cache keyed by their Photon URL, so a burst of notifications from the same person only fetches
+ * and processes the avatar once. Concurrent requests for the same icon share a single download, and
+ * callers only wait for it up to a time budget so a slow network doesn't hold back the notification -
+ * a download which takes longer still completes in the background and is cached for the next one.
+ *
+ * Should be called from a background thread.
+ */
+@Singleton
+class NotificationIconCache @VisibleForTesting internal constructor(
+    private val context: Context,
+    private val iconLoader: (photonUrl: String, shouldCircularize: Boolean) -> Bitmap?,
+    private val timeoutMs: Long
+) {
+    @Inject constructor(context: Context) : this(context, ::downloadIcon, TIMEOUT_MS)
+
+    private val memoryCache = object : LruCache<String, Bitmap>(MAX_MEMORY_SIZE_BYTES) {
+        override fun sizeOf(key: String, value: Bitmap) = value.byteCount
+    }
+    private val pendingDownloads = ConcurrentHashMap<String, FutureTask<Bitmap?>>()
+    private val executor = ThreadPoolExecutor(
+            MAX_DOWNLOAD_THREADS,
+            MAX_DOWNLOAD_THREADS,
+            THREAD_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            LinkedBlockingQueue()
+    ).apply { allowCoreThreadTimeOut(true) }
+    private val diskDir by lazy { File(context.cacheDir, DISK_CACHE_DIR) }
+
+    fun getLargeIcon(iconUrl: String, shouldCircularize: Boolean): Bitmap? {
+        val iconSize = context.resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_height)
+        val photonUrl = PhotonUtils.getPhotonImageUrl(iconUrl, iconSize, iconSize)
+        val key = if (shouldCircularize) "$photonUrl$CIRCULAR_KEY_SUFFIX" else photonUrl
+
+        memoryCache[key]?.let { return it }
+
+        val download = FutureTask { loadIcon(key, photonUrl, shouldCircularize) }
+        val pendingDownload = pendingDownloads.putIfAbsent(key, download)
+        if (pendingDownload == null) {
+            executor.execute(download)
+        }
+        return try {
+            (pendingDownload ?: download).get(timeoutMs, TimeUnit.MILLISECONDS)
+        } catch (e: TimeoutException) {
+            AppLog.w(T.NOTIFS, "notification icon > timed out loading $photonUrl")
+            null
+        } catch (e: ExecutionException) {
+            AppLog.e(T.NOTIFS, "notification icon > failed loading $photonUrl", e)
+            null
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            null
+        }
+    }
+
+    private fun loadIcon(key: String, photonUrl: String, shouldCircularize: Boolean): Bitmap? {
+        try {
+            val icon = readFromDisk(key) ?: iconLoader(photonUrl, shouldCircularize)?.also { writeToDisk(key, it) }
+            icon?.let { memoryCache.put(key, it) }
+            return icon
+        } finally {
+            pendingDownloads.remove(key)
+        }
+    }
+
+    private fun getFile(key: String) = File(diskDir, hashKey(key) + FILE_EXTENSION)
+
+    @Synchronized
+    private fun readFromDisk(key: String): Bitmap? {
+        val file = getFile(key)
+        if (!file.exists()) {
+            return null
+        }
+        val icon = BitmapFactory.decodeFile(file.path)
+        if (icon == null) {
+            file.delete()
+        } else {
+            // touch the file so recently used icons are the last to be evicted
+            file.setLastModified(System.currentTimeMillis())
+        }
+        return icon
+    }
+
+    @Synchronized
+    private fun writeToDisk(key: String, icon: Bitmap) {
+        if (!diskDir.exists() && !diskDir.mkdirs()) {
+            AppLog.w(T.NOTIFS, "notification icon > unable to create cache directory")
+            return
+        }
+        val file = getFile(key)
+        try {
+            FileOutputStream(file).use { icon.compress(Bitmap.CompressFormat.PNG, 100, it) }
+        } catch (e: IOException) {
+            AppLog.e(T.NOTIFS, "notification icon > failed to write $key", e)
+            file.delete()
+            return
+        }
+        trimDisk()
+    }
+
+    private fun trimDisk() {
+        val files = diskDir.listFiles() ?: return
+        if (files.size > MAX_DISK_FILES) {
+            files.sortedBy { it.lastModified() }
+                    .take(files.size - MAX_DISK_FILES)
+                    .forEach { it.delete() }
+        }
+    }
+
+    private fun hashKey(key: String): String {
+        val digest = MessageDigest.getInstance("SHA-1").digest(key.toByteArray())
+        return digest.joinToString("") { String.format("%02x", it) }
+    }
+
+    companion object {
+        private const val MAX_MEMORY_SIZE_BYTES = 2 * 1024 * 1024
+        @VisibleForTesting internal const val MAX_DISK_FILES = 200
+        private const val MAX_DOWNLOAD_THREADS = 2
+        private const val THREAD_KEEP_ALIVE_SECONDS = 30L
+        private const val TIMEOUT_MS = 3000L
+        @VisibleForTesting internal const val DISK_CACHE_DIR = "notification_icons"
+        private const val FILE_EXTENSION = ".png"
+        private const val CIRCULAR_KEY_SUFFIX = "#circular"
+
+        private fun downloadIcon(photonUrl: String, shouldCircularize: Boolean): Bitmap? {
+            val icon = ImageUtils.downloadBitmap(photonUrl) ?: return null
+            return if (shouldCircularize) ImageUtils.getCircularBitmap(icon) else icon
+        }
+    }
+}
@@ -47,6 +47,8 @@ import org.wordpress.android.ui.notifications.utils.PendingDraftsNotificationsUt
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.LocaleManager;
+import org.wordpress.android.util.ServiceTaskExecutor;
+import org.wordpress.android.util.ServiceTaskExecutor.Lane;
 import org.wordpress.android.util.analytics.AnalyticsUtils;
 import org.wordpress.android.util.analytics.AnalyticsUtils.AnalyticsCommentActionSource;
 import org.wordpress.android.util.analytics.AnalyticsUtils.QuickActionTrackPropertyValue;
@@ -173,7 +175,7 @@ public class NotificationsProcessingService extends Service {
 
         mQuickActionProcessor =
                 new QuickActionProcessor(this, mSystemNotificationsTracker, mGCMMessageHandler, intent, startId);
-        new Thread(() -> mQuickActionProcessor.process()).start();
+        ServiceTaskExecutor.getInstance().execute(this, Lane.NOTIFICATIONS, mQuickActionProcessor::process);
 
         return START_NOT_STICKY;
     }
@@ -78,6 +78,7 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentListViewHolder>
     @Inject ImageManager mImageManager;
     @Inject AccountStore mAccountStore;
     @Inject UiHelpers mUiHelpers;
+    @Inject CommentContentSpanCache mCommentContentSpanCache;
 
     CommentAdapter(Context context, SiteModel site) {
         ((WordPress) context.getApplicationContext()).component().inject(this);
@@ -109,7 +110,8 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentListViewHolder>
             case HEADER:
                 return new CommentSubHeaderViewHolder(parent);
             case COMMENT:
-                return new CommentViewHolder(parent, mOnCommentPressedListener, mImageManager, mUiHelpers);
+                return new CommentViewHolder(parent, mOnCommentPressedListener, mImageManager, mUiHelpers,
+                        mCommentContentSpanCache);
             default:
                 throw new IllegalArgumentException("Unexpected view holder in CommentListAdapter");
         }
@@ -373,6 +375,8 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentListViewHolder>
             mTmpComments = new ArrayList<>();
             for (CommentModel comment : comments) {
                 Comment commentListItem = new Comment(comment);
+                // convert the content here so binding the comment only needs a cache lookup
+                mCommentContentSpanCache.getFormattedContent(comment.getRemoteCommentId(), comment.getContent());
 
                 if (!mTmpComments.isEmpty()) {
                     Comment lastItem = (Comment) mTmpComments.get(mTmpComments.size() - 1);
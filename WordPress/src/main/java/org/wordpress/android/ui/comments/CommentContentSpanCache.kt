@@ -0,0 +1,40 @@
+package org.wordpress.android.ui.comments
+
+import android.text.Spanned
+import android.text.SpannedString
+import androidx.collection.LruCache
+import org.wordpress.android.util.StringUtils
+import org.wordpress.android.util.WPHtml
+import org.wordpress.android.viewmodel.ContextProvider
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * Converts the html content of comments to the styled text shown in the comment lists and keeps the
+ * result in a bounded LRU cache, keyed by the comment id and a hash of its content so edited comments
+ * are converted again. The conversion parses the html, so it's meant to be done off the main thread
+ * when the comments are loaded - binding a comment then only needs a cache lookup.
+ */
+@Singleton
+class CommentContentSpanCache @Inject constructor(private val contextProvider: ContextProvider) {
+    private val cache = object : LruCache<String, Spanned>(MAX_CACHE_SIZE_CHARS) {
+        override fun sizeOf(key: String, value: Spanned) = value.length + 1
+    }
+
+    fun getFormattedContent(commentId: Long, content: String?): Spanned {
+        val html = StringUtils.notNullStr(content)
+        val key = "$commentId-${html.length}-${html.hashCode()}"
+        return cache[key] ?: formatContent(html).also { cache.put(key, it) }
+    }
+
+    private fun formatContent(html: String): Spanned {
+        val spannedContent = WPHtml.fromHtml(html, null, null, contextProvider.getContext(), null, 0)
+        val trimmedContent = spannedContent.trim()
+        // immutable copy, since the same instance may be shown by several views
+        return SpannedString(spannedContent.subSequence(0, trimmedContent.length))
+    }
+
+    companion object {
+        private const val MAX_CACHE_SIZE_CHARS = 512 * 1024
+    }
+}
@@ -0,0 +1,110 @@
+package org.wordpress.android.ui.comments
+
+import org.wordpress.android.util.AppLog
+import java.util.ArrayDeque
+import java.util.ArrayList
+import java.util.Collections
+import java.util.IdentityHashMap
+
+/**
+ * Threads a list of comments of any type into a "level list" which places child comments below their
+ * parents with indentation levels applied. Shared by the Reader and site comment levelers.
+ *
+ * The children of every comment are indexed in a single pass, then the list is emitted by an iterative
+ * depth-first walk, so leveling is linear in the number of comments regardless of how deep threads are.
+ * Orphans (child comments whose parent isn't in the list) are added after the threads with a level of 1,
+ * followed by their own replies. When the list is one page of a longer thread, the levels of the comments
+ * on the other pages can be passed in - replies to those comments continue their thread, so they're added
+ * before the threads which start on the page, one level below their parent.
+ */
+class CommentThreadLeveler<T>(
+    private val comments: List<T>,
+    private val accessor: CommentAccessor<T>,
+    private val logTag: AppLog.T = AppLog.T.COMMENTS
+) {
+    interface CommentAccessor<T> {
+        fun getCommentId(comment: T): Long
+        fun getParentId(comment: T): Long
+        fun setLevel(comment: T, level: Int)
+    }
+
+    // children of each comment id in the order they appear in the list
+    private val childrenById: Map<Long, List<T>> by lazy {
+        val index = HashMap<Long, MutableList<T>>()
+        for (comment in comments) {
+            val parentId = accessor.getParentId(comment)
+            if (parentId != 0L) {
+                index.getOrPut(parentId) { ArrayList() }.add(comment)
+            }
+        }
+        index
+    }
+
+    fun createLevelList(): ArrayList<T> = createLevelList(emptyMap())
+
+    fun createLevelList(knownLevels: Map<Long, Int>): ArrayList<T> {
+        val result = ArrayList<T>(comments.size)
+        // guards against comments being added twice when ids are duplicated or replies form a cycle
+        val added = Collections.newSetFromMap(IdentityHashMap<T, Boolean>())
+
+        // reset all levels, and collect the root comments and the orphans
+        val commentIds = HashSet<Long>(comments.size * 2)
+        comments.forEach { commentIds.add(accessor.getCommentId(it)) }
+        val roots = ArrayList<T>()
+        val orphans = ArrayList<T>()
+        for (comment in comments) {
+            accessor.setLevel(comment, 0)
+            val parentId = accessor.getParentId(comment)
+            if (parentId == 0L) {
+                roots.add(comment)
+            } else if (!commentIds.contains(parentId)) {
+                val parentLevel = knownLevels[parentId]
+                if (parentLevel != null) {
+                    addThreads(listOf(comment), parentLevel + 1, result, added)
+                } else {
+                    orphans.add(comment)
+                }
+            }
+        }
+
+        addThreads(roots, 0, result, added)
+
+        // orphans get a non-zero level to distinguish them from top level comments
+        if (orphans.isNotEmpty()) {
+            AppLog.d(logTag, "Orphan comments encountered: ${orphans.size}")
+            addThreads(orphans, 1, result, added)
+        }
+
+        return result
+    }
+
+    /*
+     * adds each of the passed comments at the passed level followed by all of its replies
+     */
+    private fun addThreads(threadRoots: List<T>, level: Int, result: ArrayList<T>, added: MutableSet<T>) {
+        val stack = ArrayDeque<Pair<T, Int>>()
+        for (i in threadRoots.indices.reversed()) {
+            stack.push(threadRoots[i] to level)
+        }
+
+        while (stack.isNotEmpty()) {
+            val (comment, commentLevel) = stack.pop()
+            if (!added.add(comment)) {
+                continue
+            }
+            accessor.setLevel(comment, commentLevel)
+            result.add(comment)
+
+            // pushed in reverse so the first child is the next comment added
+            val children = childrenById[accessor.getCommentId(comment)] ?: continue
+            for (i in children.indices.reversed()) {
+                stack.push(children[i] to commentLevel + 1)
+            }
+        }
+    }
+
+    /*
+     * returns the direct replies to the comment with the passed id
+     */
+    fun getChildren(commentId: Long): List<T> = childrenById[commentId] ?: emptyList()
+}
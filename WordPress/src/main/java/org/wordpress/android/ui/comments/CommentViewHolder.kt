@@ -4,7 +4,6 @@ import android.content.Context
 import android.graphics.Typeface
 import android.text.Spannable
 import android.text.SpannableStringBuilder
-import android.text.Spanned
 import android.text.TextUtils
 import android.text.style.StyleSpan
 import android.view.View
@@ -22,8 +21,6 @@ import org.wordpress.android.fluxc.model.CommentStatus.UNAPPROVED
 import org.wordpress.android.ui.comments.CommentAdapter.OnCommentPressedListener
 import org.wordpress.android.ui.utils.UiHelpers
 import org.wordpress.android.util.GravatarUtils
-import org.wordpress.android.util.StringUtils
-import org.wordpress.android.util.WPHtml
 import org.wordpress.android.util.getColorFromAttribute
 import org.wordpress.android.util.image.ImageManager
 import org.wordpress.android.util.image.ImageType.AVATAR_WITH_BACKGROUND
@@ -34,7 +31,8 @@ class CommentViewHolder(
     parent: ViewGroup,
     private val clickListener: OnCommentPressedListener,
     private val imageManager: ImageManager,
-    private val uiHelpers: UiHelpers
+    private val uiHelpers: UiHelpers,
+    private val commentContentSpanCache: CommentContentSpanCache
 ) : CommentListViewHolder(
         parent,
         R.layout.comment_list_item
@@ -50,7 +48,10 @@ class CommentViewHolder(
         val commentModel = item.comment
 
         title.text = getFormattedTitle(commentModel, title.context)
-        commentBody.text = getSpannedContent(commentModel, commentBody.context)
+        commentBody.text = commentContentSpanCache.getFormattedContent(
+                commentModel.remoteCommentId,
+                commentModel.content
+        )
 
         uiHelpers.updateVisibility(checkMark, isSelected)
 
@@ -91,12 +92,6 @@ class CommentViewHolder(
         return avatarForDisplay
     }
 
-    private fun getSpannedContent(comment: CommentModel, context: Context): Spanned {
-        val spannedContent = WPHtml.fromHtml(StringUtils.notNullStr(comment.content), null, null, context, null, 0)
-        val trimmedContent = spannedContent.trim()
-        return spannedContent.subSequence(0, trimmedContent.length) as Spanned
-    }
-
     private fun getFormattedTitle(comment: CommentModel, context: Context): Spannable {
         val formattedTitle: String
         var author = context.getString(string.anonymous)
@@ -8,6 +8,7 @@ import org.wordpress.android.fluxc.model.CommentStatus.DELETED
 import org.wordpress.android.fluxc.model.CommentStatus.TRASH
 import org.wordpress.android.fluxc.model.CommentStatus.UNAPPROVED
 import org.wordpress.android.fluxc.persistence.comments.CommentsDao.CommentEntity
+import org.wordpress.android.ui.comments.CommentContentSpanCache
 import org.wordpress.android.ui.comments.unified.CommentFilter.PENDING
 import org.wordpress.android.ui.comments.unified.CommentFilter.SPAM
 import org.wordpress.android.ui.comments.unified.CommentFilter.TRASHED
@@ -37,7 +38,8 @@ import javax.inject.Inject
 class CommentListUiModelHelper @Inject constructor(
     private val resourceProvider: ResourceProvider,
     private val dateTimeUtilsWrapper: DateTimeUtilsWrapper,
-    private val networkUtilsWrapper: NetworkUtilsWrapper
+    private val networkUtilsWrapper: NetworkUtilsWrapper,
+    private val commentContentSpanCache: CommentContentSpanCache
 ) {
     @Suppress("LongParameterList")
     internal fun buildUiModel(
@@ -257,6 +259,10 @@ class CommentListUiModelHelper @Inject constructor(
                             authorName = commentModel.authorName.orEmpty(),
                             authorEmail = commentModel.authorEmail.orEmpty(),
                             content = commentModel.content.orEmpty(),
+                            formattedContent = commentContentSpanCache.getFormattedContent(
+                                    commentModel.remoteCommentId,
+                                    commentModel.content
+                            ),
                             publishedDate = commentModel.datePublished.orEmpty(),
                             publishedTimestamp = commentModel.publishedTimestamp,
                             authorAvatarUrl = commentModel.authorProfileImageUrl.orEmpty(),
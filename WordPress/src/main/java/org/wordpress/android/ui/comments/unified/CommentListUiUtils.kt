@@ -4,7 +4,6 @@ import android.content.Context
 import android.graphics.Typeface
 import android.text.Spannable
 import android.text.SpannableStringBuilder
-import android.text.Spanned
 import android.text.TextUtils
 import android.text.style.StyleSpan
 import android.view.View
@@ -12,18 +11,10 @@ import androidx.core.graphics.ColorUtils
 import org.wordpress.android.R.attr
 import org.wordpress.android.R.integer
 import org.wordpress.android.R.string
-import org.wordpress.android.util.StringUtils
-import org.wordpress.android.util.WPHtml
 import org.wordpress.android.util.getColorFromAttribute
 import javax.inject.Inject
 
 class CommentListUiUtils @Inject constructor() {
-    fun formatCommentContent(commentContent: String, context: Context): Spanned {
-        val spannedContent = WPHtml.fromHtml(StringUtils.notNullStr(commentContent), null, null, context, null, 0)
-        val trimmedContent = spannedContent.trim()
-        return spannedContent.subSequence(0, trimmedContent.length) as Spanned
-    }
-
     fun formatCommentTitle(authorName: String, postTitle: String, context: Context): Spannable {
         val formattedTitle: String
         var author = context.getString(string.anonymous)
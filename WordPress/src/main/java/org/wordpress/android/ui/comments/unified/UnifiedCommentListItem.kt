@@ -1,5 +1,6 @@
 package org.wordpress.android.ui.comments.unified
 
+import android.text.Spanned
 import org.wordpress.android.fluxc.model.CommentStatus
 import org.wordpress.android.fluxc.persistence.comments.CommentsDao.CommentEntity
 import org.wordpress.android.ui.comments.unified.UnifiedCommentListItem.CommentListItemType.COMMENT
@@ -17,6 +18,7 @@ sealed class UnifiedCommentListItem(val type: CommentListItemType) {
         val authorEmail: String,
         val authorAvatarUrl: String,
         val content: String,
+        val formattedContent: Spanned,
         val publishedDate: String,
         val publishedTimestamp: Long,
         val isPending: Boolean,
@@ -11,6 +11,7 @@ import kotlinx.coroutines.flow.collectLatest
 import kotlinx.coroutines.flow.combine
 import kotlinx.coroutines.flow.filter
 import kotlinx.coroutines.flow.filterIsInstance
+import kotlinx.coroutines.flow.flowOn
 import kotlinx.coroutines.flow.stateIn
 import kotlinx.coroutines.launch
 import org.wordpress.android.R.string
@@ -91,6 +92,7 @@ class UnifiedCommentListViewModel @Inject constructor(
 
     private val _commentsProvider = unifiedCommentsListHandler.subscribe()
 
+    // built in the background, since building the comment items converts the html of their content
     val uiState: StateFlow<CommentsUiModel> by lazy {
         combine(
                 _commentsProvider.filter { it.type == PAGINATE_USE_CASE }.filterIsInstance<CommentsPagingResult>(),
@@ -109,7 +111,7 @@ class UnifiedCommentListViewModel @Inject constructor(
                     this::moderateSelectedComments,
                     this::onBatchModerationConfirmationCanceled
             )
-        }.stateIn(
+        }.flowOn(bgDispatcher).stateIn(
                 scope = viewModelScope,
                 started = SharingStarted.Companion.WhileSubscribed(UI_STATE_FLOW_TIMEOUT_MS),
                 initialValue = CommentsUiModel.buildInitialState()
@@ -26,7 +26,7 @@ class UnifiedCommentViewHolder(
 ) : UnifiedCommentListViewHolder<CommentListItemBinding>(parent.viewBinding(CommentListItemBinding::inflate)) {
     fun bind(item: Comment) = with(binding) {
         title.text = commentListUiUtils.formatCommentTitle(item.authorName, item.postTitle, title.context)
-        comment.text = commentListUiUtils.formatCommentContent(item.content, comment.context)
+        comment.text = item.formattedContent
 
         if (item.isSelected) {
             imageManager.cancelRequestAndClearImageView(avatar)
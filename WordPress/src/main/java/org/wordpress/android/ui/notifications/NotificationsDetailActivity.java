@@ -363,11 +363,9 @@ public class NotificationsDetailActivity extends LocaleAwareActivity implements
     private NotificationDetailFragmentAdapter buildNoteListAdapterAndSetPosition(Note note,
                                                                                  NotesAdapter.FILTERS filter) {
         NotificationDetailFragmentAdapter adapter;
-        ArrayList<Note> notes = NotificationsTable.getLatestNotes();
-        ArrayList<Note> filteredNotes = new ArrayList<>();
-
         // apply filter to the list so we show the same items that the list show vertically, but horizontally
-        NotesAdapter.buildFilteredNotesList(filteredNotes, notes, filter);
+        ArrayList<Note> filteredNotes =
+                NotificationsTable.getLatestNotes(filter != null ? filter : NotesAdapter.FILTERS.FILTER_ALL);
         adapter = new NotificationDetailFragmentAdapter(getSupportFragmentManager(), filteredNotes);
 
         mViewPager.setAdapter(adapter);
@@ -12,11 +12,16 @@ import android.view.ViewGroup;
 import android.view.ViewParent;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
 import androidx.core.graphics.ColorUtils;
 import androidx.core.text.BidiFormatter;
 import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
+import org.json.JSONObject;
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.datasets.NotificationsTable;
@@ -36,11 +41,20 @@ import org.wordpress.android.widgets.BadgedImageView;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import javax.inject.Inject;
 
 public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHolder> {
+    // payload of rows whose read or moderation state is the only thing which changed
+    private static final Object PAYLOAD_STATE_CHANGED = new Object();
+    private static final int MAX_CACHED_SUBJECTS = 200;
+
     private final int mAvatarSz;
     private final int mColorUnread;
     private final int mTextIndentSize;
@@ -49,6 +63,14 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
     private final OnLoadMoreListener mOnLoadMoreListener;
     private final ArrayList<Note> mNotes = new ArrayList<>();
     private final ArrayList<Note> mFilteredNotes = new ArrayList<>();
+    // what's shown in the row of each of the filtered notes, used to tell which rows changed
+    private final ArrayList<NoteRow> mRows = new ArrayList<>();
+    private final LruCache<String, Spanned> mFormattedSubjects = new LruCache<>(MAX_CACHED_SUBJECTS);
+
+    // stable ids of the notes by their note id - notes without one get an id for as long as they exist
+    private final Map<String, Long> mStableIds = new HashMap<>();
+    private final Map<Note, Long> mStableIdsOfNotesWithoutId = new WeakHashMap<>();
+    private long mNextStableId = 1;
     @Inject protected ImageManager mImageManager;
     @Inject protected NotificationsUtilsWrapper mNotificationsUtilsWrapper;
     @Inject protected NoticonUtils mNoticonUtils;
@@ -79,7 +101,7 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
     }
 
     private FILTERS mCurrentFilter = FILTERS.FILTER_ALL;
-    private ReloadNotesFromDBTask mReloadNotesFromDBTask;
+    private UpdateNotesTask mUpdateNotesTask;
 
     public interface DataLoadedListener {
         void onDataLoaded(int itemsCount);
@@ -97,11 +119,10 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
         mDataLoadedListener = dataLoadedListener;
         mOnLoadMoreListener = onLoadMoreListener;
 
-        // this is on purpose - we don't show more than a hundred or so notifications at a time so no need to set
-        // stable IDs. This helps prevent crashes in case a note comes with no ID (we've code checking for that
-        // elsewhere, but telling the RecyclerView.Adapter the notes have stable Ids and then failing to provide them
-        // will make things go south as in https://github.com/wordpress-mobile/WordPress-Android/issues/8741
-        setHasStableIds(false);
+        // stable ids are assigned by the adapter rather than derived from the note ids, so a note which comes
+        // with no ID still gets a valid one - failing to provide them makes things go south as in
+        // https://github.com/wordpress-mobile/WordPress-Android/issues/8741
+        setHasStableIds(true);
 
         mAvatarSz = (int) context.getResources().getDimension(R.dimen.notifications_avatar_sz);
         mColorUnread = ColorUtils
@@ -119,20 +140,15 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
     }
 
     public void addAll(List<Note> notes, boolean clearBeforeAdding) {
-        Collections.sort(notes, new Note.TimeStampComparator());
-        try {
-            if (clearBeforeAdding) {
-                mNotes.clear();
-            }
-            mNotes.addAll(notes);
-        } finally {
-            myNotifyDatasetChanged();
+        ArrayList<Note> allNotes = new ArrayList<>();
+        if (!clearBeforeAdding) {
+            allNotes.addAll(mNotes);
         }
+        allNotes.addAll(notes);
+        startUpdateNotesTask(allNotes);
     }
 
-    private void myNotifyDatasetChanged() {
-        buildFilteredNotesList(mFilteredNotes, mNotes, mCurrentFilter);
-        notifyDataSetChanged();
+    private void onNotesUpdated() {
         if (mDataLoadedListener != null) {
             mDataLoadedListener.onDataLoaded(getItemCount());
         }
@@ -179,6 +195,136 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
         }
     }
 
+    /*
+     * the state of a row as it's shown - rows are rebound when it changes
+     */
+    private static class NoteRow {
+        private final String mNoteId;
+        // null when the row doesn't start a new time group
+        private final Note.NoteTimeGroup mHeaderTimeGroup;
+        private final boolean mIsUnread;
+        private final CommentStatus mCommentStatus;
+        private final String mSubjectKey;
+        private final String mContent;
+
+        NoteRow(Note note, @Nullable Note.NoteTimeGroup headerTimeGroup) {
+            mNoteId = note.getId();
+            mHeaderTimeGroup = headerTimeGroup;
+            mIsUnread = note.isUnread();
+            mCommentStatus = getCommentStatus(note);
+
+            JSONObject subject = note.getSubject();
+            String subjectJson = subject != null ? subject.toString() : "";
+            mSubjectKey = mNoteId + "-" + subjectJson.length() + "-" + subjectJson.hashCode();
+            mContent = note.getCommentSubject() + "\n" + note.getCommentSubjectNoticon() + "\n" + note.getIconURL()
+                       + "\n" + note.getNoticonCharacter();
+        }
+
+        boolean isSameNote(NoteRow row) {
+            // notes without an id are only the same as themselves, which DiffUtil can't tell, so they're
+            // treated as different notes
+            return !TextUtils.isEmpty(mNoteId) && mNoteId.equals(row.mNoteId);
+        }
+
+        boolean hasSameContent(NoteRow row) {
+            return mHeaderTimeGroup == row.mHeaderTimeGroup
+                   && mSubjectKey.equals(row.mSubjectKey)
+                   && mContent.equals(row.mContent);
+        }
+
+        boolean hasSameState(NoteRow row) {
+            return mIsUnread == row.mIsUnread && mCommentStatus == row.mCommentStatus;
+        }
+    }
+
+    private static CommentStatus getCommentStatus(Note note) {
+        CommentStatus commentStatus = CommentStatus.ALL;
+        if (note.getCommentStatus() == CommentStatus.UNAPPROVED) {
+            commentStatus = CommentStatus.UNAPPROVED;
+        }
+
+        if (!TextUtils.isEmpty(note.getLocalStatus())) {
+            commentStatus = CommentStatus.fromString(note.getLocalStatus());
+        }
+        return commentStatus;
+    }
+
+    private static ArrayList<NoteRow> buildRows(List<Note> notes) {
+        ArrayList<NoteRow> rows = new ArrayList<>(notes.size());
+        Note.NoteTimeGroup previousTimeGroup = null;
+        for (Note note : notes) {
+            Note.NoteTimeGroup timeGroup = Note.getTimeGroupForTimestamp(note.getTimestamp());
+            rows.add(new NoteRow(note, timeGroup != previousTimeGroup ? timeGroup : null));
+            previousTimeGroup = timeGroup;
+        }
+        return rows;
+    }
+
+    private static class NoteRowDiffCallback extends DiffUtil.Callback {
+        private final List<NoteRow> mOldRows;
+        private final List<NoteRow> mNewRows;
+
+        NoteRowDiffCallback(List<NoteRow> oldRows, List<NoteRow> newRows) {
+            mOldRows = oldRows;
+            mNewRows = newRows;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldRows.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewRows.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldRows.get(oldItemPosition).isSameNote(mNewRows.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            NoteRow oldRow = mOldRows.get(oldItemPosition);
+            NoteRow newRow = mNewRows.get(newItemPosition);
+            return oldRow.hasSameContent(newRow) && oldRow.hasSameState(newRow);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            // only the state changed when the content is the same, so the rest of the row is kept
+            if (mOldRows.get(oldItemPosition).hasSameContent(mNewRows.get(newItemPosition))) {
+                return PAYLOAD_STATE_CHANGED;
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        Note note = getNoteAtPosition(position);
+        if (note == null) {
+            return RecyclerView.NO_ID;
+        }
+        Long stableId;
+        if (TextUtils.isEmpty(note.getId())) {
+            stableId = mStableIdsOfNotesWithoutId.get(note);
+            if (stableId == null) {
+                stableId = mNextStableId++;
+                mStableIdsOfNotesWithoutId.put(note, stableId);
+            }
+        } else {
+            stableId = mStableIds.get(note.getId());
+            if (stableId == null) {
+                stableId = mNextStableId++;
+                mStableIds.put(note.getId(), stableId);
+            }
+        }
+        return stableId;
+    }
+
     private Note getNoteAtPosition(int position) {
         if (isValidPosition(position)) {
             return mFilteredNotes.get(position);
@@ -205,24 +351,28 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
         return mFilteredNotes.size();
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull NoteViewHolder noteViewHolder, int position, @NonNull List<Object> payloads) {
+        final Note note = getNoteAtPosition(position);
+        if (note != null && !payloads.isEmpty() && payloads.get(0) == PAYLOAD_STATE_CHANGED) {
+            bindState(noteViewHolder, mRows.get(position));
+        } else {
+            onBindViewHolder(noteViewHolder, position);
+        }
+    }
+
     @Override
     public void onBindViewHolder(NoteViewHolder noteViewHolder, int position) {
         final Note note = getNoteAtPosition(position);
         if (note == null) {
             return;
         }
+        NoteRow row = mRows.get(position);
         noteViewHolder.mContentView.setTag(note.getId());
 
         // Display group header
-        Note.NoteTimeGroup timeGroup = Note.getTimeGroupForTimestamp(note.getTimestamp());
-
-        Note.NoteTimeGroup previousTimeGroup = null;
-        if (position > 0) {
-            Note previousNote = getNoteAtPosition(position - 1);
-            previousTimeGroup = Note.getTimeGroupForTimestamp(previousNote.getTimestamp());
-        }
-
-        if (previousTimeGroup != null && previousTimeGroup == timeGroup) {
+        Note.NoteTimeGroup timeGroup = row.mHeaderTimeGroup;
+        if (timeGroup == null) {
             noteViewHolder.mHeaderText.setVisibility(View.GONE);
             noteViewHolder.mHeaderDivider.setVisibility(View.GONE);
         } else {
@@ -242,20 +392,7 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
             }
         }
 
-        CommentStatus commentStatus = CommentStatus.ALL;
-        if (note.getCommentStatus() == CommentStatus.UNAPPROVED) {
-            commentStatus = CommentStatus.UNAPPROVED;
-        }
-
-        if (!TextUtils.isEmpty(note.getLocalStatus())) {
-            commentStatus = CommentStatus.fromString(note.getLocalStatus());
-        }
-
-        // Subject is stored in db as html to preserve text formatting
-        Spanned noteSubjectSpanned = note.getFormattedSubject(mNotificationsUtilsWrapper);
-        // Trim the '\n\n' added by Html.fromHtml()
-        noteSubjectSpanned =
-                (Spanned) noteSubjectSpanned.subSequence(0, TextUtils.getTrimmedLength(noteSubjectSpanned));
+        Spanned noteSubjectSpanned = getFormattedSubject(note, row);
 
         NoteBlockClickableSpan[] spans =
                 noteSubjectSpanned.getSpans(0, noteSubjectSpanned.length(), NoteBlockClickableSpan.class);
@@ -298,28 +435,49 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
         String avatarUrl = GravatarUtils.fixGravatarUrl(note.getIconURL(), mAvatarSz);
         mImageManager.loadIntoCircle(noteViewHolder.mImgAvatar, ImageType.AVATAR_WITH_BACKGROUND, avatarUrl);
 
-        boolean isUnread = note.isUnread();
-
         int gridicon = mNoticonUtils.noticonToGridicon(note.getNoticonCharacter());
         noteViewHolder.mImgAvatar.setBadgeIcon(gridicon);
-        if (commentStatus == CommentStatus.UNAPPROVED) {
+        bindState(noteViewHolder, row);
+
+        // request to load more comments when we near the end
+        if (mOnLoadMoreListener != null && position >= getItemCount() - 1) {
+            mOnLoadMoreListener.onLoadMore(note.getTimestamp());
+        }
+    }
+
+    /*
+     * binds the read and moderation state of the note, which is all that's rebound when only that changed
+     */
+    private void bindState(NoteViewHolder noteViewHolder, NoteRow row) {
+        if (row.mCommentStatus == CommentStatus.UNAPPROVED) {
             noteViewHolder.mImgAvatar.setBadgeBackground(R.drawable.bg_oval_warning_dark);
-        } else if (isUnread) {
+        } else if (row.mIsUnread) {
             noteViewHolder.mImgAvatar.setBadgeBackground(R.drawable.bg_note_avatar_badge);
         } else {
             noteViewHolder.mImgAvatar.setBadgeBackground(R.drawable.bg_oval_neutral_20);
         }
 
-        if (isUnread) {
+        if (row.mIsUnread) {
             noteViewHolder.mContentView.setBackgroundColor(mColorUnread);
         } else {
             noteViewHolder.mContentView.setBackgroundColor(0);
         }
+    }
 
-        // request to load more comments when we near the end
-        if (mOnLoadMoreListener != null && position >= getItemCount() - 1) {
-            mOnLoadMoreListener.onLoadMore(note.getTimestamp());
+    /*
+     * the formatted subject is cached by the note and its subject, so it's only built again when it changed
+     */
+    private Spanned getFormattedSubject(Note note, NoteRow row) {
+        Spanned noteSubjectSpanned = mFormattedSubjects.get(row.mSubjectKey);
+        if (noteSubjectSpanned == null) {
+            // Subject is stored in db as html to preserve text formatting
+            noteSubjectSpanned = note.getFormattedSubject(mNotificationsUtilsWrapper);
+            // Trim the '\n\n' added by Html.fromHtml()
+            noteSubjectSpanned =
+                    (Spanned) noteSubjectSpanned.subSequence(0, TextUtils.getTrimmedLength(noteSubjectSpanned));
+            mFormattedSubjects.put(row.mSubjectKey, noteSubjectSpanned);
         }
+        return noteSubjectSpanned;
     }
 
     private int getPositionForNoteUnfiltered(String noteId) {
@@ -343,31 +501,80 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NoteViewHold
     }
 
     public void cancelReloadNotesTask() {
-        if (mReloadNotesFromDBTask != null && mReloadNotesFromDBTask.getStatus() != Status.FINISHED) {
-            mReloadNotesFromDBTask.cancel(true);
-            mReloadNotesFromDBTask = null;
+        if (mUpdateNotesTask != null && mUpdateNotesTask.getStatus() != Status.FINISHED) {
+            mUpdateNotesTask.cancel(true);
+            mUpdateNotesTask = null;
         }
     }
 
     public void reloadNotesFromDBAsync() {
+        startUpdateNotesTask(null);
+    }
+
+    private void startUpdateNotesTask(@Nullable ArrayList<Note> notes) {
         cancelReloadNotesTask();
-        mReloadNotesFromDBTask = new ReloadNotesFromDBTask();
-        mReloadNotesFromDBTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        mUpdateNotesTask = new UpdateNotesTask(notes);
+        mUpdateNotesTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
+    /*
+     * AsyncTask which replaces the notes with the passed ones, or the ones in the DB when none are passed.
+     * The rows are compared with the ones shown in the background so only the rows which changed are
+     * rebound, and the ones where only the read or moderation state changed are just partially rebound.
+     */
     @SuppressLint("StaticFieldLeak")
-    private class ReloadNotesFromDBTask extends AsyncTask<Void, Void, ArrayList<Note>> {
+    private class UpdateNotesTask extends AsyncTask<Void, Void, Void> {
+        private final FILTERS mFilter;
+        private final ArrayList<NoteRow> mOldRows;
+        private ArrayList<Note> mAllNotes;
+        private final ArrayList<Note> mNewFilteredNotes = new ArrayList<>();
+        private ArrayList<NoteRow> mNewRows;
+        private DiffUtil.DiffResult mDiffResult;
+
+        UpdateNotesTask(@Nullable ArrayList<Note> notes) {
+            mAllNotes = notes;
+            mFilter = mCurrentFilter;
+            mOldRows = new ArrayList<>(mRows);
+        }
+
         @Override
-        protected ArrayList<Note> doInBackground(Void... voids) {
-            return NotificationsTable.getLatestNotes();
+        protected Void doInBackground(Void... voids) {
+            if (mAllNotes == null) {
+                // filtered by the query, so the list is built from the indexed columns rather than the full notes
+                mAllNotes = NotificationsTable.getLatestNotes(mFilter);
+            } else {
+                Collections.sort(mAllNotes, new Note.TimeStampComparator());
+            }
+            buildFilteredNotesList(mNewFilteredNotes, mAllNotes, mFilter);
+            mNewRows = buildRows(mNewFilteredNotes);
+            mDiffResult = DiffUtil.calculateDiff(new NoteRowDiffCallback(mOldRows, mNewRows));
+            return null;
         }
 
         @Override
-        protected void onPostExecute(ArrayList<Note> notes) {
+        protected void onPostExecute(Void result) {
             mNotes.clear();
-            mNotes.addAll(notes);
-            myNotifyDatasetChanged();
+            mNotes.addAll(mAllNotes);
+            mFilteredNotes.clear();
+            mFilteredNotes.addAll(mNewFilteredNotes);
+            mRows.clear();
+            mRows.addAll(mNewRows);
+            pruneStableIds();
+            mDiffResult.dispatchUpdatesTo(NotesAdapter.this);
+            onNotesUpdated();
+        }
+    }
+
+    /*
+     * drops the stable ids of notes which are no longer in the list, so the map doesn't keep growing
+     * as notes are deleted or paged out - notes which come back later just get a new id
+     */
+    private void pruneStableIds() {
+        Set<String> noteIds = new HashSet<>();
+        for (Note note : mNotes) {
+            noteIds.add(note.getId());
         }
+        mStableIds.keySet().retainAll(noteIds);
     }
 
     class NoteViewHolder extends RecyclerView.ViewHolder {
@@ -17,6 +17,8 @@ import org.wordpress.android.ui.notifications.NotificationEvents;
 import org.wordpress.android.ui.notifications.utils.NotificationsActions;
 import org.wordpress.android.ui.notifications.utils.NotificationsUtils;
 import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.ServiceTaskExecutor;
+import org.wordpress.android.util.ServiceTaskExecutor.Lane;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,10 +27,13 @@ import java.util.Locale;
 import java.util.Map;
 
 public class NotificationsUpdateLogic {
+    // fields requested when reconciling the read state and deletion of the stored notes
+    private static final String NOTIFICATION_STATE_FIELDS = "id,unread,timestamp";
+
     private ServiceCompletionListener mCompletionListener;
     private Object mListenerCompanion;
 
-    private boolean mRunning = false;
+    private volatile boolean mRunning = false;
     private String mNoteId;
     private boolean mIsStartedByTappingOnNotification = false;
     private String mLocale;
@@ -46,42 +51,40 @@ public class NotificationsUpdateLogic {
         mRunning = true;
         mNoteId = noteId;
         mIsStartedByTappingOnNotification = isStartedByTappingOnNotification;
-        Map<String, String> params = new HashMap<>();
-        params.put("number", "200");
+
+        // when notes are stored only the newer ones are requested, otherwise all of them
+        long latestTimestamp = NotificationsTable.getLatestNoteTimestamp();
+        Map<String, String> params = getParams(RestClientUtils.NOTIFICATION_FIELDS);
         params.put("num_note_items", "20");
-        params.put("fields", RestClientUtils.NOTIFICATION_FIELDS);
+        if (latestTimestamp > 0) {
+            params.put("since", String.valueOf(latestTimestamp));
+        }
+        RestListener listener = new RestListener(latestTimestamp > 0);
+        WordPress.getRestClientUtilsV1_1().getNotifications(params, listener, listener);
+    }
+
+    private Map<String, String> getParams(String fields) {
+        Map<String, String> params = new HashMap<>();
+        params.put("number", String.valueOf(NotificationsTable.NOTES_TO_RETRIEVE));
+        params.put("fields", fields);
         if (!TextUtils.isEmpty(mLocale)) {
             params.put("locale", mLocale.toLowerCase(Locale.ENGLISH));
         }
-        RestListener listener = new RestListener();
-        WordPress.getRestClientUtilsV1_1().getNotifications(params, listener, listener);
+        return params;
     }
 
     private class RestListener implements RestRequest.Listener, RestRequest.ErrorListener {
+        private final boolean mIsIncremental;
+
+        RestListener(boolean isIncremental) {
+            mIsIncremental = isIncremental;
+        }
+
         @Override
         public void onResponse(final JSONObject response) {
-            List<Note> notes;
-            if (response == null) {
-                // Not sure this could ever happen, but make sure we're catching all response types
-                AppLog.w(AppLog.T.NOTIFS, "Success, but did not receive any notes");
-                EventBus.getDefault().post(
-                        new NotificationEvents.NotificationsRefreshCompleted(new ArrayList<Note>(0)));
-            } else {
-                try {
-                    notes = NotificationsActions.parseNotes(response);
-                    // if we have a note id, we were started from NotificationsDetailActivity.
-                    // That means we need to re-set the *read* flag on this note.
-                    if (mIsStartedByTappingOnNotification && mNoteId != null) {
-                        setNoteRead(mNoteId, notes);
-                    }
-                    NotificationsTable.saveNotes(notes, true);
-                    EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshCompleted(notes));
-                } catch (JSONException e) {
-                    AppLog.e(AppLog.T.NOTIFS, "Success, but can't parse the response", e);
-                    EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshError());
-                }
-            }
-            completed();
+            // the notes are parsed and stored away from the main thread
+            ServiceTaskExecutor.getInstance().execute(NotificationsUpdateLogic.this, Lane.NOTIFICATIONS,
+                    () -> handleNotesResponse(response, mIsIncremental), () -> refreshFailed());
         }
 
         @Override
@@ -92,6 +95,76 @@ public class NotificationsUpdateLogic {
         }
     }
 
+    private void handleNotesResponse(JSONObject response, boolean isIncremental) {
+        List<Note> notes;
+        if (response == null) {
+            // Not sure this could ever happen, but make sure we're catching all response types
+            AppLog.w(AppLog.T.NOTIFS, "Success, but did not receive any notes");
+            EventBus.getDefault().post(
+                    new NotificationEvents.NotificationsRefreshCompleted(new ArrayList<Note>(0)));
+        } else {
+            try {
+                notes = NotificationsActions.parseNotes(response);
+                // if we have a note id, we were started from NotificationsDetailActivity.
+                // That means we need to re-set the *read* flag on this note.
+                if (mIsStartedByTappingOnNotification && mNoteId != null) {
+                    setNoteRead(mNoteId, notes);
+                }
+                if (NotificationsTable.saveRefreshedNotes(notes, isIncremental)) {
+                    // the new notes were added to the stored ones, so the older ones are reconciled
+                    // before the refresh completes
+                    reconcileStoredNotes();
+                    return;
+                }
+                EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshCompleted(notes));
+            } catch (JSONException e) {
+                AppLog.e(AppLog.T.NOTIFS, "Success, but can't parse the response", e);
+                EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshError());
+            }
+        }
+        completed();
+    }
+
+    /*
+     * requests the read state of the latest notes, without their content, and applies it to the stored
+     * notes - stored notes which are no longer returned are removed
+     */
+    private void reconcileStoredNotes() {
+        WordPress.getRestClientUtilsV1_1().getNotifications(getParams(NOTIFICATION_STATE_FIELDS),
+                response -> ServiceTaskExecutor.getInstance().execute(this, Lane.NOTIFICATIONS, () -> {
+                    if (response != null) {
+                        try {
+                            List<Note> noteStates = NotificationsActions.parseNotes(response);
+                            if (mIsStartedByTappingOnNotification && mNoteId != null) {
+                                setNoteRead(mNoteId, noteStates);
+                            }
+                            NotificationsTable.reconcileNotes(noteStates);
+                        } catch (JSONException e) {
+                            AppLog.e(AppLog.T.NOTIFS, "Success, but can't parse the notes state", e);
+                        }
+                    }
+                    refreshCompletedWithStoredNotes();
+                }, () -> refreshFailed()),
+                volleyError -> {
+                    // the new notes have been stored, so the refresh still completes - the stored notes are
+                    // reconciled on the next refresh
+                    logVolleyErrorDetails(volleyError);
+                    ServiceTaskExecutor.getInstance().execute(this, Lane.NOTIFICATIONS,
+                            () -> refreshCompletedWithStoredNotes(), () -> refreshFailed());
+                });
+    }
+
+    private void refreshCompletedWithStoredNotes() {
+        EventBus.getDefault().post(
+                new NotificationEvents.NotificationsRefreshCompleted(NotificationsTable.getLatestNotes()));
+        completed();
+    }
+
+    private void refreshFailed() {
+        EventBus.getDefault().post(new NotificationEvents.NotificationsRefreshError());
+        completed();
+    }
+
     private void setNoteRead(String noteId, List<Note> notes) {
         int notePos = NotificationsUtils.findNoteInNoteArray(notes, noteId);
         if (notePos != -1) {
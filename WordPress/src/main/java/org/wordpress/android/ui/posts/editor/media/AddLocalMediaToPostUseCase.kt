@@ -2,13 +2,18 @@ package org.wordpress.android.ui.posts.editor.media
 
 import android.net.Uri
 import dagger.Reusable
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.withContext
 import org.wordpress.android.fluxc.model.MediaModel
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState.QUEUED
 import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.modules.BG_THREAD
 import org.wordpress.android.ui.posts.editor.media.CopyMediaToAppStorageUseCase.CopyMediaResult
 import org.wordpress.android.ui.posts.editor.media.GetMediaModelUseCase.CreateMediaModelsResult
 import org.wordpress.android.ui.posts.editor.media.OptimizeMediaUseCase.OptimizeMediaResult
+import org.wordpress.android.util.MediaUtilsWrapper
 import javax.inject.Inject
+import javax.inject.Named
 
 /**
  * Processes a list of local media items in the background (optimizing, resizing, rotating, etc.), adds them to
@@ -21,7 +26,10 @@ class AddLocalMediaToPostUseCase @Inject constructor(
     private val getMediaModelUseCase: GetMediaModelUseCase,
     private val updateMediaModelUseCase: UpdateMediaModelUseCase,
     private val appendMediaToEditorUseCase: AppendMediaToEditorUseCase,
-    private val uploadMediaUseCase: UploadMediaUseCase
+    private val uploadMediaUseCase: UploadMediaUseCase,
+    private val mediaFingerprintIndex: MediaFingerprintIndex,
+    private val mediaUtilsWrapper: MediaUtilsWrapper,
+    @Named(BG_THREAD) private val bgDispatcher: CoroutineDispatcher
 ) {
     /**
      * Adds media items with existing localMediaId to the editor and optionally initiates an upload.
@@ -42,6 +50,9 @@ class AddLocalMediaToPostUseCase @Inject constructor(
 
     /**
      * Copies files to app storage, optimizes them, adds them to the editor and optionally initiates an upload.
+     *
+     * When reuseUploadedMedia is true, files which were already uploaded to the site are added as the existing
+     * remote media instead.
      */
     suspend fun addNewMediaToEditorAsync(
         uriList: List<Uri>,
@@ -49,17 +60,26 @@ class AddLocalMediaToPostUseCase @Inject constructor(
         freshlyTaken: Boolean,
         editorMediaListener: EditorMediaListener,
         doUploadAfterAdding: Boolean = true,
-        trackEvent: Boolean = true
+        trackEvent: Boolean = true,
+        reuseUploadedMedia: Boolean = false
     ): Boolean {
         // Copy files to apps storage to make sure they are permanently accessible.
         val copyFilesResult: CopyMediaResult = copyMediaToAppStorageUseCase.copyFilesToAppStorageIfNecessary(uriList)
 
+        val fingerprints: Map<Uri, String> = if (reuseUploadedMedia) {
+            getFingerprints(copyFilesResult.permanentlyAccessibleUris)
+        } else {
+            emptyMap()
+        }
+        val uploadedMedia: Map<Uri, MediaModel> = findUploadedMedia(site, fingerprints)
+        val newMediaUris = copyFilesResult.permanentlyAccessibleUris.filterNot { uploadedMedia.containsKey(it) }
+
         // Optimize and rotate the media
         val optimizeMediaResult: OptimizeMediaResult = optimizeMediaUseCase
                 .optimizeMediaIfSupportedAsync(
                         site,
                         freshlyTaken,
-                        copyFilesResult.permanentlyAccessibleUris,
+                        newMediaUris,
                         trackEvent
                 )
 
@@ -69,16 +89,46 @@ class AddLocalMediaToPostUseCase @Inject constructor(
                 optimizeMediaResult.optimizedMediaUris
         )
 
+        // the media of each copied file - new media can only be matched to their files when none of them failed
+        val copiedUris = copyFilesResult.permanentlyAccessibleUris
+        val isEachNewMediaCreated = newMediaUris.size == createMediaModelsResult.mediaModels.size
+        val newMediaByUri: Map<Uri, MediaModel> = if (isEachNewMediaCreated) {
+            newMediaUris.zip(createMediaModelsResult.mediaModels).toMap()
+        } else {
+            emptyMap()
+        }
+        val mediaByUri: Map<Uri, MediaModel> = copiedUris.mapNotNull { uri ->
+            (uploadedMedia[uri] ?: newMediaByUri[uri])?.let { uri to it }
+        }.toMap()
+
+        // keep the order the media were picked in, unless some of the new ones couldn't be processed
+        val mediaModels = if (isEachNewMediaCreated) {
+            copiedUris.mapNotNull { mediaByUri[it] }
+        } else {
+            copiedUris.mapNotNull { uploadedMedia[it] } + createMediaModelsResult.mediaModels
+        }
+        newMediaByUri.forEach { (uri, mediaModel) ->
+            fingerprints[uri]?.let { mediaFingerprintIndex.putLocalMedia(mediaModel.id, site.id, it) }
+        }
+
         // here we pass a map of "old" (before optimisation) Uris to the new MediaModels which contain
         // both the mediaModel ids and the optimized media URLs.
         // this way, the listener will be able to process from other models pointing to the old URLs
         // and make any needed updates
-        editorMediaListener.onMediaModelsCreatedFromOptimizedUris(
-                uriList.zip(createMediaModelsResult.mediaModels).toMap()
-        )
+        val mediaByOriginalUri = if (copyFilesResult.copyingSomeMediaFailed) {
+            uriList.zip(mediaModels).toMap()
+        } else {
+            uriList.zip(copiedUris).mapNotNull { (uri, copiedUri) -> mediaByUri[copiedUri]?.let { uri to it } }.toMap()
+        }
+        editorMediaListener.onMediaModelsCreatedFromOptimizedUris(mediaByOriginalUri)
 
-        // Add media to editor and optionally initiate upload
-        addToEditorAndOptionallyUpload(createMediaModelsResult.mediaModels, editorMediaListener, doUploadAfterAdding)
+        // Add media to editor and optionally initiate upload - media reused from the remote don't need uploading
+        addToEditorAndOptionallyUpload(
+                mediaModels,
+                editorMediaListener,
+                doUploadAfterAdding,
+                mediaModelsToUpload = createMediaModelsResult.mediaModels
+        )
 
         return !optimizeMediaResult.loadingSomeMediaFailed &&
                 !createMediaModelsResult.loadingSomeMediaFailed &&
@@ -88,11 +138,12 @@ class AddLocalMediaToPostUseCase @Inject constructor(
     private fun addToEditorAndOptionallyUpload(
         mediaModels: List<MediaModel>,
         editorMediaListener: EditorMediaListener,
-        doUploadAfterAdding: Boolean
+        doUploadAfterAdding: Boolean,
+        mediaModelsToUpload: List<MediaModel> = mediaModels
     ) {
         // 1. first, set the Post's data in the mediaModels and set them QUEUED if we want to upload
         if (doUploadAfterAdding) {
-            updateMediaModel(mediaModels, editorMediaListener)
+            updateMediaModel(mediaModelsToUpload, editorMediaListener)
         }
 
         // 2. actually append media to the Editor
@@ -100,8 +151,38 @@ class AddLocalMediaToPostUseCase @Inject constructor(
 
         // 3. finally, upload
         if (doUploadAfterAdding) {
-            uploadMediaUseCase.saveQueuedPostAndStartUpload(editorMediaListener, mediaModels)
+            uploadMediaUseCase.saveQueuedPostAndStartUpload(editorMediaListener, mediaModelsToUpload)
+        }
+    }
+
+    private suspend fun getFingerprints(uris: List<Uri>): Map<Uri, String> = withContext(bgDispatcher) {
+        uris.mapNotNull { uri ->
+            if (mediaUtilsWrapper.isVideo(uri.toString())) {
+                // reading the whole of a long video to fingerprint it isn't worth it
+                null
+            } else {
+                mediaUtilsWrapper.getRealPathFromURI(uri)
+                        ?.let { mediaFingerprintIndex.getFingerprint(it) }
+                        ?.let { uri to it }
+            }
+        }.toMap()
+    }
+
+    /*
+     * returns the remote media the passed files were uploaded as earlier, if they still exist
+     */
+    private suspend fun findUploadedMedia(site: SiteModel, fingerprints: Map<Uri, String>): Map<Uri, MediaModel> {
+        val uploadedMedia = HashMap<Uri, MediaModel>()
+        fingerprints.forEach { (uri, fingerprint) ->
+            val remoteMediaId = mediaFingerprintIndex.getRemoteMediaId(site.id, fingerprint) ?: return@forEach
+            val media = getMediaModelUseCase.loadMediaByRemoteId(site, listOf(remoteMediaId)).firstOrNull()
+            if (media != null && !media.url.isNullOrBlank()) {
+                uploadedMedia[uri] = media
+            } else {
+                mediaFingerprintIndex.removeRemoteMediaId(site.id, fingerprint)
+            }
         }
+        return uploadedMedia
     }
 
     private fun updateMediaModel(
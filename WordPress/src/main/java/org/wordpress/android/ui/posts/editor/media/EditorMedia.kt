@@ -126,7 +126,8 @@ class EditorMedia @Inject constructor(
                     site,
                     freshlyTaken,
                     editorMediaListener,
-                    true
+                    true,
+                    reuseUploadedMedia = true
             )
             if (!allMediaSucceed) {
                 _snackBarMessage.value = Event(SnackbarMessageHolder(UiStringRes(R.string.gallery_error)))
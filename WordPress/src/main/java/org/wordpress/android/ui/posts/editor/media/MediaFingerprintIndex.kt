@@ -0,0 +1,124 @@
+package org.wordpress.android.ui.posts.editor.media
+
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import java.io.File
+import java.io.IOException
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val BUFFER_SIZE = 64 * 1024
+
+/**
+ * Index of the local media files added to posts, keyed by site and by a fingerprint of the file's contents, so that
+ * adding a file which was added to the site before can reuse the work already done for it - its optimized copy,
+ * or the remote media it was uploaded as - instead of optimizing and uploading it again.
+ *
+ * The index is kept in memory for as long as the app's process lives.
+ */
+@Singleton
+class MediaFingerprintIndex @Inject constructor() {
+    private val fingerprintsByPath = ConcurrentHashMap<String, CachedFingerprint>()
+    private val optimizedPaths = ConcurrentHashMap<OptimizedFileKey, String>()
+    private val localMediaFingerprints = ConcurrentHashMap<Int, SiteFingerprint>()
+    private val remoteMediaIds = ConcurrentHashMap<SiteFingerprint, Long>()
+
+    /**
+     * Returns the fingerprint of the passed file's contents, or null if the file can't be read. Fingerprints are
+     * cached by path and computed again when the file's size or modification time changes.
+     */
+    fun getFingerprint(path: String): String? {
+        val file = File(path)
+        if (!file.isFile) {
+            return null
+        }
+        val length = file.length()
+        val lastModified = file.lastModified()
+        fingerprintsByPath[path]?.let {
+            if (it.length == length && it.lastModified == lastModified) {
+                return it.fingerprint
+            }
+        }
+        return try {
+            computeFingerprint(file, length).also {
+                fingerprintsByPath[path] = CachedFingerprint(length, lastModified, it)
+            }
+        } catch (e: IOException) {
+            AppLog.w(T.MEDIA, "MediaFingerprintIndex > Can't read $path: ${e.message}")
+            null
+        }
+    }
+
+    /**
+     * Returns the path of a new copy of the file earlier optimized with the passed settings for the passed
+     * fingerprint, or null if there's no such file. A copy is returned since each media added to a post needs a
+     * file of its own.
+     */
+    fun copyOptimizedFile(localSiteId: Int, fingerprint: String, optimizationSettings: String): String? {
+        val key = OptimizedFileKey(localSiteId, fingerprint, optimizationSettings)
+        val optimizedFile = optimizedPaths[key]?.let { File(it) } ?: return null
+        if (!optimizedFile.isFile) {
+            optimizedPaths.remove(key)
+            return null
+        }
+        return try {
+            val copy = File.createTempFile(
+                    optimizedFile.nameWithoutExtension + "-",
+                    ".${optimizedFile.extension}",
+                    optimizedFile.parentFile
+            )
+            optimizedFile.copyTo(copy, overwrite = true).path
+        } catch (e: IOException) {
+            AppLog.w(T.MEDIA, "MediaFingerprintIndex > Can't copy ${optimizedFile.path}: ${e.message}")
+            null
+        }
+    }
+
+    fun putOptimizedFile(localSiteId: Int, fingerprint: String, optimizationSettings: String, optimizedPath: String) {
+        optimizedPaths[OptimizedFileKey(localSiteId, fingerprint, optimizationSettings)] = optimizedPath
+    }
+
+    fun putLocalMedia(localMediaId: Int, localSiteId: Int, fingerprint: String) {
+        localMediaFingerprints[localMediaId] = SiteFingerprint(localSiteId, fingerprint)
+    }
+
+    /**
+     * Records the remote media the passed local media was uploaded as, if the local media's file is in the index.
+     */
+    fun onMediaUploaded(localMediaId: Int, remoteMediaId: Long) {
+        localMediaFingerprints.remove(localMediaId)?.let { key ->
+            if (remoteMediaId > 0) {
+                remoteMediaIds[key] = remoteMediaId
+            }
+        }
+    }
+
+    fun getRemoteMediaId(localSiteId: Int, fingerprint: String): Long? =
+            remoteMediaIds[SiteFingerprint(localSiteId, fingerprint)]
+
+    fun removeRemoteMediaId(localSiteId: Int, fingerprint: String) {
+        remoteMediaIds.remove(SiteFingerprint(localSiteId, fingerprint))
+    }
+
+    private fun computeFingerprint(file: File, length: Long): String {
+        val digest = MessageDigest.getInstance("SHA-1")
+        file.inputStream().use { input ->
+            val buffer = ByteArray(BUFFER_SIZE)
+            var read = input.read(buffer)
+            while (read != -1) {
+                digest.update(buffer, 0, read)
+                read = input.read(buffer)
+            }
+        }
+        // the length is part of the fingerprint so files are also told apart by their size
+        return "$length:" + digest.digest().joinToString("") { "%02x".format(it) }
+    }
+
+    private data class CachedFingerprint(val length: Long, val lastModified: Long, val fingerprint: String)
+
+    private data class SiteFingerprint(val localSiteId: Int, val fingerprint: String)
+
+    private data class OptimizedFileKey(val localSiteId: Int, val fingerprint: String, val optimizationSettings: String)
+}
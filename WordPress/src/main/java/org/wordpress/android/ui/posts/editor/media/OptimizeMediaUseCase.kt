@@ -9,6 +9,7 @@ import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.modules.BG_THREAD
 import org.wordpress.android.ui.posts.editor.EditorTracker
 import org.wordpress.android.util.MediaUtilsWrapper
+import java.io.File
 import javax.inject.Inject
 import javax.inject.Named
 
@@ -21,6 +22,7 @@ import javax.inject.Named
 class OptimizeMediaUseCase @Inject constructor(
     private val editorTracker: EditorTracker,
     private val mediaUtilsWrapper: MediaUtilsWrapper,
+    private val mediaFingerprintIndex: MediaFingerprintIndex,
     @Named(BG_THREAD) private val bgDispatcher: CoroutineDispatcher
 ) {
     suspend fun optimizeMediaIfSupportedAsync(
@@ -45,12 +47,31 @@ class OptimizeMediaUseCase @Inject constructor(
     private fun optimizeMedia(mediaUri: Uri, freshlyTaken: Boolean, site: SiteModel, trackEvent: Boolean): Uri? {
         val path = mediaUtilsWrapper.getRealPathFromURI(mediaUri) ?: return null
         val isVideo = mediaUtilsWrapper.isVideo(mediaUri.toString())
+        // videos aren't optimized here, and images are only fingerprinted when they're going to be optimized
+        val optimizationSettings = if (isVideo) null else mediaUtilsWrapper.getImageOptimizationSettings()
+        val fingerprint = optimizationSettings?.let { mediaFingerprintIndex.getFingerprint(path) }
+        // an image optimized for this site with the same settings before is copied instead of optimized again
+        if (optimizationSettings != null && fingerprint != null) {
+            mediaFingerprintIndex.copyOptimizedFile(site.id, fingerprint, optimizationSettings)?.let { copyPath ->
+                val optimizedCopyUri = Uri.fromFile(File(copyPath))
+                if (trackEvent) {
+                    editorTracker.trackAddMediaFromDevice(site, freshlyTaken, isVideo, optimizedCopyUri)
+                }
+                return optimizedCopyUri
+            }
+        }
+        val optimizedMediaUri: Uri? = mediaUtilsWrapper.getOptimizedMedia(path, isVideo)
+        if (optimizationSettings != null && fingerprint != null && optimizedMediaUri != null) {
+            mediaUtilsWrapper.getRealPathFromURI(optimizedMediaUri)?.let { optimizedPath ->
+                mediaFingerprintIndex.putOptimizedFile(site.id, fingerprint, optimizationSettings, optimizedPath)
+            }
+        }
         /**
          * If the user enabled the optimize images feature, the image gets rotated in mediaUtils.getOptimizedMedia.
          * If the user haven't enabled it, WPCom server takes care of rotating the image, however we need to rotate it
          * manually on self-hosted sites. (https://github.com/wordpress-mobile/WordPress-Android/issues/5737)
          */
-        val updatedMediaUri: Uri = mediaUtilsWrapper.getOptimizedMedia(path, isVideo)
+        val updatedMediaUri: Uri = optimizedMediaUri
                 ?: if (!site.isWPCom) {
                     mediaUtilsWrapper.fixOrientationIssue(path, isVideo) ?: mediaUri
                 } else {
@@ -2,6 +2,10 @@ package org.wordpress.android.ui.posts.mediauploadcompletionprocessors;
 
 import org.wordpress.android.util.helpers.MediaFile;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -9,7 +13,13 @@ import static org.wordpress.android.ui.posts.mediauploadcompletionprocessors.Med
 import static org.wordpress.android.ui.posts.mediauploadcompletionprocessors.MediaUploadCompletionProcessorPatterns.PATTERN_TEMPLATE_BLOCK_BOUNDARY;
 
 public class MediaUploadCompletionProcessor {
-    private final BlockProcessorFactory mBlockProcessorFactory;
+    /**
+     * Block boundary patterns compiled from the boundary template, keyed by block type, so they're compiled once
+     * rather than for every block of every post processed
+     */
+    private static final Map<String, Pattern> BLOCK_BOUNDARY_PATTERNS = new ConcurrentHashMap<>();
+
+    private final Map<String, BlockProcessorFactory> mBlockProcessorFactories = new LinkedHashMap<>();
 
     /**
      * Processor used for replacing local media id(s) and url(s) with their remote counterparts after an upload has
@@ -20,62 +30,98 @@ public class MediaUploadCompletionProcessor {
      * @param siteUrl The site url - used to generate the attachmentPage url
      */
     public MediaUploadCompletionProcessor(String localId, MediaFile mediaFile, String siteUrl) {
-        mBlockProcessorFactory = new BlockProcessorFactory(this)
-                .init(localId, mediaFile, siteUrl);
+        this(Collections.singletonMap(localId, mediaFile), siteUrl);
+    }
+
+    /**
+     * Processor used for replacing the local ids and urls of several media with their remote counterparts in a single
+     * pass over the content, after their uploads have completed.
+     *
+     * @param mediaFiles The mediaFiles containing the remote ids and remote urls, keyed by the local media id that
+     *                   needs replacement - media are replaced in the iteration order of the map
+     * @param siteUrl The site url - used to generate the attachmentPage urls
+     */
+    public MediaUploadCompletionProcessor(Map<String, MediaFile> mediaFiles, String siteUrl) {
+        for (Map.Entry<String, MediaFile> entry : mediaFiles.entrySet()) {
+            mBlockProcessorFactories.put(entry.getKey(), new BlockProcessorFactory(this)
+                    .init(entry.getKey(), entry.getValue(), siteUrl));
+        }
     }
 
     /**
      * Processes content to replace the local ids and local urls of media with remote ids and remote urls. This method
-     * delineates block boundaries for media-containing blocks and delegates further processing via itself and / or
-     * {@link #processBlock(String)}, via direct and mutual recursion, respectively.
+     * delineates block boundaries for media-containing blocks and delegates further processing via
+     * {@link #processBlock(String)}, which may recurse back into this method for blocks with inner blocks.
      *
      * @param content The content to be processed
      * @return A string containing the processed content, or the original content if no match was found
      */
     public String processContent(String content) {
         Matcher headerMatcher = PATTERN_BLOCK_HEADER.matcher(content);
+        StringBuilder processedContent = null;
+        int position = 0;
 
-        int positionBlockStart, positionBlockEnd = content.length();
+        while (position < content.length() && headerMatcher.find(position)) {
+            int positionBlockStart = headerMatcher.start();
+            int positionBlockEnd = content.length();
 
-        if (headerMatcher.find()) {
-            positionBlockStart = headerMatcher.start();
-            String blockType = headerMatcher.group(1);
-            Matcher blockBoundaryMatcher = Pattern.compile(String.format(PATTERN_TEMPLATE_BLOCK_BOUNDARY, blockType),
-                    Pattern.DOTALL).matcher(content.substring(headerMatcher.end()));
+            Matcher blockBoundaryMatcher = getBlockBoundaryPattern(headerMatcher.group(1)).matcher(content);
+            blockBoundaryMatcher.region(headerMatcher.end(), content.length());
 
             int nestLevel = 1;
 
             while (0 < nestLevel && blockBoundaryMatcher.find()) {
                 if (blockBoundaryMatcher.group(1).equals("/")) {
-                    positionBlockEnd = headerMatcher.end() + blockBoundaryMatcher.end();
+                    positionBlockEnd = blockBoundaryMatcher.end();
                     nestLevel--;
                 } else {
                     nestLevel++;
                 }
             }
 
-            return new StringBuilder()
-                    .append(content.substring(0, positionBlockStart))
-                    .append(processBlock(content.substring(positionBlockStart, positionBlockEnd)))
-                    .append(processContent(content.substring(positionBlockEnd)))
-                    .toString();
-        } else {
+            if (processedContent == null) {
+                processedContent = new StringBuilder(content.length());
+            }
+            processedContent
+                    .append(content, position, positionBlockStart)
+                    .append(processBlock(content.substring(positionBlockStart, positionBlockEnd)));
+            position = positionBlockEnd;
+        }
+
+        if (processedContent == null) {
             return content;
         }
+        return processedContent.append(content, position, content.length()).toString();
+    }
+
+    private static Pattern getBlockBoundaryPattern(String blockType) {
+        Pattern pattern = BLOCK_BOUNDARY_PATTERNS.get(blockType);
+        if (pattern == null) {
+            pattern = Pattern.compile(String.format(PATTERN_TEMPLATE_BLOCK_BOUNDARY, blockType), Pattern.DOTALL);
+            BLOCK_BOUNDARY_PATTERNS.put(blockType, pattern);
+        }
+        return pattern;
     }
 
     /**
-     * Processes a media block returning a raw content replacement string
+     * Processes a media block returning a raw content replacement string. The block is only handed to the processors
+     * of the local ids it contains, since each processor parses the block's attributes and html.
      *
      * @param block The raw block contents
      * @return A string containing content with ids and urls replaced
      */
     private String processBlock(String block) {
         final MediaBlockType blockType = MediaBlockType.detectBlockType(block);
-        final BlockProcessor blockProcessor = mBlockProcessorFactory.getProcessorForMediaBlockType(blockType);
 
-        if (blockProcessor != null) {
-            return blockProcessor.processBlock(block);
+        for (Map.Entry<String, BlockProcessorFactory> entry : mBlockProcessorFactories.entrySet()) {
+            String localId = entry.getKey();
+            if (localId != null && !block.contains(localId)) {
+                continue;
+            }
+            final BlockProcessor blockProcessor = entry.getValue().getProcessorForMediaBlockType(blockType);
+            if (blockProcessor != null) {
+                block = blockProcessor.processBlock(block);
+            }
         }
 
         return block;
@@ -151,6 +151,8 @@ public class AppPrefs {
 
         // timestamp of the last update of the reader css styles
         READER_CSS_UPDATED_TIMESTAMP,
+        // hash of the last list of followed blogs stored from the server
+        READER_FOLLOWED_BLOGS_HASH,
         // Identifier of the next page for the discover /cards endpoint
         READER_CARDS_ENDPOINT_PAGE_HANDLE,
         // used to tell the server to return a different set of data so the content on discover tab doesn't look static
@@ -1169,6 +1171,14 @@ public class AppPrefs {
         setLong(DeletablePrefKey.READER_CSS_UPDATED_TIMESTAMP, timestamp);
     }
 
+    public static String getReaderFollowedBlogsHash() {
+        return getString(DeletablePrefKey.READER_FOLLOWED_BLOGS_HASH, null);
+    }
+
+    public static void setReaderFollowedBlogsHash(String hash) {
+        setString(DeletablePrefKey.READER_FOLLOWED_BLOGS_HASH, hash);
+    }
+
     public static String getReaderCardsPageHandle() {
         return getString(DeletablePrefKey.READER_CARDS_ENDPOINT_PAGE_HANDLE, null);
     }
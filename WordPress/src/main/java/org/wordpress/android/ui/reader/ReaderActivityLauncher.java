@@ -277,9 +277,9 @@ public class ReaderActivityLauncher {
     }
 
     /*
-     * show the passed imageUrl in the fullscreen photo activity - optional content is the
-     * content of the post the image is in, used by the activity to show all images in
-     * the post
+     * show the passed imageUrl in the fullscreen photo activity - optional imagesJson is the
+     * image index of the post the image is in (ReaderPost.getImagesJson()), used by the activity
+     * to show all images in the post
      */
     public enum PhotoViewerOption {
         IS_PRIVATE_IMAGE,
@@ -288,7 +288,7 @@ public class ReaderActivityLauncher {
 
     public static void showReaderPhotoViewer(Context context,
                                              String imageUrl,
-                                             String content,
+                                             String imagesJson,
                                              View sourceView,
                                              EnumSet<PhotoViewerOption> imageOptions,
                                              int startX,
@@ -304,8 +304,8 @@ public class ReaderActivityLauncher {
         intent.putExtra(ReaderConstants.ARG_IMAGE_URL, imageUrl);
         intent.putExtra(ReaderConstants.ARG_IS_PRIVATE, isPrivate);
         intent.putExtra(ReaderConstants.ARG_IS_GALLERY, isGallery);
-        if (!TextUtils.isEmpty(content)) {
-            intent.putExtra(ReaderConstants.ARG_CONTENT, content);
+        if (!TextUtils.isEmpty(imagesJson)) {
+            intent.putExtra(ReaderConstants.ARG_IMAGES_JSON, imagesJson);
         }
 
         if (context instanceof Activity && sourceView != null) {
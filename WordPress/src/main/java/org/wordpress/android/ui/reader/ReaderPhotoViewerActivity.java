@@ -19,8 +19,8 @@ import androidx.viewpager.widget.ViewPager;
 
 import org.wordpress.android.R;
 import org.wordpress.android.ui.LocaleAwareActivity;
+import org.wordpress.android.ui.reader.models.ReaderImageIndex;
 import org.wordpress.android.ui.reader.models.ReaderImageList;
-import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.ui.reader.views.ReaderPhotoView.PhotoViewListener;
 import org.wordpress.android.util.AniUtils;
 import org.wordpress.android.util.AppLog;
@@ -37,7 +37,7 @@ public class ReaderPhotoViewerActivity extends LocaleAwareActivity
     private String mInitialImageUrl;
     private boolean mIsPrivate;
     private boolean mIsGallery;
-    private String mContent;
+    private String mImagesJson;
     private WPViewPager mViewPager;
     private PhotoPagerAdapter mAdapter;
     private TextView mTxtTitle;
@@ -61,12 +61,12 @@ public class ReaderPhotoViewerActivity extends LocaleAwareActivity
             mInitialImageUrl = savedInstanceState.getString(ReaderConstants.ARG_IMAGE_URL);
             mIsPrivate = savedInstanceState.getBoolean(ReaderConstants.ARG_IS_PRIVATE);
             mIsGallery = savedInstanceState.getBoolean(ReaderConstants.ARG_IS_GALLERY);
-            mContent = savedInstanceState.getString(ReaderConstants.ARG_CONTENT);
+            mImagesJson = savedInstanceState.getString(ReaderConstants.ARG_IMAGES_JSON);
         } else if (getIntent() != null) {
             mInitialImageUrl = getIntent().getStringExtra(ReaderConstants.ARG_IMAGE_URL);
             mIsPrivate = getIntent().getBooleanExtra(ReaderConstants.ARG_IS_PRIVATE, false);
             mIsGallery = getIntent().getBooleanExtra(ReaderConstants.ARG_IS_GALLERY, false);
-            mContent = getIntent().getStringExtra(ReaderConstants.ARG_CONTENT);
+            mImagesJson = getIntent().getStringExtra(ReaderConstants.ARG_IMAGES_JSON);
         }
 
         mToolbar = findViewById(R.id.toolbar);
@@ -92,14 +92,15 @@ public class ReaderPhotoViewerActivity extends LocaleAwareActivity
     }
 
     private void loadImageList() {
-        // content will be empty when viewing a single image, otherwise content is HTML
-        // so parse images from it
+        // the image index will be missing when viewing a single image, otherwise it contains
+        // the images of the post
+        ReaderImageIndex imageIndex = ReaderImageIndex.fromJson(mImagesJson);
         final ReaderImageList imageList;
-        if (TextUtils.isEmpty(mContent)) {
+        if (imageIndex == null) {
             imageList = new ReaderImageList(mIsPrivate);
         } else {
             int minImageWidth = mIsGallery ? ReaderConstants.MIN_GALLERY_IMAGE_WIDTH : 0;
-            imageList = new ReaderImageScanner(mContent, mIsPrivate).getImageList(0, minImageWidth);
+            imageList = imageIndex.getImageList(mIsPrivate, 0, minImageWidth);
         }
 
         // make sure initial image is in the list
@@ -189,7 +190,7 @@ public class ReaderPhotoViewerActivity extends LocaleAwareActivity
 
         outState.putBoolean(ReaderConstants.ARG_IS_PRIVATE, mIsPrivate);
         outState.putBoolean(ReaderConstants.ARG_IS_GALLERY, mIsGallery);
-        outState.putString(ReaderConstants.ARG_CONTENT, mContent);
+        outState.putString(ReaderConstants.ARG_IMAGES_JSON, mImagesJson);
 
         super.onSaveInstanceState(outState);
     }
@@ -1089,7 +1089,7 @@ class ReaderPostDetailFragment : ViewPagerFragment(),
             return false
         }
 
-        val postContent = viewModel.post?.text
+        val imagesJson = viewModel.post?.imagesJson
         val isPrivatePost = viewModel.post?.isPrivate == true
         val options = EnumSet.noneOf(PhotoViewerOption::class.java)
         if (isPrivatePost) {
@@ -1099,7 +1099,7 @@ class ReaderPostDetailFragment : ViewPagerFragment(),
         ReaderActivityLauncher.showReaderPhotoViewer(
                 activity,
                 imageUrl,
-                postContent,
+                imagesJson,
                 sourceView,
                 options,
                 startX,
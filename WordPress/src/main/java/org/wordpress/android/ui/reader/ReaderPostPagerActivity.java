@@ -147,6 +147,9 @@ public class ReaderPostPagerActivity extends LocaleAwareActivity {
     @Inject UrlUtilsWrapper mUrlUtilsWrapper;
     @Inject DeepLinkTrackingUtils mDeepLinkTrackingUtils;
     @Inject SelectedSiteRepository mSelectedSiteRepository;
+    @Inject ReaderCssProvider mReaderCssProvider;
+
+    private ReaderPostPreRenderer mPreRenderer;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -157,6 +160,7 @@ public class ReaderPostPagerActivity extends LocaleAwareActivity {
 
         mViewPager = findViewById(R.id.viewpager);
         mProgress = findViewById(R.id.progress_loading);
+        mPreRenderer = new ReaderPostPreRenderer(this, mReaderCssProvider);
 
         if (savedInstanceState != null) {
             mIsFeed = savedInstanceState.getBoolean(ReaderConstants.ARG_IS_FEED);
@@ -211,6 +215,7 @@ public class ReaderPostPagerActivity extends LocaleAwareActivity {
             public void onPageSelected(int position) {
                 super.onPageSelected(position);
                 trackPostAtPositionIfNeeded(position);
+                preRenderAdjacentPosts(position);
 
                 if (mLastSelectedPosition > -1 && mLastSelectedPosition != position) {
                     // pause the previous web view - important because otherwise embedded content
@@ -536,6 +541,12 @@ public class ReaderPostPagerActivity extends LocaleAwareActivity {
         mDispatcher.unregister(this);
     }
 
+    @Override
+    protected void onDestroy() {
+        mPreRenderer.shutdown();
+        super.onDestroy();
+    }
+
     @Override
     public boolean onOptionsItemSelected(final MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
@@ -640,6 +651,17 @@ public class ReaderPostPagerActivity extends LocaleAwareActivity {
         trackPost(idPair.getBlogId(), idPair.getPostId());
     }
 
+    /*
+     * renders the posts around the passed position in the background so they can be shown right
+     * away when the user swipes to them - posts queued for the previous position are dropped
+     */
+    private void preRenderAdjacentPosts(int position) {
+        PostPagerAdapter adapter = getPagerAdapter();
+        if (adapter != null) {
+            mPreRenderer.preRenderAround(adapter.getIdList(), position, mIsFeed);
+        }
+    }
+
     /*
      * perform analytics tracking and bump the page view for the post
      */
@@ -709,6 +731,7 @@ public class ReaderPostPagerActivity extends LocaleAwareActivity {
                         mViewPager.setCurrentItem(currentPosition);
                         trackPostAtPositionIfNeeded(currentPosition);
                     }
+                    preRenderAdjacentPosts(mViewPager.getCurrentItem());
 
                     // let the user know they can swipe between posts
                     if (adapter.getCount() > 1 && !AppPrefs.isReaderSwipeToNavigateShown()) {
@@ -895,6 +918,10 @@ public class ReaderPostPagerActivity extends LocaleAwareActivity {
             return (position >= 0 && position < getCount());
         }
 
+        ReaderBlogIdPostIdList getIdList() {
+            return mIdList;
+        }
+
         @Override
         public int getCount() {
             return mIdList.size();
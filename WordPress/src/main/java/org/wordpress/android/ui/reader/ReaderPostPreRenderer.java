@@ -0,0 +1,112 @@
+package org.wordpress.android.ui.reader;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId;
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the posts around the one shown in ReaderPostPagerActivity in the background, so their
+ * html is already in ReaderRenderedHtmlCache when the user swipes to them. Work is done by a
+ * single low priority thread, and the posts which were queued for a previous position are
+ * dropped when the user moves on before they were rendered.
+ */
+class ReaderPostPreRenderer {
+    // number of posts to render before and after the current one
+    private static final int NUM_ADJACENT_POSTS = 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final ReaderResourceVars mResourceVars;
+    private final ReaderCssProvider mCssProvider;
+    private final ThreadPoolExecutor mExecutor;
+    private final List<Future<?>> mPendingTasks = new ArrayList<>();
+
+    /*
+     * the context should be the activity showing the posts, so the html is rendered for its theme -
+     * only the resource values are kept so the activity isn't leaked by the background thread
+     */
+    ReaderPostPreRenderer(@NonNull Context context, @NonNull ReaderCssProvider cssProvider) {
+        mResourceVars = new ReaderResourceVars(context);
+        mCssProvider = cssProvider;
+        mExecutor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(NUM_ADJACENT_POSTS * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ReaderPostPreRenderer");
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /*
+     * cancels the posts still waiting to be rendered and queues the ones around the passed
+     * position, closest first and the following post before the previous one - pass true for
+     * isFeed when the list contains feedId/feedItemId pairs. Must be called from the main thread
+     */
+    void preRenderAround(@NonNull ReaderBlogIdPostIdList idList, int position, boolean isFeed) {
+        cancel();
+        if (mExecutor.isShutdown() || position < 0 || position >= idList.size()) {
+            return;
+        }
+
+        for (int distance = 1; distance <= NUM_ADJACENT_POSTS; distance++) {
+            preRenderAt(idList, position + distance, isFeed);
+            preRenderAt(idList, position - distance, isFeed);
+        }
+    }
+
+    private void preRenderAt(@NonNull ReaderBlogIdPostIdList idList, int position, boolean isFeed) {
+        if (position < 0 || position >= idList.size()) {
+            return;
+        }
+        final ReaderBlogIdPostId idPair = idList.get(position);
+        mPendingTasks.add(mExecutor.submit(() -> preRender(idPair, isFeed)));
+    }
+
+    private void preRender(@NonNull ReaderBlogIdPostId idPair, boolean isFeed) {
+        ReaderPost post = isFeed
+                ? ReaderPostTable.getFeedPost(idPair.getBlogId(), idPair.getPostId(), false)
+                : ReaderPostTable.getBlogPost(idPair.getBlogId(), idPair.getPostId(), false);
+        if (post == null) {
+            return;
+        }
+
+        try {
+            ReaderPostRenderer.preRender(mResourceVars, post, mCssProvider);
+        } catch (RuntimeException e) {
+            // a failed pre-render only means the post detail renders the post itself
+            AppLog.e(T.READER, "reader pre-renderer > failed to render post " + post.postId, e);
+        }
+    }
+
+    /*
+     * drops the posts which haven't started rendering yet - the one being rendered is completed
+     * since it will likely be needed when the user swipes back
+     */
+    void cancel() {
+        for (Future<?> task : mPendingTasks) {
+            task.cancel(false);
+        }
+        mPendingTasks.clear();
+        mExecutor.purge();
+    }
+
+    void shutdown() {
+        cancel();
+        mExecutor.shutdownNow();
+    }
+}
@@ -1,19 +1,21 @@
 package org.wordpress.android.ui.reader;
 
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.net.Uri;
 import android.os.Handler;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.models.ReaderPostDiscoverData;
 import org.wordpress.android.ui.reader.utils.ImageSizeMap;
 import org.wordpress.android.ui.reader.utils.ImageSizeMap.ImageSize;
-import org.wordpress.android.ui.reader.utils.ReaderEmbedScanner;
+import org.wordpress.android.ui.reader.utils.ReaderHtmlRewriter;
 import org.wordpress.android.ui.reader.utils.ReaderHtmlUtils;
-import org.wordpress.android.ui.reader.utils.ReaderIframeScanner;
-import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.ui.reader.views.ReaderWebView;
 import org.wordpress.android.util.AppLog;
@@ -21,12 +23,8 @@ import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.StringUtils;
 
 import java.lang.ref.WeakReference;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Random;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 /**
  * generates and displays the HTML for post detail content - main purpose is to assign the
@@ -44,59 +42,94 @@ public class ReaderPostRenderer {
     private final int mMinMidSizeWidthDp;
     private final WeakReference<ReaderWebView> mWeakWebView;
 
-    private StringBuilder mRenderBuilder;
     private String mRenderedHtml;
     private ImageSizeMap mAttachmentSizes;
     private ReaderCssProvider mCssProvider;
 
+    private final ReaderHtmlRewriter.TagRewriter mImageRewriter = new ReaderHtmlRewriter.TagRewriter() {
+        @Override
+        public String rewriteTag(@NonNull String imageTag, @NonNull String imageUrl) {
+            // Exceptions which should keep their original tag attributes
+            if (imageUrl.contains("wpcom-smileys") || imageTag.contains("wp-story")) {
+                return null;
+            }
+            return makeImageTagForDisplay(imageTag, imageUrl);
+        }
+    };
+
+    private final ReaderHtmlRewriter.TagRewriter mIframeRewriter = new ReaderHtmlRewriter.TagRewriter() {
+        @Override
+        public String rewriteTag(@NonNull String tag, @NonNull String src) {
+            return makeIframeTagForDisplay(tag, src);
+        }
+    };
+
     @SuppressLint("SetJavaScriptEnabled")
     public ReaderPostRenderer(ReaderWebView webView, ReaderPost post, ReaderCssProvider cssProvider) {
-        if (webView == null) {
-            throw new IllegalArgumentException("ReaderPostRenderer requires a webView");
-        }
+        this(new ReaderResourceVars(getWebViewContext(webView)), webView, post, cssProvider);
+
+        // enable JavaScript in the webView, otherwise videos and other embedded content won't
+        // work - note that the content is scrubbed on the backend so this is considered safe
+        webView.getSettings().setJavaScriptEnabled(true);
+    }
+
+    private ReaderPostRenderer(@NonNull ReaderResourceVars resourceVars,
+                               @Nullable ReaderWebView webView,
+                               ReaderPost post,
+                               ReaderCssProvider cssProvider) {
         if (post == null) {
             throw new IllegalArgumentException("ReaderPostRenderer requires a post");
         }
 
         mPost = post;
         mWeakWebView = new WeakReference<>(webView);
-        mResourceVars = new ReaderResourceVars(webView.getContext());
+        mResourceVars = resourceVars;
         mCssProvider = cssProvider;
 
         mMinFullSizeWidthDp = pxToDp(mResourceVars.mFullSizeImageWidthPx / 3);
         mMinMidSizeWidthDp = mMinFullSizeWidthDp / 2;
+    }
 
-        // enable JavaScript in the webView, otherwise videos and other embedded content won't
-        // work - note that the content is scrubbed on the backend so this is considered safe
-        webView.getSettings().setJavaScriptEnabled(true);
+    private static Context getWebViewContext(ReaderWebView webView) {
+        if (webView == null) {
+            throw new IllegalArgumentException("ReaderPostRenderer requires a webView");
+        }
+        return webView.getContext();
+    }
+
+    /*
+     * renders the passed post into ReaderRenderedHtmlCache without displaying it, so the post
+     * detail can show it right away - the vars must be created from a context themed like the one
+     * of the webView which will show the post, and this must be called from a background thread
+     */
+    static void preRender(@NonNull ReaderResourceVars resourceVars,
+                          @NonNull ReaderPost post,
+                          @NonNull ReaderCssProvider cssProvider) {
+        ReaderPostRenderer renderer = new ReaderPostRenderer(resourceVars, null, post, cssProvider);
+        String cssUrl = cssProvider.getCssUrl();
+        String cacheKey = ReaderRenderedHtmlCache.makeKey(post, renderer.mResourceVars.mRenderSignature, cssUrl);
+        renderer.getHtmlContent(ReaderRenderedHtmlCache.getInstance(), cacheKey, renderer.getPostContent(), cssUrl);
     }
 
     public void beginRender() {
+        final String cssUrl = mCssProvider.getCssUrl();
+        final String cacheKey = ReaderRenderedHtmlCache.makeKey(mPost, mResourceVars.mRenderSignature, cssUrl);
+        final ReaderRenderedHtmlCache htmlCache = ReaderRenderedHtmlCache.getInstance();
+
+        // show html which is still in memory right away, eg. when swiping back to a post
+        String cachedHtml = htmlCache.getFromMemory(cacheKey);
+        if (cachedHtml != null) {
+            renderHtmlContent(cachedHtml);
+            return;
+        }
+
         final Handler handler = new Handler();
-        mRenderBuilder = new StringBuilder(getPostContent());
+        final String content = getPostContent();
 
         new Thread() {
             @Override
             public void run() {
-                final boolean hasTiledGallery = hasTiledGallery(mRenderBuilder.toString());
-
-                if (!(hasTiledGallery && mResourceVars.mIsWideDisplay)) {
-                    resizeImages();
-                }
-
-                resizeIframes();
-
-                // Get the set of JS scripts to inject in our Webview to support some specific Embeds.
-                Set<String> jsToInject = injectJSForSpecificEmbedSupport();
-
-                final String htmlContent =
-                        formatPostContentForWebView(
-                                mRenderBuilder.toString(),
-                                jsToInject,
-                                hasTiledGallery,
-                                mResourceVars.mIsWideDisplay);
-
-                mRenderBuilder = null;
+                final String htmlContent = getHtmlContent(htmlCache, cacheKey, content, cssUrl);
                 handler.post(new Runnable() {
                     @Override
                     public void run() {
@@ -107,57 +140,45 @@ public class ReaderPostRenderer {
         }.start();
     }
 
-    public static boolean hasTiledGallery(String text) {
-        // determine whether a tiled-gallery exists in the content
-        return Pattern.compile("tiled-gallery[\\s\"']").matcher(text).find();
-    }
-
     /*
-     * scan the content for images and make sure they're correctly sized for the device
+     * returns the html for the passed content from the cache, or renders and caches it - must be
+     * called from a background thread
      */
-    private void resizeImages() {
-        ReaderHtmlUtils.HtmlScannerListener imageListener = new ReaderHtmlUtils.HtmlScannerListener() {
-            @Override
-            public void onTagFound(String imageTag, String imageUrl) {
-                // Exceptions which should keep their original tag attributes
-                if (imageUrl.contains("wpcom-smileys") || imageTag.contains("wp-story")) {
-                    return;
-                }
-                replaceImageTag(imageTag, imageUrl);
-            }
-        };
-        String content = mRenderBuilder.toString();
-        ReaderImageScanner scanner = new ReaderImageScanner(content, mPost.isPrivate);
-        scanner.beginScan(imageListener);
+    private String getHtmlContent(@NonNull ReaderRenderedHtmlCache htmlCache,
+                                  @NonNull String cacheKey,
+                                  @NonNull String content,
+                                  @NonNull String cssUrl) {
+        String htmlContent = htmlCache.get(cacheKey);
+        if (htmlContent == null) {
+            htmlContent = renderContent(content, cssUrl);
+            htmlCache.put(cacheKey, htmlContent);
+        }
+        return htmlContent;
     }
 
-    /*
-     * scan the content for iframes and make sure they're correctly sized for the device
-     */
-    private void resizeIframes() {
-        ReaderHtmlUtils.HtmlScannerListener iframeListener = new ReaderHtmlUtils.HtmlScannerListener() {
-            @Override
-            public void onTagFound(String tag, String src) {
-                replaceIframeTag(tag, src);
-            }
-        };
-        String content = mRenderBuilder.toString();
-        ReaderIframeScanner scanner = new ReaderIframeScanner(content);
-        scanner.beginScan(iframeListener);
-    }
-
-    private Set<String> injectJSForSpecificEmbedSupport() {
-        final Set<String> jsToInject = new HashSet<>();
-        ReaderHtmlUtils.HtmlScannerListener embedListener = new ReaderHtmlUtils.HtmlScannerListener() {
-            @Override
-            public void onTagFound(String tag, String src) {
-                jsToInject.add(src);
-            }
-        };
-        String content = mRenderBuilder.toString();
-        ReaderEmbedScanner scanner = new ReaderEmbedScanner(content);
-        scanner.beginScan(embedListener);
-        return jsToInject;
+    private String renderContent(@NonNull String content, @NonNull String cssUrl) {
+        // unique CSS class assigned to the gallery elements for easy selection, which is only needed
+        // when tiled galleries can be shown
+        final String galleryOnlyClass = mResourceVars.mIsWideDisplay
+                ? "gallery-only-class" + new Random().nextInt(1000) : null;
+
+        // resize images and iframes, collect the scripts required by embeds, detect tiled galleries,
+        // strip background colors and mark gallery elements in a single pass - images are left
+        // untouched when a tiled gallery is shown
+        ReaderHtmlRewriter.Result result = new ReaderHtmlRewriter(
+                content,
+                mImageRewriter,
+                mIframeRewriter,
+                mResourceVars.mIsWideDisplay,
+                galleryOnlyClass,
+                true).rewrite();
+
+        return formatPostContentForWebView(
+                result.getContent(),
+                cssUrl,
+                result.getJsToInject(),
+                result.hasTiledGallery(),
+                galleryOnlyClass);
     }
 
     /*
@@ -181,11 +202,10 @@ public class ReaderPostRenderer {
     }
 
     /*
-     * called when image scanner finds an image, tries to replace the image tag with one that
-     * has height & width attributes set correctly for the current display, if that fails
-     * replaces it with one that has our 'size-none' class
+     * called when the rewriter finds an image, returns an image tag with height & width attributes
+     * set correctly for the current display, if that fails returns one that has our 'size-none' class
      */
-    private void replaceImageTag(final String imageTag, final String imageUrl) {
+    private String makeImageTagForDisplay(final String imageTag, final String imageUrl) {
         ImageSize origSize = getImageSize(imageTag, imageUrl);
         boolean hasWidth = (origSize != null && origSize.width > 0);
         boolean isFullSize = hasWidth && (origSize.width >= mMinFullSizeWidthDp);
@@ -203,14 +223,7 @@ public class ReaderPostRenderer {
         } else {
             newImageTag = "<img class='size-none' src='" + imageUrl + "' />";
         }
-
-        int start = mRenderBuilder.indexOf(imageTag);
-        if (start == -1) {
-            AppLog.w(AppLog.T.READER, "reader renderer > image not found in builder");
-            return;
-        }
-
-        mRenderBuilder.replace(start, start + imageTag.length(), newImageTag);
+        return newImageTag;
     }
 
     private String makeImageTag(final String imageUrl, int width, int height, final String imageClass) {
@@ -285,9 +298,9 @@ public class ReaderPostRenderer {
     }
 
     /*
-     * replace the passed iframe tag with one that's correctly sized for the device
+     * returns an iframe tag to replace the passed one that's correctly sized for the device
      */
-    private void replaceIframeTag(final String tag, final String src) {
+    private String makeIframeTagForDisplay(final String tag, final String src) {
         int width = ReaderHtmlUtils.getWidthAttrValue(tag);
         int height = ReaderHtmlUtils.getHeightAttrValue(tag);
 
@@ -302,29 +315,19 @@ public class ReaderPostRenderer {
             newHeight = mResourceVars.mVideoHeightPx;
         }
 
-        String newTag = "<iframe src='" + src + "'"
-                        + " frameborder='0' allowfullscreen='true' allowtransparency='true'"
-                        + " width='" + pxToDp(newWidth) + "'"
-                        + " height='" + pxToDp(newHeight) + "' />";
-
-        int start = mRenderBuilder.indexOf(tag);
-        if (start == -1) {
-            AppLog.w(AppLog.T.READER, "reader renderer > iframe not found in builder");
-            return;
-        }
-
-        mRenderBuilder.replace(start, start + tag.length(), newTag);
+        return "<iframe src='" + src + "'"
+               + " frameborder='0' allowfullscreen='true' allowtransparency='true'"
+               + " width='" + pxToDp(newWidth) + "'"
+               + " height='" + pxToDp(newHeight) + "' />";
     }
 
     /*
      * returns the full content, including CSS, that will be shown in the WebView for this post
      */
-    private String formatPostContentForWebView(final String content, final Set<String> jsToInject,
-                                               boolean hasTiledGallery, boolean isWideDisplay) {
-        final boolean renderAsTiledGallery = hasTiledGallery && isWideDisplay;
-
-        // unique CSS class assigned to the gallery elements for easy selection
-        final String galleryOnlyClass = "gallery-only-class" + new Random().nextInt(1000);
+    private String formatPostContentForWebView(final String content, final String cssUrl,
+                                               final Set<String> jsToInject,
+                                               boolean hasTiledGallery, @Nullable String galleryOnlyClass) {
+        final boolean renderAsTiledGallery = hasTiledGallery && galleryOnlyClass != null;
 
         @SuppressWarnings("StringBufferReplaceableByString")
         StringBuilder sbHtml = new StringBuilder("<!DOCTYPE html><html><head><meta charset='UTF-8' />");
@@ -332,7 +335,7 @@ public class ReaderPostRenderer {
         // title isn't necessary, but it's invalid html5 without one
         sbHtml.append("<title>Reader Post</title>")
               .append("<link rel=\"stylesheet\" type=\"text/css\"\n"
-                      + "          href=\"" + mCssProvider.getCssUrl() + "\">");
+                      + "          href=\"" + cssUrl + "\">");
         // https://developers.google.com/chrome/mobile/docs/webview/pixelperfect
         sbHtml.append("<meta name='viewport' content='width=device-width, initial-scale=1'>")
               .append("<style type='text/css'>");
@@ -481,27 +484,12 @@ public class ReaderPostRenderer {
                 .append(" figure { display: block; margin-inline-start: 0px; margin-inline-end: 0px; }")
                 .append("</style>");
 
-        // add a custom CSS class to (any) tiled gallery elements to make them easier selectable for various rules
-        final List<String> classAmendRegexes = Arrays.asList(
-                "(tiled-gallery) ([\\s\"\'])",
-                "(gallery-row) ([\\s\"'])",
-                "(gallery-group) ([\\s\"'])",
-                "(tiled-gallery-item) ([\\s\"'])");
-        String contentCustomised = content;
-
-        // removes background-color property from original content
-        contentCustomised = contentCustomised.replaceAll("\\s*(background-color)\\s*:\\s*.+?\\s*;\\s*", "");
-
-        for (String classToAmend : classAmendRegexes) {
-            contentCustomised = contentCustomised.replaceAll(classToAmend, "$1 " + galleryOnlyClass + "$2");
-        }
-
         for (String jsUrl : jsToInject) {
             sbHtml.append("<script src=\"").append(jsUrl).append("\" type=\"text/javascript\" async></script>");
         }
 
         sbHtml.append("</head><body class=\"reader-full-post reader-full-post__story-content\">")
-              .append(contentCustomised)
+              .append(content)
               .append("</body></html>");
 
         return sbHtml.toString();
@@ -0,0 +1,332 @@
+package org.wordpress.android.ui.reader;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.collection.LruCache;
+
+import org.wordpress.android.WordPress;
+import org.wordpress.android.models.ReaderPost;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded memory + disk cache of the html ReaderPostRenderer produces for a post. Entries are keyed
+ * by the post, a hash of its content, the display the html was rendered for and the CSS version,
+ * so an updated post or a different display never receives stale html. Both levels evict the
+ * least recently used entries once they're full.
+ * <p>
+ * The memory cache may be read from the main thread, everything else touches the disk and should
+ * be called from a background thread.
+ */
+public class ReaderRenderedHtmlCache {
+    private static final int MAX_MEMORY_SIZE_KB = 4 * 1024;
+    private static final long MAX_DISK_SIZE_BYTES = 16 * 1024 * 1024;
+    private static final String DISK_CACHE_DIR = "reader_rendered_html";
+    private static final String FILE_EXTENSION = ".html";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static ReaderRenderedHtmlCache sInstance;
+
+    private final LruCache<String, String> mMemoryCache;
+    private final File mDiskDir;
+    private final long mMaxDiskSizeBytes;
+
+    // access-ordered index of the files in the disk cache and their sizes, loaded on first use
+    private LinkedHashMap<String, Long> mDiskIndex;
+    private long mDiskSizeBytes;
+
+    public static synchronized ReaderRenderedHtmlCache getInstance() {
+        if (sInstance == null) {
+            File diskDir = new File(WordPress.getContext().getCacheDir(), DISK_CACHE_DIR);
+            sInstance = new ReaderRenderedHtmlCache(diskDir, MAX_MEMORY_SIZE_KB, MAX_DISK_SIZE_BYTES);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    public static synchronized void setInstance(@Nullable ReaderRenderedHtmlCache instance) {
+        sInstance = instance;
+    }
+
+    ReaderRenderedHtmlCache(@NonNull File diskDir, int maxMemorySizeKb, long maxDiskSizeBytes) {
+        mDiskDir = diskDir;
+        mMaxDiskSizeBytes = maxDiskSizeBytes;
+        mMemoryCache = new LruCache<String, String>(maxMemorySizeKb) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull String html) {
+                // two bytes per char, measured in kilobytes
+                return Math.max(1, html.length() / 512);
+            }
+        };
+    }
+
+    /*
+     * returns the key for the html of the passed post - renderSignature identifies the display and
+     * theme the html is rendered for and cssVersion the stylesheet it links to
+     */
+    @NonNull
+    public static String makeKey(@NonNull ReaderPost post,
+                                 @NonNull String renderSignature,
+                                 @NonNull String cssVersion) {
+        return getPostKeyPrefix(post.blogId, post.postId)
+               + Integer.toHexString(getContentHash(post)) + "-"
+               + Integer.toHexString((renderSignature + cssVersion).hashCode());
+    }
+
+    /*
+     * hash of everything in the post which ReaderPostRenderer reads - isPrivate changes the image
+     * urls and the attachments give the size of images which don't have one in their tag
+     */
+    static int getContentHash(@NonNull ReaderPost post) {
+        return Arrays.hashCode(new Object[]{
+                post.getText(),
+                post.getExcerpt(),
+                post.shouldShowExcerpt(),
+                post.getDiscoverJson(),
+                post.isPrivate,
+                post.getAttachmentsJson()
+        });
+    }
+
+    private static String getBlogKeyPrefix(long blogId) {
+        return blogId + "-";
+    }
+
+    private static String getPostKeyPrefix(long blogId, long postId) {
+        return getBlogKeyPrefix(blogId) + postId + "-";
+    }
+
+    /*
+     * returns the cached html only if it's in memory - safe to call from the main thread
+     */
+    @Nullable
+    public String getFromMemory(@NonNull String key) {
+        return mMemoryCache.get(key);
+    }
+
+    /*
+     * returns the cached html from memory or disk, null if it's not cached
+     */
+    @Nullable
+    public String get(@NonNull String key) {
+        String html = mMemoryCache.get(key);
+        if (html != null) {
+            touchDiskEntry(key);
+            return html;
+        }
+
+        html = readFromDisk(key);
+        if (html != null) {
+            mMemoryCache.put(key, html);
+        }
+        return html;
+    }
+
+    public void put(@NonNull String key, @NonNull String html) {
+        mMemoryCache.put(key, html);
+        writeToDisk(key, html);
+    }
+
+    /*
+     * removes the html cached for older versions of the passed post
+     */
+    public void invalidate(@NonNull ReaderPost post) {
+        String currentPrefix = getPostKeyPrefix(post.blogId, post.postId)
+                               + Integer.toHexString(getContentHash(post)) + "-";
+        removeMatching(getPostKeyPrefix(post.blogId, post.postId), currentPrefix);
+    }
+
+    public void invalidatePost(long blogId, long postId) {
+        removeMatching(getPostKeyPrefix(blogId, postId), null);
+    }
+
+    public void invalidateBlog(long blogId) {
+        removeMatching(getBlogKeyPrefix(blogId), null);
+    }
+
+    /*
+     * removes the entries whose key starts with prefix, except for those starting with keepPrefix
+     */
+    private void removeMatching(@NonNull String prefix, @Nullable String keepPrefix) {
+        for (String key : mMemoryCache.snapshot().keySet()) {
+            if (key.startsWith(prefix) && (keepPrefix == null || !key.startsWith(keepPrefix))) {
+                mMemoryCache.remove(key);
+            }
+        }
+
+        synchronized (this) {
+            // stale files can never be read since their keys no longer match, so there's no need
+            // to load the index just to remove them - they'll be evicted like any other entry
+            if (mDiskIndex == null) {
+                return;
+            }
+            List<String> keysToRemove = new ArrayList<>();
+            for (String key : mDiskIndex.keySet()) {
+                if (key.startsWith(prefix) && (keepPrefix == null || !key.startsWith(keepPrefix))) {
+                    keysToRemove.add(key);
+                }
+            }
+            for (String key : keysToRemove) {
+                removeFromDisk(key);
+            }
+        }
+    }
+
+    public void clear() {
+        mMemoryCache.evictAll();
+        synchronized (this) {
+            File[] files = mDiskDir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+            mDiskIndex = null;
+            mDiskSizeBytes = 0;
+        }
+    }
+
+    /*
+     * marks the file of the passed key as recently used so it isn't the next to be evicted
+     */
+    private synchronized void touchDiskEntry(@NonNull String key) {
+        if (mDiskIndex != null) {
+            mDiskIndex.get(key);
+        }
+    }
+
+    private synchronized void loadDiskIndex() {
+        if (mDiskIndex != null) {
+            return;
+        }
+
+        mDiskIndex = new LinkedHashMap<>(16, 0.75f, true);
+        mDiskSizeBytes = 0;
+        File[] files = mDiskDir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        // oldest files first so they're the first to be evicted
+        Arrays.sort(files, (file1, file2) -> Long.compare(file1.lastModified(), file2.lastModified()));
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(FILE_EXTENSION)) {
+                mDiskIndex.put(name.substring(0, name.length() - FILE_EXTENSION.length()), file.length());
+                mDiskSizeBytes += file.length();
+            }
+        }
+    }
+
+    @Nullable
+    private synchronized String readFromDisk(@NonNull String key) {
+        loadDiskIndex();
+        if (mDiskIndex.get(key) == null) {
+            return null;
+        }
+
+        File file = getFile(key);
+        InputStream input = null;
+        try {
+            input = new FileInputStream(file);
+            ByteArrayOutputStream output = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = input.read(buffer)) != -1) {
+                output.write(buffer, 0, count);
+            }
+            // touch the file so the order survives restarts
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            return new String(output.toByteArray(), UTF_8);
+        } catch (IOException e) {
+            AppLog.e(T.READER, "reader html cache > failed to read " + key, e);
+            removeFromDisk(key);
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    private synchronized void writeToDisk(@NonNull String key, @NonNull String html) {
+        loadDiskIndex();
+        if (!mDiskDir.exists() && !mDiskDir.mkdirs()) {
+            AppLog.w(T.READER, "reader html cache > unable to create cache directory");
+            return;
+        }
+
+        byte[] bytes = html.getBytes(UTF_8);
+        boolean isWritten = false;
+        OutputStream output = null;
+        try {
+            output = new FileOutputStream(getFile(key));
+            output.write(bytes);
+            isWritten = true;
+        } catch (IOException e) {
+            AppLog.e(T.READER, "reader html cache > failed to write " + key, e);
+        } finally {
+            closeQuietly(output);
+        }
+
+        if (!isWritten) {
+            removeFromDisk(key);
+            return;
+        }
+
+        Long previousSize = mDiskIndex.put(key, (long) bytes.length);
+        mDiskSizeBytes += bytes.length - (previousSize != null ? previousSize : 0);
+        trimDisk();
+    }
+
+    private void trimDisk() {
+        Iterator<Map.Entry<String, Long>> iterator = mDiskIndex.entrySet().iterator();
+        while (mDiskSizeBytes > mMaxDiskSizeBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            //noinspection ResultOfMethodCallIgnored
+            getFile(eldest.getKey()).delete();
+            mDiskSizeBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void removeFromDisk(@NonNull String key) {
+        //noinspection ResultOfMethodCallIgnored
+        getFile(key).delete();
+        Long size = mDiskIndex.remove(key);
+        if (size != null) {
+            mDiskSizeBytes -= size;
+        }
+    }
+
+    private File getFile(@NonNull String key) {
+        return new File(mDiskDir, key + FILE_EXTENSION);
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignored
+            }
+        }
+    }
+}
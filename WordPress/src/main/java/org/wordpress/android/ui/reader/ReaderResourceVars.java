@@ -32,6 +32,10 @@ class ReaderResourceVars {
     final String mTextColor;
     final String mGreyDisabledStr;
 
+    // identifies the display, theme and locale these vars were created for, changes whenever the html
+    // rendered with them would change - the html includes localized labels, so the locale is part of it
+    final String mRenderSignature;
+
     ReaderResourceVars(Context context) {
         Resources resources = context.getResources();
 
@@ -83,5 +87,11 @@ class ReaderResourceVars {
         // 16:9 ratio (YouTube standard)
         mVideoWidthPx = mFullSizeImageWidthPx - (marginLargePx * 2);
         mVideoHeightPx = (int) (mVideoWidthPx * 0.5625f);
+
+        mRenderSignature = displayWidthPx + ";" + mFullSizeImageWidthPx + ";" + mMarginMediumPx + ";"
+                           + DisplayUtils.pxToDp(context, displayWidthPx) + ";" + mTextColor + ";"
+                           + mGreyMediumDarkStr + ";" + mGreyLightStr + ";" + mGreyExtraLightStr + ";"
+                           + mGreyDisabledStr + ";" + mLinkColorStr + ";"
+                           + ContextExtensionsKt.getCurrentLocale(context).toLanguageTag();
     }
 }
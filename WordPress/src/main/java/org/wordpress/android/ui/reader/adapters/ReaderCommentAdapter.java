@@ -12,6 +12,8 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import androidx.core.graphics.ColorUtils;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.wordpress.android.R;
@@ -50,6 +52,8 @@ import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -57,6 +61,25 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
     private ReaderPost mPost;
     private boolean mMoreCommentsExist;
 
+    // the comments shown are a window of pages read from the database, which moves by a page at a time
+    // as the user nears either end of the list - so long threads are neither loaded and leveled all at
+    // once nor held in memory in full
+    private int mFirstPageNumber = 1;
+    private int mLastPageNumber = 1;
+    private int mLastLocalPageNumber;
+    private boolean mIsNextPageRequested;
+    // levels of the comments leveled so far, including the ones on pages which have left the window,
+    // so the replies on a page read later are indented below their parents
+    private final Map<Long, Integer> mCommentLevels = new ConcurrentHashMap<>();
+
+    private static final int MAX_WINDOW_PAGES = 4;
+
+    private enum LoadMode {
+        REFRESH,
+        NEXT_PAGE,
+        PREVIOUS_PAGE
+    }
+
     private static final int MAX_INDENT_LEVEL = 2;
     private final int mIndentPerLevel;
     private final int mAvatarSz;
@@ -79,6 +102,9 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
 
     private static final int NUM_HEADERS = 1;
 
+    // the next page is loaded when the user scrolls to within this many comments of the end
+    private static final int PREFETCH_DISTANCE = 10;
+
     @Inject AccountStore mAccountStore;
     @Inject SiteStore mSiteStore;
     @Inject ImageManager mImageManager;
@@ -195,9 +221,41 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
 
     public void refreshComments() {
         if (mIsTaskRunning) {
-            AppLog.w(T.READER, "reader comment adapter > Load comments task already running");
+            AppLog.d(T.READER, "reader comment adapter > Load comments task already running, refresh pending");
+            mIsRefreshPending = true;
+            return;
+        }
+        // the update which follows a request for the next page only stores that page, so it's appended
+        // rather than the whole window being read again
+        LoadMode mode = mIsNextPageRequested ? LoadMode.NEXT_PAGE : LoadMode.REFRESH;
+        mIsNextPageRequested = false;
+        new LoadCommentsTask(mode).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /*
+     * shows the next page of comments if it's stored locally, otherwise asks for it to be requested
+     * from the server if we know more comments exist there - it's shown once it has been stored
+     */
+    private void loadNextPage() {
+        if (mIsTaskRunning || mIsNextPageRequested) {
+            return;
+        }
+        if (mLastPageNumber < mLastLocalPageNumber) {
+            new LoadCommentsTask(LoadMode.NEXT_PAGE).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        } else if (mMoreCommentsExist && mDataRequestedListener != null) {
+            mIsNextPageRequested = true;
+            mDataRequestedListener.onRequestData();
         }
-        new LoadCommentsTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /*
+     * shows the page before the window again, read from the database
+     */
+    private void loadPreviousPage() {
+        if (mIsTaskRunning || mFirstPageNumber <= 1) {
+            return;
+        }
+        new LoadCommentsTask(LoadMode.PREVIOUS_PAGE).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
     @Override
@@ -342,10 +400,11 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
 
         showLikeStatus(commentHolder, position);
 
-        // if we're nearing the end of the comments and we know more exist on the server,
-        // fire request to load more
-        if (mMoreCommentsExist && mDataRequestedListener != null && (position >= getItemCount() - NUM_HEADERS)) {
-            mDataRequestedListener.onRequestData();
+        // if we're nearing either end of the comments, load the page past it before the user reaches it
+        if (position >= getItemCount() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        } else if (position <= PREFETCH_DISTANCE) {
+            loadPreviousPage();
         }
     }
 
@@ -426,7 +485,10 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
 
         ReaderComment updatedComment = ReaderCommentTable.getComment(comment.blogId, comment.postId, comment.commentId);
         if (updatedComment != null) {
+            // copy the comment level over since loading from the DB always has it as 0
+            updatedComment.level = comment.level;
             mComments.set(position - NUM_HEADERS, updatedComment);
+            mListVersion++;
             showLikeStatus(holder, position);
         }
 
@@ -458,6 +520,7 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
             // copy the comment level over since loading from the DB always has it as 0
             updatedComment.level = comment.level;
             mComments.set(position - NUM_HEADERS, updatedComment);
+            mListVersion++;
             notifyItemChanged(position);
         }
 
@@ -477,7 +540,8 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
         // appears under its parent and is correctly indented
         if (comment.parentId == 0) {
             mComments.add(comment);
-            notifyDataSetChanged();
+            mListVersion++;
+            notifyItemInserted(mComments.size() - 1 + NUM_HEADERS);
         } else {
             refreshComments();
         }
@@ -495,7 +559,8 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
         int index = mComments.indexOfCommentId(commentId);
         if (index > -1) {
             mComments.remove(index);
-            notifyDataSetChanged();
+            mListVersion++;
+            notifyItemRemoved(index + NUM_HEADERS);
         }
     }
 
@@ -505,6 +570,7 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
     public void replaceComment(long commentId, ReaderComment comment) {
         int position = positionOfCommentId(commentId);
         if (position > -1 && mComments.replaceComment(commentId, comment)) {
+            mListVersion++;
             notifyItemChanged(position);
         }
     }
@@ -534,19 +600,81 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
         mAnimateLikeCommentId = commentId;
     }
 
+    private static class CommentListDiffCallback extends DiffUtil.Callback {
+        private final ReaderCommentList mOldList;
+        private final ReaderCommentList mNewList;
+
+        CommentListDiffCallback(ReaderCommentList oldList, ReaderCommentList newList) {
+            mOldList = oldList;
+            mNewList = newList;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldList.get(oldItemPosition).commentId == mNewList.get(newItemPosition).commentId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            ReaderComment oldComment = mOldList.get(oldItemPosition);
+            ReaderComment newComment = mNewList.get(newItemPosition);
+            return oldComment.equals(newComment) && oldComment.level == newComment.level;
+        }
+    }
+
     /*
-     * AsyncTask to load comments for this post
+     * AsyncTask to load the window of pages shown for this post. When the window moves by a page only
+     * the page which enters it is read and leveled, and it's added to the start or end of the list along
+     * with the page which leaves it being dropped. A refresh reads and levels the whole window, which is
+     * compared with the comments already shown so only the rows which actually changed are updated
      */
     private boolean mIsTaskRunning = false;
+    private boolean mIsRefreshPending = false;
+    // incremented whenever the displayed list changes outside of LoadCommentsTask
+    private int mListVersion;
 
     @SuppressLint("StaticFieldLeak")
     private class LoadCommentsTask extends AsyncTask<Void, Void, Boolean> {
+        private final LoadMode mMode;
+        private ReaderCommentList mOldComments;
         private ReaderCommentList mTmpComments;
+        private DiffUtil.DiffResult mDiffResult;
+        private int mNumRemovedFromStart;
+        private int mNumAddedToStart;
+        private int mNumRemovedFromEnd;
+        private int mNumAddedToEnd;
         private boolean mTmpMoreCommentsExist;
+        private int mTmpLastLocalPageNumber;
+        private int mListVersionAtStart;
+        private int mOldFirstPage;
+        private int mOldLastPage;
+        private int mFirstPage;
+        private int mLastPage;
+        private long mHighlightId;
+
+        LoadCommentsTask(LoadMode mode) {
+            mMode = mode;
+        }
 
         @Override
         protected void onPreExecute() {
             mIsTaskRunning = true;
+            mListVersionAtStart = mListVersion;
+            mOldComments = new ReaderCommentList();
+            mOldComments.addAll(mComments);
+            mOldFirstPage = mFirstPageNumber;
+            mOldLastPage = mLastPageNumber;
+            mHighlightId = mHighlightCommentId;
         }
 
         @Override
@@ -566,24 +694,186 @@ public class ReaderCommentAdapter extends RecyclerView.Adapter<RecyclerView.View
             int numServerComments = ReaderPostTable.getNumCommentsForPost(mPost);
             int numLocalComments = ReaderCommentTable.getNumCommentsForPost(mPost);
             mTmpMoreCommentsExist = (numServerComments > numLocalComments);
+            mTmpLastLocalPageNumber = ReaderCommentTable.getLastPageNumberForPost(mPost.blogId, mPost.postId);
+
+            mFirstPage = mOldFirstPage;
+            mLastPage = mOldLastPage;
+            LoadMode mode = mMode;
+            if (mode == LoadMode.NEXT_PAGE) {
+                mLastPage = Math.min(mOldLastPage + 1, Math.max(mTmpLastLocalPageNumber, mOldLastPage));
+                mFirstPage = Math.max(mFirstPage, mLastPage - MAX_WINDOW_PAGES + 1);
+            } else if (mode == LoadMode.PREVIOUS_PAGE) {
+                mFirstPage = Math.max(1, mOldFirstPage - 1);
+                mLastPage = Math.min(mLastPage, mFirstPage + MAX_WINDOW_PAGES - 1);
+            }
 
-            mTmpComments = ReaderCommentTable.getCommentsForPost(mPost);
-            return !mComments.isSameList(mTmpComments);
+            // make sure the highlighted comment is shown even when it's outside the window, which is
+            // then read again around it
+            if (mHighlightId != 0) {
+                int highlightPage =
+                        ReaderCommentTable.getPageNumberForComment(mPost.blogId, mPost.postId, mHighlightId);
+                if (highlightPage > mLastPage) {
+                    mLastPage = highlightPage;
+                    mFirstPage = Math.max(mFirstPage, mLastPage - MAX_WINDOW_PAGES + 1);
+                    mode = LoadMode.REFRESH;
+                } else if (highlightPage > 0 && highlightPage < mFirstPage) {
+                    mFirstPage = highlightPage;
+                    mLastPage = Math.min(mLastPage, mFirstPage + MAX_WINDOW_PAGES - 1);
+                    mode = LoadMode.REFRESH;
+                }
+            }
+
+            if (mode != LoadMode.REFRESH && mergePages()) {
+                return true;
+            }
+
+            mTmpComments = readPages(mFirstPage, mLastPage);
+            mDiffResult = DiffUtil.calculateDiff(new CommentListDiffCallback(mOldComments, mTmpComments), false);
+            return true;
+        }
+
+        /*
+         * reads and levels only the page which enters the window and drops the comments on the page which
+         * leaves it - returns false if the comments shown aren't in page order (a comment was added to
+         * them), in which case the whole window is read again
+         */
+        private boolean mergePages() {
+            int numOld = mOldComments.size();
+            while (mNumRemovedFromStart < numOld
+                   && pageOf(mOldComments.get(mNumRemovedFromStart)) < mFirstPage) {
+                mNumRemovedFromStart++;
+            }
+            while (mNumRemovedFromEnd < numOld - mNumRemovedFromStart
+                   && pageOf(mOldComments.get(numOld - 1 - mNumRemovedFromEnd)) > mLastPage) {
+                mNumRemovedFromEnd++;
+            }
+            for (int i = mNumRemovedFromStart; i < numOld - mNumRemovedFromEnd; i++) {
+                int pageNumber = pageOf(mOldComments.get(i));
+                if (pageNumber < mFirstPage || pageNumber > mLastPage) {
+                    return false;
+                }
+            }
+
+            ReaderCommentList startPage = readPages(mFirstPage, mOldFirstPage - 1);
+            ReaderCommentList endPage = readPages(mOldLastPage + 1, mLastPage);
+            mNumAddedToStart = startPage.size();
+            mNumAddedToEnd = endPage.size();
+
+            mTmpComments = new ReaderCommentList();
+            mTmpComments.addAll(startPage);
+            mTmpComments.addAll(mOldComments.subList(mNumRemovedFromStart, numOld - mNumRemovedFromEnd));
+            mTmpComments.addAll(endPage);
+            return true;
+        }
+
+        /*
+         * reads the passed pages, each with its comments sorted under their parents and indent levels
+         * applied - pages are leveled one at a time so the list is always in page order, which is what
+         * lets the window move by adding and dropping whole pages
+         */
+        private ReaderCommentList readPages(int firstPage, int lastPage) {
+            ReaderCommentList comments = new ReaderCommentList();
+            for (int page = firstPage; page <= lastPage; page++) {
+                // comments stored before paging was added have no page number, so they're read with the first page
+                ReaderCommentList pageComments =
+                        ReaderCommentTable.getCommentsForPost(mPost, page == 1 ? 0 : page, page);
+                ReaderCommentList leveledComments =
+                        new ReaderCommentLeveler(pageComments).createLevelList(mCommentLevels);
+                for (ReaderComment comment : leveledComments) {
+                    mCommentLevels.put(comment.commentId, comment.level);
+                }
+                comments.addAll(leveledComments);
+            }
+            return comments;
+        }
+
+        private int pageOf(ReaderComment comment) {
+            return Math.max(1, comment.pageNumber);
         }
 
         @Override
         protected void onPostExecute(Boolean result) {
+            mIsTaskRunning = false;
+
+            if (mListVersionAtStart != mListVersion) {
+                // the list was changed while loading so the changes no longer apply - load it again
+                mIsRefreshPending = false;
+                if (mMode == LoadMode.NEXT_PAGE) {
+                    mIsNextPageRequested = true;
+                }
+                refreshComments();
+                return;
+            }
+
             mMoreCommentsExist = mTmpMoreCommentsExist;
+            mLastLocalPageNumber = mTmpLastLocalPageNumber;
 
             if (result) {
-                // assign the comments with children sorted under their parents and indent levels applied
-                mComments = new ReaderCommentLeveler(mTmpComments).createLevelList();
-                notifyDataSetChanged();
+                mFirstPageNumber = mFirstPage;
+                mLastPageNumber = mLastPage;
+                mComments = mTmpComments;
+                if (mDiffResult != null) {
+                    mDiffResult.dispatchUpdatesTo(new OffsetListUpdateCallback(NUM_HEADERS));
+                } else {
+                    dispatchMergedPages();
+                }
             }
             if (mDataLoadedListener != null) {
                 mDataLoadedListener.onDataLoaded(isEmpty());
             }
-            mIsTaskRunning = false;
+
+            if (mIsRefreshPending) {
+                mIsRefreshPending = false;
+                refreshComments();
+            }
+        }
+
+        private void dispatchMergedPages() {
+            if (mNumRemovedFromStart > 0) {
+                notifyItemRangeRemoved(NUM_HEADERS, mNumRemovedFromStart);
+            }
+            if (mNumAddedToStart > 0) {
+                notifyItemRangeInserted(NUM_HEADERS, mNumAddedToStart);
+            }
+            int numKept = mComments.size() - mNumAddedToStart - mNumAddedToEnd;
+            int endPosition = NUM_HEADERS + mNumAddedToStart + numKept;
+            if (mNumRemovedFromEnd > 0) {
+                notifyItemRangeRemoved(endPosition, mNumRemovedFromEnd);
+            }
+            if (mNumAddedToEnd > 0) {
+                notifyItemRangeInserted(endPosition, mNumAddedToEnd);
+            }
+        }
+    }
+
+    /*
+     * dispatches the changes to the comment list to the adapter, offset by the header
+     */
+    private class OffsetListUpdateCallback implements ListUpdateCallback {
+        private final int mOffset;
+
+        OffsetListUpdateCallback(int offset) {
+            mOffset = offset;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position + mOffset, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position + mOffset, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition + mOffset, toPosition + mOffset);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notifyItemRangeChanged(position + mOffset, count, payload);
         }
     }
 
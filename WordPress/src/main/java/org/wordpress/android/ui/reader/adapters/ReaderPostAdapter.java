@@ -15,6 +15,7 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.jetbrains.annotations.NotNull;
@@ -22,6 +23,7 @@ import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.analytics.AnalyticsTracker;
 import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.datasets.ReaderPostTable.StreamPosition;
 import org.wordpress.android.datasets.ReaderTagTable;
 import org.wordpress.android.fluxc.store.AccountStore;
 import org.wordpress.android.fluxc.store.SiteStore;
@@ -90,6 +92,8 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     private final int mAvatarSzSmall;
 
     private boolean mCanRequestMorePosts;
+    // true when there are stored posts after the last one loaded
+    private boolean mHasMoreLocalPosts;
 
     @NonNull private final ReaderTypes.ReaderPostListType mPostListType;
     @NonNull private String mSource;
@@ -106,6 +110,10 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     // the large "tbl_posts.text" column is unused here, so skip it when querying
     private static final boolean EXCLUDE_TEXT_COLUMN = true;
     private static final int MAX_ROWS = ReaderConstants.READER_MAX_POSTS_TO_DISPLAY;
+    // posts are loaded from the db a page at a time, and the next page is loaded once the
+    // user scrolls within PREFETCH_DISTANCE items of the end of the list
+    private static final int PAGE_SIZE = 40;
+    private static final int PREFETCH_DISTANCE = 10;
 
     private static final int VIEW_TYPE_POST = 0;
     private static final int VIEW_TYPE_XPOST = 1;
@@ -509,10 +517,15 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     }
 
     /*
-     * if we're nearing the end of the posts, fire request to load more
+     * if we're nearing the end of the posts, load the next page of stored posts or fire request to
+     * load more once they've all been loaded
      */
     private void checkLoadMore(int position) {
-        if (mCanRequestMorePosts
+        if (mHasMoreLocalPosts) {
+            if (position >= getItemCount() - 1 - PREFETCH_DISTANCE) {
+                loadNextPage();
+            }
+        } else if (mCanRequestMorePosts
             && mDataRequestedListener != null
             && (position >= getItemCount() - 1)) {
             mDataRequestedListener.onRequestData();
@@ -554,7 +567,11 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     }
 
     private boolean hasTagHeader() {
-        return (getPostListType() == ReaderPostListType.TAG_PREVIEW) && !isEmpty();
+        return hasTagHeader(isEmpty());
+    }
+
+    private boolean hasTagHeader(boolean isEmpty) {
+        return (getPostListType() == ReaderPostListType.TAG_PREVIEW) && !isEmpty;
     }
 
     private boolean isDiscover() {
@@ -615,6 +632,9 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
     public void clear() {
         mGapMarkerPosition = -1;
+        mHasMoreLocalPosts = false;
+        mIsNextPagePending = false;
+        mListVersion++;
         if (!mPosts.isEmpty()) {
             mPosts.clear();
             notifyDataSetChanged();
@@ -622,7 +642,7 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
     }
 
     public void refresh() {
-        loadPosts();
+        loadPosts(false);
     }
 
     /*
@@ -630,15 +650,25 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
      */
     public void reload() {
         clear();
-        loadPosts();
+        loadPosts(false);
     }
 
-    private void loadPosts() {
+    private void loadNextPage() {
+        loadPosts(true);
+    }
+
+    private void loadPosts(boolean isNextPage) {
         if (mIsTaskRunning) {
-            AppLog.w(AppLog.T.READER, "reader posts task already running");
+            // run once the current task is done, since it may not include the latest changes
+            AppLog.d(AppLog.T.READER, "reader posts task already running, load queued");
+            if (isNextPage) {
+                mIsNextPagePending = true;
+            } else {
+                mIsRefreshPending = true;
+            }
             return;
         }
-        new LoadPostsTask().executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        new LoadPostsTask(isNextPage).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
     }
 
     private ReaderPost getItem(int position) {
@@ -738,26 +768,132 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
         int position = mGapMarkerPosition;
         mGapMarkerPosition = -1;
+        mListVersion++;
         if (position < getItemCount()) {
             notifyItemRemoved(position);
         }
     }
 
     /*
-     * AsyncTask to load posts in the current tag
+     * posts shown by the adapter along with the position of the gap marker, used to compute the
+     * changes between the displayed list and a newly loaded one off the main thread
+     */
+    private static final class PostListSnapshot {
+        private final ReaderPostList mPosts;
+        private final int mGapMarkerPosition;
+        private final int mHeaderOffset;
+
+        PostListSnapshot(ReaderPostList posts, int gapMarkerPosition, boolean hasHeader) {
+            mPosts = posts;
+            mGapMarkerPosition = gapMarkerPosition;
+            mHeaderOffset = hasHeader ? 1 : 0;
+        }
+
+        int getItemCount() {
+            return mPosts.size() + mHeaderOffset + (mGapMarkerPosition != -1 ? 1 : 0);
+        }
+
+        ReaderPost getPost(int position) {
+            if (position < mHeaderOffset || position == mGapMarkerPosition) {
+                return null;
+            }
+            int arrayPos = position - mHeaderOffset;
+            if (mGapMarkerPosition > -1 && position > mGapMarkerPosition) {
+                arrayPos--;
+            }
+            return arrayPos < mPosts.size() ? mPosts.get(arrayPos) : null;
+        }
+
+        long getItemId(int position) {
+            if (position < mHeaderOffset) {
+                return ITEM_ID_HEADER;
+            } else if (position == mGapMarkerPosition) {
+                return ITEM_ID_GAP_MARKER;
+            }
+            ReaderPost post = getPost(position);
+            return post != null ? post.getStableId() : 0;
+        }
+    }
+
+    private static class PostListDiffCallback extends DiffUtil.Callback {
+        private final PostListSnapshot mOldList;
+        private final PostListSnapshot mNewList;
+
+        PostListDiffCallback(PostListSnapshot oldList, PostListSnapshot newList) {
+            mOldList = oldList;
+            mNewList = newList;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldList.getItemCount();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewList.getItemCount();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldList.getItemId(oldItemPosition) == mNewList.getItemId(newItemPosition);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            ReaderPost oldPost = mOldList.getPost(oldItemPosition);
+            ReaderPost newPost = mNewList.getPost(newItemPosition);
+            if (oldPost == null || newPost == null) {
+                // the header and the gap marker don't depend on the posts
+                return oldPost == newPost;
+            }
+            // the bookmark flag also decides whether a removed post is shown in the bookmarks list
+            return oldPost.isSamePost(newPost)
+                   && oldPost.isBookmarked == newPost.isBookmarked
+                   && oldPost.isSeen == newPost.isSeen;
+        }
+    }
+
+    /*
+     * AsyncTask to load posts in the current tag - a refresh reloads the posts which are already
+     * shown (or the first page if there are none), otherwise the next page is appended to them.
+     * Pages are queried from the position of the last post rather than by offset, and the changes
+     * are dispatched from a DiffUtil result computed in the background so only the rows which
+     * actually changed are rebound
      */
     private boolean mIsTaskRunning = false;
+    private boolean mIsRefreshPending = false;
+    private boolean mIsNextPagePending = false;
+    // incremented whenever the displayed list changes outside of LoadPostsTask
+    private int mListVersion;
 
     @SuppressLint("StaticFieldLeak")
     private class LoadPostsTask extends AsyncTask<Void, Void, Boolean> {
-        private ReaderPostList mAllPosts;
+        private final boolean mIsNextPage;
+
+        private PostListSnapshot mOldList;
+        private PostListSnapshot mNewList;
+        private int mListVersionAtStart;
+        private ReaderPost mLastPost;
+        private DiffUtil.DiffResult mDiffResult;
 
         private boolean mCanRequestMorePostsTemp;
-        private int mGapMarkerPositionTemp;
+        private boolean mHasMoreLocalPostsTemp;
+        private boolean mHadMoreLocalPosts;
+
+        LoadPostsTask(boolean isNextPage) {
+            mIsNextPage = isNextPage;
+        }
 
         @Override
         protected void onPreExecute() {
             mIsTaskRunning = true;
+            mListVersionAtStart = mListVersion;
+            ReaderPostList posts = new ReaderPostList();
+            posts.addAll(mPosts);
+            mOldList = new PostListSnapshot(posts, mGapMarkerPosition, hasHeader());
+            mLastPost = mPosts.isEmpty() ? null : mPosts.get(mPosts.size() - 1);
+            mHadMoreLocalPosts = mHasMoreLocalPosts;
         }
 
         @Override
@@ -767,42 +903,88 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
         @Override
         protected Boolean doInBackground(Void... params) {
-            int numExisting;
+            ReaderPostList allPosts;
+            int maxPosts;
+            if (mIsNextPage) {
+                if (mLastPost == null) {
+                    return false;
+                }
+                // append the page which follows the last post to the posts already shown
+                maxPosts = Math.min(PAGE_SIZE, MAX_ROWS - mOldList.mPosts.size());
+                if (maxPosts <= 0) {
+                    return false;
+                }
+                ReaderPostList page = loadPosts(getStreamPosition(mLastPost), null, maxPosts);
+                allPosts = new ReaderPostList();
+                allPosts.addAll(mOldList.mPosts);
+                allPosts.addAll(page);
+                mHasMoreLocalPostsTemp = page.size() == maxPosts && allPosts.size() < MAX_ROWS;
+            } else if (mLastPost != null && mHadMoreLocalPosts) {
+                // reload the posts up to the last one shown, which keeps the number of rows stable
+                // when this is just an update of the existing posts
+                allPosts = loadPosts(null, getStreamPosition(mLastPost), MAX_ROWS);
+                mHasMoreLocalPostsTemp = allPosts.size() < MAX_ROWS;
+            } else {
+                // everything stored was shown, so include a page of posts which may have been
+                // added after the last one shown since then
+                maxPosts = Math.min(MAX_ROWS, mOldList.mPosts.size() + PAGE_SIZE);
+                allPosts = loadPosts(null, null, maxPosts);
+                mHasMoreLocalPostsTemp = allPosts.size() == maxPosts && allPosts.size() < MAX_ROWS;
+            }
+
+            // if we're not already displaying the max # posts, enable requesting more when
+            // the user scrolls to the end of the list
+            mCanRequestMorePostsTemp = (getNumExistingPosts() < ReaderConstants.READER_MAX_POSTS_TO_DISPLAY);
+
+            boolean hasHeader = hasSiteHeader() || hasTagHeader(allPosts.isEmpty());
+            mNewList = new PostListSnapshot(allPosts, getGapMarkerPosition(allPosts, hasHeader), hasHeader);
+            mDiffResult = DiffUtil.calculateDiff(new PostListDiffCallback(mOldList, mNewList), false);
+
+            return true;
+        }
+
+        private ReaderPostList loadPosts(StreamPosition after, StreamPosition through, int maxPosts) {
             switch (getPostListType()) {
                 case TAG_PREVIEW:
                 case TAG_FOLLOWED:
                 case SEARCH_RESULTS:
-                    mAllPosts = ReaderPostTable.getPostsWithTag(mCurrentTag, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                    numExisting = ReaderPostTable.getNumPostsWithTag(mCurrentTag);
-                    break;
+                    return ReaderPostTable.getPostsWithTag(mCurrentTag, after, through, maxPosts,
+                            EXCLUDE_TEXT_COLUMN);
                 case BLOG_PREVIEW:
                     if (mCurrentFeedId != 0) {
-                        mAllPosts = ReaderPostTable.getPostsInFeed(mCurrentFeedId, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                        numExisting = ReaderPostTable.getNumPostsInFeed(mCurrentFeedId);
+                        return ReaderPostTable.getPostsInFeed(mCurrentFeedId, after, through, maxPosts,
+                                EXCLUDE_TEXT_COLUMN);
                     } else {
-                        mAllPosts = ReaderPostTable.getPostsInBlog(mCurrentBlogId, MAX_ROWS, EXCLUDE_TEXT_COLUMN);
-                        numExisting = ReaderPostTable.getNumPostsInBlog(mCurrentBlogId);
+                        return ReaderPostTable.getPostsInBlog(mCurrentBlogId, after, through, maxPosts,
+                                EXCLUDE_TEXT_COLUMN);
                     }
-                    break;
                 default:
-                    return false;
-            }
-
-            if (mPosts.isSameListWithBookmark(mAllPosts)) {
-                return false;
+                    return new ReaderPostList();
             }
+        }
 
-            // if we're not already displaying the max # posts, enable requesting more when
-            // the user scrolls to the end of the list
-            mCanRequestMorePostsTemp = (numExisting < ReaderConstants.READER_MAX_POSTS_TO_DISPLAY);
-
-            // determine whether a gap marker exists - only applies to tagged posts
-            mGapMarkerPositionTemp = getGapMarkerPosition();
+        private StreamPosition getStreamPosition(ReaderPost post) {
+            return getPostListType().isTagType() && mCurrentTag != null
+                    ? StreamPosition.forTag(mCurrentTag, post)
+                    : StreamPosition.forBlog(post);
+        }
 
-            return true;
+        private int getNumExistingPosts() {
+            switch (getPostListType()) {
+                case TAG_PREVIEW:
+                case TAG_FOLLOWED:
+                case SEARCH_RESULTS:
+                    return ReaderPostTable.getNumPostsWithTag(mCurrentTag);
+                case BLOG_PREVIEW:
+                    return mCurrentFeedId != 0
+                            ? ReaderPostTable.getNumPostsInFeed(mCurrentFeedId)
+                            : ReaderPostTable.getNumPostsInBlog(mCurrentBlogId);
+                default:
+                    return 0;
+            }
         }
 
-        private int getGapMarkerPosition() {
+        private int getGapMarkerPosition(ReaderPostList posts, boolean hasHeader) {
             if (!getPostListType().isTagType()) {
                 return -1;
             }
@@ -812,19 +994,19 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
                 return -1;
             }
 
-            int gapMarkerPostPosition = mAllPosts.indexOfIds(gapMarkerIds);
+            int gapMarkerPostPosition = posts.indexOfIds(gapMarkerIds);
             int gapMarkerPosition = -1;
             if (gapMarkerPostPosition > -1) {
                 // remove the gap marker if it's on the last post (edge case but
                 // it can happen following a purge)
-                if (gapMarkerPostPosition == mAllPosts.size() - 1) {
+                if (gapMarkerPostPosition == posts.size() - 1 && !mHasMoreLocalPostsTemp) {
                     AppLog.w(AppLog.T.READER, "gap marker at/after last post, removed");
                     ReaderPostTable.removeGapMarkerForTag(mCurrentTag);
                 } else {
                     // we want the gap marker to appear *below* this post
                     gapMarkerPosition = gapMarkerPostPosition + 1;
                     // increment it if there are custom items at the top of the list (header)
-                    gapMarkerPosition += getItemPositionOffset();
+                    gapMarkerPosition += hasHeader ? 1 : 0;
                     AppLog.d(AppLog.T.READER, "gap marker at position " + gapMarkerPostPosition);
                 }
             }
@@ -833,19 +1015,38 @@ public class ReaderPostAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
         @Override
         protected void onPostExecute(Boolean result) {
+            mIsTaskRunning = false;
+
+            if (mListVersionAtStart != mListVersion) {
+                // the list was cleared or changed while loading, so these posts may belong to a
+                // previous tag or blog - load them again
+                mIsRefreshPending = false;
+                loadPosts(false);
+                return;
+            }
+
             if (result) {
-                ReaderPostAdapter.this.mGapMarkerPosition = mGapMarkerPositionTemp;
+                ReaderPostAdapter.this.mGapMarkerPosition = mNewList.mGapMarkerPosition;
                 ReaderPostAdapter.this.mCanRequestMorePosts = mCanRequestMorePostsTemp;
+                ReaderPostAdapter.this.mHasMoreLocalPosts = mHasMoreLocalPostsTemp;
                 mPosts.clear();
-                mPosts.addAll(mAllPosts);
-                notifyDataSetChanged();
+                mPosts.addAll(mNewList.mPosts);
+                mDiffResult.dispatchUpdatesTo(ReaderPostAdapter.this);
+            } else if (mIsNextPage) {
+                mHasMoreLocalPosts = false;
             }
 
             if (mDataLoadedListener != null) {
                 mDataLoadedListener.onDataLoaded(isEmpty());
             }
 
-            mIsTaskRunning = false;
+            if (mIsRefreshPending) {
+                mIsRefreshPending = false;
+                loadPosts(false);
+            } else if (mIsNextPagePending) {
+                mIsNextPagePending = false;
+                loadPosts(true);
+            }
         }
     }
 }
@@ -54,7 +54,7 @@ sealed class ReaderCardUiState {
         data class GalleryThumbnailStripData(
             val images: ReaderImageList,
             val isPrivate: Boolean,
-            val content: String // needs to be here as it's required by ReaderThumbnailStrip
+            val imagesJson: String // needs to be here as it's required by ReaderThumbnailStrip
         )
 
         data class DiscoverLayoutUiState(
@@ -38,7 +38,6 @@ import org.wordpress.android.ui.reader.discover.ReaderPostCardAction.SecondaryAc
 import org.wordpress.android.ui.reader.discover.ReaderPostCardActionType.BOOKMARK
 import org.wordpress.android.ui.reader.discover.ReaderPostCardActionType.LIKE
 import org.wordpress.android.ui.reader.discover.ReaderPostCardActionType.REBLOG
-import org.wordpress.android.ui.reader.utils.ReaderImageScannerProvider
 import org.wordpress.android.ui.reader.utils.ReaderUtilsWrapper
 import org.wordpress.android.ui.reader.views.uistates.ReaderBlogSectionUiState
 import org.wordpress.android.ui.reader.views.uistates.ReaderBlogSectionUiState.ReaderBlogSectionClickData
@@ -66,7 +65,6 @@ class ReaderPostUiStateBuilder @Inject constructor(
     private val urlUtilsWrapper: UrlUtilsWrapper,
     private val gravatarUtilsWrapper: GravatarUtilsWrapper,
     private val dateTimeUtilsWrapper: DateTimeUtilsWrapper,
-    private val readerImageScannerProvider: ReaderImageScannerProvider,
     private val readerUtilsWrapper: ReaderUtilsWrapper,
     private val readerPostTagsUiStateBuilder: ReaderPostTagsUiStateBuilder,
     @Named(BG_THREAD) private val bgDispatcher: CoroutineDispatcher
@@ -367,10 +365,13 @@ class ReaderPostUiStateBuilder @Inject constructor(
     }
 
     private fun retrieveGalleryThumbnailUrls(post: ReaderPost): GalleryThumbnailStripData {
-        // scan post content for images suitable in a gallery
-        val images = readerImageScannerProvider.createReaderImageScanner(post.text, post.isPrivate)
-                .getImageList(ReaderConstants.THUMBNAIL_STRIP_IMG_COUNT, ReaderConstants.MIN_GALLERY_IMAGE_WIDTH)
-        return GalleryThumbnailStripData(images, post.isPrivate, post.text)
+        // pick the images suitable in a gallery from the images indexed when the post was saved
+        val images = post.imageIndex.getImageList(
+                post.isPrivate,
+                ReaderConstants.THUMBNAIL_STRIP_IMG_COUNT,
+                ReaderConstants.MIN_GALLERY_IMAGE_WIDTH
+        )
+        return GalleryThumbnailStripData(images, post.isPrivate, post.imagesJson)
     }
 
     private fun buildBookmarkSection(
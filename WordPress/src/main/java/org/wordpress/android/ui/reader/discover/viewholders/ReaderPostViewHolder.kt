@@ -63,7 +63,7 @@ class ReaderPostViewHolder(
         uiHelpers.setTextOrHide(textPhotoTitle, state.photoTitle)
         uiHelpers.updateVisibility(thumbnailStrip, state.thumbnailStripSection != null)
         state.thumbnailStripSection?.let {
-            thumbnailStrip.loadThumbnails(it.images, it.isPrivate, it.content)
+            thumbnailStrip.loadThumbnails(it.images, it.isPrivate, it.imagesJson)
         }
         loadVideoThumbnail(state)
         imageVideoOverlay.setOnClickListener { state.onVideoOverlayClicked(uiState.postId, uiState.blogId) }
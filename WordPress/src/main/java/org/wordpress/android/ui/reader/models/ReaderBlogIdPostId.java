@@ -20,4 +20,21 @@ public class ReaderBlogIdPostId implements Serializable {
     public long getPostId() {
         return mPostId;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReaderBlogIdPostId)) {
+            return false;
+        }
+        ReaderBlogIdPostId other = (ReaderBlogIdPostId) o;
+        return mBlogId == other.mBlogId && mPostId == other.mPostId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(mBlogId) + Long.hashCode(mPostId);
+    }
 }
@@ -0,0 +1,258 @@
+package org.wordpress.android.ui.reader.models;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.JSONUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * the images found in a post's content along with the attributes used to pick thumbnails and
+ * featured images - built once by ReaderImageScanner when a post is saved and stored with the
+ * post in tbl_posts.images_json, so the post's text doesn't have to be scanned again
+ */
+public class ReaderImageIndex {
+    private static final String KEY_URL = "url";
+    private static final String KEY_WIDTH = "w";
+    private static final String KEY_HEIGHT = "h";
+    private static final String KEY_SRCSET_URL = "srcset_url";
+    private static final String KEY_SRCSET_WIDTH = "srcset_w";
+    private static final String KEY_HAS_SIZE_CLASS = "size_class";
+    private static final String KEY_LARGE_FILE_URL = "large_file";
+
+    public static class Image {
+        private final String mUrl;
+        private final int mWidth;
+        private final int mHeight;
+        private final String mSrcsetUrl;
+        private final int mSrcsetWidth;
+        private final boolean mHasSizeClass;
+        private final String mLargeFileUrl;
+
+        /*
+         * width and height are the largest of the tag's attribute and the url's query param,
+         * srcsetUrl/srcsetWidth the largest srcset candidate and hasSizeClass is true when the
+         * tag has a "size-" class suitable for a featured image
+         */
+        public Image(@NonNull String url,
+                     int width,
+                     int height,
+                     @Nullable String srcsetUrl,
+                     int srcsetWidth,
+                     boolean hasSizeClass,
+                     @Nullable String largeFileUrl) {
+            mUrl = url;
+            mWidth = width;
+            mHeight = height;
+            mSrcsetUrl = srcsetUrl;
+            mSrcsetWidth = srcsetWidth;
+            mHasSizeClass = hasSizeClass;
+            mLargeFileUrl = largeFileUrl;
+        }
+
+        @NonNull public String getUrl() {
+            return mUrl;
+        }
+
+        public int getWidth() {
+            return mWidth;
+        }
+
+        public int getHeight() {
+            return mHeight;
+        }
+
+        @Nullable public String getSrcsetUrl() {
+            return mSrcsetUrl;
+        }
+
+        public int getSrcsetWidth() {
+            return mSrcsetWidth;
+        }
+
+        public boolean hasSizeClass() {
+            return mHasSizeClass;
+        }
+
+        @Nullable public String getLargeFileUrl() {
+            return mLargeFileUrl;
+        }
+
+        private JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put(KEY_URL, mUrl);
+            // only non-default values are stored to keep the column small
+            if (mWidth > 0) {
+                json.put(KEY_WIDTH, mWidth);
+            }
+            if (mHeight > 0) {
+                json.put(KEY_HEIGHT, mHeight);
+            }
+            if (!TextUtils.isEmpty(mSrcsetUrl)) {
+                json.put(KEY_SRCSET_URL, mSrcsetUrl);
+                json.put(KEY_SRCSET_WIDTH, mSrcsetWidth);
+            }
+            if (mHasSizeClass) {
+                json.put(KEY_HAS_SIZE_CLASS, true);
+            }
+            if (!TextUtils.isEmpty(mLargeFileUrl)) {
+                json.put(KEY_LARGE_FILE_URL, mLargeFileUrl);
+            }
+            return json;
+        }
+
+        private static Image fromJson(@NonNull JSONObject json) {
+            String srcsetUrl = JSONUtils.getString(json, KEY_SRCSET_URL);
+            String largeFileUrl = JSONUtils.getString(json, KEY_LARGE_FILE_URL);
+            return new Image(
+                    JSONUtils.getString(json, KEY_URL),
+                    json.optInt(KEY_WIDTH),
+                    json.optInt(KEY_HEIGHT),
+                    TextUtils.isEmpty(srcsetUrl) ? null : srcsetUrl,
+                    json.optInt(KEY_SRCSET_WIDTH),
+                    json.optBoolean(KEY_HAS_SIZE_CLASS),
+                    TextUtils.isEmpty(largeFileUrl) ? null : largeFileUrl);
+        }
+    }
+
+    private final List<Image> mImages;
+
+    public ReaderImageIndex(@NonNull List<Image> images) {
+        mImages = Collections.unmodifiableList(images);
+    }
+
+    public static ReaderImageIndex empty() {
+        return new ReaderImageIndex(Collections.<Image>emptyList());
+    }
+
+    @NonNull public List<Image> getImages() {
+        return mImages;
+    }
+
+    public boolean isEmpty() {
+        return mImages.isEmpty();
+    }
+
+    /*
+     * returns a list of image URLs up to the max above a certain width - pass zero to include all
+     * images regardless of size
+     */
+    @NonNull
+    public ReaderImageList getImageList(boolean isPrivate, int maxImageCount, int minImageWidth) {
+        ReaderImageList imageList = new ReaderImageList(isPrivate);
+        for (Image image : mImages) {
+            if (minImageWidth == 0) {
+                imageList.addImageUrl(image.mUrl);
+            } else if (image.mWidth >= minImageWidth) {
+                imageList.addImageUrl(image.mUrl);
+                if (maxImageCount > 0 && imageList.size() >= maxImageCount) {
+                    break;
+                }
+            }
+        }
+        return imageList;
+    }
+
+    /*
+     * returns true if there at least `minImageCount` images that are at least `minImageWidth`
+     * in size
+     */
+    public boolean hasUsableImageCount(int minImageCount, int minImageWidth) {
+        return getImageList(false, minImageCount, minImageWidth).size() == minImageCount;
+    }
+
+    /*
+     * used when a post doesn't have a featured image assigned, searches the images for one that
+     * may be large enough to be suitable as a featured image
+     */
+    @Nullable
+    public String getLargestImage(int minImageWidth) {
+        String currentImageUrl = null;
+        int currentMaxWidth = minImageWidth;
+
+        for (Image image : mImages) {
+            // Primary source: the width attribute or query param.
+            if (image.mWidth > currentMaxWidth) {
+                currentImageUrl = image.mUrl;
+                currentMaxWidth = image.mWidth;
+            }
+
+            // The largest available size of this image in its srcset attribute.
+            if (image.mSrcsetUrl != null && image.mSrcsetWidth > currentMaxWidth) {
+                currentMaxWidth = image.mSrcsetWidth;
+                currentImageUrl = image.mSrcsetUrl;
+            }
+
+            // Check if the image tag's class suggests it's a good enough size.
+            // Only do this if we don't already have a winner, since we can't be sure of the width
+            // and shouldn't replace an image we know for sure is larger than [minImageWidth].
+            if (currentImageUrl == null && image.mHasSizeClass) {
+                currentImageUrl = image.mUrl;
+            }
+
+            // Use the data-large-file attribute if set, for the same reason only when there's no winner yet.
+            if (currentImageUrl == null) {
+                currentImageUrl = image.mLargeFileUrl;
+            }
+        }
+
+        return currentImageUrl;
+    }
+
+    /*
+     * same as above, but doesn't enforce the max width - will return the first image found if
+     * no images have their width set
+     */
+    @Nullable
+    public String getLargestImage() {
+        return getLargestImage(-1);
+    }
+
+    @NonNull
+    public String toJson() {
+        JSONArray jsonImages = new JSONArray();
+        try {
+            for (Image image : mImages) {
+                jsonImages.put(image.toJson());
+            }
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.READER, e);
+        }
+        return jsonImages.toString();
+    }
+
+    /*
+     * returns null when the passed json isn't a valid index, so callers can tell an index
+     * without images from a post which hasn't been indexed
+     */
+    @Nullable
+    public static ReaderImageIndex fromJson(@Nullable String json) {
+        if (TextUtils.isEmpty(json)) {
+            return null;
+        }
+
+        try {
+            JSONArray jsonImages = new JSONArray(json);
+            List<Image> images = new ArrayList<>(jsonImages.length());
+            for (int i = 0; i < jsonImages.length(); i++) {
+                JSONObject jsonImage = jsonImages.optJSONObject(i);
+                if (jsonImage != null) {
+                    images.add(Image.fromJson(jsonImage));
+                }
+            }
+            return new ReaderImageIndex(images);
+        } catch (JSONException e) {
+            AppLog.e(AppLog.T.READER, e);
+            return null;
+        }
+    }
+}
@@ -5,7 +5,7 @@ import org.wordpress.android.util.UrlUtils;
 import java.util.ArrayList;
 
 /*
- * used by ReaderImageScanner to compile a list of images in a specific post
+ * used by ReaderImageIndex to compile a list of images in a specific post
  */
 
 public class ReaderImageList extends ArrayList<String> {
@@ -144,9 +144,15 @@ class ReaderDiscoverDataProvider @Inject constructor(
         }
     }
 
-    private suspend fun reloadPosts() {
+    private suspend fun reloadPosts(task: DiscoverTasks?) {
         withContext(ioDispatcher) {
-            val result = getDiscoverCardsUseCase.get()
+            val result = when (task) {
+                // a new page was appended, so only the new cards need to be loaded
+                REQUEST_MORE -> getDiscoverCardsUseCase.getWithNewCards()
+                REQUEST_FIRST_PAGE -> getDiscoverCardsUseCase.get()
+                // posts or blogs changed, the cards themselves are still the same
+                null -> getDiscoverCardsUseCase.refresh()
+            }
             _discoverFeed.postValue(result)
         }
     }
@@ -155,7 +161,7 @@ class ReaderDiscoverDataProvider @Inject constructor(
     private fun onUpdated(task: DiscoverTasks?) {
         hasMoreCards = true
         launch {
-            reloadPosts()
+            reloadPosts(task)
             if (task != null) {
                 _communicationChannel.postValue(Event(Success(task)))
             }
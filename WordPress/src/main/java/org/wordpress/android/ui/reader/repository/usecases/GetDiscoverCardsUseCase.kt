@@ -1,12 +1,17 @@
 package org.wordpress.android.ui.reader.repository.usecases
 
-import dagger.Reusable
 import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 import kotlinx.coroutines.withContext
+import org.json.JSONObject
 import org.wordpress.android.datasets.ReaderBlogTableWrapper
+import org.wordpress.android.datasets.ReaderDiscoverCardRecord
 import org.wordpress.android.datasets.ReaderDiscoverCardsTableWrapper
 import org.wordpress.android.datasets.wrappers.ReaderPostTableWrapper
 import org.wordpress.android.fluxc.utils.AppLogWrapper
+import org.wordpress.android.models.ReaderTag
+import org.wordpress.android.models.ReaderTagList
 import org.wordpress.android.models.discover.ReaderDiscoverCard
 import org.wordpress.android.models.discover.ReaderDiscoverCard.InterestsYouMayLikeCard
 import org.wordpress.android.models.discover.ReaderDiscoverCard.ReaderPostCard
@@ -16,11 +21,20 @@ import org.wordpress.android.models.discover.ReaderDiscoverCards
 import org.wordpress.android.modules.IO_THREAD
 import org.wordpress.android.ui.prefs.AppPrefsWrapper
 import org.wordpress.android.ui.reader.ReaderConstants
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList
 import org.wordpress.android.util.AppLog.T.READER
 import javax.inject.Inject
 import javax.inject.Named
+import javax.inject.Singleton
 
-@Reusable
+/**
+ * Loads the Discover feed from tbl_discover_cards. The cards which were already loaded are kept in memory, so
+ * when a new page is stored only the cards of that page are read and parsed ([getWithNewCards]) and when the posts
+ * or blogs change the existing cards are resolved again without touching the cards table ([refresh]). The cards in
+ * memory are dropped when the table has been cleared or reset since they were loaded.
+ */
+@Singleton
 class GetDiscoverCardsUseCase @Inject constructor(
     private val parseDiscoverCardsJsonUseCase: ParseDiscoverCardsJsonUseCase,
     private val readerDiscoverCardsTableWrapper: ReaderDiscoverCardsTableWrapper,
@@ -30,49 +44,146 @@ class GetDiscoverCardsUseCase @Inject constructor(
     private val appPrefsWrapper: AppPrefsWrapper,
     @Named(IO_THREAD) private val ioDispatcher: CoroutineDispatcher
 ) {
+    private val mutex = Mutex()
+    private val parsedCards = arrayListOf<ParsedCard>()
+    private val cards = arrayListOf<ReaderDiscoverCard>()
+    private var lastCardId = 0L
+    private var loadedGeneration = 0L
+
+    /**
+     * Reloads the whole feed from the db.
+     */
     suspend fun get(): ReaderDiscoverCards = withContext(ioDispatcher) {
-        val cardJsonList = readerDiscoverCardsTableWrapper.loadDiscoverCardsJsons()
-        val cards: ArrayList<ReaderDiscoverCard> = arrayListOf()
-
-        if (cardJsonList.isNotEmpty()) {
-            val jsonObjects = parseDiscoverCardsJsonUseCase.convertListOfJsonArraysIntoSingleJsonArray(
-                    cardJsonList
-            )
-
-            forLoop@ for (i in 0 until jsonObjects.length()) {
-                val cardJson = jsonObjects.getJSONObject(i)
-                when (cardJson.getString(ReaderConstants.JSON_CARD_TYPE)) {
-                    ReaderConstants.JSON_CARD_INTERESTS_YOU_MAY_LIKE -> {
-                        val interests = parseDiscoverCardsJsonUseCase.parseInterestCard(cardJson)
-                        cards.add(InterestsYouMayLikeCard(interests))
-                    }
-                    ReaderConstants.JSON_CARD_POST -> {
-                        // TODO we might want to load the data in batch
-                        val (blogId, postId) = parseDiscoverCardsJsonUseCase.parseSimplifiedPostCard(cardJson)
-                        val post = readerPostTableWrapper.getBlogPost(blogId, postId, false)
-                        if (post != null) {
-                            cards.add(ReaderPostCard(post))
-                        } else {
-                            appLogWrapper.d(READER, "Post from /cards json not found in ReaderDatabase")
-                            continue@forLoop
-                        }
-                    }
-                    ReaderConstants.JSON_CARD_RECOMMENDED_BLOGS -> {
-                        cardJson?.let {
-                            val recommendedBlogs = parseDiscoverCardsJsonUseCase.parseSimplifiedRecommendedBlogsCard(it)
-                                    .mapNotNull { (blogId, feedId) ->
-                                        readerBlogTableWrapper.getReaderBlog(blogId, feedId)
-                                    }
-                            cards.add(ReaderRecommendedBlogsCard(recommendedBlogs))
-                        }
+        mutex.withLock {
+            clearLoadedCards()
+            appendNewCards()
+            buildDiscoverCards()
+        }
+    }
+
+    /**
+     * Appends the cards which were stored since the last load to the in-memory feed.
+     */
+    suspend fun getWithNewCards(): ReaderDiscoverCards = withContext(ioDispatcher) {
+        mutex.withLock {
+            clearLoadedCardsIfTableCleared()
+            appendNewCards()
+            buildDiscoverCards()
+        }
+    }
+
+    /**
+     * Resolves the posts and blogs of the cards which are already in memory again, eg. after a post was liked or
+     * a blog followed.
+     */
+    suspend fun refresh(): ReaderDiscoverCards = withContext(ioDispatcher) {
+        mutex.withLock {
+            clearLoadedCardsIfTableCleared()
+            if (parsedCards.isEmpty()) {
+                appendNewCards()
+            } else {
+                cards.clear()
+                cards.addAll(resolveCards(parsedCards))
+            }
+            buildDiscoverCards()
+        }
+    }
+
+    private fun clearLoadedCards() {
+        parsedCards.clear()
+        cards.clear()
+        lastCardId = 0L
+        loadedGeneration = readerDiscoverCardsTableWrapper.getGeneration()
+    }
+
+    /*
+     * the ids of the cards stored after the table was cleared don't follow the ones loaded before, so the feed is
+     * then loaded from scratch
+     */
+    private fun clearLoadedCardsIfTableCleared() {
+        if (loadedGeneration != readerDiscoverCardsTableWrapper.getGeneration()) {
+            clearLoadedCards()
+        }
+    }
+
+    private fun appendNewCards() {
+        val records = readerDiscoverCardsTableWrapper.loadDiscoverCards(lastCardId)
+        if (records.isEmpty()) {
+            return
+        }
+        lastCardId = records.last().id
+
+        val newCards = records.mapNotNull { parseCard(it) }
+        parsedCards.addAll(newCards)
+        cards.addAll(resolveCards(newCards))
+    }
+
+    private fun buildDiscoverCards(): ReaderDiscoverCards {
+        val result = ArrayList<ReaderDiscoverCard>(cards.size + 1)
+        if (cards.isNotEmpty() && !appPrefsWrapper.readerDiscoverWelcomeBannerShown) {
+            result.add(WelcomeBannerCard)
+        }
+        result.addAll(cards)
+        return ReaderDiscoverCards(result)
+    }
+
+    /*
+     * loads the posts and blogs referenced by the passed cards in batches and returns the cards in the same order
+     */
+    private fun resolveCards(parsedCards: List<ParsedCard>): List<ReaderDiscoverCard> {
+        val postIds = ReaderBlogIdPostIdList().apply {
+            parsedCards.filterIsInstance<ParsedCard.Post>()
+                    .forEach { add(ReaderBlogIdPostId(it.blogId, it.postId)) }
+        }
+        // the cards only need the image index of the posts, not their text, along with their Discover railcar
+        val postsByIds = if (postIds.isNotEmpty()) {
+            readerPostTableWrapper.getBlogPosts(postIds, ReaderTag.createDiscoverPostCardsTag(), true)
+                    .associateBy { ReaderBlogIdPostId(it.blogId, it.postId) }
+        } else {
+            emptyMap()
+        }
+
+        val blogIds = parsedCards.filterIsInstance<ParsedCard.RecommendedBlogs>().flatMap { it.blogIdFeedIdPairs }
+        val blogsByIds = if (blogIds.isNotEmpty()) readerBlogTableWrapper.getReaderBlogs(blogIds) else emptyMap()
+
+        return parsedCards.mapNotNull { parsedCard ->
+            when (parsedCard) {
+                is ParsedCard.Interests -> InterestsYouMayLikeCard(parsedCard.interests)
+                is ParsedCard.Post -> {
+                    val post = postsByIds[ReaderBlogIdPostId(parsedCard.blogId, parsedCard.postId)]
+                    if (post == null) {
+                        appLogWrapper.d(READER, "Post from /cards json not found in ReaderDatabase")
                     }
+                    post?.let { ReaderPostCard(it) }
+                }
+                is ParsedCard.RecommendedBlogs -> {
+                    ReaderRecommendedBlogsCard(parsedCard.blogIdFeedIdPairs.mapNotNull { blogsByIds[it] })
                 }
             }
+        }
+    }
 
-            if (cards.isNotEmpty() && !appPrefsWrapper.readerDiscoverWelcomeBannerShown) {
-                cards.add(0, WelcomeBannerCard)
+    private fun parseCard(record: ReaderDiscoverCardRecord): ParsedCard? {
+        return when (record.type) {
+            ReaderConstants.JSON_CARD_INTERESTS_YOU_MAY_LIKE -> {
+                ParsedCard.Interests(parseDiscoverCardsJsonUseCase.parseInterestCard(record.toJson()))
             }
+            ReaderConstants.JSON_CARD_POST -> ParsedCard.Post(record.blogId, record.postId)
+            ReaderConstants.JSON_CARD_RECOMMENDED_BLOGS -> {
+                ParsedCard.RecommendedBlogs(
+                        record.toJson()?.let { parseDiscoverCardsJsonUseCase.parseSimplifiedRecommendedBlogsCard(it) }
+                                ?: emptyList()
+                )
+            }
+            else -> null
         }
-        return@withContext ReaderDiscoverCards(cards)
+    }
+
+    private fun ReaderDiscoverCardRecord.toJson() = cardJson?.let { JSONObject(it) }
+
+    private sealed class ParsedCard {
+        data class Interests(val interests: ReaderTagList) : ParsedCard()
+        data class Post(val blogId: Long, val postId: Long) : ParsedCard()
+        data class RecommendedBlogs(val blogIdFeedIdPairs: List<Pair<Long, Long>>) : ParsedCard()
     }
 }
@@ -1,7 +1,6 @@
 package org.wordpress.android.ui.reader.repository.usecases
 
 import dagger.Reusable
-import org.json.JSONArray
 import org.json.JSONObject
 import org.wordpress.android.models.ReaderBlog
 import org.wordpress.android.models.ReaderPost
@@ -18,13 +17,6 @@ class ParseDiscoverCardsJsonUseCase @Inject constructor() {
         return ReaderPost.fromJson(postCardJson.getJSONObject(ReaderConstants.JSON_CARD_DATA))
     }
 
-    fun parseSimplifiedPostCard(simplifiedPostCardjson: JSONObject): Pair<Long, Long> {
-        val postDataJson = simplifiedPostCardjson.getJSONObject(ReaderConstants.JSON_CARD_DATA)
-        val postId = postDataJson.optLong(ReaderConstants.POST_ID)
-        val blogId = postDataJson.optLong(ReaderConstants.POST_SITE_ID)
-        return Pair(blogId, postId)
-    }
-
     fun parseSimplifiedRecommendedBlogsCard(recommendedBlogsCardJson: JSONObject): List<Pair<Long, Long>> {
         return recommendedBlogsCardJson.optJSONArray(ReaderConstants.JSON_CARD_DATA)
                 ?.let { recommendedBlogsJson ->
@@ -64,24 +56,9 @@ class ParseDiscoverCardsJsonUseCase @Inject constructor() {
     fun parseNextPageHandle(jsonObject: JSONObject): String =
             jsonObject.getString(ReaderConstants.JSON_NEXT_PAGE_HANDLE)
 
-    fun convertListOfJsonArraysIntoSingleJsonArray(jsons: List<String>): JSONArray {
-        val arrays = jsons.map { JSONArray(it) }
-        return concatArrays(arrays)
-    }
-
     private fun parseInterestTag(interestJsonCard: JSONObject): ReaderTag {
         val tagTitle = JSONUtils.getStringDecoded(interestJsonCard, ReaderConstants.JSON_TAG_TITLE)
         val tagSlug = JSONUtils.getStringDecoded(interestJsonCard, ReaderConstants.JSON_TAG_SLUG)
         return ReaderTag(tagSlug, tagTitle, tagTitle, "", DEFAULT)
     }
-
-    private fun concatArrays(arrays: List<JSONArray>): JSONArray {
-        val result = JSONArray()
-        for (item in arrays) {
-            for (i in 0 until item.length()) {
-                result.put(item[i])
-            }
-        }
-        return result
-    }
 }
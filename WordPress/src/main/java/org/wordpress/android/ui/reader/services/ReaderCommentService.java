@@ -21,11 +21,14 @@ import org.wordpress.android.models.ReaderCommentList;
 import org.wordpress.android.models.ReaderUserList;
 import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
-import org.wordpress.android.ui.reader.actions.ReaderActions;
 import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResult;
-import org.wordpress.android.ui.reader.actions.ReaderActions.UpdateResultListener;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.JSONUtils;
+import org.wordpress.android.util.ServiceTaskExecutor;
+import org.wordpress.android.util.ServiceTaskExecutor.Lane;
+
+import java.util.HashSet;
+import java.util.Set;
 
 public class ReaderCommentService extends Service {
     private static final String ARG_POST_ID = "post_id";
@@ -33,8 +36,19 @@ public class ReaderCommentService extends Service {
     private static final String ARG_COMMENT_ID = "comment_id";
     private static final String ARG_NEXT_PAGE = "next_page";
 
+    // most pages a refresh requests again - comments past them are reconciled when they're requested again
+    private static final int MAX_PAGES_TO_REFRESH = 5;
+
     private static int mCurrentPage;
 
+    /*
+     * result of requesting a page of comments - the result has new or changed comments unless the page
+     * is the same as the stored one
+     */
+    private interface PageResultListener {
+        void onPageResult(UpdateResult result, boolean isLastPage);
+    }
+
     public static void startService(Context context, long blogId, long postId, boolean requestNextPage) {
         if (context == null) {
             return;
@@ -99,27 +113,49 @@ public class ReaderCommentService extends Service {
         final long commentId = intent.getLongExtra(ARG_COMMENT_ID, 0);
         boolean requestNextPage = intent.getBooleanExtra(ARG_NEXT_PAGE, false);
 
+        // a refresh requests the stored pages again until one comes back unchanged, so comments which were
+        // deleted or pushed down a page by a new reply are reconciled
         if (requestNextPage) {
-            int prevPage = ReaderCommentTable.getLastPageNumberForPost(blogId, postId);
-            mCurrentPage = prevPage + 1;
+            mCurrentPage = ReaderCommentTable.getLastPageNumberForPost(blogId, postId) + 1;
         } else {
             mCurrentPage = 1;
         }
+        final int firstPage = mCurrentPage;
+        // ids of the comments returned for every page requested by this update
+        final Set<Long> requestedCommentIds = new HashSet<>();
+
+        updateCommentsForPost(blogId, postId, firstPage, mCurrentPage, requestedCommentIds, new PageResultListener() {
+            // result of the update, which has new or changed comments when any of the requested pages had
+            private UpdateResult mRefreshResult;
 
-        updateCommentsForPost(blogId, postId, mCurrentPage, new UpdateResultListener() {
             @Override
-            public void onUpdateResult(UpdateResult result) {
+            public void onPageResult(UpdateResult result, boolean isLastPage) {
+                if (mRefreshResult == null || !mRefreshResult.isNewOrChanged()) {
+                    mRefreshResult = result;
+                }
+
                 if (commentId > 0) {
-                    if (ReaderCommentTable.commentExists(blogId, postId, commentId) || !result.isNewOrChanged()) {
-                        EventBus.getDefault().post(new ReaderEvents.UpdateCommentsEnded(result));
+                    if (ReaderCommentTable.commentExists(blogId, postId, commentId)
+                        || result == UpdateResult.FAILED || isLastPage) {
+                        EventBus.getDefault().post(new ReaderEvents.UpdateCommentsEnded(mRefreshResult));
                         stopSelf();
                     } else {
                         // Comment not found yet, request the next page
                         mCurrentPage++;
-                        updateCommentsForPost(blogId, postId, mCurrentPage, this);
+                        updateCommentsForPost(blogId, postId, firstPage, mCurrentPage, requestedCommentIds, this);
                     }
+                    return;
+                }
+
+                if (!requestNextPage
+                    && result.isNewOrChanged()
+                    && !isLastPage
+                    && mCurrentPage - firstPage + 1 < MAX_PAGES_TO_REFRESH
+                    && mCurrentPage < ReaderCommentTable.getLastPageNumberForPost(blogId, postId)) {
+                    mCurrentPage++;
+                    updateCommentsForPost(blogId, postId, firstPage, mCurrentPage, requestedCommentIds, this);
                 } else {
-                    EventBus.getDefault().post(new ReaderEvents.UpdateCommentsEnded(result));
+                    EventBus.getDefault().post(new ReaderEvents.UpdateCommentsEnded(mRefreshResult));
                     stopSelf();
                 }
             }
@@ -130,8 +166,10 @@ public class ReaderCommentService extends Service {
 
     private static void updateCommentsForPost(final long blogId,
                                               final long postId,
+                                              final int firstPage,
                                               final int pageNumber,
-                                              final ReaderActions.UpdateResultListener resultListener) {
+                                              final Set<Long> requestedCommentIds,
+                                              final PageResultListener resultListener) {
         String path = "sites/" + blogId + "/posts/" + postId + "/replies/"
                       + "?number=" + Integer.toString(ReaderConstants.READER_MAX_COMMENTS_TO_REQUEST)
                       + "&meta=likes"
@@ -143,14 +181,15 @@ public class ReaderCommentService extends Service {
         RestRequest.Listener listener = new RestRequest.Listener() {
             @Override
             public void onResponse(JSONObject jsonObject) {
-                handleUpdateCommentsResponse(jsonObject, blogId, postId, pageNumber, resultListener);
+                handleUpdateCommentsResponse(jsonObject, blogId, postId, firstPage, pageNumber, requestedCommentIds,
+                        resultListener);
             }
         };
         RestRequest.ErrorListener errorListener = new RestRequest.ErrorListener() {
             @Override
             public void onErrorResponse(VolleyError volleyError) {
                 AppLog.e(AppLog.T.READER, volleyError);
-                resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED);
+                resultListener.onPageResult(UpdateResult.FAILED, true);
             }
         };
         AppLog.d(AppLog.T.READER, "updating comments");
@@ -160,25 +199,23 @@ public class ReaderCommentService extends Service {
     private static void handleUpdateCommentsResponse(final JSONObject jsonObject,
                                                      final long blogId,
                                                      final long postId,
+                                                     final int firstPage,
                                                      final int pageNumber,
-                                                     final ReaderActions.UpdateResultListener resultListener) {
+                                                     final Set<Long> requestedCommentIds,
+                                                     final PageResultListener resultListener) {
         if (jsonObject == null) {
-            resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED);
+            resultListener.onPageResult(UpdateResult.FAILED, true);
             return;
         }
 
-        new Thread() {
+        ServiceTaskExecutor.getInstance().execute(null, Lane.READER_COMMENTS, new Runnable() {
             @Override
             public void run() {
-                final boolean hasNewComments;
+                final boolean hasChanges;
+                final boolean isLastPage;
 
                 ReaderDatabase.getWritableDb().beginTransaction();
                 try {
-                    // purge existing comments if this was a request for the first page of comments
-                    if (pageNumber == 1) {
-                        ReaderCommentTable.purgeCommentsForPost(blogId, postId);
-                    }
-
                     ReaderCommentList serverComments = new ReaderCommentList();
                     JSONArray jsonCommentList = jsonObject.optJSONArray("comments");
                     if (jsonCommentList != null) {
@@ -200,7 +237,19 @@ public class ReaderCommentService extends Service {
                         }
                     }
 
-                    hasNewComments = (serverComments.size() > 0);
+                    hasChanges = !serverComments.isSameList(
+                            ReaderCommentTable.getCommentsOnPage(blogId, postId, pageNumber));
+
+                    // remove the stored comments which are missing from the pages requested so far - a comment
+                    // missing from this page may have been pushed onto the next one, so it's only removed once
+                    // that page has been requested too. comments on the pages which weren't requested are kept
+                    // rather than purged, so the ones the user has already scrolled through don't disappear
+                    for (ReaderComment comment : serverComments) {
+                        requestedCommentIds.add(comment.commentId);
+                    }
+                    isLastPage = serverComments.size() < ReaderConstants.READER_MAX_COMMENTS_TO_REQUEST;
+                    ReaderCommentTable.removeCommentsMissingFromPages(blogId, postId, firstPage,
+                            isLastPage ? Integer.MAX_VALUE : pageNumber - 1, requestedCommentIds);
 
                     // save to db regardless of whether any are new so changes to likes are stored
                     ReaderCommentTable.addOrUpdateComments(serverComments);
@@ -209,10 +258,8 @@ public class ReaderCommentService extends Service {
                     ReaderDatabase.getWritableDb().endTransaction();
                 }
 
-                ReaderActions.UpdateResult result =
-                        (hasNewComments ? ReaderActions.UpdateResult.HAS_NEW : ReaderActions.UpdateResult.UNCHANGED);
-                resultListener.onUpdateResult(result);
+                resultListener.onPageResult(hasChanges ? UpdateResult.HAS_NEW : UpdateResult.UNCHANGED, isLastPage);
             }
-        }.start();
+        }, () -> resultListener.onPageResult(UpdateResult.FAILED, true));
     }
 }
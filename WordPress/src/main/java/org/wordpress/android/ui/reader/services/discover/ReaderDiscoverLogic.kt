@@ -11,6 +11,7 @@ import org.json.JSONObject
 import org.wordpress.android.WordPress
 import org.wordpress.android.datasets.ReaderBlogTable
 import org.wordpress.android.datasets.ReaderBlogTableWrapper
+import org.wordpress.android.datasets.ReaderDiscoverCardRecord
 import org.wordpress.android.datasets.ReaderDiscoverCardsTable
 import org.wordpress.android.datasets.ReaderPostTable
 import org.wordpress.android.datasets.wrappers.ReaderTagTableWrapper
@@ -31,7 +32,6 @@ import org.wordpress.android.ui.reader.ReaderConstants.JSON_CARD_POST
 import org.wordpress.android.ui.reader.ReaderConstants.JSON_CARD_RECOMMENDED_BLOGS
 import org.wordpress.android.ui.reader.ReaderConstants.JSON_CARD_TYPE
 import org.wordpress.android.ui.reader.ReaderConstants.POST_ID
-import org.wordpress.android.ui.reader.ReaderConstants.POST_PSEUDO_ID
 import org.wordpress.android.ui.reader.ReaderConstants.POST_SITE_ID
 import org.wordpress.android.ui.reader.ReaderConstants.RECOMMENDED_BLOG_ID
 import org.wordpress.android.ui.reader.ReaderConstants.RECOMMENDED_FEED_ID
@@ -143,9 +143,8 @@ class ReaderDiscoverLogic(
         insertPostsIntoDb(cards.filterIsInstance<ReaderPostCard>().map { it.post })
         insertBlogsIntoDb(cards.filterIsInstance<ReaderRecommendedBlogsCard>().map { it.blogs }.flatten())
 
-        // Simplify the json. The simplified version is used in the upper layers to load the data from the db.
-        val simplifiedCardsJson = createSimplifiedJson(fullCardsJson)
-        insertCardsJsonIntoDb(simplifiedCardsJson)
+        // Store a record per card. The records are used in the upper layers to load the data from the db.
+        insertCardsIntoDb(createCardRecords(fullCardsJson))
 
         val nextPageHandle = parseDiscoverCardsJsonUseCase.parseNextPageHandle(json)
         appPrefsWrapper.readerCardsPageHandle = nextPageHandle
@@ -196,50 +195,40 @@ class ReaderDiscoverLogic(
     }
 
     /**
-     * This method creates a simplified version of the provided json.
+     * This method creates a record for each card of the provided json.
      *
-     * It for example copies only ids from post object as we don't need to store the gigantic post in the json
-     * as it's already stored in the db.
+     * Post cards keep only the ids of the post as we don't need to store the gigantic post again
+     * as it's already stored in the db. The remaining cards keep a simplified version of their json.
      */
-    private fun createSimplifiedJson(cardsJsonArray: JSONArray): JSONArray {
-        var index = 0
-        val simplifiedJson = JSONArray()
+    private fun createCardRecords(cardsJsonArray: JSONArray): List<ReaderDiscoverCardRecord> {
+        val records = ArrayList<ReaderDiscoverCardRecord>(cardsJsonArray.length())
         for (i in 0 until cardsJsonArray.length()) {
             val cardJson = cardsJsonArray.getJSONObject(i)
-            when (cardJson.getString(JSON_CARD_TYPE)) {
+            val cardType = cardJson.getString(JSON_CARD_TYPE)
+            when (cardType) {
                 JSON_CARD_RECOMMENDED_BLOGS -> {
                     val recommendedBlogsCardJson = cardJson.optJSONArray(JSON_CARD_DATA)
                     if (recommendedBlogsCardJson.length() > 0) {
-                        simplifiedJson.put(index++, createSimplifiedRecommendedBlogsCardJson(cardJson))
+                        val simplifiedJson = createSimplifiedRecommendedBlogsCardJson(cardJson)
+                        records.add(ReaderDiscoverCardRecord(type = cardType, cardJson = simplifiedJson.toString()))
                     }
                 }
                 JSON_CARD_INTERESTS_YOU_MAY_LIKE -> {
-                    simplifiedJson.put(index++, cardJson)
+                    records.add(ReaderDiscoverCardRecord(type = cardType, cardJson = cardJson.toString()))
                 }
                 JSON_CARD_POST -> {
-                    simplifiedJson.put(index++, createSimplifiedPostJson(cardJson))
+                    val postData = cardJson.getJSONObject(JSON_CARD_DATA)
+                    records.add(
+                            ReaderDiscoverCardRecord(
+                                    type = cardType,
+                                    blogId = postData.optLong(POST_SITE_ID),
+                                    postId = postData.optLong(POST_ID)
+                            )
+                    )
                 }
             }
         }
-        return simplifiedJson
-    }
-
-    /**
-     * Create a simplified copy of the json - keeps only postId, siteId and pseudoId.
-     */
-    private fun createSimplifiedPostJson(originalCardJson: JSONObject): JSONObject {
-        val originalPostData = originalCardJson.getJSONObject(JSON_CARD_DATA)
-
-        val simplifiedPostData = JSONObject()
-        // copy only fields which uniquely identify this post
-        simplifiedPostData.put(POST_ID, originalPostData.get(POST_ID))
-        simplifiedPostData.put(POST_SITE_ID, originalPostData.get(POST_SITE_ID))
-        simplifiedPostData.put(POST_PSEUDO_ID, originalPostData.get(POST_PSEUDO_ID))
-
-        val simplifiedCardJson = JSONObject()
-        simplifiedCardJson.put(JSON_CARD_TYPE, originalCardJson.getString(JSON_CARD_TYPE))
-        simplifiedCardJson.put(JSON_CARD_DATA, simplifiedPostData)
-        return simplifiedCardJson
+        return records
     }
 
     private fun createSimplifiedRecommendedBlogsCardJson(originalCardJson: JSONObject): JSONObject {
@@ -263,8 +252,8 @@ class ReaderDiscoverLogic(
         }
     }
 
-    private fun insertCardsJsonIntoDb(simplifiedCardsJson: JSONArray) {
-        ReaderDiscoverCardsTable.addCardsPage(simplifiedCardsJson.toString())
+    private fun insertCardsIntoDb(cardRecords: List<ReaderDiscoverCardRecord>) {
+        ReaderDiscoverCardsTable.addCards(cardRecords)
     }
 
     private suspend fun clearCache() {
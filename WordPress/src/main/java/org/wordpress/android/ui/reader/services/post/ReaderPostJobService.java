@@ -59,6 +59,7 @@ public class ReaderPostJobService extends JobService implements ServiceCompletio
 
     @Override public boolean onStopJob(JobParameters params) {
         AppLog.i(AppLog.T.READER, "reader post job service > stopped");
+        mReaderPostLogic.cancelPendingTasks();
         jobFinished(params, false);
         return false;
     }
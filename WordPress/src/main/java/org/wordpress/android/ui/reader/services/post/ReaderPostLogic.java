@@ -23,6 +23,8 @@ import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.ui.reader.services.post.ReaderPostServiceStarter.UpdateAction;
 import org.wordpress.android.ui.reader.utils.ReaderUtils;
 import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.ServiceTaskExecutor;
+import org.wordpress.android.util.ServiceTaskExecutor.Lane;
 import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.UrlUtils;
 
@@ -34,6 +36,13 @@ public class ReaderPostLogic {
         mCompletionListener = listener;
     }
 
+    /*
+     * cancels the handling of responses which hasn't started yet, called when the service is stopped
+     */
+    public void cancelPendingTasks() {
+        ServiceTaskExecutor.getInstance().cancel(this);
+    }
+
     public void performTask(Object companion, UpdateAction action,
                             ReaderTag tag, long blogId, long feedId) {
         mListenerCompanion = companion;
@@ -85,9 +94,9 @@ public class ReaderPostLogic {
         requestPostsForFeed(feedId, action, listener);
     }
 
-    private static void requestPostsWithTag(final ReaderTag tag,
-                                            final UpdateAction updateAction,
-                                            final ReaderActions.UpdateResultListener resultListener) {
+    private void requestPostsWithTag(final ReaderTag tag,
+                                     final UpdateAction updateAction,
+                                     final ReaderActions.UpdateResultListener resultListener) {
         String path = getRelativeEndpointForTag(tag);
         if (TextUtils.isEmpty(path)) {
             resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED);
@@ -145,9 +154,9 @@ public class ReaderPostLogic {
         WordPress.getRestClientUtilsV1_2().get(sb.toString(), null, null, listener, errorListener);
     }
 
-    private static void requestPostsForBlog(final long blogId,
-                                            final UpdateAction updateAction,
-                                            final ReaderActions.UpdateResultListener resultListener) {
+    private void requestPostsForBlog(final long blogId,
+                                     final UpdateAction updateAction,
+                                     final ReaderActions.UpdateResultListener resultListener) {
         String path = "read/sites/" + blogId + "/posts/?meta=site,likes";
 
         // append the date of the oldest cached post in this blog when requesting older posts
@@ -175,9 +184,9 @@ public class ReaderPostLogic {
         WordPress.getRestClientUtilsV1_2().get(path, null, null, listener, errorListener);
     }
 
-    private static void requestPostsForFeed(final long feedId,
-                                            final UpdateAction updateAction,
-                                            final ReaderActions.UpdateResultListener resultListener) {
+    private void requestPostsForFeed(final long feedId,
+                                     final UpdateAction updateAction,
+                                     final ReaderActions.UpdateResultListener resultListener) {
         String path = "read/feed/" + feedId + "/posts/?meta=site,likes";
         if (updateAction == UpdateAction.REQUEST_OLDER) {
             String dateOldest = ReaderPostTable.getOldestPubDateInFeed(feedId);
@@ -207,16 +216,16 @@ public class ReaderPostLogic {
     /*
      * called after requesting posts with a specific tag or in a specific blog/feed
      */
-    private static void handleUpdatePostsResponse(final ReaderTag tag,
-                                                  final JSONObject jsonObject,
-                                                  final UpdateAction updateAction,
-                                                  final ReaderActions.UpdateResultListener resultListener) {
+    private void handleUpdatePostsResponse(final ReaderTag tag,
+                                           final JSONObject jsonObject,
+                                           final UpdateAction updateAction,
+                                           final ReaderActions.UpdateResultListener resultListener) {
         if (jsonObject == null) {
             resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED);
             return;
         }
 
-        new Thread() {
+        ServiceTaskExecutor.getInstance().execute(this, Lane.READER_POSTS, new Runnable() {
             @Override
             public void run() {
                 ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
@@ -282,7 +291,7 @@ public class ReaderPostLogic {
                 AppLog.d(AppLog.T.READER, "requested posts response = " + updateResult.toString());
                 resultListener.onUpdateResult(updateResult);
             }
-        }.start();
+        }, () -> resultListener.onUpdateResult(ReaderActions.UpdateResult.FAILED));
     }
 
     /*
@@ -27,6 +27,7 @@ public class ReaderSearchJobService extends JobService implements ServiceComplet
     }
 
     @Override public boolean onStopJob(JobParameters params) {
+        mReaderSearchLogic.cancelPendingTasks();
         jobFinished(params, false);
         return false;
     }
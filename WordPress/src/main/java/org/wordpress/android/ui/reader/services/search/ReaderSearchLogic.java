@@ -12,6 +12,8 @@ import org.wordpress.android.ui.reader.ReaderConstants;
 import org.wordpress.android.ui.reader.ReaderEvents;
 import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.ServiceTaskExecutor;
+import org.wordpress.android.util.ServiceTaskExecutor.Lane;
 import org.wordpress.android.util.UrlUtils;
 
 import static org.wordpress.android.ui.reader.utils.ReaderUtils.getTagForSearchQuery;
@@ -24,6 +26,13 @@ public class ReaderSearchLogic {
         mCompletionListener = listener;
     }
 
+    /*
+     * cancels the handling of responses which hasn't started yet, called when the service is stopped
+     */
+    public void cancelPendingTasks() {
+        ServiceTaskExecutor.getInstance().cancel(this);
+    }
+
     public void startSearch(final String query, final int offset, Object companion) {
         mListenerCompanion = companion;
         String path = "read/search?q="
@@ -57,7 +66,7 @@ public class ReaderSearchLogic {
     }
 
     private void handleSearchResponse(final String query, final int offset, final JSONObject jsonObject) {
-        new Thread() {
+        ServiceTaskExecutor.getInstance().execute(this, Lane.READER_POSTS, new Runnable() {
             @Override
             public void run() {
                 ReaderPostList serverPosts = ReaderPostList.fromJson(jsonObject);
@@ -65,6 +74,9 @@ public class ReaderSearchLogic {
                 EventBus.getDefault().post(new ReaderEvents.SearchPostsEnded(query, offset, true));
                 mCompletionListener.onCompleted(mListenerCompanion);
             }
-        }.start();
+        }, () -> {
+            EventBus.getDefault().post(new ReaderEvents.SearchPostsEnded(query, offset, false));
+            mCompletionListener.onCompleted(mListenerCompanion);
+        });
     }
 }
@@ -38,6 +38,7 @@ public class ReaderUpdateJobService extends JobService implements ServiceComplet
     @Override
     public boolean onStopJob(JobParameters params) {
         AppLog.i(AppLog.T.READER, "reader job service > stopped");
+        mReaderUpdateLogic.cancelPendingTasks();
         jobFinished(params, false);
         return false;
     }
@@ -26,11 +26,17 @@ import org.wordpress.android.ui.reader.services.ServiceCompletionListener;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.JSONUtils;
 import org.wordpress.android.util.LocaleManager;
+import org.wordpress.android.util.ServiceTaskExecutor;
+import org.wordpress.android.util.ServiceTaskExecutor.Lane;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Locale;
 
 import javax.inject.Inject;
 
@@ -64,6 +70,13 @@ public class ReaderUpdateLogic {
         mContext = context;
     }
 
+    /*
+     * cancels the handling of responses which hasn't started yet, called when the service is stopped
+     */
+    public void cancelPendingTasks() {
+        ServiceTaskExecutor.getInstance().cancel(this);
+    }
+
     public void performTasks(EnumSet<UpdateTask> tasks, Object companion) {
         mCurrentTasks = EnumSet.copyOf(tasks);
         mListenerCompanion = companion;
@@ -140,7 +153,7 @@ public class ReaderUpdateLogic {
     }
 
     private void handleUpdateTagsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        ServiceTaskExecutor.getInstance().execute(this, Lane.READER_TAGS, new Runnable() {
             @Override
             public void run() {
                 // get server topics, both default & followed - but use "recommended" for logged-out
@@ -198,7 +211,24 @@ public class ReaderUpdateLogic {
 
                 taskCompleted(UpdateTask.TAGS);
             }
-        }.start();
+        }, () -> taskCompleted(UpdateTask.TAGS));
+    }
+
+    /*
+     * returns a hash of the passed response used to detect whether it changed, or null if it can't be hashed
+     */
+    private static String getHash(String response) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(response.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(String.format(Locale.ROOT, "%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            AppLog.e(AppLog.T.READER, e);
+            return null;
+        }
     }
 
     /*
@@ -281,7 +311,7 @@ public class ReaderUpdateLogic {
     }
 
     private void handleInterestTagsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        ServiceTaskExecutor.getInstance().execute(this, Lane.READER_TAGS, new Runnable() {
             @Override
             public void run() {
                 ReaderTagList interestTags = new ReaderTagList();
@@ -289,7 +319,7 @@ public class ReaderUpdateLogic {
                 EventBus.getDefault().post(new InterestTagsFetchEnded(interestTags, true));
                 taskCompleted(UpdateTask.INTEREST_TAGS);
             }
-        }.start();
+        }, () -> taskCompleted(UpdateTask.INTEREST_TAGS));
     }
 
     /***
@@ -316,28 +346,48 @@ public class ReaderUpdateLogic {
     }
 
     private void handleFollowedBlogsResponse(final JSONObject jsonObject) {
-        new Thread() {
+        ServiceTaskExecutor.getInstance().execute(this, Lane.READER_BLOGS, new Runnable() {
             @Override
             public void run() {
+                JSONArray jsonSubscriptions = jsonObject.optJSONArray("subscriptions");
+                String hash = jsonSubscriptions != null ? getHash(jsonSubscriptions.toString()) : null;
                 ReaderBlogList serverBlogs = ReaderBlogList.fromJson(jsonObject);
-                ReaderBlogList localBlogs = ReaderBlogTable.getFollowedBlogs();
 
-                if (!localBlogs.isSameList(serverBlogs)) {
-                    // always update the list of followed blogs if there are *any* changes between
-                    // server and local (including subscription count, description, etc.)
-                    ReaderBlogTable.setFollowedBlogs(serverBlogs);
-                    // ...but only update the follow status and alert that followed blogs have
-                    // changed if the server list doesn't have the same blogs as the local list
-                    // (ie: a blog has been followed/unfollowed since local was last updated)
-                    if (!localBlogs.hasSameBlogs(serverBlogs)) {
-                        ReaderPostTable.updateFollowedStatus();
-                        AppLog.i(AppLog.T.READER, "reader blogs service > followed blogs changed");
+                // skip comparing with the stored blogs if the response is the same as the last one
+                // stored, provided no blogs have been followed or unfollowed locally since then
+                if (hash != null
+                    && hash.equals(AppPrefs.getReaderFollowedBlogsHash())
+                    && ReaderBlogTable.getNumFollowedBlogs() == serverBlogs.size()) {
+                    AppLog.d(AppLog.T.READER, "reader blogs service > followed blogs unchanged");
+                    taskCompleted(UpdateTask.FOLLOWED_BLOGS);
+                    return;
+                }
+
+                // only write the blogs which differ between server and local (including subscription
+                // count, description, etc.) rather than replacing all of them
+                ReaderBlogList localBlogs = ReaderBlogTable.getFollowedBlogs();
+                ReaderBlogList addedBlogs = serverBlogs.getBlogsNotIn(localBlogs);
+                ReaderBlogList removedBlogs = localBlogs.getBlogsNotIn(serverBlogs);
+                ReaderBlogList addedOrChangedBlogs = serverBlogs.getBlogsChangedFrom(localBlogs);
+                addedOrChangedBlogs.addAll(addedBlogs);
+
+                if (!addedOrChangedBlogs.isEmpty() || !removedBlogs.isEmpty()) {
+                    ReaderBlogTable.updateFollowedBlogs(addedOrChangedBlogs, removedBlogs);
+                    // the follow status of posts only needs updating, and followed blogs only need to be
+                    // alerted as changed, if a blog has been followed/unfollowed since the last update
+                    if (!addedBlogs.isEmpty() || !removedBlogs.isEmpty()) {
+                        ReaderPostTable.setFollowStatusForPostsInBlogs(addedBlogs, true);
+                        ReaderPostTable.setFollowStatusForPostsInBlogs(removedBlogs, false);
+                        AppLog.i(AppLog.T.READER, "reader blogs service > followed blogs changed, "
+                                                  + addedBlogs.size() + " added, "
+                                                  + removedBlogs.size() + " removed");
                         EventBus.getDefault().post(new ReaderEvents.FollowedBlogsChanged());
                     }
                 }
+                AppPrefs.setReaderFollowedBlogsHash(hash);
 
                 taskCompleted(UpdateTask.FOLLOWED_BLOGS);
             }
-        }.start();
+        }, () -> taskCompleted(UpdateTask.FOLLOWED_BLOGS));
     }
 }
@@ -4,93 +4,58 @@ import androidx.annotation.NonNull;
 
 import org.wordpress.android.models.ReaderComment;
 import org.wordpress.android.models.ReaderCommentList;
+import org.wordpress.android.ui.comments.CommentThreadLeveler;
 import org.wordpress.android.util.AppLog;
 
+import java.util.Map;
+
 /*
  * utility class which accepts a list of comments and then creates a "level list" from it
  * which places child comments below their parents with indentation levels applied
  */
 
 public class ReaderCommentLeveler {
-    private final ReaderCommentList mComments;
+    private static final CommentThreadLeveler.CommentAccessor<ReaderComment> ACCESSOR =
+            new CommentThreadLeveler.CommentAccessor<ReaderComment>() {
+                @Override
+                public long getCommentId(ReaderComment comment) {
+                    return comment.commentId;
+                }
+
+                @Override
+                public long getParentId(ReaderComment comment) {
+                    return comment.parentId;
+                }
+
+                @Override
+                public void setLevel(ReaderComment comment, int level) {
+                    comment.level = level;
+                }
+            };
+
+    private final CommentThreadLeveler<ReaderComment> mLeveler;
 
     public ReaderCommentLeveler(@NonNull ReaderCommentList comments) {
-        mComments = comments;
+        mLeveler = new CommentThreadLeveler<>(comments, ACCESSOR, AppLog.T.READER);
     }
 
+    /*
+     * orphans (child comments whose parents weren't found) are given a non-zero level so
+     * they're indented by ReaderCommentAdapter
+     */
     public ReaderCommentList createLevelList() {
         ReaderCommentList result = new ReaderCommentList();
-
-        // reset all levels, and add root comments to result
-        for (ReaderComment comment : mComments) {
-            comment.level = 0;
-            if (comment.parentId == 0) {
-                result.add(comment);
-            }
-        }
-
-        // add children at each level
-        int level = 0;
-        while (walkCommentsAtLevel(result, level)) {
-            level++;
-        }
-
-        // check for orphans (child comments whose parents weren't found above) and give them
-        // a non-zero level so they're indented by ReaderCommentAdapter
-        for (ReaderComment comment : result) {
-            if (comment.level == 0 && comment.parentId != 0) {
-                comment.level = 1;
-                result.add(comment);
-                AppLog.d(AppLog.T.READER, "Orphan comment encountered");
-            }
-        }
-
+        result.addAll(mLeveler.createLevelList());
         return result;
     }
 
     /*
-     * walk comments in the passed list that have the passed level and add their children
-     * beneath them
+     * levels a page of comments - replies to comments on the other pages, whose levels are passed in,
+     * continue their threads at the start of the page
      */
-    private boolean walkCommentsAtLevel(@NonNull ReaderCommentList comments, int level) {
-        boolean hasChanges = false;
-        for (int index = 0; index < comments.size(); index++) {
-            ReaderComment parent = comments.get(index);
-            if (parent.level == level && hasChildren(parent.commentId)) {
-                // get children for this comment, set their level, then add them below the parent
-                ReaderCommentList children = getChildren(parent.commentId);
-                setLevel(children, level + 1);
-                comments.addAll(index + 1, children);
-                hasChanges = true;
-                // skip past the children we just added
-                index += children.size();
-            }
-        }
-        return hasChanges;
-    }
-
-    private boolean hasChildren(long commentId) {
-        for (ReaderComment comment : mComments) {
-            if (comment.parentId == commentId) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private ReaderCommentList getChildren(long commentId) {
-        ReaderCommentList children = new ReaderCommentList();
-        for (ReaderComment comment : mComments) {
-            if (comment.parentId == commentId) {
-                children.add(comment);
-            }
-        }
-        return children;
-    }
-
-    private void setLevel(@NonNull ReaderCommentList comments, int level) {
-        for (ReaderComment comment : comments) {
-            comment.level = level;
-        }
+    public ReaderCommentList createLevelList(@NonNull Map<Long, Integer> knownLevels) {
+        ReaderCommentList result = new ReaderCommentList();
+        result.addAll(mLeveler.createLevelList(knownLevels));
+        return result;
     }
 }
@@ -0,0 +1,381 @@
+package org.wordpress.android.ui.reader.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Prepares the content of a post for the post detail in a single pass over the html - image and
+ * iframe tags are passed to their rewriters, the scripts required by known embeds are collected,
+ * tiled galleries are detected, background colors are stripped and gallery elements are given a
+ * class of their own while the content is copied into a single output buffer.
+ */
+public class ReaderHtmlRewriter {
+    public interface TagRewriter {
+        /*
+         * returns the tag which should replace the passed one, or null to keep the passed tag
+         */
+        @Nullable String rewriteTag(@NonNull String tag, @NonNull String src);
+    }
+
+    public static class Result {
+        private final String mContent;
+        private final Set<String> mJsToInject;
+        private final boolean mHasTiledGallery;
+
+        Result(@NonNull String content, @NonNull Set<String> jsToInject, boolean hasTiledGallery) {
+            mContent = content;
+            mJsToInject = jsToInject;
+            mHasTiledGallery = hasTiledGallery;
+        }
+
+        @NonNull public String getContent() {
+            return mContent;
+        }
+
+        /*
+         * returns the urls of the scripts required by the embeds found in the content
+         */
+        @NonNull public Set<String> getJsToInject() {
+            return mJsToInject;
+        }
+
+        public boolean hasTiledGallery() {
+            return mHasTiledGallery;
+        }
+    }
+
+    private static final String IMG_TAG_START = "<img";
+    private static final String IFRAME_TAG_START = "<iframe";
+    private static final String TILED_GALLERY = "tiled-gallery";
+    private static final String TILED_GALLERY_ITEM = "tiled-gallery-item";
+    private static final String GALLERY = "gallery";
+    private static final String GALLERY_ROW = "gallery-row";
+    private static final String GALLERY_GROUP = "gallery-group";
+    private static final String TILED_PREFIX = "tiled-";
+    private static final String BACKGROUND_COLOR = "background-color";
+
+    private static final String INSTAGRAM_TAG_START = "<blockquote";
+    private static final String INSTAGRAM_CLASS = "class=\"instagram-";
+    private static final String INSTAGRAM_JS = "https://platform.instagram.com/en_US/embeds.js";
+    private static final String FACEBOOK_TAG_START = "<fb:post";
+    private static final String FACEBOOK_JS = "https://connect.facebook.net/en_US/sdk.js#xfbml=1&amp;version=v2.8";
+
+    private final String mContent;
+    private final TagRewriter mImageRewriter;
+    private final TagRewriter mIframeRewriter;
+    private final boolean mKeepImagesInTiledGallery;
+    private final String mGalleryClass;
+    private final boolean mStripBackgroundColors;
+
+    private StringBuilder mOutput;
+    private boolean mHasTiledGallery;
+    private int mNextTiledGalleryIndex;
+    private boolean mHasGalleryElements;
+
+    /*
+     * pass true for keepImagesInTiledGallery to leave all image tags untouched when the content
+     * turns out to contain a tiled gallery
+     */
+    public ReaderHtmlRewriter(@NonNull String content,
+                              @Nullable TagRewriter imageRewriter,
+                              @Nullable TagRewriter iframeRewriter,
+                              boolean keepImagesInTiledGallery) {
+        this(content, imageRewriter, iframeRewriter, keepImagesInTiledGallery, null, false);
+    }
+
+    /*
+     * pass a galleryClass to add it to the class of the tiled gallery elements, and true for
+     * stripBackgroundColors to remove the background-color declarations from the content
+     */
+    public ReaderHtmlRewriter(@NonNull String content,
+                              @Nullable TagRewriter imageRewriter,
+                              @Nullable TagRewriter iframeRewriter,
+                              boolean keepImagesInTiledGallery,
+                              @Nullable String galleryClass,
+                              boolean stripBackgroundColors) {
+        mContent = content;
+        mImageRewriter = imageRewriter;
+        mIframeRewriter = iframeRewriter;
+        mKeepImagesInTiledGallery = keepImagesInTiledGallery;
+        mGalleryClass = galleryClass;
+        mStripBackgroundColors = stripBackgroundColors;
+    }
+
+    @NonNull
+    public Result rewrite() {
+        final int length = mContent.length();
+        mOutput = new StringBuilder(length + length / 4);
+        mHasTiledGallery = false;
+        mNextTiledGalleryIndex = mContent.indexOf(TILED_GALLERY);
+        mHasGalleryElements = mGalleryClass != null && mContent.contains(GALLERY);
+
+        Set<String> jsToInject = new HashSet<>();
+        // positions of the rewritten images, only needed when they may have to be restored
+        List<int[]> rewrittenImages = mKeepImagesInTiledGallery ? new ArrayList<int[]>() : null;
+
+        int pos = 0;
+        while (pos < length) {
+            int tagStart = mContent.indexOf('<', pos);
+            if (tagStart == -1) {
+                appendContent(pos, length);
+                break;
+            }
+            appendContent(pos, tagStart);
+
+            boolean isImage = startsWith(tagStart, IMG_TAG_START);
+            boolean isIframe = !isImage && startsWith(tagStart, IFRAME_TAG_START);
+            if (!isImage && !isIframe) {
+                if (isInstagramEmbed(tagStart)) {
+                    jsToInject.add(INSTAGRAM_JS);
+                } else if (startsWith(tagStart, FACEBOOK_TAG_START)) {
+                    jsToInject.add(FACEBOOK_JS);
+                }
+                // copy the bracket and continue with the rest of the tag as regular content
+                appendContent(tagStart, tagStart + 1);
+                pos = tagStart + 1;
+                continue;
+            }
+
+            int tagEnd = mContent.indexOf('>', tagStart);
+            if (tagEnd == -1) {
+                appendContent(tagStart, length);
+                break;
+            }
+            tagEnd++;
+
+            String tag = mContent.substring(tagStart, tagEnd);
+            String newTag = null;
+            if (isImage && mImageRewriter != null) {
+                String src = getQuotedAttrValue(tag, " src=", '"');
+                newTag = src != null ? mImageRewriter.rewriteTag(tag, src) : null;
+            } else if (isIframe && mIframeRewriter != null) {
+                String src = getQuotedAttrValue(tag, " src=", '\'');
+                newTag = src != null ? mIframeRewriter.rewriteTag(tag, src) : null;
+            }
+
+            if (newTag == null) {
+                appendContent(tagStart, tagEnd);
+            } else {
+                checkTiledGallery(tagStart, tagEnd);
+                int outputStart = mOutput.length();
+                appendAmended(mOutput, newTag, 0, newTag.length());
+                if (isImage && rewrittenImages != null) {
+                    rewrittenImages.add(new int[]{outputStart, mOutput.length(), tagStart, tagEnd});
+                }
+            }
+            pos = tagEnd;
+        }
+
+        if (mHasTiledGallery && rewrittenImages != null && !rewrittenImages.isEmpty()) {
+            restoreImages(rewrittenImages);
+        }
+
+        Result result = new Result(mOutput.toString(), jsToInject, mHasTiledGallery);
+        mOutput = null;
+        return result;
+    }
+
+    /*
+     * copies the passed range of the original content to the output
+     */
+    private void appendContent(int start, int end) {
+        if (start >= end) {
+            return;
+        }
+        checkTiledGallery(start, end);
+        appendAmended(mOutput, mContent, start, end);
+    }
+
+    /*
+     * copies the passed range of the source to the passed output, stripping background colors and
+     * adding the gallery class to the gallery elements along the way - neither spans a bracket, so
+     * the ranges the content is copied in never split them
+     */
+    private void appendAmended(@NonNull StringBuilder output, @NonNull String source, int start, int end) {
+        if (!mStripBackgroundColors && !mHasGalleryElements) {
+            output.append(source, start, end);
+            return;
+        }
+        int copied = start;
+        int colorStart = mStripBackgroundColors ? indexOf(source, BACKGROUND_COLOR, start, end) : -1;
+        int galleryStart = mHasGalleryElements ? indexOf(source, GALLERY, start, end) : -1;
+        while (colorStart != -1 || galleryStart != -1) {
+            int searchFrom;
+            if (colorStart != -1 && (galleryStart == -1 || colorStart < galleryStart)) {
+                int declarationEnd = getBackgroundColorEnd(source, colorStart, end);
+                if (declarationEnd != -1) {
+                    // the whitespace around the declaration goes with it
+                    int declarationStart = colorStart;
+                    while (declarationStart > copied && Character.isWhitespace(source.charAt(declarationStart - 1))) {
+                        declarationStart--;
+                    }
+                    output.append(source, copied, declarationStart);
+                    copied = declarationEnd;
+                    searchFrom = declarationEnd;
+                } else {
+                    searchFrom = colorStart + 1;
+                }
+            } else {
+                int classPos = getGalleryClassPosition(source, galleryStart, end);
+                if (classPos != -1 && classPos >= copied) {
+                    output.append(source, copied, classPos).append(mGalleryClass);
+                    copied = classPos;
+                }
+                searchFrom = galleryStart + 1;
+            }
+            if (colorStart != -1 && colorStart < searchFrom) {
+                colorStart = indexOf(source, BACKGROUND_COLOR, searchFrom, end);
+            }
+            if (galleryStart != -1 && galleryStart < searchFrom) {
+                galleryStart = indexOf(source, GALLERY, searchFrom, end);
+            }
+        }
+        output.append(source, copied, end);
+    }
+
+    /*
+     * returns the position after the background-color declaration starting at the passed position,
+     * including the whitespace after it, or -1 if it isn't a complete declaration within its tag or line
+     */
+    private static int getBackgroundColorEnd(@NonNull String source, int start, int end) {
+        int pos = skipWhitespace(source, start + BACKGROUND_COLOR.length(), end);
+        if (pos >= end || source.charAt(pos) != ':') {
+            return -1;
+        }
+        pos = skipWhitespace(source, pos + 1, end);
+        // the value has at least one character
+        for (pos++; pos < end; pos++) {
+            char c = source.charAt(pos);
+            if (c == ';') {
+                return skipWhitespace(source, pos + 1, end);
+            }
+            if (c == '\n' || c == '\r' || c == '"' || c == '\'' || c == '>') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * returns the position the gallery class is added at when the "gallery" at the passed position is
+     * part of a gallery element class followed by a space and then whitespace or a quote, otherwise -1
+     */
+    private static int getGalleryClassPosition(@NonNull String source, int galleryStart, int end) {
+        int tiledStart = galleryStart - TILED_PREFIX.length();
+        if (tiledStart >= 0 && source.startsWith(TILED_PREFIX, tiledStart)) {
+            int classPos = getClassPosition(source, TILED_GALLERY_ITEM, tiledStart, end);
+            if (classPos == -1) {
+                classPos = getClassPosition(source, TILED_GALLERY, tiledStart, end);
+            }
+            if (classPos != -1) {
+                return classPos;
+            }
+        }
+        int classPos = getClassPosition(source, GALLERY_ROW, galleryStart, end);
+        return classPos != -1 ? classPos : getClassPosition(source, GALLERY_GROUP, galleryStart, end);
+    }
+
+    private static int getClassPosition(@NonNull String source, @NonNull String className, int start, int end) {
+        int spacePos = start + className.length();
+        if (spacePos + 1 >= end || !source.startsWith(className, start) || source.charAt(spacePos) != ' ') {
+            return -1;
+        }
+        char next = source.charAt(spacePos + 1);
+        return Character.isWhitespace(next) || next == '"' || next == '\'' ? spacePos + 1 : -1;
+    }
+
+    private static int skipWhitespace(@NonNull String source, int pos, int end) {
+        while (pos < end && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /*
+     * returns the position of the passed string within the passed range of the source, or -1
+     */
+    private static int indexOf(@NonNull String source, @NonNull String str, int start, int end) {
+        int last = end - str.length();
+        char first = str.charAt(0);
+        for (int i = start; i <= last; i++) {
+            if (source.charAt(i) == first && source.startsWith(str, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * matches "tiled-gallery" followed by whitespace or a quote within the passed range - the
+     * ranges are passed in order and never split a match since they always end before a bracket,
+     * so the search only ever moves forward through the content
+     */
+    private void checkTiledGallery(int start, int end) {
+        while (!mHasTiledGallery
+               && mNextTiledGalleryIndex != -1
+               && mNextTiledGalleryIndex + TILED_GALLERY.length() < end) {
+            if (mNextTiledGalleryIndex >= start) {
+                char next = mContent.charAt(mNextTiledGalleryIndex + TILED_GALLERY.length());
+                mHasTiledGallery = Character.isWhitespace(next) || next == '"' || next == '\'';
+            }
+            mNextTiledGalleryIndex = mContent.indexOf(TILED_GALLERY, Math.max(start, mNextTiledGalleryIndex + 1));
+        }
+    }
+
+    /*
+     * replaces the rewritten images in the output with their original tags
+     */
+    private void restoreImages(@NonNull List<int[]> rewrittenImages) {
+        StringBuilder restored = new StringBuilder(mOutput.length());
+        int pos = 0;
+        for (int[] image : rewrittenImages) {
+            restored.append(mOutput, pos, image[0]);
+            appendAmended(restored, mContent, image[2], image[3]);
+            pos = image[1];
+        }
+        restored.append(mOutput, pos, mOutput.length());
+        mOutput = restored;
+    }
+
+    private boolean startsWith(int pos, @NonNull String prefix) {
+        return mContent.regionMatches(true, pos, prefix, 0, prefix.length());
+    }
+
+    /*
+     * instagram embeds are blockquotes with exactly one character between the tag name and an
+     * "instagram-" class
+     */
+    private boolean isInstagramEmbed(int pos) {
+        int separatorPos = pos + INSTAGRAM_TAG_START.length();
+        if (!startsWith(pos, INSTAGRAM_TAG_START) || separatorPos >= mContent.length()) {
+            return false;
+        }
+        char separator = mContent.charAt(separatorPos);
+        return separator != '<' && separator != '>' && startsWith(separatorPos + 1, INSTAGRAM_CLASS);
+    }
+
+    /*
+     * returns the value of the last occurrence of the passed attribute enclosed in the passed quote
+     */
+    @Nullable
+    static String getQuotedAttrValue(@NonNull String tag, @NonNull String attrName, char quote) {
+        String lowerTag = tag.toLowerCase(Locale.ROOT);
+        String prefix = attrName + quote;
+        int index = lowerTag.lastIndexOf(prefix);
+        while (index != -1) {
+            int valueStart = index + prefix.length();
+            int valueEnd = tag.indexOf(quote, valueStart);
+            if (valueEnd != -1) {
+                return tag.substring(valueStart, valueEnd);
+            }
+            index = index > 0 ? lowerTag.lastIndexOf(prefix, index - 1) : -1;
+        }
+        return null;
+    }
+}
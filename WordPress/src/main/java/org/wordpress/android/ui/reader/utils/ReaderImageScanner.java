@@ -2,23 +2,23 @@ package org.wordpress.android.ui.reader.utils;
 
 import androidx.annotation.NonNull;
 
-import org.wordpress.android.ui.reader.models.ReaderImageList;
+import org.wordpress.android.ui.reader.models.ReaderImageIndex;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class ReaderImageScanner {
     private final String mContent;
-    private final boolean mIsPrivate;
     private final boolean mContentContainsImages;
 
     private static final Pattern IMG_TAG_PATTERN = Pattern.compile(
             "<img[^>]* src=\\\"([^\\\"]*)\\\"[^>]*>",
             Pattern.CASE_INSENSITIVE);
 
-    public ReaderImageScanner(String contentOfPost, boolean isPrivate) {
+    public ReaderImageScanner(String contentOfPost) {
         mContent = contentOfPost;
-        mIsPrivate = isPrivate;
         mContentContainsImages = mContent != null && mContent.contains("<img");
     }
 
@@ -43,94 +43,38 @@ public class ReaderImageScanner {
     }
 
     /*
-     * returns a list of image URLs in the content up to the max above a certain width - pass zero
-     * to include all images regardless of size
+     * scans the content once and returns its images along with the attributes used to pick
+     * thumbnails and featured images - the index is stored with the post so the content doesn't
+     * need to be scanned again
      */
-    public ReaderImageList getImageList(int maxImageCount, int minImageWidth) {
-        ReaderImageList imageList = new ReaderImageList(mIsPrivate);
-
+    @NonNull
+    public ReaderImageIndex getImageIndex() {
         if (!mContentContainsImages) {
-            return imageList;
+            return ReaderImageIndex.empty();
         }
 
+        List<ReaderImageIndex.Image> images = new ArrayList<>();
         Matcher imgMatcher = IMG_TAG_PATTERN.matcher(mContent);
         while (imgMatcher.find()) {
             String imageTag = imgMatcher.group(0);
             String imageUrl = imgMatcher.group(1);
 
-            if (minImageWidth == 0) {
-                imageList.addImageUrl(imageUrl);
-            } else {
-                int width = Math.max(ReaderHtmlUtils.getWidthAttrValue(imageTag),
-                                     ReaderHtmlUtils.getIntQueryParam(imageUrl, "w"));
-                if (width >= minImageWidth) {
-                    imageList.addImageUrl(imageUrl);
-                    if (maxImageCount > 0 && imageList.size() >= maxImageCount) {
-                        break;
-                    }
-                }
-            }
-        }
-
-        return imageList;
-    }
-
-    /*
-     * returns true if there at least `minImageCount` images in the post content that are at
-     * least `minImageWidth` in size
-     */
-    public boolean hasUsableImageCount(int minImageCount, int minImageWidth) {
-        return getImageList(minImageCount, minImageWidth).size() == minImageCount;
-    }
-
-    /*
-     * used when a post doesn't have a featured image assigned, searches post's content
-     * for an image that may be large enough to be suitable as a featured image
-     */
-    public String getLargestImage(int minImageWidth) {
-        if (!mContentContainsImages) {
-            return null;
-        }
-
-        String currentImageUrl = null;
-        int currentMaxWidth = minImageWidth;
-
-        Matcher imgMatcher = IMG_TAG_PATTERN.matcher(mContent);
-        while (imgMatcher.find()) {
-            String imageTag = imgMatcher.group(0);
-            String imageUrl = imgMatcher.group(1);
-
-            // Primary source: check the width attribute.
             int width = Math.max(ReaderHtmlUtils.getWidthAttrValue(imageTag),
                                  ReaderHtmlUtils.getIntQueryParam(imageUrl, "w"));
-            if (width > currentMaxWidth) {
-                currentImageUrl = imageUrl;
-                currentMaxWidth = width;
-            }
-
-            // Look through the srcset attribute (if set) for the largest available size of this image.
+            int height = Math.max(ReaderHtmlUtils.getHeightAttrValue(imageTag),
+                                  ReaderHtmlUtils.getIntQueryParam(imageUrl, "h"));
             SrcsetImage bestFromSrcset = ReaderHtmlUtils.getLargestSrcsetImageForTag(imageTag);
-            if (bestFromSrcset != null && bestFromSrcset.getWidth() > currentMaxWidth) {
-                currentMaxWidth = bestFromSrcset.getWidth();
-                currentImageUrl = bestFromSrcset.getUrl();
-            }
 
-            // Check if the image tag's class suggests it's a good enough size.
-            // Only do this if we don't already have a winner, since we can't be sure of the width
-            // and shouldn't replace an image we know for sure is larger than [minImageWidth].
-            if (currentImageUrl == null && hasSuitableClassForFeaturedImage(imageTag)) {
-                currentImageUrl = imageUrl;
-            }
-
-            // Look for a data-large-file attribute if set and use the associated url.
-            // Only do this if we don't already have a winner, since we can't be sure of the width
-            // and shouldn't replace an image we know for sure is larger than [minImageWidth].
-            if (currentImageUrl == null) {
-                currentImageUrl = ReaderHtmlUtils.getLargeFileAttr(imageTag);
-            }
+            images.add(new ReaderImageIndex.Image(
+                    imageUrl,
+                    width,
+                    height,
+                    bestFromSrcset != null ? bestFromSrcset.getUrl() : null,
+                    bestFromSrcset != null ? bestFromSrcset.getWidth() : 0,
+                    hasSuitableClassForFeaturedImage(imageTag),
+                    ReaderHtmlUtils.getLargeFileAttr(imageTag)));
         }
-
-        return currentImageUrl;
+        return new ReaderImageIndex(images);
     }
 
     /*
@@ -144,12 +88,4 @@ public class ReaderImageScanner {
                     || tagClass.contains("size-large")
                     || tagClass.contains("size-medium")));
     }
-
-    /*
-     * same as above, but doesn't enforce the max width - will return the first image found if
-     * no images have their width set
-     */
-    public String getLargestImage() {
-        return getLargestImage(-1);
-    }
 }
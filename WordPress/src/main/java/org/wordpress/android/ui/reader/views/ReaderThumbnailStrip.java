@@ -11,10 +11,10 @@ import android.widget.LinearLayout;
 
 import org.wordpress.android.R;
 import org.wordpress.android.datasets.ReaderPostTable;
+import org.wordpress.android.models.ReaderPost;
 import org.wordpress.android.ui.reader.ReaderActivityLauncher;
 import org.wordpress.android.ui.reader.ReaderActivityLauncher.PhotoViewerOption;
 import org.wordpress.android.ui.reader.models.ReaderImageList;
-import org.wordpress.android.ui.reader.utils.ReaderImageScanner;
 import org.wordpress.android.util.AniUtils;
 import org.wordpress.android.util.DisplayUtils;
 import org.wordpress.android.util.PhotonUtils;
@@ -65,15 +65,22 @@ public class ReaderThumbnailStrip extends LinearLayout {
     }
 
     public void loadThumbnails(long blogId, long postId, boolean isPrivate) {
-        // get this post's content and scan it for images suitable in a gallery
-        final String content = ReaderPostTable.getPostText(blogId, postId);
-        final ReaderImageList imageList =
-                new ReaderImageScanner(content, isPrivate)
-                        .getImageList(THUMBNAIL_STRIP_IMG_COUNT, MIN_GALLERY_IMAGE_WIDTH);
-        loadThumbnails(imageList, isPrivate, content);
+        // get this post's image index and pick the images suitable in a gallery
+        ReaderPost post = ReaderPostTable.getBlogPost(blogId, postId, true);
+        if (post == null) {
+            mView.setVisibility(View.GONE);
+            return;
+        }
+        final ReaderImageList imageList = post.getImageIndex()
+                .getImageList(isPrivate, THUMBNAIL_STRIP_IMG_COUNT, MIN_GALLERY_IMAGE_WIDTH);
+        loadThumbnails(imageList, isPrivate, post.getImagesJson());
     }
 
-    public void loadThumbnails(ReaderImageList imageList, boolean isPrivate, String content) {
+    /*
+     * imagesJson is the image index of the post, passed to the photo viewer so it can show all
+     * the images of the post
+     */
+    public void loadThumbnails(ReaderImageList imageList, boolean isPrivate, String imagesJson) {
         // get rid of any views already added
         mView.removeAllViews();
         if (imageList.size() < THUMBNAIL_STRIP_IMG_COUNT) {
@@ -103,7 +110,7 @@ public class ReaderThumbnailStrip extends LinearLayout {
                     ReaderActivityLauncher.showReaderPhotoViewer(
                             view.getContext(),
                             imageUrl,
-                            content,
+                            imagesJson,
                             view,
                             photoViewerOptions,
                             0,
@@ -0,0 +1,96 @@
+package org.wordpress.android.ui.suggestion
+
+import java.util.BitSet
+import java.util.Locale
+
+/**
+ * Prefix index over a list of suggestions, built once when the list is delivered so filtering doesn't
+ * have to scan and lowercase every suggestion on each keystroke. A suggestion matches a constraint when
+ * its value, its display value or any word of its display value starts with the constraint.
+ *
+ * The keys are kept sorted, so the keys matching a constraint form a contiguous range found by binary
+ * search. As the constraint grows while typing, its range is within the range of the previous
+ * constraint, which is where the next search starts.
+ */
+class SuggestionSearchIndex(val suggestions: List<Suggestion>) {
+    private val keys: Array<String>
+    private val positions: IntArray
+
+    // range of the keys matching the last constraint searched for
+    private var lastConstraint: String? = null
+    private var lastRangeStart = 0
+    private var lastRangeEnd = 0
+
+    init {
+        val entries = ArrayList<Pair<String, Int>>(suggestions.size * 2)
+        suggestions.forEachIndexed { position, suggestion ->
+            entries.add(suggestion.value.toLowerCase(Locale.ROOT) to position)
+            // the display value is indexed from its start and from the start of each following word
+            val displayValue = suggestion.displayValue.toLowerCase(Locale.getDefault())
+            entries.add(displayValue to position)
+            var spaceIndex = displayValue.indexOf(' ')
+            while (spaceIndex != -1) {
+                entries.add(displayValue.substring(spaceIndex + 1) to position)
+                spaceIndex = displayValue.indexOf(' ', spaceIndex + 1)
+            }
+        }
+        entries.sortBy { it.first }
+        keys = Array(entries.size) { entries[it].first }
+        positions = IntArray(entries.size) { entries[it].second }
+    }
+
+    /*
+     * returns the suggestions matching the passed constraint in the order of the list they were indexed from
+     */
+    @Synchronized
+    fun search(constraint: CharSequence?): List<Suggestion> {
+        if (constraint.isNullOrEmpty()) {
+            return suggestions
+        }
+        val prefix = constraint.toString().toLowerCase(Locale.getDefault())
+
+        val previousConstraint = lastConstraint
+        var rangeStart = 0
+        var rangeEnd = keys.size
+        if (previousConstraint != null && prefix.startsWith(previousConstraint)) {
+            rangeStart = lastRangeStart
+            rangeEnd = lastRangeEnd
+        }
+        rangeStart = lowerBound(prefix, rangeStart, rangeEnd)
+        rangeEnd = lowerBound(prefix + Character.MAX_VALUE, rangeStart, rangeEnd)
+
+        lastConstraint = prefix
+        lastRangeStart = rangeStart
+        lastRangeEnd = rangeEnd
+
+        // a suggestion may match through more than one of its keys
+        val matches = BitSet(suggestions.size)
+        for (i in rangeStart until rangeEnd) {
+            matches.set(positions[i])
+        }
+        val result = ArrayList<Suggestion>(matches.cardinality())
+        var position = matches.nextSetBit(0)
+        while (position >= 0) {
+            result.add(suggestions[position])
+            position = matches.nextSetBit(position + 1)
+        }
+        return result
+    }
+
+    /*
+     * index of the first key in the passed range which isn't less than the passed key
+     */
+    private fun lowerBound(key: String, fromIndex: Int, toIndex: Int): Int {
+        var low = fromIndex
+        var high = toIndex
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (keys[mid] < key) {
+                low = mid + 1
+            } else {
+                high = mid
+            }
+        }
+        return low
+    }
+}
@@ -18,14 +18,13 @@ import androidx.annotation.Nullable;
 import org.wordpress.android.R;
 import org.wordpress.android.WordPress;
 import org.wordpress.android.ui.suggestion.Suggestion;
+import org.wordpress.android.ui.suggestion.SuggestionSearchIndex;
 import org.wordpress.android.util.GravatarUtils;
 import org.wordpress.android.util.image.ImageManager;
 import org.wordpress.android.util.image.ImageType;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 
 import javax.inject.Inject;
 
@@ -34,6 +33,8 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
     private Filter mSuggestionFilter;
     private List<Suggestion> mSuggestionList;
     private List<Suggestion> mOrigSuggestionList;
+    // built on the filter thread the first time the list is filtered
+    private volatile SuggestionSearchIndex mSearchIndex;
     private final int mAvatarSz;
     private @Nullable @AttrRes Integer mBackgroundColor;
 
@@ -54,6 +55,7 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
 
     public void setSuggestionList(List<Suggestion> suggestionList) {
         mOrigSuggestionList = suggestionList;
+        mSearchIndex = null;
     }
 
     public List<Suggestion> getSuggestionList() {
@@ -149,26 +151,19 @@ public class SuggestionAdapter extends BaseAdapter implements Filterable {
 
         @NonNull
         private List<Suggestion> getFilteredSuggestions(CharSequence constraint) {
-            if (mOrigSuggestionList == null) {
+            List<Suggestion> suggestions = mOrigSuggestionList;
+            if (suggestions == null) {
                 return Collections.emptyList();
             } else if (constraint == null || constraint.length() == 0) {
-                return mOrigSuggestionList;
-            } else {
-                List<Suggestion> filteredSuggestions = new ArrayList<>();
-                for (Suggestion suggestion : mOrigSuggestionList) {
-                    String lowerCaseConstraint = constraint.toString().toLowerCase(Locale.getDefault());
-                    boolean suggestionMatchesConstraint =
-                            suggestion.getValue().toLowerCase(Locale.ROOT).startsWith(lowerCaseConstraint)
-                            || suggestion.getDisplayValue().toLowerCase(Locale.getDefault())
-                                         .startsWith(lowerCaseConstraint)
-                            || suggestion.getDisplayValue().toLowerCase(Locale.getDefault())
-                                         .contains(" " + lowerCaseConstraint);
-                    if (suggestionMatchesConstraint) {
-                        filteredSuggestions.add(suggestion);
-                    }
-                }
-                return filteredSuggestions;
+                return suggestions;
+            }
+
+            SuggestionSearchIndex searchIndex = mSearchIndex;
+            if (searchIndex == null || searchIndex.getSuggestions() != suggestions) {
+                searchIndex = new SuggestionSearchIndex(suggestions);
+                mSearchIndex = searchIndex;
             }
+            return searchIndex.search(constraint);
         }
 
         @SuppressWarnings("unchecked")
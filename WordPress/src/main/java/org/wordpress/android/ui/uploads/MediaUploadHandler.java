@@ -16,31 +16,41 @@ import org.wordpress.android.fluxc.store.MediaStore.CancelMediaPayload;
 import org.wordpress.android.fluxc.store.MediaStore.OnMediaUploaded;
 import org.wordpress.android.fluxc.store.MediaStore.UploadMediaPayload;
 import org.wordpress.android.fluxc.store.SiteStore;
+import org.wordpress.android.ui.posts.editor.media.MediaFingerprintIndex;
 import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
-import org.wordpress.android.util.StringUtils;
 import org.wordpress.android.util.WPMediaUtils;
 import org.wordpress.android.util.analytics.AnalyticsUtils;
 import org.wordpress.android.util.config.Mp4ComposerVideoOptimizationFeatureConfig;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
 public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptimizationListener {
-    private static List<MediaModel> sPendingUploads = new ArrayList<>();
-    private static List<MediaModel> sInProgressUploads = new ArrayList<>();
+    // the number of images and other files, and the number of videos, which upload at once for each site
+    private static final int MAX_UPLOADS_PER_SITE = 3;
+    private static final int MAX_VIDEO_UPLOADS_PER_SITE = 1;
+
+    private static final MediaUploadScheduler sUploadScheduler =
+            new MediaUploadScheduler(MAX_UPLOADS_PER_SITE, MAX_VIDEO_UPLOADS_PER_SITE);
     private static ConcurrentHashMap<Integer, Float> sOptimizationProgressByMediaId = new ConcurrentHashMap<>();
+    // videos being optimized, and waiting videos which were optimized while another video was uploading
+    private static final Set<Integer> sOptimizingVideoIds =
+            Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    private static final Set<Integer> sOptimizedPendingVideoIds =
+            Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
 
     @Inject Dispatcher mDispatcher;
     @Inject SiteStore mSiteStore;
     @Inject Mp4ComposerVideoOptimizationFeatureConfig mMp4ComposerVideoOptimizationFeatureConfig;
+    @Inject MediaFingerprintIndex mMediaFingerprintIndex;
 
     MediaUploadHandler() {
         ((WordPress) WordPress.getContext().getApplicationContext()).component().inject(this);
@@ -51,49 +61,39 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
 
     void unregister() {
         sOptimizationProgressByMediaId.clear();
+        sOptimizingVideoIds.clear();
+        sOptimizedPendingVideoIds.clear();
         mDispatcher.unregister(this);
         EventBus.getDefault().unregister(this);
     }
 
     @Override
     public boolean hasInProgressUploads() {
-        return !sInProgressUploads.isEmpty() || !sPendingUploads.isEmpty();
+        return !sUploadScheduler.isEmpty();
     }
 
     @Override
     public void cancelInProgressUploads() {
-        for (MediaModel oneUpload : sInProgressUploads) {
+        for (MediaModel oneUpload : sUploadScheduler.getInProgressUploads()) {
             cancelUpload(oneUpload, false);
         }
     }
 
     @Override
     public void upload(@NonNull MediaModel media) {
-        addUniqueMediaToQueue(media);
+        if (!sUploadScheduler.add(media)) {
+            AppLog.i(T.MEDIA, "MediaUploadHandler > Media with path " + media.getFilePath() + " is already queued for "
+                              + "post " + media.getLocalPostId() + ". Skipping this request.");
+        }
         uploadNextInQueue();
     }
 
     static boolean hasInProgressMediaUploadsForPost(int postId) {
-        synchronized (sInProgressUploads) {
-            for (MediaModel queuedMedia : sInProgressUploads) {
-                if (queuedMedia.getLocalPostId() == postId) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return sUploadScheduler.hasInProgressUploadsForPost(postId);
     }
 
     static boolean hasPendingMediaUploadsForPost(int postId) {
-        synchronized (sPendingUploads) {
-            for (MediaModel queuedMedia : sPendingUploads) {
-                if (queuedMedia.getLocalPostId() == postId) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return sUploadScheduler.hasPendingUploadsForPost(postId);
     }
 
     static boolean hasPendingOrInProgressMediaUploadsForPost(int postId) {
@@ -120,42 +120,11 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
             return Collections.emptyList();
         }
 
-        List<MediaModel> mediaList = new ArrayList<>();
-        synchronized (sInProgressUploads) {
-            for (MediaModel queuedMedia : sInProgressUploads) {
-                if (queuedMedia.getLocalPostId() == postModel.getId()) {
-                    mediaList.add(queuedMedia);
-                }
-            }
-        }
-
-        synchronized (sPendingUploads) {
-            for (MediaModel queuedMedia : sPendingUploads) {
-                if (queuedMedia.getLocalPostId() == postModel.getId()) {
-                    mediaList.add(queuedMedia);
-                }
-            }
-        }
-        return mediaList;
+        return sUploadScheduler.getUploadsForPost(postModel.getId());
     }
 
     static boolean isPendingOrInProgressMediaUpload(int mediaId) {
-        synchronized (sInProgressUploads) {
-            for (MediaModel uploadingMedia : sInProgressUploads) {
-                if (uploadingMedia.getId() == mediaId) {
-                    return true;
-                }
-            }
-        }
-
-        synchronized (sPendingUploads) {
-            for (MediaModel queuedMedia : sPendingUploads) {
-                if (queuedMedia.getId() == mediaId) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return sUploadScheduler.isPendingOrInProgress(mediaId);
     }
 
     /**
@@ -167,6 +136,10 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
             float optimizationProgress = sOptimizationProgressByMediaId.get(videoId);
             return optimizationProgress * 0.5F;
         }
+        if (sOptimizingVideoIds.contains(videoId)) {
+            // the optimization has started but hasn't reported any progress yet
+            return 0F;
+        }
         return 0.5F + (uploadProgress * 0.5F);
     }
 
@@ -174,14 +147,16 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         if (event.canceled) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Upload successfully canceled");
             trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_CANCELED,
-                                   getMediaFromInProgressQueueById(event.media.getId()), null);
+                                   sUploadScheduler.getInProgressUpload(event.media.getId()), null);
             completeUploadWithId(event.media.getId());
             uploadNextInQueue();
         } else if (event.completed) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Upload completed - localId=" + event.media.getId() + " title="
                               + event.media.getTitle());
             trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_SUCCESS,
-                                   getMediaFromInProgressQueueById(event.media.getId()), null);
+                                   sUploadScheduler.getInProgressUpload(event.media.getId()), null);
+            // the same file added to the site again can reuse this remote media instead of being uploaded again
+            mMediaFingerprintIndex.onMediaUploaded(event.media.getId(), event.media.getMediaId());
             completeUploadWithId(event.media.getId());
             uploadNextInQueue();
         } else {
@@ -191,7 +166,7 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
 
     private void handleOnMediaUploadedError(@NonNull OnMediaUploaded event) {
         AppLog.w(T.MEDIA, "MediaUploadHandler > Error uploading media: " + event.error.message);
-        MediaModel media = getMediaFromInProgressQueueById(event.media.getId());
+        MediaModel media = sUploadScheduler.getInProgressUpload(event.media.getId());
         if (media != null) {
             mDispatcher.dispatch(MediaActionBuilder.newUpdateMediaAction(media));
         }
@@ -208,65 +183,63 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     }
 
     private synchronized void uploadNextInQueue() {
-        MediaModel next = getNextMediaToUpload();
+        List<MediaModel> nextUploads = sUploadScheduler.startNextUploads(getPostIdInEditor());
 
-        if (next == null) {
-            AppLog.w(T.MEDIA, "MediaUploadHandler > No more media items to upload. Skipping this request.");
-            checkIfUploadsComplete();
-            return;
+        if (nextUploads.isEmpty()) {
+            AppLog.d(T.MEDIA, "MediaUploadHandler > No media items can start uploading. Skipping this request.");
         }
 
-        prepareForUpload(next);
-    }
+        for (MediaModel next : nextUploads) {
+            prepareForUpload(next);
+        }
 
-    private synchronized void completeUploadWithId(int id) {
-        MediaModel media = getMediaFromInProgressQueueById(id);
-        if (media != null) {
-            sInProgressUploads.remove(media);
-            trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_STARTED, media, null);
+        if (nextUploads.isEmpty()) {
+            checkIfUploadsComplete();
         }
+        optimizeNextPendingVideo();
     }
 
-    private MediaModel getMediaFromInProgressQueueById(int id) {
-        for (MediaModel media : sInProgressUploads) {
-            if (media.getId() == id) {
-                return media;
+    /*
+     * videos upload one at a time, so while a video is uploading the next waiting video is optimized - once it's
+     * the next video's turn it only has to be uploaded. Only one video is optimized at a time.
+     */
+    private synchronized void optimizeNextPendingVideo() {
+        if (!WPMediaUtils.isVideoOptimizationEnabled() || !sOptimizingVideoIds.isEmpty()) {
+            return;
+        }
+        for (MediaModel video : sUploadScheduler.getPendingVideos(getPostIdInEditor())) {
+            if (!sOptimizedPendingVideoIds.contains(video.getId())
+                && !VideoOptimizerBase.isOptimizedVideo(WordPress.getContext(), video.getFilePath())) {
+                AppLog.d(T.MEDIA, "MediaUploadHandler > Optimizing waiting video with local id: " + video.getId());
+                startVideoOptimization(video);
+                return;
             }
         }
-        return null;
     }
 
-    private MediaModel getNextMediaToUpload() {
-        synchronized (sPendingUploads) {
-            if (!sPendingUploads.isEmpty()) {
-                return sPendingUploads.remove(0);
-            }
+    private void startVideoOptimization(@NonNull MediaModel video) {
+        sOptimizingVideoIds.add(video.getId());
+        if (mMp4ComposerVideoOptimizationFeatureConfig.isEnabled()) {
+            new Mp4ComposerVideoOptimizer(video, this).start();
+        } else {
+            new VideoOptimizer(video, this).start();
         }
-        return null;
     }
 
-    private void addUniqueMediaToQueue(MediaModel media) {
+    private synchronized void completeUploadWithId(int id) {
+        MediaModel media = sUploadScheduler.complete(id);
         if (media != null) {
-            if (mediaAlreadyQueuedOrUploading(media)) {
-                return;
-            }
-
-            synchronized (sPendingUploads) {
-                // no match found in queue
-                sPendingUploads.add(media);
-            }
+            trackUploadMediaEvents(AnalyticsTracker.Stat.MEDIA_UPLOAD_STARTED, media, null);
         }
     }
 
-    private void addUniqueMediaToInProgressUploads(@NonNull MediaModel mediaToAdd) {
-        synchronized (sInProgressUploads) {
-            for (MediaModel media : sInProgressUploads) {
-                if (media.getId() == mediaToAdd.getId()) {
-                    return;
-                }
-            }
-            sInProgressUploads.add(mediaToAdd);
-        }
+    /*
+     * media for the post which is open in the editor are uploaded ahead of other media
+     */
+    private static int getPostIdInEditor() {
+        PostEvents.PostOpenedInEditor postInEditor =
+                EventBus.getDefault().getStickyEvent(PostEvents.PostOpenedInEditor.class);
+        return postInEditor != null ? postInEditor.postId : 0;
     }
 
     private void cancelUpload(MediaModel oneUpload, boolean delete) {
@@ -282,14 +255,15 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     }
 
     private void prepareForUpload(@NonNull MediaModel media) {
-        if (media.isVideo() && WPMediaUtils.isVideoOptimizationEnabled()) {
-            addUniqueMediaToInProgressUploads(media);
-
-            if (mMp4ComposerVideoOptimizationFeatureConfig.isEnabled()) {
-                new Mp4ComposerVideoOptimizer(media, this).start();
-            } else {
-                new VideoOptimizer(media, this).start();
-            }
+        if (sOptimizingVideoIds.contains(media.getId())) {
+            // the video started optimizing while it was waiting, it's uploaded once its optimization completes
+            return;
+        }
+        boolean wasOptimizedWhilePending = sOptimizedPendingVideoIds.remove(media.getId());
+        // a video whose upload is being retried may already have been optimized, in which case it's uploaded as it is
+        if (media.isVideo() && WPMediaUtils.isVideoOptimizationEnabled() && !wasOptimizedWhilePending
+            && !VideoOptimizerBase.isOptimizedVideo(WordPress.getContext(), media.getFilePath())) {
+            startVideoOptimization(media);
         } else {
             dispatchUploadAction(media);
         }
@@ -301,13 +275,14 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         // somehow lost our reference to the site, complete this action
         if (site == null) {
             AppLog.w(T.MEDIA, "MediaUploadHandler > Unexpected state, site is null. Skipping this request.");
-            checkIfUploadsComplete();
+            // free the media's lane for the next upload
+            sUploadScheduler.complete(media.getId());
+            uploadNextInQueue();
             return;
         }
 
         AppLog.i(T.MEDIA, "MediaUploadHandler > Dispatching upload action for media with local id: "
                           + media.getId() + " and path: " + media.getFilePath());
-        addUniqueMediaToInProgressUploads(media);
 
         mDispatcher.dispatch(MediaActionBuilder.newUpdateMediaAction(media));
         UploadMediaPayload payload = new UploadMediaPayload(site, media, AppPrefs.isStripImageLocation());
@@ -322,7 +297,7 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     }
 
     private boolean checkIfUploadsComplete() {
-        if (sPendingUploads.isEmpty() && sInProgressUploads.isEmpty()) {
+        if (sUploadScheduler.isEmpty()) {
             AppLog.i(T.MEDIA, "MediaUploadHandler > Completed");
             return true;
         }
@@ -337,19 +312,8 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         if (event.post == null) {
             return;
         }
-        synchronized (sInProgressUploads) {
-            for (MediaModel inProgressUpload : sInProgressUploads) {
-                if (inProgressUpload.getLocalPostId() == event.post.getId()) {
-                    cancelUpload(inProgressUpload, true);
-                }
-            }
-        }
-        synchronized (sPendingUploads) {
-            for (MediaModel pendingUpload : sPendingUploads) {
-                if (pendingUpload.getLocalPostId() == event.post.getId()) {
-                    cancelUpload(pendingUpload, true);
-                }
-            }
+        for (MediaModel upload : sUploadScheduler.getUploadsForPost(event.post.getId())) {
+            cancelUpload(upload, true);
         }
     }
 
@@ -394,58 +358,6 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
         AnalyticsTracker.track(stat, mediaProperties);
     }
 
-    private boolean mediaAlreadyQueuedOrUploading(MediaModel mediaModel) {
-        for (MediaModel queuedMedia : sInProgressUploads) {
-            AppLog.i(T.MEDIA, "MediaUploadHandler > Attempting to add media with path " + mediaModel.getFilePath()
-                              + " and site id " + mediaModel.getLocalSiteId() + ". Comparing with " + queuedMedia
-                                      .getFilePath()
-                              + ", " + queuedMedia.getLocalSiteId());
-            if (isSameMediaFileQueuedForThisPost(queuedMedia, mediaModel)) {
-                return true;
-            }
-        }
-
-        synchronized (sPendingUploads) {
-            for (MediaModel queuedMedia : sPendingUploads) {
-                AppLog.i(T.MEDIA, "MediaUploadHandler > Attempting to add media with path " + mediaModel.getFilePath()
-                                  + " and site id " + mediaModel.getLocalSiteId() + ". Comparing with " + queuedMedia
-                                          .getFilePath()
-                                  + ", " + queuedMedia.getLocalSiteId());
-                if (isSameMediaFileQueuedForThisPost(queuedMedia, mediaModel)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean isSameMediaFileQueuedForThisPost(MediaModel media1, MediaModel media2) {
-        /*
-            This method used to be called "compareBySiteAndFilePath" and compared just siteId and filePath. It made
-            sense since a media file is tied to a site and can be referenced from multiple posts on that site. This
-            approach tried to prevent wasting users' data.
-
-            The issue was that when a same image was added to content of two posts only a single MediaModel was
-            enqueued. However, MediaModel references only a single post (`localPostId`). When the upload finished
-            only the first post got updated with the url. The second post got uploaded to the server with a path to
-            local image. We decided to check whether the image belongs to the same post so we can be sure the local
-            path gets replaced with the url.
-
-            More info can be found here - https://github.com/wordpress-mobile/WordPress-Android/pull/10204.
-
-            We also need to check the `markedLocallyAsFeatured` flag is equal as we might lose it otherwise. If the
-            user adds an image into the post content and they set the same image as featured image, we need to enqueue
-            both uploads. Otherwise, we could lose the information what we need to update - the featured image or post
-            content.
-
-            Issue with a proper fix - https://github.com/wordpress-mobile/WordPress-Android/issues/10210
-         */
-        return (media1.getLocalSiteId() == media2.getLocalSiteId()
-                && media1.getLocalPostId() == media2.getLocalPostId()
-                && StringUtils.equals(media1.getFilePath(), media2.getFilePath()))
-                && media1.getMarkedLocallyAsFeatured() == media2.getMarkedLocallyAsFeatured();
-    }
-
     @Override
     public void onVideoOptimizationProgress(@NonNull MediaModel media, float progress) {
         sOptimizationProgressByMediaId.put(media.getId(), progress);
@@ -455,13 +367,19 @@ public class MediaUploadHandler implements UploadHandler<MediaModel>, VideoOptim
     }
 
     @Override
-    public void onVideoOptimizationCompleted(@NonNull MediaModel media) {
+    public synchronized void onVideoOptimizationCompleted(@NonNull MediaModel media) {
         sOptimizationProgressByMediaId.remove(media.getId());
+        sOptimizingVideoIds.remove(media.getId());
         // make sure this media should still be uploaded (may have been cancelled during optimization)
-        if (sInProgressUploads.contains(media)) {
+        if (sUploadScheduler.isInProgress(media.getId())) {
             dispatchUploadAction(media);
+        } else if (sUploadScheduler.isPendingOrInProgress(media.getId())) {
+            // the video was optimized while waiting for its turn - the optimization isn't repeated even if it failed
+            AppLog.d(T.MEDIA, "MediaUploadHandler > optimized media is waiting to upload");
+            sOptimizedPendingVideoIds.add(media.getId());
         } else {
             AppLog.d(T.MEDIA, "MediaUploadHandler > skipping upload of optimized media");
         }
+        optimizeNextPendingVideo();
     }
 }
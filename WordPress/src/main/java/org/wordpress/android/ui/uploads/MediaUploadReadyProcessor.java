@@ -12,6 +12,8 @@ import org.wordpress.android.ui.prefs.AppPrefs;
 import org.wordpress.android.ui.stories.SaveStoryGutenbergBlockUseCase;
 import org.wordpress.android.util.helpers.MediaFile;
 
+import java.util.Map;
+
 import javax.inject.Inject;
 
 
@@ -46,6 +48,31 @@ public class MediaUploadReadyProcessor implements MediaUploadReadyListener {
         return post;
     }
 
+    /*
+     * replaces several media at once - Gutenberg content is processed in a single pass, while story blocks and
+     * Aztec content are still processed one media at a time
+     */
+    @Override
+    public PostModel replaceMediaFilesWithUrlsInPost(@Nullable PostModel post, Map<String, MediaFile> mediaFiles,
+                                                     @Nullable SiteModel site) {
+        if (post != null && !mediaFiles.isEmpty()) {
+            boolean showGutenbergEditor = AppPrefs.isGutenbergEditorEnabled();
+
+            if (!PostUtils.contentContainsWPStoryGutenbergBlocks(post.getContent())
+                && showGutenbergEditor && PostUtils.contentContainsGutenbergBlocks(post.getContent())) {
+                String siteUrl = site != null ? site.getUrl() : "";
+                post.setContent(
+                        PostUtils.replaceMediaFilesWithUrlsInGutenbergPost(post.getContent(), mediaFiles, siteUrl));
+            } else {
+                for (Map.Entry<String, MediaFile> entry : mediaFiles.entrySet()) {
+                    post = replaceMediaFileWithUrlInPost(post, entry.getKey(), entry.getValue(), site);
+                }
+            }
+        }
+
+        return post;
+    }
+
     @Override
     public PostModel markMediaUploadFailedInPost(@Nullable PostModel post, String localMediaId,
                                                  final MediaFile mediaFile) {
@@ -0,0 +1,287 @@
+package org.wordpress.android.ui.uploads;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.model.MediaModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the media waiting to be uploaded and the media being uploaded, and decides which waiting media
+ * can start uploading.
+ *
+ * Each site has a number of lanes for images and other files plus a number of lanes for videos, so a large
+ * video doesn't hold up the photos queued behind it (and a gallery doesn't hold up the video). Waiting media start
+ * in the order they were queued, except that featured images go first, followed by the media of the post which is
+ * open in the editor.
+ *
+ * Uploads are indexed by media id and by {@link #getUploadKey(MediaModel)}, so checking whether a media is queued
+ * doesn't have to scan the queues.
+ */
+class MediaUploadScheduler {
+    private static final int PRIORITY_FEATURED_IMAGE = 0;
+    private static final int PRIORITY_POST_IN_EDITOR = 1;
+    private static final int PRIORITY_DEFAULT = 2;
+
+    private static final int LANE_FILES = 0;
+    private static final int LANE_VIDEOS = 1;
+
+    private final int mMaxUploadsPerSite;
+    private final int mMaxVideoUploadsPerSite;
+
+    // waiting media in the order they were queued, keyed by their upload key
+    private final LinkedHashMap<String, MediaModel> mPendingUploads = new LinkedHashMap<>();
+    // number of waiting uploads for each media id
+    private final Map<Integer, Integer> mPendingUploadCounts = new HashMap<>();
+    private final LinkedHashMap<Integer, MediaModel> mInProgressUploads = new LinkedHashMap<>();
+    // upload keys of the in-progress uploads, by media id - kept since the media may change while it's uploading
+    private final Map<Integer, String> mInProgressUploadKeys = new HashMap<>();
+    private final Set<String> mInProgressUploadKeySet = new HashSet<>();
+
+    /**
+     * @param maxUploadsPerSite The number of images and other non-video files which can upload at once for a site
+     * @param maxVideoUploadsPerSite The number of videos which can upload at once for a site
+     */
+    MediaUploadScheduler(int maxUploadsPerSite, int maxVideoUploadsPerSite) {
+        mMaxUploadsPerSite = maxUploadsPerSite;
+        mMaxVideoUploadsPerSite = maxVideoUploadsPerSite;
+    }
+
+    /*
+     * queues the passed media - returns false if the same media file is already queued or uploading for its post
+     */
+    synchronized boolean add(@NonNull MediaModel media) {
+        String uploadKey = getUploadKey(media);
+        if (mPendingUploads.containsKey(uploadKey) || mInProgressUploadKeySet.contains(uploadKey)) {
+            return false;
+        }
+        mPendingUploads.put(uploadKey, media);
+        Integer count = mPendingUploadCounts.get(media.getId());
+        mPendingUploadCounts.put(media.getId(), count != null ? count + 1 : 1);
+        return true;
+    }
+
+    /*
+     * moves the waiting media which have a free lane to the in-progress uploads and returns them - media uploads for
+     * the passed post are started ahead of other waiting media
+     */
+    @NonNull
+    synchronized List<MediaModel> startNextUploads(int postIdInEditor) {
+        if (mPendingUploads.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // count the lanes already in use for each site
+        Map<Integer, int[]> busyLanesBySite = new HashMap<>();
+        for (MediaModel media : mInProgressUploads.values()) {
+            getBusyLanes(busyLanesBySite, media.getLocalSiteId())[getLane(media)]++;
+        }
+
+        List<MediaModel> startedUploads = new ArrayList<>();
+        for (Map.Entry<String, MediaModel> candidate : getPendingUploadsInStartOrder(postIdInEditor)) {
+            String uploadKey = candidate.getKey();
+            MediaModel media = candidate.getValue();
+            // the same media can't upload twice at once, so a second upload of it waits for the first to complete
+            if (mInProgressUploads.containsKey(media.getId())) {
+                continue;
+            }
+            int lane = getLane(media);
+            int[] busyLanes = getBusyLanes(busyLanesBySite, media.getLocalSiteId());
+            if (busyLanes[lane] >= getMaxUploads(lane)) {
+                continue;
+            }
+            busyLanes[lane]++;
+            removePendingUpload(uploadKey, media.getId());
+            mInProgressUploads.put(media.getId(), media);
+            mInProgressUploadKeys.put(media.getId(), uploadKey);
+            mInProgressUploadKeySet.add(uploadKey);
+            startedUploads.add(media);
+        }
+        return startedUploads;
+    }
+
+    /*
+     * returns the waiting videos in the order they'll start uploading
+     */
+    @NonNull
+    synchronized List<MediaModel> getPendingVideos(int postIdInEditor) {
+        List<MediaModel> pendingVideos = new ArrayList<>();
+        for (Map.Entry<String, MediaModel> entry : getPendingUploadsInStartOrder(postIdInEditor)) {
+            if (entry.getValue().isVideo()) {
+                pendingVideos.add(entry.getValue());
+            }
+        }
+        return pendingVideos;
+    }
+
+    /*
+     * removes the passed media from the in-progress uploads, freeing its lane - returns the removed media, or null
+     * if it wasn't uploading
+     */
+    @Nullable
+    synchronized MediaModel complete(int mediaId) {
+        MediaModel media = mInProgressUploads.remove(mediaId);
+        if (media != null) {
+            mInProgressUploadKeySet.remove(mInProgressUploadKeys.remove(mediaId));
+        }
+        return media;
+    }
+
+    @Nullable
+    synchronized MediaModel getInProgressUpload(int mediaId) {
+        return mInProgressUploads.get(mediaId);
+    }
+
+    synchronized boolean isInProgress(int mediaId) {
+        return mInProgressUploads.containsKey(mediaId);
+    }
+
+    synchronized boolean isPendingOrInProgress(int mediaId) {
+        return mInProgressUploads.containsKey(mediaId) || mPendingUploadCounts.containsKey(mediaId);
+    }
+
+    synchronized boolean isEmpty() {
+        return mPendingUploads.isEmpty() && mInProgressUploads.isEmpty();
+    }
+
+    @NonNull
+    synchronized List<MediaModel> getInProgressUploads() {
+        return new ArrayList<>(mInProgressUploads.values());
+    }
+
+    @NonNull
+    synchronized List<MediaModel> getPendingUploads() {
+        return new ArrayList<>(mPendingUploads.values());
+    }
+
+    synchronized boolean hasInProgressUploadsForPost(int postId) {
+        return containsUploadForPost(mInProgressUploads.values(), postId);
+    }
+
+    synchronized boolean hasPendingUploadsForPost(int postId) {
+        return containsUploadForPost(mPendingUploads.values(), postId);
+    }
+
+    /*
+     * returns the in-progress and then the waiting uploads for the passed post
+     */
+    @NonNull
+    synchronized List<MediaModel> getUploadsForPost(int postId) {
+        List<MediaModel> mediaList = new ArrayList<>();
+        addUploadsForPost(mediaList, mInProgressUploads.values(), postId);
+        addUploadsForPost(mediaList, mPendingUploads.values(), postId);
+        return mediaList;
+    }
+
+    synchronized void clear() {
+        mPendingUploads.clear();
+        mPendingUploadCounts.clear();
+        mInProgressUploads.clear();
+        mInProgressUploadKeys.clear();
+        mInProgressUploadKeySet.clear();
+    }
+
+    @NonNull
+    private List<Map.Entry<String, MediaModel>> getPendingUploadsInStartOrder(final int postIdInEditor) {
+        // a stable sort, so media with the same priority keep the order they were queued in
+        List<Map.Entry<String, MediaModel>> pendingUploads = new ArrayList<>(mPendingUploads.entrySet());
+        Collections.sort(pendingUploads, new Comparator<Map.Entry<String, MediaModel>>() {
+            @Override
+            public int compare(Map.Entry<String, MediaModel> entry1, Map.Entry<String, MediaModel> entry2) {
+                return getPriority(entry1.getValue(), postIdInEditor) - getPriority(entry2.getValue(), postIdInEditor);
+            }
+        });
+        return pendingUploads;
+    }
+
+    private void removePendingUpload(@NonNull String uploadKey, int mediaId) {
+        mPendingUploads.remove(uploadKey);
+        Integer count = mPendingUploadCounts.get(mediaId);
+        if (count == null || count <= 1) {
+            mPendingUploadCounts.remove(mediaId);
+        } else {
+            mPendingUploadCounts.put(mediaId, count - 1);
+        }
+    }
+
+    private int getMaxUploads(int lane) {
+        return lane == LANE_VIDEOS ? mMaxVideoUploadsPerSite : mMaxUploadsPerSite;
+    }
+
+    private static int getLane(@NonNull MediaModel media) {
+        return media.isVideo() ? LANE_VIDEOS : LANE_FILES;
+    }
+
+    private static int[] getBusyLanes(@NonNull Map<Integer, int[]> busyLanesBySite, int siteId) {
+        int[] busyLanes = busyLanesBySite.get(siteId);
+        if (busyLanes == null) {
+            busyLanes = new int[2];
+            busyLanesBySite.put(siteId, busyLanes);
+        }
+        return busyLanes;
+    }
+
+    private static int getPriority(@NonNull MediaModel media, int postIdInEditor) {
+        if (media.getMarkedLocallyAsFeatured()) {
+            return PRIORITY_FEATURED_IMAGE;
+        } else if (media.getLocalPostId() != 0 && media.getLocalPostId() == postIdInEditor) {
+            return PRIORITY_POST_IN_EDITOR;
+        }
+        return PRIORITY_DEFAULT;
+    }
+
+    private static boolean containsUploadForPost(@NonNull Iterable<MediaModel> uploads, int postId) {
+        for (MediaModel media : uploads) {
+            if (media.getLocalPostId() == postId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addUploadsForPost(@NonNull List<MediaModel> mediaList, @NonNull Iterable<MediaModel> uploads,
+                                          int postId) {
+        for (MediaModel media : uploads) {
+            if (media.getLocalPostId() == postId) {
+                mediaList.add(media);
+            }
+        }
+    }
+
+    /**
+     * Two uploads with the same key are the same media file queued for the same post.
+     */
+    @NonNull
+    private static String getUploadKey(@NonNull MediaModel media) {
+        /*
+            This used to compare just siteId and filePath. It made sense since a media file is tied to a site and can
+            be referenced from multiple posts on that site. This approach tried to prevent wasting users' data.
+
+            The issue was that when a same image was added to content of two posts only a single MediaModel was
+            enqueued. However, MediaModel references only a single post (`localPostId`). When the upload finished
+            only the first post got updated with the url. The second post got uploaded to the server with a path to
+            local image. We decided to check whether the image belongs to the same post so we can be sure the local
+            path gets replaced with the url.
+
+            More info can be found here - https://github.com/wordpress-mobile/WordPress-Android/pull/10204.
+
+            We also need to check the `markedLocallyAsFeatured` flag is equal as we might lose it otherwise. If the
+            user adds an image into the post content and they set the same image as featured image, we need to enqueue
+            both uploads. Otherwise, we could lose the information what we need to update - the featured image or post
+            content.
+
+            Issue with a proper fix - https://github.com/wordpress-mobile/WordPress-Android/issues/10210
+         */
+        return media.getLocalSiteId() + ":" + media.getLocalPostId() + ":" + media.getMarkedLocallyAsFeatured()
+               + ":" + media.getFilePath();
+    }
+}
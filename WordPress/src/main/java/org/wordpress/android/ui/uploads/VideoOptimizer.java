@@ -37,7 +37,7 @@ public class VideoOptimizer implements org.m4m.IProgressListener {
     private float mLastProgress;
 
     public VideoOptimizer(@NonNull MediaModel media, @NonNull VideoOptimizationListener listener) {
-        mCacheDir = getContext().getCacheDir();
+        mCacheDir = VideoOptimizerBase.getOptimizedVideosDir(getContext());
         mListener = listener;
         mMedia = media;
         mInputPath = mMedia.getFilePath();
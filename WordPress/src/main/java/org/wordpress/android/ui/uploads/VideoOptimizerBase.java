@@ -3,6 +3,7 @@ package org.wordpress.android.ui.uploads;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.wordpress.android.WordPress;
 import org.wordpress.android.analytics.AnalyticsTracker;
@@ -22,6 +23,10 @@ import static org.wordpress.android.analytics.AnalyticsTracker.Stat.MEDIA_VIDEO_
 import static org.wordpress.android.analytics.AnalyticsTracker.Stat.MEDIA_VIDEO_OPTIMIZE_ERROR;
 
 public abstract class VideoOptimizerBase implements VideoOptimizerProvider {
+    // optimized videos are written to their own directory, so that a video which has already been optimized isn't
+    // optimized again when its upload is retried
+    private static final String OPTIMIZED_VIDEOS_DIR = "optimized_videos";
+
     protected final File mCacheDir;
     protected final MediaModel mMedia;
     protected final VideoOptimizationListener mListener;
@@ -33,7 +38,7 @@ public abstract class VideoOptimizerBase implements VideoOptimizerProvider {
     protected float mLastProgress;
 
     public VideoOptimizerBase(@NonNull MediaModel media, @NonNull VideoOptimizationListener listener) {
-        mCacheDir = getContext().getCacheDir();
+        mCacheDir = getOptimizedVideosDir(getContext());
         mListener = listener;
         mMedia = media;
         mInputPath = mMedia.getFilePath();
@@ -44,6 +49,21 @@ public abstract class VideoOptimizerBase implements VideoOptimizerProvider {
         return WordPress.getContext();
     }
 
+    @Nullable
+    static File getOptimizedVideosDir(@NonNull Context context) {
+        File cacheDir = context.getCacheDir();
+        return cacheDir != null ? new File(cacheDir, OPTIMIZED_VIDEOS_DIR) : null;
+    }
+
+    /*
+     * returns true if the passed file is the output of an earlier optimization
+     */
+    static boolean isOptimizedVideo(@NonNull Context context, @Nullable String filePath) {
+        File optimizedVideosDir = getOptimizedVideosDir(context);
+        return filePath != null && optimizedVideosDir != null
+               && optimizedVideosDir.equals(new File(filePath).getParentFile());
+    }
+
     protected boolean arePathsValidated() {
         if (mInputPath == null) {
             AppLog.w(AppLog.T.MEDIA, "VideoOptimizer > empty input path");
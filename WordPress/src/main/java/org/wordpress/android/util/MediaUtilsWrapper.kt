@@ -28,6 +28,8 @@ class MediaUtilsWrapper @Inject constructor(private val appContext: Context) {
     fun getOptimizedMedia(path: String, isVideo: Boolean): Uri? =
             WPMediaUtils.getOptimizedMedia(appContext, path, isVideo)
 
+    fun getImageOptimizationSettings(): String? = WPMediaUtils.getImageOptimizationSettings()
+
     fun fixOrientationIssue(path: String, isVideo: Boolean): Uri? =
             WPMediaUtils.fixOrientationIssue(appContext, path, isVideo)
 
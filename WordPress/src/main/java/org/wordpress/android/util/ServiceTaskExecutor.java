@@ -0,0 +1,278 @@
+package org.wordpress.android.util;
+
+import android.os.Process;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the work the Reader and notifications services do with their responses (parsing and storing
+ * them) on a small shared pool of threads rather than a new thread for each response.
+ *
+ * Tasks are submitted to a lane. Tasks on a lane which writes to a table run one at a time in the
+ * order they were submitted, so a burst of refreshes doesn't have several threads contending for the
+ * database writer, while tasks on different lanes (and on lanes which aren't serial) run alongside
+ * each other.
+ * Tasks which haven't started yet can be cancelled by the owner they were submitted for when it's going
+ * away, so it isn't told about them. A task which throws is sent to the crash reporter, since the
+ * exception would otherwise be lost, and its failure callback is called so its owner's listeners
+ * aren't left waiting for a result.
+ */
+public class ServiceTaskExecutor {
+    public enum Lane {
+        READER_POSTS(T.READER, true),
+        READER_COMMENTS(T.READER, true),
+        READER_TAGS(T.READER, true),
+        READER_BLOGS(T.READER, true),
+        NOTIFICATIONS(T.NOTIFS, false);
+
+        private final T mLogTag;
+        private final boolean mIsSerial;
+
+        Lane(T logTag, boolean isSerial) {
+            mLogTag = logTag;
+            mIsSerial = isSerial;
+        }
+    }
+
+    private static final int NUM_THREADS = 3;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 30;
+    // tasks which wait longer than this before they run are logged as a warning
+    private static final long SLOW_TASK_WAIT_MS = 1000;
+
+    private static ServiceTaskExecutor sInstance;
+    private static volatile ExceptionReporter sExceptionReporter;
+
+    public interface ExceptionReporter {
+        void report(@NonNull Throwable exception, @NonNull T tag);
+    }
+
+    private final Executor mExecutor;
+    private final Object mLock = new Object();
+    // tasks which have been submitted but haven't started yet
+    private final Set<ServiceTask> mQueuedTasks = new LinkedHashSet<>();
+    // tasks waiting for the task running on their serial lane to complete
+    private final Map<Lane, ArrayDeque<ServiceTask>> mWaitingTasks = new EnumMap<>(Lane.class);
+    private final Set<Lane> mBusyLanes = EnumSet.noneOf(Lane.class);
+
+    public static synchronized ServiceTaskExecutor getInstance() {
+        if (sInstance == null) {
+            sInstance = new ServiceTaskExecutor(createThreadPool());
+        }
+        return sInstance;
+    }
+
+    /*
+     * sets where the exceptions thrown by tasks are reported - this is the app's crash logging
+     */
+    public static void setExceptionReporter(@Nullable ExceptionReporter exceptionReporter) {
+        sExceptionReporter = exceptionReporter;
+    }
+
+    @VisibleForTesting
+    ServiceTaskExecutor(@NonNull Executor executor) {
+        mExecutor = executor;
+    }
+
+    private static Executor createThreadPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(NUM_THREADS, NUM_THREADS, THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ServiceThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public void execute(@Nullable Object owner, @NonNull Lane lane, @NonNull Runnable task) {
+        execute(owner, lane, task, null);
+    }
+
+    /*
+     * submits the passed task to the passed lane - the optional onFailed callback is called if the
+     * task throws
+     */
+    public void execute(@Nullable Object owner, @NonNull Lane lane, @NonNull Runnable task,
+                        @Nullable Runnable onFailed) {
+        ServiceTask serviceTask = new ServiceTask(owner, lane, task, onFailed);
+        synchronized (mLock) {
+            mQueuedTasks.add(serviceTask);
+            if (lane.mIsSerial && !mBusyLanes.add(lane)) {
+                ArrayDeque<ServiceTask> waitingTasks = mWaitingTasks.get(lane);
+                if (waitingTasks == null) {
+                    waitingTasks = new ArrayDeque<>();
+                    mWaitingTasks.put(lane, waitingTasks);
+                }
+                waitingTasks.add(serviceTask);
+                return;
+            }
+        }
+        mExecutor.execute(serviceTask);
+    }
+
+    /*
+     * cancels the tasks submitted for the passed owner which haven't started yet - tasks which are
+     * already running are left to complete since they may be in the middle of a transaction. The owner
+     * is going away, so the failure callbacks of the cancelled tasks aren't called
+     */
+    public void cancel(@NonNull Object owner) {
+        List<ServiceTask> cancelledTasks = new ArrayList<>();
+        synchronized (mLock) {
+            Iterator<ServiceTask> iterator = mQueuedTasks.iterator();
+            while (iterator.hasNext()) {
+                ServiceTask task = iterator.next();
+                if (task.mOwner == owner) {
+                    iterator.remove();
+                    cancelledTasks.add(task);
+                }
+            }
+        }
+        // cancelled tasks are skipped when their turn comes, which also moves their lane along
+        for (ServiceTask task : cancelledTasks) {
+            task.cancel(false);
+            AppLog.i(task.mLane.mLogTag, "service task > cancelled queued " + task.mLane + " task");
+        }
+    }
+
+    /*
+     * returns the number of tasks which have been submitted but haven't started yet
+     */
+    public int getQueueDepth() {
+        synchronized (mLock) {
+            return mQueuedTasks.size();
+        }
+    }
+
+    /*
+     * returns false if the passed task was cancelled before it could start
+     */
+    private boolean onTaskStarted(ServiceTask task) {
+        int queueDepth;
+        synchronized (mLock) {
+            if (!mQueuedTasks.remove(task)) {
+                return false;
+            }
+            queueDepth = mQueuedTasks.size();
+        }
+        long waitMs = task.mStartedAt - task.mSubmittedAt;
+        String msg = "service task > " + task.mLane + " task started after " + waitMs + "ms, "
+                     + queueDepth + " queued";
+        if (waitMs >= SLOW_TASK_WAIT_MS) {
+            AppLog.w(task.mLane.mLogTag, msg);
+        } else {
+            AppLog.d(task.mLane.mLogTag, msg);
+        }
+        return true;
+    }
+
+    private void onTaskFinished(ServiceTask task, boolean hasRun) {
+        if (hasRun) {
+            long runMs = SystemClock.elapsedRealtime() - task.mStartedAt;
+            AppLog.d(task.mLane.mLogTag, "service task > " + task.mLane + " task completed in " + runMs + "ms");
+        }
+        if (!task.mLane.mIsSerial) {
+            return;
+        }
+
+        ServiceTask nextTask;
+        synchronized (mLock) {
+            ArrayDeque<ServiceTask> waitingTasks = mWaitingTasks.get(task.mLane);
+            nextTask = waitingTasks != null ? waitingTasks.poll() : null;
+            if (nextTask == null) {
+                mBusyLanes.remove(task.mLane);
+            }
+        }
+        if (nextTask != null) {
+            mExecutor.execute(nextTask);
+        }
+    }
+
+    private class ServiceTask extends FutureTask<Void> {
+        private final Object mOwner;
+        private final Lane mLane;
+        private final Runnable mOnFailed;
+        private final long mSubmittedAt;
+        private long mStartedAt;
+
+        ServiceTask(@Nullable Object owner, @NonNull Lane lane, @NonNull Runnable task,
+                    @Nullable Runnable onFailed) {
+            super(task, null);
+            mOwner = owner;
+            mLane = lane;
+            mOnFailed = onFailed;
+            mSubmittedAt = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void run() {
+            mStartedAt = SystemClock.elapsedRealtime();
+            boolean hasRun = onTaskStarted(this);
+            try {
+                if (hasRun) {
+                    super.run();
+                }
+            } finally {
+                onTaskFinished(this, hasRun);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                get();
+            } catch (ExecutionException e) {
+                // FutureTask would otherwise swallow the exception, which a raw thread would have thrown,
+                // so it's reported as a crash - the owner is only told so its listeners don't wait for a
+                // result which won't come
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                AppLog.e(mLane.mLogTag, "service task > " + mLane + " task failed", cause);
+                ExceptionReporter exceptionReporter = sExceptionReporter;
+                if (exceptionReporter != null) {
+                    exceptionReporter.report(cause, mLane.mLogTag);
+                }
+                if (mOnFailed != null) {
+                    mOnFailed.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class ServiceThreadFactory implements ThreadFactory {
+        private final AtomicInteger mThreadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "service-task-" + mThreadNumber.getAndIncrement());
+        }
+    }
+}
@@ -62,18 +62,12 @@ public class WPMediaUtils {
         if (isVideo) {
             return null;
         }
-        if (!AppPrefs.isImageOptimize()) {
+        if (!isImageOptimizationActive()) {
             return null;
         }
 
-        int resizeDimension =
-                AppPrefs.getImageOptimizeMaxSize() > 1 ? AppPrefs.getImageOptimizeMaxSize() : Integer.MAX_VALUE;
+        int resizeDimension = getImageOptimizeResizeDimension();
         int quality = AppPrefs.getImageOptimizeQuality();
-        // do not optimize if original-size and 100% quality are set.
-        if (resizeDimension == Integer.MAX_VALUE && quality == 100) {
-            return null;
-        }
-
         String optimizedPath = ImageUtils.optimizeImage(context, path, resizeDimension, quality);
         if (optimizedPath == null) {
             AppLog.e(AppLog.T.EDITOR, "Optimized picture was null!");
@@ -85,6 +79,28 @@ public class WPMediaUtils {
         return null;
     }
 
+    /*
+     * returns the settings getOptimizedMedia() currently optimizes images with, or null when it doesn't
+     * optimize them - images optimized with the same settings are the same
+     */
+    @Nullable
+    public static String getImageOptimizationSettings() {
+        if (!isImageOptimizationActive()) {
+            return null;
+        }
+        return getImageOptimizeResizeDimension() + ":" + AppPrefs.getImageOptimizeQuality();
+    }
+
+    private static boolean isImageOptimizationActive() {
+        // do not optimize if original-size and 100% quality are set.
+        return AppPrefs.isImageOptimize()
+               && (getImageOptimizeResizeDimension() != Integer.MAX_VALUE || AppPrefs.getImageOptimizeQuality() != 100);
+    }
+
+    private static int getImageOptimizeResizeDimension() {
+        return AppPrefs.getImageOptimizeMaxSize() > 1 ? AppPrefs.getImageOptimizeMaxSize() : Integer.MAX_VALUE;
+    }
+
     public static Uri fixOrientationIssue(Context context, String path, boolean isVideo) {
         if (isVideo) {
             return null;
@@ -0,0 +1,73 @@
+package org.wordpress.android.datasets
+
+import android.database.Cursor
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.Mock
+import org.mockito.junit.MockitoJUnitRunner
+
+@RunWith(MockitoJUnitRunner::class)
+class CursorMapperTest {
+    @Mock lateinit var cursor: Cursor
+
+    @Test
+    fun `post column indexes are resolved when the mapper is created rather than per row`() {
+        val mapper = ReaderPostTable.PostMapper(cursor)
+
+        repeat(ROW_COUNT) { mapper.map() }
+
+        verify(cursor, times(1)).getColumnIndexOrThrow("post_id")
+        verify(cursor, times(1)).getColumnIndexOrThrow("author_blog_url")
+        verify(cursor, times(1)).getColumnIndex("text")
+    }
+
+    @Test
+    fun `post text is skipped when the column is not in the projection`() {
+        whenever(cursor.getColumnIndex("text")).thenReturn(-1)
+        val mapper = ReaderPostTable.PostMapper(cursor)
+
+        val post = mapper.map()
+
+        assertThat(post.text).isEmpty()
+        verify(cursor, never()).getString(-1)
+    }
+
+    @Test
+    fun `comment column indexes are resolved when the mapper is created rather than per row`() {
+        val mapper = ReaderCommentTable.CommentMapper(cursor)
+
+        repeat(ROW_COUNT) { mapper.map() }
+
+        verify(cursor, times(1)).getColumnIndexOrThrow("comment_id")
+        verify(cursor, times(1)).getColumnIndexOrThrow("page_number")
+    }
+
+    @Test
+    fun `blog column indexes are resolved when the mapper is created rather than per row`() {
+        val mapper = ReaderBlogTable.BlogMapper(cursor)
+
+        repeat(ROW_COUNT) { mapper.map() }
+
+        verify(cursor, times(1)).getColumnIndexOrThrow("blog_id")
+        verify(cursor, times(1)).getColumnIndexOrThrow("unseen_count")
+    }
+
+    @Test
+    fun `tag column indexes are resolved when the mapper is created rather than per row`() {
+        val mapper = ReaderTagTable.TagMapper(cursor)
+
+        repeat(ROW_COUNT) { mapper.map() }
+
+        verify(cursor, times(1)).getColumnIndexOrThrow("tag_slug")
+        verify(cursor, times(1)).getColumnIndexOrThrow("tag_type")
+    }
+
+    private companion object {
+        const val ROW_COUNT = 3
+    }
+}
@@ -0,0 +1,93 @@
+package org.wordpress.android.datasets
+
+import android.os.Build.VERSION_CODES
+import org.assertj.core.api.Assertions.assertThat
+import org.json.JSONObject
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.TestApplication
+import org.wordpress.android.WordPress
+import org.wordpress.android.WordPressDB
+import org.wordpress.android.models.Note
+import org.wordpress.android.util.DateTimeUtils
+
+@Config(application = TestApplication::class, sdk = [VERSION_CODES.N])
+@RunWith(RobolectricTestRunner::class)
+class NotificationsTableTest {
+    @Before
+    fun setUp() {
+        WordPress.wpDB = WordPressDB(RuntimeEnvironment.application)
+    }
+
+    @After
+    fun tearDown() {
+        WordPress.wpDB.database.close()
+        WordPress.wpDB = null
+    }
+
+    @Test
+    fun `stored notes which are no longer returned are removed`() {
+        NotificationsTable.saveNotes(listOf(createNote("1", 100), createNote("2", 200), createNote("3", 300)), true)
+
+        NotificationsTable.reconcileNotes(listOf(createNote("1", 100), createNote("3", 300)))
+
+        assertThat(storedNoteIds()).containsExactly("3", "1")
+    }
+
+    @Test
+    fun `stored notes newer than the returned ones are kept`() {
+        NotificationsTable.saveNotes(listOf(createNote("1", 100), createNote("2", 200)), true)
+
+        NotificationsTable.reconcileNotes(listOf(createNote("1", 100)))
+
+        assertThat(storedNoteIds()).containsExactly("2", "1")
+    }
+
+    @Test
+    fun `the read state of stored notes is updated when it changed`() {
+        NotificationsTable.saveNotes(listOf(createNote("1", 100, isUnread = true), createNote("2", 200)), true)
+
+        NotificationsTable.reconcileNotes(listOf(createNote("1", 100, isUnread = false), createNote("2", 200)))
+
+        assertThat(NotificationsTable.getLatestNotes().map { it.id to it.isUnread })
+                .containsExactly("2" to true, "1" to false)
+        assertThat(NotificationsTable.getNoteById("1")?.isUnread).isFalse()
+    }
+
+    @Test
+    fun `notes following the stored ones are added to them`() {
+        NotificationsTable.saveNotes(listOf(createNote("1", 100)), true)
+
+        val isAdded = NotificationsTable.saveRefreshedNotes(listOf(createNote("2", 200)), true)
+
+        assertThat(isAdded).isTrue()
+        assertThat(storedNoteIds()).containsExactly("2", "1")
+    }
+
+    @Test
+    fun `a full page of newer notes replaces the stored ones since there may be a gap before them`() {
+        NotificationsTable.saveNotes(listOf(createNote("1", 100)), true)
+        val newNotes = (0 until NotificationsTable.NOTES_TO_RETRIEVE).map { createNote("new$it", 1000L + it) }
+
+        val isAdded = NotificationsTable.saveRefreshedNotes(newNotes, true)
+
+        assertThat(isAdded).isFalse()
+        assertThat(storedNoteIds()).hasSize(NotificationsTable.NOTES_TO_RETRIEVE).doesNotContain("1")
+    }
+
+    private fun storedNoteIds() = NotificationsTable.getLatestNotes().map { it.id }
+
+    private fun createNote(id: String, timestamp: Long, isUnread: Boolean = true): Note {
+        val json = JSONObject()
+                .put("id", id)
+                .put("type", Note.NOTE_COMMENT_TYPE)
+                .put("timestamp", DateTimeUtils.iso8601FromTimestamp(timestamp))
+                .put("read", if (isUnread) 0 else 1)
+        return Note(id, json)
+    }
+}
@@ -0,0 +1,115 @@
+package org.wordpress.android.datasets
+
+import android.os.Build.VERSION_CODES
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.TestApplication
+import org.wordpress.android.models.ReaderComment
+import org.wordpress.android.models.ReaderCommentList
+
+private const val BLOG_ID = 1L
+private const val POST_ID = 2L
+
+@Config(application = TestApplication::class, sdk = [VERSION_CODES.N])
+@RunWith(RobolectricTestRunner::class)
+class ReaderCommentTableTest {
+    @Before
+    fun setUp() {
+        ReaderDatabase.setDatabase(ReaderDatabase(RuntimeEnvironment.application))
+    }
+
+    @After
+    fun tearDown() {
+        ReaderDatabase.getDatabase().close()
+        ReaderDatabase.setDatabase(null)
+    }
+
+    @Test
+    fun `a comment deleted on the server is removed when a middle page is refreshed`() {
+        ReaderCommentTable.addOrUpdateComments(
+                listOf(
+                        createComment(1, page = 1),
+                        createComment(2, page = 2),
+                        createComment(3, page = 2),
+                        createComment(4, page = 3)
+                ).toCommentList()
+        )
+
+        // pages 1 to 3 are requested again and comment 2 is no longer returned - once page 3 has been
+        // requested, the comments missing from the pages before it are gone
+        ReaderCommentTable.removeCommentsMissingFromPages(BLOG_ID, POST_ID, 1, 2, setOf(1L, 3L, 4L))
+
+        assertThat(storedCommentIds()).containsExactly(1L, 3L, 4L)
+    }
+
+    @Test
+    fun `a comment pushed onto the next page by a new reply is kept`() {
+        ReaderCommentTable.addOrUpdateComments(
+                listOf(
+                        createComment(1, page = 1),
+                        createComment(2, page = 1),
+                        createComment(3, page = 2)
+                ).toCommentList()
+        )
+
+        // page 1 is requested again without comment 2, which hasn't been looked for on page 2 yet
+        ReaderCommentTable.removeCommentsMissingFromPages(BLOG_ID, POST_ID, 1, 0, setOf(1L))
+        assertThat(storedCommentIds()).containsExactly(1L, 2L, 3L)
+
+        // page 2 is requested and returns comment 2
+        ReaderCommentTable.removeCommentsMissingFromPages(BLOG_ID, POST_ID, 1, 1, setOf(1L, 2L, 3L))
+        assertThat(storedCommentIds()).containsExactly(1L, 2L, 3L)
+    }
+
+    @Test
+    fun `comments on the pages after the last page are removed`() {
+        ReaderCommentTable.addOrUpdateComments(
+                listOf(
+                        createComment(1, page = 1),
+                        createComment(2, page = 2),
+                        createComment(-3, page = 2)
+                ).toCommentList()
+        )
+
+        ReaderCommentTable.removeCommentsMissingFromPages(BLOG_ID, POST_ID, 1, Int.MAX_VALUE, setOf(1L))
+
+        // comments which are still being submitted have a negative id and are kept
+        assertThat(storedCommentIds()).containsExactly(1L, -3L)
+    }
+
+    @Test
+    fun `a page is the same as the stored one when its comments are unchanged`() {
+        val comments = listOf(createComment(1, page = 1), createComment(2, page = 1)).toCommentList()
+        ReaderCommentTable.addOrUpdateComments(comments)
+
+        assertThat(ReaderCommentTable.getCommentsOnPage(BLOG_ID, POST_ID, 1).isSameList(comments)).isTrue()
+
+        val changed = listOf(createComment(1, page = 1), createComment(3, page = 1)).toCommentList()
+        assertThat(ReaderCommentTable.getCommentsOnPage(BLOG_ID, POST_ID, 1).isSameList(changed)).isFalse()
+    }
+
+    private fun storedCommentIds() = listOf(1L, 2L, 3L, 4L, -3L).filter {
+        ReaderCommentTable.commentExists(BLOG_ID, POST_ID, it)
+    }
+
+    private fun createComment(commentId: Long, page: Int) = ReaderComment().apply {
+        blogId = BLOG_ID
+        postId = POST_ID
+        this.commentId = commentId
+        pageNumber = page
+        authorName = ""
+        authorAvatar = ""
+        authorUrl = ""
+        status = "approved"
+        text = "comment $commentId"
+        published = ""
+    }
+
+    private fun List<ReaderComment>.toCommentList() = ReaderCommentList().also { it.addAll(this) }
+}
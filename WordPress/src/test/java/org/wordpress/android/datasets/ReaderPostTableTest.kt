@@ -0,0 +1,155 @@
+package org.wordpress.android.datasets
+
+import android.os.Build.VERSION_CODES
+import com.nhaarman.mockitokotlin2.mock
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.TestApplication
+import org.wordpress.android.datasets.ReaderPostTable.StreamPosition
+import org.wordpress.android.models.ReaderPost
+import org.wordpress.android.models.ReaderPostList
+import org.wordpress.android.models.ReaderTag
+import org.wordpress.android.models.ReaderTagType
+import org.wordpress.android.ui.reader.ReaderRenderedHtmlCache
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostIdList
+
+private const val BLOG_ID = 1L
+
+@Config(application = TestApplication::class, sdk = [VERSION_CODES.N])
+@RunWith(RobolectricTestRunner::class)
+class ReaderPostTableTest {
+    private val likedTag = ReaderTag("liked", "Liked", "Liked", ReaderTag.LIKED_PATH, ReaderTagType.DEFAULT)
+    private val followedTag = ReaderTag(
+            "following",
+            "Following",
+            ReaderTag.TAG_TITLE_FOLLOWED_SITES,
+            ReaderTag.FOLLOWING_PATH,
+            ReaderTagType.DEFAULT
+    )
+
+    private val bookmarkTag = ReaderTag("", "Saved", "Saved", "", ReaderTagType.BOOKMARKED)
+
+    @Before
+    fun setUp() {
+        ReaderDatabase.setDatabase(ReaderDatabase(RuntimeEnvironment.application))
+        ReaderRenderedHtmlCache.setInstance(mock())
+    }
+
+    @After
+    fun tearDown() {
+        ReaderDatabase.getDatabase().close()
+        ReaderDatabase.setDatabase(null)
+        ReaderRenderedHtmlCache.setInstance(null)
+    }
+
+    @Test
+    fun `liked stream pages stay in order when a post is saved from another stream between loads`() {
+        val posts = (1..4).map { createPost(postId = it.toLong(), dateLiked = "2020-01-0${5 - it}T00:00:00+00:00") }
+        ReaderPostTable.addOrUpdatePosts(likedTag, posts.toPostList())
+
+        val firstPage = ReaderPostTable.getPostsWithTag(likedTag, null, null, 2, true)
+        assertThat(firstPage.map { it.postId }).containsExactly(1L, 2L)
+
+        // only the likes endpoint returns the date a post was liked
+        ReaderPostTable.addOrUpdatePosts(followedTag, listOf(createPost(postId = 2, dateLiked = "")).toPostList())
+
+        val reloadedFirstPage = ReaderPostTable.getPostsWithTag(
+                likedTag,
+                null,
+                StreamPosition.forTag(likedTag, firstPage.last()),
+                0,
+                true
+        )
+        val nextPage = ReaderPostTable.getPostsWithTag(
+                likedTag,
+                StreamPosition.forTag(likedTag, reloadedFirstPage.last()),
+                null,
+                2,
+                true
+        )
+
+        assertThat(reloadedFirstPage.map { it.postId }).containsExactly(1L, 2L)
+        assertThat(nextPage.map { it.postId }).containsExactly(3L, 4L)
+    }
+
+    @Test
+    fun `saving a bookmarked post from another stream keeps it bookmarked`() {
+        bookmarkPost(postId = 1)
+
+        ReaderPostTable.addOrUpdatePosts(followedTag, listOf(createPost(postId = 1, dateLiked = "")).toPostList())
+
+        assertThat(ReaderPostTable.getBlogPost(BLOG_ID, 1, true)!!.isBookmarked).isTrue()
+    }
+
+    @Test
+    fun `saving an unbookmarked post from another stream doesn't bookmark it again`() {
+        bookmarkPost(postId = 1)
+        // the bookmark tag row is kept after an unbookmark so the user can undo
+        ReaderPostTable.setBookmarkFlag(BLOG_ID, 1, false)
+
+        ReaderPostTable.addOrUpdatePosts(followedTag, listOf(createPost(postId = 1, dateLiked = "")).toPostList())
+
+        assertThat(ReaderPostTable.getBlogPost(BLOG_ID, 1, true)!!.isBookmarked).isFalse()
+    }
+
+    @Test
+    fun `each stream keeps the railcar its posts were saved with`() {
+        val discoverTag = ReaderTag.createDiscoverPostCardsTag()
+        ReaderPostTable.addOrUpdatePosts(
+                discoverTag,
+                listOf(createPost(postId = 1, dateLiked = "").apply { railcarJson = "{\"rec\":\"discover\"}" })
+                        .toPostList()
+        )
+        ReaderPostTable.addOrUpdatePosts(
+                followedTag,
+                listOf(createPost(postId = 1, dateLiked = "").apply { railcarJson = "{\"rec\":\"following\"}" })
+                        .toPostList()
+        )
+
+        val ids = ReaderBlogIdPostIdList().apply { add(ReaderBlogIdPostId(BLOG_ID, 1)) }
+        assertThat(ReaderPostTable.getBlogPosts(ids, discoverTag, true).single().railcarJson)
+                .isEqualTo("{\"rec\":\"discover\"}")
+        assertThat(ReaderPostTable.getPostsWithTag(followedTag, 1, true).single().railcarJson)
+                .isEqualTo("{\"rec\":\"following\"}")
+    }
+
+    @Test
+    fun `upgrading indexes the images of posts stored before images were indexed`() {
+        val post = createPost(postId = 1, dateLiked = "").apply {
+            text = "<p><img src=\"https://example.com/image.jpg\" width=\"800\" height=\"600\"></p>"
+        }
+        ReaderPostTable.addOrUpdatePosts(followedTag, listOf(post).toPostList())
+        ReaderDatabase.getWritableDb().execSQL("UPDATE tbl_posts SET images_json=NULL")
+
+        ReaderPostTable.addImagesJsonColumn(ReaderDatabase.getWritableDb())
+
+        val storedPost = ReaderPostTable.getBlogPost(BLOG_ID, 1, true)!!
+        assertThat(storedPost.hasText()).isFalse()
+        assertThat(storedPost.imagesJson).isNotEmpty()
+        assertThat(storedPost.imageIndex.getImageList(false, 1, 0)).hasSize(1)
+    }
+
+    private fun bookmarkPost(postId: Long) {
+        ReaderPostTable.addOrUpdatePosts(bookmarkTag, listOf(createPost(postId, dateLiked = "")).toPostList())
+        ReaderPostTable.setBookmarkFlag(BLOG_ID, postId, true)
+    }
+
+    private fun createPost(postId: Long, dateLiked: String) = ReaderPost().apply {
+        blogId = BLOG_ID
+        this.postId = postId
+        pseudoId = "pseudo-$postId"
+        datePublished = "2020-01-01T00:00:00+00:00"
+        this.dateLiked = dateLiked
+        isLikedByCurrentUser = true
+        isFollowedByCurrentUser = true
+    }
+
+    private fun List<ReaderPost>.toPostList() = ReaderPostList().also { it.addAll(this) }
+}
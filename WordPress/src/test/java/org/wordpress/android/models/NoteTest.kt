@@ -0,0 +1,75 @@
+package org.wordpress.android.models
+
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.verifyZeroInteractions
+import com.nhaarman.mockitokotlin2.whenever
+import org.assertj.core.api.Assertions.assertThat
+import org.json.JSONObject
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.Mock
+import org.mockito.junit.MockitoJUnitRunner
+
+@RunWith(MockitoJUnitRunner::class)
+class NoteTest {
+    @Mock lateinit var jsonLoader: Note.JsonLoader
+
+    @Test
+    fun `list fields are returned without loading the note json`() {
+        val note = Note(NOTE_ID, createListFields(), jsonLoader)
+
+        assertThat(note.type).isEqualTo(Note.NOTE_MATCHER_TYPE)
+        assertThat(note.isCommentType).isTrue()
+        assertThat(note.isUnread).isTrue()
+        assertThat(note.timestamp).isEqualTo(1234L)
+        assertThat(note.iconURL).isEqualTo("https://example.com/avatar.png")
+        assertThat(note.commentSubject).isEqualTo("comment")
+        assertThat(note.siteId).isEqualTo(1)
+        assertThat(note.postId).isEqualTo(2)
+        assertThat(note.commentId).isEqualTo(3L)
+
+        verifyZeroInteractions(jsonLoader)
+    }
+
+    @Test
+    fun `note json is loaded once when it's needed`() {
+        val json = mock<JSONObject>()
+        whenever(jsonLoader.loadJson(NOTE_ID)).thenReturn(json)
+        val note = Note(NOTE_ID, createListFields(), jsonLoader)
+
+        assertThat(note.json).isSameAs(json)
+        assertThat(note.json).isSameAs(json)
+
+        verify(jsonLoader, times(1)).loadJson(NOTE_ID)
+    }
+
+    @Test
+    fun `marking a note as read updates its list fields`() {
+        whenever(jsonLoader.loadJson(NOTE_ID)).thenReturn(mock())
+        val note = Note(NOTE_ID, createListFields(), jsonLoader)
+
+        note.setRead()
+
+        assertThat(note.isUnread).isFalse()
+    }
+
+    private fun createListFields() = Note.ListFields().apply {
+        type = Note.NOTE_MATCHER_TYPE
+        timestamp = 1234L
+        isUnread = true
+        commentSubject = "comment"
+        commentSubjectNoticon = ""
+        iconUrl = "https://example.com/avatar.png"
+        noticon = ""
+        siteId = 1
+        postId = 2
+        commentId = 3L
+        commentStatus = ""
+    }
+
+    companion object {
+        private const val NOTE_ID = "12345"
+    }
+}
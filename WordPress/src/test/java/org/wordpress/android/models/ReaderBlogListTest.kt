@@ -0,0 +1,51 @@
+package org.wordpress.android.models
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class ReaderBlogListTest {
+    @Test
+    fun `finds the blogs which aren't in another list`() {
+        val localBlogs = createList(createBlog(blogId = 1), createBlog(blogId = 2))
+        val serverBlogs = createList(createBlog(blogId = 2), createBlog(blogId = 3))
+
+        assertThat(serverBlogs.getBlogsNotIn(localBlogs).map { it.blogId }).containsExactly(3L)
+        assertThat(localBlogs.getBlogsNotIn(serverBlogs).map { it.blogId }).containsExactly(1L)
+    }
+
+    @Test
+    fun `finds the blogs which changed from another list`() {
+        val localBlogs = createList(createBlog(blogId = 1), createBlog(blogId = 2), createBlog(blogId = 3))
+        val serverBlogs = createList(
+                createBlog(blogId = 1),
+                createBlog(blogId = 2, name = "renamed"),
+                createBlog(blogId = 4)
+        )
+
+        val changedBlogs = serverBlogs.getBlogsChangedFrom(localBlogs)
+
+        assertThat(changedBlogs.map { it.blogId }).containsExactly(2L)
+        assertThat(changedBlogs[0].name).isEqualTo("renamed")
+    }
+
+    @Test
+    fun `compares lists regardless of their order`() {
+        val blogs = createList(createBlog(blogId = 1), createBlog(blogId = 2))
+        val reordered = createList(createBlog(blogId = 2), createBlog(blogId = 1))
+        val changed = createList(createBlog(blogId = 2), createBlog(blogId = 1, name = "renamed"))
+
+        assertThat(blogs.isSameList(reordered)).isTrue()
+        assertThat(blogs.isSameList(changed)).isFalse()
+        assertThat(blogs.hasSameBlogs(changed)).isTrue()
+        assertThat(blogs.hasSameBlogs(createList(createBlog(blogId = 1), createBlog(blogId = 3)))).isFalse()
+    }
+
+    private fun createList(vararg blogs: ReaderBlog) = ReaderBlogList().apply { addAll(blogs) }
+
+    private fun createBlog(blogId: Long, name: String = "blog $blogId") = ReaderBlog().apply {
+        this.blogId = blogId
+        this.name = name
+        url = "https://blog$blogId.example.com"
+        isFollowing = true
+    }
+}
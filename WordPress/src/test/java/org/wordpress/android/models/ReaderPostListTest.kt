@@ -0,0 +1,54 @@
+package org.wordpress.android.models
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.ui.reader.models.ReaderBlogIdPostId
+
+class ReaderPostListTest {
+    @Test
+    fun `finds posts by their blog and post ids`() {
+        val posts = createList(createPost(blogId = 1, postId = 10), createPost(blogId = 2, postId = 20))
+
+        assertThat(posts.indexOfIds(ReaderBlogIdPostId(2, 20))).isEqualTo(1)
+        assertThat(posts.indexOfIds(ReaderBlogIdPostId(2, 10))).isEqualTo(-1)
+        assertThat(posts.indexOfPost(createPost(blogId = 1, postId = 10))).isEqualTo(0)
+    }
+
+    @Test
+    fun `finds external posts by their feed id`() {
+        val posts = createList(createPost(blogId = 1, feedId = 5, postId = 10))
+
+        val externalPost = createPost(blogId = 0, feedId = 5, postId = 10).apply { isExternal = true }
+
+        assertThat(posts.indexOfPost(externalPost)).isEqualTo(0)
+    }
+
+    @Test
+    fun `returns the first of several posts with the same ids`() {
+        val posts = createList(createPost(blogId = 1, postId = 10), createPost(blogId = 1, postId = 10))
+
+        assertThat(posts.indexOfIds(ReaderBlogIdPostId(1, 10))).isEqualTo(0)
+    }
+
+    @Test
+    fun `index is updated when the list is modified`() {
+        val posts = createList(createPost(blogId = 1, postId = 10), createPost(blogId = 2, postId = 20))
+        assertThat(posts.indexOfIds(ReaderBlogIdPostId(2, 20))).isEqualTo(1)
+
+        posts.removeAt(0)
+        posts.add(createPost(blogId = 3, postId = 30))
+        posts[1] = createPost(blogId = 4, postId = 40)
+
+        assertThat(posts.indexOfIds(ReaderBlogIdPostId(2, 20))).isEqualTo(0)
+        assertThat(posts.indexOfIds(ReaderBlogIdPostId(3, 30))).isEqualTo(-1)
+        assertThat(posts.indexOfIds(ReaderBlogIdPostId(4, 40))).isEqualTo(1)
+    }
+
+    private fun createList(vararg posts: ReaderPost) = ReaderPostList().apply { addAll(posts) }
+
+    private fun createPost(blogId: Long, postId: Long, feedId: Long = 0) = ReaderPost().apply {
+        this.blogId = blogId
+        this.postId = postId
+        this.feedId = feedId
+    }
+}
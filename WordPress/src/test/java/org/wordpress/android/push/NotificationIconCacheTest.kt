@@ -0,0 +1,94 @@
+package org.wordpress.android.push
+
+import android.graphics.Bitmap
+import android.os.Build.VERSION_CODES
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.TestApplication
+import java.io.File
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+private const val ICON_URL = "https://example.com/avatar.png"
+
+@Config(application = TestApplication::class, sdk = [VERSION_CODES.N])
+@RunWith(RobolectricTestRunner::class)
+class NotificationIconCacheTest {
+    private val context = RuntimeEnvironment.application
+    private val loadCount = AtomicInteger()
+    private val releaseLoader = CountDownLatch(1)
+
+    @After
+    fun tearDown() {
+        releaseLoader.countDown()
+        File(context.cacheDir, NotificationIconCache.DISK_CACHE_DIR).deleteRecursively()
+    }
+
+    @Test
+    fun `concurrent requests for the same icon share one download`() {
+        val cache = NotificationIconCache(context, blockingLoader(), 5000)
+        val icons = arrayOfNulls<Bitmap>(2)
+
+        val first = thread { icons[0] = cache.getLargeIcon(ICON_URL, false) }
+        waitUntil { loadCount.get() == 1 }
+        val second = thread { icons[1] = cache.getLargeIcon(ICON_URL, false) }
+        waitUntil { second.state == Thread.State.TIMED_WAITING }
+
+        releaseLoader.countDown()
+        first.join()
+        second.join()
+
+        assertThat(loadCount.get()).isEqualTo(1)
+        assertThat(icons[0]).isNotNull
+        assertThat(icons[1]).isSameAs(icons[0])
+    }
+
+    @Test
+    fun `a slow download times out and is cached once it completes`() {
+        val cache = NotificationIconCache(context, blockingLoader(), 100)
+
+        assertThat(cache.getLargeIcon(ICON_URL, false)).isNull()
+
+        releaseLoader.countDown()
+        waitUntil { iconFiles().isNotEmpty() }
+
+        assertThat(cache.getLargeIcon(ICON_URL, false)).isNotNull
+        assertThat(loadCount.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun `the disk cache keeps the most recent icons`() {
+        releaseLoader.countDown()
+        val cache = NotificationIconCache(context, blockingLoader(), 5000)
+
+        for (i in 0..NotificationIconCache.MAX_DISK_FILES) {
+            assertThat(cache.getLargeIcon("$ICON_URL?i=$i", false)).isNotNull
+        }
+
+        assertThat(iconFiles()).hasSize(NotificationIconCache.MAX_DISK_FILES)
+    }
+
+    private fun blockingLoader(): (String, Boolean) -> Bitmap? = { _, _ ->
+        loadCount.incrementAndGet()
+        releaseLoader.await(5, TimeUnit.SECONDS)
+        Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888)
+    }
+
+    private fun iconFiles() = File(context.cacheDir, NotificationIconCache.DISK_CACHE_DIR).listFiles()?.toList()
+            ?: emptyList()
+
+    private fun waitUntil(condition: () -> Boolean) {
+        val deadline = System.currentTimeMillis() + 5000
+        while (!condition()) {
+            check(System.currentTimeMillis() < deadline) { "timed out waiting for the condition" }
+            Thread.sleep(10)
+        }
+    }
+}
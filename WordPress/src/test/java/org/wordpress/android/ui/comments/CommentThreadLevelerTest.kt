@@ -0,0 +1,93 @@
+package org.wordpress.android.ui.comments
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.ui.comments.CommentThreadLeveler.CommentAccessor
+
+class CommentThreadLevelerTest {
+    private class TestComment(val id: Long, val parentId: Long, var level: Int = -1)
+
+    private val accessor = object : CommentAccessor<TestComment> {
+        override fun getCommentId(comment: TestComment) = comment.id
+        override fun getParentId(comment: TestComment) = comment.parentId
+        override fun setLevel(comment: TestComment, level: Int) {
+            comment.level = level
+        }
+    }
+
+    @Test
+    fun `replies are placed below their parents in list order`() {
+        val comments = listOf(
+                TestComment(1, 0),
+                TestComment(2, 0),
+                TestComment(3, 1),
+                TestComment(4, 2),
+                TestComment(5, 3),
+                TestComment(6, 1)
+        )
+
+        val result = CommentThreadLeveler(comments, accessor).createLevelList()
+
+        assertThat(result.map { it.id }).containsExactly(1L, 3L, 5L, 6L, 2L, 4L)
+        assertThat(result.map { it.level }).containsExactly(0, 1, 2, 1, 0, 1)
+    }
+
+    @Test
+    fun `orphans and their replies are added after the threads`() {
+        val comments = listOf(
+                TestComment(2, 99),
+                TestComment(3, 2),
+                TestComment(1, 0)
+        )
+
+        val result = CommentThreadLeveler(comments, accessor).createLevelList()
+
+        assertThat(result.map { it.id }).containsExactly(1L, 2L, 3L)
+        assertThat(result.map { it.level }).containsExactly(0, 1, 2)
+    }
+
+    @Test
+    fun `replies to comments on other pages continue their threads before the page's own threads`() {
+        val comments = listOf(
+                TestComment(4, 0),
+                TestComment(5, 2),
+                TestComment(6, 5),
+                TestComment(7, 98)
+        )
+
+        val result = CommentThreadLeveler(comments, accessor).createLevelList(mapOf(2L to 1))
+
+        assertThat(result.map { it.id }).containsExactly(5L, 6L, 4L, 7L)
+        assertThat(result.map { it.level }).containsExactly(2, 3, 0, 1)
+    }
+
+    @Test
+    fun `deep threads are leveled without recursion`() {
+        val depth = 10_000
+        val comments = (1..depth).map { TestComment(it.toLong(), (it - 1).toLong()) }.reversed()
+
+        val result = CommentThreadLeveler(comments, accessor).createLevelList()
+
+        assertThat(result).hasSize(depth)
+        assertThat(result.last().level).isEqualTo(depth - 1)
+    }
+
+    @Test
+    fun `comments replying to each other in a cycle are skipped`() {
+        val comments = listOf(TestComment(1, 0), TestComment(2, 3), TestComment(3, 2))
+
+        val result = CommentThreadLeveler(comments, accessor).createLevelList()
+
+        assertThat(result.map { it.id }).containsExactly(1L)
+    }
+
+    @Test
+    fun `children are returned for a comment id`() {
+        val comments = listOf(TestComment(1, 0), TestComment(2, 1), TestComment(3, 1), TestComment(4, 2))
+
+        val leveler = CommentThreadLeveler(comments, accessor)
+
+        assertThat(leveler.getChildren(1).map { it.id }).containsExactly(2L, 3L)
+        assertThat(leveler.getChildren(4)).isEmpty()
+    }
+}
@@ -14,6 +14,7 @@ import org.junit.runner.RunWith
 import org.mockito.Mockito.inOrder
 import org.mockito.junit.MockitoJUnitRunner
 import org.wordpress.android.BaseUnitTest
+import org.wordpress.android.TEST_DISPATCHER
 import org.wordpress.android.fluxc.model.MediaModel
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState.QUEUED
 import org.wordpress.android.fluxc.model.SiteModel
@@ -21,6 +22,7 @@ import org.wordpress.android.test
 import org.wordpress.android.ui.posts.editor.media.CopyMediaToAppStorageUseCase.CopyMediaResult
 import org.wordpress.android.ui.posts.editor.media.GetMediaModelUseCase.CreateMediaModelsResult
 import org.wordpress.android.ui.posts.editor.media.OptimizeMediaUseCase.OptimizeMediaResult
+import org.wordpress.android.util.MediaUtilsWrapper
 
 @RunWith(MockitoJUnitRunner::class)
 @UseExperimental(InternalCoroutinesApi::class)
@@ -261,9 +263,95 @@ class AddLocalMediaToPostUseCaseTest : BaseUnitTest() {
         inOrder.verify(uploadMediaUseCase).saveQueuedPostAndStartUpload(any(), any())
     }
 
+    @Test
+    fun `media uploaded to the site before are reused and added in the order they were picked`() = test {
+        // Arrange
+        val localUris = listOf<Uri>(mock(), mock(), mock())
+        val uploadedMedia = createUploadedMedia()
+        val newMediaModels = listOf<MediaModel>(mock(), mock())
+        val optimizeMediaUseCase = createOptimizeMediaUseCase(createOptimizeMediaResult(uris = localUris.drop(1)))
+        val getMediaModelUseCase = createGetMediaModelUseCase(
+                CreateMediaModelsResult(newMediaModels, loadingSomeMediaFailed = false),
+                uploadedMedia = uploadedMedia
+        )
+        val appendMediaToEditorUseCase = mock<AppendMediaToEditorUseCase>()
+        val uploadMediaUseCase = mock<UploadMediaUseCase>()
+        val editorMediaListener = mock<EditorMediaListener>()
+
+        // Act
+        createAddLocalMediaToPostUseCase(
+                copyMediaToAppStorageUseCase = createCopyMediaToAppStorageUseCase(
+                        createCopyMediaResult(uris = localUris)
+                ),
+                optimizeMediaUseCase = optimizeMediaUseCase,
+                getMediaModelUseCase = getMediaModelUseCase,
+                appendMediaToEditorUseCase = appendMediaToEditorUseCase,
+                uploadMediaUseCase = uploadMediaUseCase,
+                mediaFingerprintIndex = createMediaFingerprintIndex(),
+                mediaUtilsWrapper = createMediaUtilsWrapper(localUris)
+        ).addNewMediaToEditorAsync(
+                localUris,
+                SITE_MODEL,
+                FRESHLY_TAKEN,
+                editorMediaListener,
+                reuseUploadedMedia = true
+        )
+
+        // Assert
+        verify(optimizeMediaUseCase).optimizeMediaIfSupportedAsync(any(), any(), eq(localUris.drop(1)), any())
+        verify(appendMediaToEditorUseCase).addMediaToEditor(any(), eq(listOf(uploadedMedia) + newMediaModels))
+        verify(uploadMediaUseCase).saveQueuedPostAndStartUpload(any(), eq(newMediaModels))
+        verify(editorMediaListener).onMediaModelsCreatedFromOptimizedUris(
+                eq(mapOf(localUris[0] to uploadedMedia, localUris[1] to newMediaModels[0],
+                        localUris[2] to newMediaModels[1]))
+        )
+    }
+
+    @Test
+    fun `media uploaded to the site before are added first when some new media fail`() = test {
+        // Arrange
+        val localUris = listOf<Uri>(mock(), mock(), mock())
+        val uploadedMedia = createUploadedMedia()
+        val newMediaModels = listOf<MediaModel>(mock())
+        val getMediaModelUseCase = createGetMediaModelUseCase(
+                CreateMediaModelsResult(newMediaModels, loadingSomeMediaFailed = true),
+                uploadedMedia = uploadedMedia
+        )
+        val appendMediaToEditorUseCase = mock<AppendMediaToEditorUseCase>()
+        val uploadMediaUseCase = mock<UploadMediaUseCase>()
+        val editorMediaListener = mock<EditorMediaListener>()
+
+        // Act
+        val result = createAddLocalMediaToPostUseCase(
+                copyMediaToAppStorageUseCase = createCopyMediaToAppStorageUseCase(
+                        createCopyMediaResult(uris = localUris)
+                ),
+                optimizeMediaUseCase = createOptimizeMediaUseCase(createOptimizeMediaResult(uris = localUris.drop(1))),
+                getMediaModelUseCase = getMediaModelUseCase,
+                appendMediaToEditorUseCase = appendMediaToEditorUseCase,
+                uploadMediaUseCase = uploadMediaUseCase,
+                mediaFingerprintIndex = createMediaFingerprintIndex(),
+                mediaUtilsWrapper = createMediaUtilsWrapper(localUris)
+        ).addNewMediaToEditorAsync(
+                localUris,
+                SITE_MODEL,
+                FRESHLY_TAKEN,
+                editorMediaListener,
+                reuseUploadedMedia = true
+        )
+
+        // Assert
+        assertThat(result).isFalse()
+        verify(appendMediaToEditorUseCase).addMediaToEditor(any(), eq(listOf(uploadedMedia) + newMediaModels))
+        verify(uploadMediaUseCase).saveQueuedPostAndStartUpload(any(), eq(newMediaModels))
+        // the new media which was created can't be matched to its file, so only the reused media is passed on
+        verify(editorMediaListener).onMediaModelsCreatedFromOptimizedUris(eq(mapOf(localUris[0] to uploadedMedia)))
+    }
+
     private companion object Fixtures {
         private const val LOCAL_SITE_ID = 1
         private const val FRESHLY_TAKEN = false
+        private const val REMOTE_MEDIA_ID = 100L
         private val SITE_MODEL = SiteModel().apply { id = LOCAL_SITE_ID }
         fun createAddLocalMediaToPostUseCase(
             copyMediaToAppStorageUseCase: CopyMediaToAppStorageUseCase = createCopyMediaToAppStorageUseCase(),
@@ -271,7 +359,9 @@ class AddLocalMediaToPostUseCaseTest : BaseUnitTest() {
             getMediaModelUseCase: GetMediaModelUseCase = createGetMediaModelUseCase(),
             updateMediaModelUseCase: UpdateMediaModelUseCase = mock(),
             appendMediaToEditorUseCase: AppendMediaToEditorUseCase = mock(),
-            uploadMediaUseCase: UploadMediaUseCase = mock()
+            uploadMediaUseCase: UploadMediaUseCase = mock(),
+            mediaFingerprintIndex: MediaFingerprintIndex = mock(),
+            mediaUtilsWrapper: MediaUtilsWrapper = mock()
         ): AddLocalMediaToPostUseCase {
             return AddLocalMediaToPostUseCase(
                     copyMediaToAppStorageUseCase = copyMediaToAppStorageUseCase,
@@ -279,7 +369,10 @@ class AddLocalMediaToPostUseCaseTest : BaseUnitTest() {
                     getMediaModelUseCase = getMediaModelUseCase,
                     updateMediaModelUseCase = updateMediaModelUseCase,
                     appendMediaToEditorUseCase = appendMediaToEditorUseCase,
-                    uploadMediaUseCase = uploadMediaUseCase
+                    uploadMediaUseCase = uploadMediaUseCase,
+                    mediaFingerprintIndex = mediaFingerprintIndex,
+                    mediaUtilsWrapper = mediaUtilsWrapper,
+                    bgDispatcher = TEST_DISPATCHER
             )
         }
 
@@ -317,8 +410,14 @@ class AddLocalMediaToPostUseCaseTest : BaseUnitTest() {
             return OptimizeMediaResult(uris, loadingSomeMediaFailed)
         }
 
-        fun createGetMediaModelUseCase(createMediaModelResult: CreateMediaModelsResult = createMediaModelResult()) =
+        fun createGetMediaModelUseCase(
+            createMediaModelResult: CreateMediaModelsResult = createMediaModelResult(),
+            uploadedMedia: MediaModel? = null
+        ) =
                 mock<GetMediaModelUseCase> {
+                    uploadedMedia?.let {
+                        onBlocking { loadMediaByRemoteId(any(), eq(listOf(REMOTE_MEDIA_ID))) }.thenReturn(listOf(it))
+                    }
                     onBlocking { loadMediaByLocalId(any()) }.thenAnswer { invocation ->
                         val result = mutableListOf<MediaModel>()
                         (invocation.getArgument(0) as List<Int>).forEach { result.add(mock()) }
@@ -332,5 +431,22 @@ class AddLocalMediaToPostUseCaseTest : BaseUnitTest() {
         fun createMediaModelResult(loadingSomeMediaFailed: Boolean = false): CreateMediaModelsResult {
             return CreateMediaModelsResult(listOf(mock()), loadingSomeMediaFailed)
         }
+
+        fun createUploadedMedia() = MediaModel().apply {
+            mediaId = REMOTE_MEDIA_ID
+            url = "https://example.com/image.jpg"
+        }
+
+        // the first of the passed uris is the file of the uploaded media
+        fun createMediaUtilsWrapper(uris: List<Uri>) = mock<MediaUtilsWrapper> {
+            uris.forEachIndexed { index, uri ->
+                on { getRealPathFromURI(uri) }.thenReturn("/file$index")
+            }
+        }
+
+        fun createMediaFingerprintIndex() = mock<MediaFingerprintIndex> {
+            on { getFingerprint(any()) }.thenAnswer { invocation -> "fingerprint-" + invocation.getArgument(0) }
+            on { getRemoteMediaId(LOCAL_SITE_ID, "fingerprint-/file0") }.thenReturn(REMOTE_MEDIA_ID)
+        }
     }
 }
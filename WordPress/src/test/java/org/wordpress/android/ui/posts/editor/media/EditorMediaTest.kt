@@ -160,7 +160,7 @@ class EditorMediaTest : BaseUnitTest() {
                 // Assert
                 verify(addLocalMediaToPostUseCase).addNewMediaToEditorAsync(
                         eq(listOf(lastRecoredVideoUri)),
-                        anyOrNull(), anyBoolean(), anyOrNull(), anyBoolean(), anyBoolean()
+                        anyOrNull(), anyBoolean(), anyOrNull(), anyBoolean(), anyBoolean(), anyBoolean()
                 )
             }
 
@@ -437,6 +437,7 @@ class EditorMediaTest : BaseUnitTest() {
                                 anyBoolean(),
                                 anyOrNull(),
                                 anyBoolean(),
+                                anyBoolean(),
                                 anyBoolean()
                         )
                     }.thenReturn(resultForAddNewMediaToEditorAsync)
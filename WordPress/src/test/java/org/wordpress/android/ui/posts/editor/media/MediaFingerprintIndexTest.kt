@@ -0,0 +1,91 @@
+package org.wordpress.android.ui.posts.editor.media
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+private const val LOCAL_SITE_ID = 1
+private const val OTHER_LOCAL_SITE_ID = 2
+private const val LOCAL_MEDIA_ID = 10
+private const val REMOTE_MEDIA_ID = 100L
+private const val OPTIMIZATION_SETTINGS = "2000:85"
+private const val OTHER_OPTIMIZATION_SETTINGS = "1000:85"
+
+class MediaFingerprintIndexTest {
+    @Rule
+    @JvmField val temporaryFolder = TemporaryFolder()
+
+    private val index = MediaFingerprintIndex()
+
+    @Test
+    fun `files with the same content have the same fingerprint`() {
+        val file = createFile("image.jpg", "content")
+        val copy = createFile("copy.jpg", "content")
+
+        assertThat(index.getFingerprint(file.path)).isNotNull()
+        assertThat(index.getFingerprint(file.path)).isEqualTo(index.getFingerprint(copy.path))
+    }
+
+    @Test
+    fun `files with different content have different fingerprints`() {
+        val file = createFile("image.jpg", "content")
+        val otherFile = createFile("other.jpg", "other content")
+
+        assertThat(index.getFingerprint(file.path)).isNotEqualTo(index.getFingerprint(otherFile.path))
+    }
+
+    @Test
+    fun `missing files have no fingerprint`() {
+        assertThat(index.getFingerprint(File(temporaryFolder.root, "missing.jpg").path)).isNull()
+    }
+
+    @Test
+    fun `a copy of the optimized file is returned for the same site and settings`() {
+        val fingerprint = index.getFingerprint(createFile("image.jpg", "content").path)!!
+        val optimizedFile = createFile("optimized.jpg", "optimized content")
+        index.putOptimizedFile(LOCAL_SITE_ID, fingerprint, OPTIMIZATION_SETTINGS, optimizedFile.path)
+
+        val copyPath = index.copyOptimizedFile(LOCAL_SITE_ID, fingerprint, OPTIMIZATION_SETTINGS)
+
+        assertThat(copyPath).isNotEqualTo(optimizedFile.path)
+        assertThat(File(copyPath!!).readText()).isEqualTo("optimized content")
+        assertThat(index.copyOptimizedFile(OTHER_LOCAL_SITE_ID, fingerprint, OPTIMIZATION_SETTINGS)).isNull()
+        assertThat(index.copyOptimizedFile(LOCAL_SITE_ID, fingerprint, OTHER_OPTIMIZATION_SETTINGS)).isNull()
+    }
+
+    @Test
+    fun `no copy is returned once the optimized file is deleted`() {
+        val fingerprint = index.getFingerprint(createFile("image.jpg", "content").path)!!
+        val optimizedFile = createFile("optimized.jpg", "optimized content")
+        index.putOptimizedFile(LOCAL_SITE_ID, fingerprint, OPTIMIZATION_SETTINGS, optimizedFile.path)
+        optimizedFile.delete()
+
+        assertThat(index.copyOptimizedFile(LOCAL_SITE_ID, fingerprint, OPTIMIZATION_SETTINGS)).isNull()
+    }
+
+    @Test
+    fun `the remote media id is recorded once the local media is uploaded`() {
+        val fingerprint = index.getFingerprint(createFile("image.jpg", "content").path)!!
+        index.putLocalMedia(LOCAL_MEDIA_ID, LOCAL_SITE_ID, fingerprint)
+
+        assertThat(index.getRemoteMediaId(LOCAL_SITE_ID, fingerprint)).isNull()
+
+        index.onMediaUploaded(LOCAL_MEDIA_ID, REMOTE_MEDIA_ID)
+
+        assertThat(index.getRemoteMediaId(LOCAL_SITE_ID, fingerprint)).isEqualTo(REMOTE_MEDIA_ID)
+        assertThat(index.getRemoteMediaId(OTHER_LOCAL_SITE_ID, fingerprint)).isNull()
+    }
+
+    @Test
+    fun `uploads of media which aren't in the index are ignored`() {
+        val fingerprint = index.getFingerprint(createFile("image.jpg", "content").path)!!
+
+        index.onMediaUploaded(LOCAL_MEDIA_ID, REMOTE_MEDIA_ID)
+
+        assertThat(index.getRemoteMediaId(LOCAL_SITE_ID, fingerprint)).isNull()
+    }
+
+    private fun createFile(name: String, content: String) = temporaryFolder.newFile(name).apply { writeText(content) }
+}
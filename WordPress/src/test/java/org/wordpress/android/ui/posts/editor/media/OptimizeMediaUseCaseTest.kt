@@ -2,7 +2,11 @@ package org.wordpress.android.ui.posts.editor.media
 
 import android.net.Uri
 import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.anyOrNull
+import com.nhaarman.mockitokotlin2.eq
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
 import kotlinx.coroutines.InternalCoroutinesApi
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.Test
@@ -135,22 +139,104 @@ class OptimizeMediaUseCaseTest : BaseUnitTest() {
                 assertThat(optimizeMediaResult.optimizedMediaUris).isEqualTo(uris)
             }
 
+    @Test
+    fun `Image optimized with the same settings before, optimized copy reused`() = test {
+        // Arrange
+        val uris = listOf<Uri>(mock())
+        val mediaUtilsWrapper = createMediaUtilsWrapper(optimizationSettings = OPTIMIZATION_SETTINGS)
+        val mediaFingerprintIndex = mock<MediaFingerprintIndex> {
+            on { getFingerprint(any()) }.thenReturn(FINGERPRINT)
+            on { copyOptimizedFile(any(), eq(FINGERPRINT), eq(OPTIMIZATION_SETTINGS)) }.thenReturn("/copy.jpg")
+        }
+
+        // Act
+        createOptimizeMediaUseCase(mediaUtilsWrapper = mediaUtilsWrapper, mediaFingerprintIndex = mediaFingerprintIndex)
+                .optimizeMediaIfSupportedAsync(SiteModel(), FRESHLY_TAKEN, uris)
+
+        // Assert
+        verify(mediaUtilsWrapper, never()).getOptimizedMedia(any(), any())
+    }
+
+    @Test
+    fun `Optimization enabled, optimized file recorded with the optimization settings`() = test {
+        // Arrange
+        val uris = listOf<Uri>(mock())
+        val optimizedUri = mock<Uri>()
+        val mediaUtilsWrapper = createMediaUtilsWrapper(
+                resultForGetOptimizeMedia = optimizedUri,
+                optimizationSettings = OPTIMIZATION_SETTINGS
+        )
+        val mediaFingerprintIndex = mock<MediaFingerprintIndex> {
+            on { getFingerprint(any()) }.thenReturn(FINGERPRINT)
+        }
+
+        // Act
+        createOptimizeMediaUseCase(mediaUtilsWrapper = mediaUtilsWrapper, mediaFingerprintIndex = mediaFingerprintIndex)
+                .optimizeMediaIfSupportedAsync(SiteModel(), FRESHLY_TAKEN, uris)
+
+        // Assert
+        verify(mediaFingerprintIndex).putOptimizedFile(any(), eq(FINGERPRINT), eq(OPTIMIZATION_SETTINGS), any())
+    }
+
+    @Test
+    fun `Optimization disabled, self-hosted, file with fixed orientation not recorded as optimized`() = test {
+        // Arrange
+        val uris = listOf<Uri>(mock())
+        val siteModel = SiteModel().apply { setIsWPCom(false) }
+        val mediaUtilsWrapper = createMediaUtilsWrapper(resultForGetOptimizeMedia = null, optimizationSettings = null)
+        val mediaFingerprintIndex = mock<MediaFingerprintIndex>()
+
+        // Act
+        createOptimizeMediaUseCase(mediaUtilsWrapper = mediaUtilsWrapper, mediaFingerprintIndex = mediaFingerprintIndex)
+                .optimizeMediaIfSupportedAsync(siteModel, FRESHLY_TAKEN, uris)
+
+        // Assert
+        verify(mediaFingerprintIndex, never()).copyOptimizedFile(any(), any(), any())
+        verify(mediaFingerprintIndex, never()).putOptimizedFile(any(), any(), any(), any())
+    }
+
+    @Test
+    fun `Optimization failed, self-hosted, file with fixed orientation not recorded as optimized`() = test {
+        // Arrange
+        val uris = listOf<Uri>(mock())
+        val siteModel = SiteModel().apply { setIsWPCom(false) }
+        val mediaUtilsWrapper = createMediaUtilsWrapper(
+                resultForGetOptimizeMedia = null,
+                optimizationSettings = OPTIMIZATION_SETTINGS
+        )
+        val mediaFingerprintIndex = mock<MediaFingerprintIndex> {
+            on { getFingerprint(any()) }.thenReturn(FINGERPRINT)
+        }
+
+        // Act
+        createOptimizeMediaUseCase(mediaUtilsWrapper = mediaUtilsWrapper, mediaFingerprintIndex = mediaFingerprintIndex)
+                .optimizeMediaIfSupportedAsync(siteModel, FRESHLY_TAKEN, uris)
+
+        // Assert
+        verify(mediaFingerprintIndex, never()).putOptimizedFile(any(), any(), any(), anyOrNull())
+    }
+
     private companion object Fixtures {
         private const val FRESHLY_TAKEN = false
+        private const val FINGERPRINT = "fingerprint"
+        private const val OPTIMIZATION_SETTINGS = "2000:85"
 
         private fun createOptimizeMediaUseCase(
             editorTracker: EditorTracker = mock(),
-            mediaUtilsWrapper: MediaUtilsWrapper = createMediaUtilsWrapper()
+            mediaUtilsWrapper: MediaUtilsWrapper = createMediaUtilsWrapper(),
+            mediaFingerprintIndex: MediaFingerprintIndex = mock()
         ): OptimizeMediaUseCase {
-            return OptimizeMediaUseCase(editorTracker, mediaUtilsWrapper, TEST_DISPATCHER)
+            return OptimizeMediaUseCase(editorTracker, mediaUtilsWrapper, mediaFingerprintIndex, TEST_DISPATCHER)
         }
 
         private fun createMediaUtilsWrapper(
             resultForGetRealPath: Pair<Uri, String?>? = null,
             resultForGetOptimizeMedia: Uri? = mock(),
-            resultForFixOrientation: Uri? = mock()
+            resultForFixOrientation: Uri? = mock(),
+            optimizationSettings: String? = null
         ) =
                 mock<MediaUtilsWrapper> {
+                    on { getImageOptimizationSettings() }.thenReturn(optimizationSettings)
                     on { getOptimizedMedia(any(), any()) }.thenReturn(resultForGetOptimizeMedia)
                     on { fixOrientationIssue(any(), any()) }.thenReturn(resultForFixOrientation)
                     on { getRealPathFromURI(any()) }.thenReturn("")
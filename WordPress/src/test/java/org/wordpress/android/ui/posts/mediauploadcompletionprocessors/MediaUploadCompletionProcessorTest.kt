@@ -106,4 +106,22 @@ class MediaUploadCompletionProcessorTest {
         val processedContent = processor.processContent(TestContent.oldPostWithMixedGalleriesRefactored)
         Assertions.assertThat(processedContent).isEqualTo(TestContent.newPostWithMixedGalleriesRefactored)
     }
+
+    @Test
+    fun `processPost replaces several media in a single pass`() {
+        val mediaFile2: MediaFile = mock()
+        whenever(mediaFile2.mediaId).thenReturn(TestContent.remoteMediaId2)
+        whenever(mediaFile2.fileURL).thenReturn(TestContent.remoteImageUrl2)
+        processor = MediaUploadCompletionProcessor(
+                linkedMapOf(TestContent.localMediaId to mediaFile, TestContent.localMediaId2 to mediaFile2),
+                TestContent.siteUrl
+        )
+        val processedContent = processor.processContent(
+                TestContent.oldPostImage + TestContent.oldCoverBlockWithNestedCoverBlockOuter
+        )
+        Assertions.assertThat(processedContent).isEqualTo(
+                TestContent.newPostImage + TestContent.newCoverBlockWithNestedCoverBlockOuter
+                        .replace(TestContent.oldCoverBlock, TestContent.newCoverBlock)
+        )
+    }
 }
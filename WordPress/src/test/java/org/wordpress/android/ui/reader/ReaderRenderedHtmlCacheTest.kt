@@ -0,0 +1,121 @@
+package org.wordpress.android.ui.reader
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.wordpress.android.models.ReaderPost
+import java.io.File
+
+private const val RENDER_SIGNATURE = "signature"
+private const val CSS_VERSION = "css"
+
+class ReaderRenderedHtmlCacheTest {
+    @Rule
+    @JvmField val temporaryFolder = TemporaryFolder()
+
+    private lateinit var diskDir: File
+    private lateinit var cache: ReaderRenderedHtmlCache
+
+    @Before
+    fun setUp() {
+        diskDir = temporaryFolder.newFolder()
+        cache = ReaderRenderedHtmlCache(diskDir, 1024, 1024 * 1024)
+    }
+
+    @Test
+    fun `key changes when the content of the post changes`() {
+        val post = createPost(text = "first")
+        val updatedPost = createPost(text = "second")
+
+        assertThat(makeKey(post)).isNotEqualTo(makeKey(updatedPost))
+    }
+
+    @Test
+    fun `key changes when the privacy or the attachments of the post change`() {
+        val post = createPost()
+        val privatePost = createPost().apply { isPrivate = true }
+        val postWithAttachments = createPost().apply { attachmentsJson = "{\"1\":{\"width\":800}}" }
+
+        assertThat(makeKey(post)).isNotEqualTo(makeKey(privatePost))
+        assertThat(makeKey(post)).isNotEqualTo(makeKey(postWithAttachments))
+    }
+
+    @Test
+    fun `key changes when the display or the css change`() {
+        val post = createPost()
+
+        assertThat(makeKey(post)).isNotEqualTo(ReaderRenderedHtmlCache.makeKey(post, "other", CSS_VERSION))
+        assertThat(makeKey(post)).isNotEqualTo(ReaderRenderedHtmlCache.makeKey(post, RENDER_SIGNATURE, "other"))
+    }
+
+    @Test
+    fun `cached html is returned from memory`() {
+        val key = makeKey(createPost())
+
+        cache.put(key, "html")
+
+        assertThat(cache.getFromMemory(key)).isEqualTo("html")
+    }
+
+    @Test
+    fun `cached html is read from disk when it's no longer in memory`() {
+        val key = makeKey(createPost())
+        cache.put(key, "html")
+
+        val newCache = ReaderRenderedHtmlCache(diskDir, 1024, 1024 * 1024)
+
+        assertThat(newCache.getFromMemory(key)).isNull()
+        assertThat(newCache.get(key)).isEqualTo("html")
+    }
+
+    @Test
+    fun `least recently used html is evicted from disk when the cache is full`() {
+        cache = ReaderRenderedHtmlCache(diskDir, 1024, 10)
+        val firstKey = makeKey(createPost(postId = 1))
+        val secondKey = makeKey(createPost(postId = 2))
+
+        cache.put(firstKey, "12345")
+        cache.put(secondKey, "67890")
+        cache.get(firstKey)
+        cache.put(makeKey(createPost(postId = 3)), "abcde")
+
+        assertThat(File(diskDir, "$firstKey.html").exists()).isTrue()
+        assertThat(File(diskDir, "$secondKey.html").exists()).isFalse()
+    }
+
+    @Test
+    fun `invalidating a post removes only the html of its previous versions`() {
+        val post = createPost(text = "first")
+        val updatedPost = createPost(text = "second")
+        cache.put(makeKey(post), "old html")
+        cache.put(makeKey(updatedPost), "new html")
+
+        cache.invalidate(updatedPost)
+
+        assertThat(cache.get(makeKey(post))).isNull()
+        assertThat(cache.get(makeKey(updatedPost))).isEqualTo("new html")
+    }
+
+    @Test
+    fun `invalidating a blog removes the html of all its posts`() {
+        val key = makeKey(createPost())
+        val otherBlogKey = makeKey(createPost(blogId = 20))
+        cache.put(key, "html")
+        cache.put(otherBlogKey, "other html")
+
+        cache.invalidateBlog(2)
+
+        assertThat(cache.get(key)).isNull()
+        assertThat(cache.get(otherBlogKey)).isEqualTo("other html")
+    }
+
+    private fun makeKey(post: ReaderPost) = ReaderRenderedHtmlCache.makeKey(post, RENDER_SIGNATURE, CSS_VERSION)
+
+    private fun createPost(blogId: Long = 2, postId: Long = 1, text: String = "text") = ReaderPost().apply {
+        this.blogId = blogId
+        this.postId = postId
+        this.text = text
+    }
+}
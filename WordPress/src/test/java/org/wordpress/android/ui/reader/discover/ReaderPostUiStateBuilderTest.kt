@@ -48,9 +48,6 @@ import org.wordpress.android.ui.reader.discover.ReaderCardUiState.ReaderPostUiSt
 import org.wordpress.android.ui.reader.discover.ReaderPostCardActionType.BOOKMARK
 import org.wordpress.android.ui.reader.discover.ReaderPostCardActionType.LIKE
 import org.wordpress.android.ui.reader.discover.ReaderPostCardActionType.REBLOG
-import org.wordpress.android.ui.reader.models.ReaderImageList
-import org.wordpress.android.ui.reader.utils.ReaderImageScanner
-import org.wordpress.android.ui.reader.utils.ReaderImageScannerProvider
 import org.wordpress.android.ui.reader.utils.ReaderUtilsWrapper
 import org.wordpress.android.ui.utils.UiString.UiStringRes
 import org.wordpress.android.ui.utils.UiString.UiStringResWithParams
@@ -74,7 +71,6 @@ class ReaderPostUiStateBuilderTest {
     @Mock lateinit var urlUtilsWrapper: UrlUtilsWrapper
     @Mock lateinit var gravatarUtilsWrapper: GravatarUtilsWrapper
     @Mock lateinit var dateTimeUtilsWrapper: DateTimeUtilsWrapper
-    @Mock lateinit var readerImageScannerProvider: ReaderImageScannerProvider
     @Mock lateinit var readerUtilsWrapper: ReaderUtilsWrapper
     @Mock lateinit var readerPostTagsUiStateBuilder: ReaderPostTagsUiStateBuilder
 
@@ -85,17 +81,12 @@ class ReaderPostUiStateBuilderTest {
                 urlUtilsWrapper,
                 gravatarUtilsWrapper,
                 dateTimeUtilsWrapper,
-                readerImageScannerProvider,
                 readerUtilsWrapper,
                 readerPostTagsUiStateBuilder,
                 TEST_DISPATCHER
         )
         whenever(dateTimeUtilsWrapper.javaDateToTimeSpan(anyOrNull())).thenReturn("")
         whenever(gravatarUtilsWrapper.fixGravatarUrlWithResource(anyOrNull(), anyInt())).thenReturn("")
-        val imageScanner: ReaderImageScanner = mock()
-        whenever(readerImageScannerProvider.createReaderImageScanner(anyOrNull(), anyBoolean()))
-                .thenReturn(imageScanner)
-        whenever(imageScanner.getImageList(anyInt(), anyInt())).thenReturn(ReaderImageList(false))
         whenever(accountStore.hasAccessToken()).thenReturn(true)
         whenever(readerUtilsWrapper.getLongLikeLabelText(anyInt(), anyBoolean())).thenReturn("")
     }
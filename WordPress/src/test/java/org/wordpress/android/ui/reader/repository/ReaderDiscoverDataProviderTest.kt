@@ -2,6 +2,7 @@ package org.wordpress.android.ui.reader.repository
 
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule
 import androidx.lifecycle.Observer
+import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import kotlinx.coroutines.InternalCoroutinesApi
@@ -159,6 +160,29 @@ class ReaderDiscoverDataProviderTest {
                 .isEqualTo(NUMBER_OF_ITEMS)
     }
 
+    @Test
+    fun `when request more finishes, only the new cards are loaded`() = test {
+        whenever(getDiscoverCardsUseCase.getWithNewCards()).thenReturn(createDummyReaderCardsList())
+        val event = FetchDiscoverCardsEnded(REQUEST_MORE, HAS_NEW)
+
+        dataProvider.onCardsUpdated(event)
+
+        verify(getDiscoverCardsUseCase).getWithNewCards()
+        verify(getDiscoverCardsUseCase, never()).get()
+    }
+
+    @Test
+    fun `when posts change while observed, the loaded cards are refreshed`() = test {
+        whenever(getDiscoverCardsUseCase.get()).thenReturn(createDummyReaderCardsList())
+        whenever(getDiscoverCardsUseCase.refresh()).thenReturn(createDummyReaderCardsList())
+        whenever(shouldAutoUpdateTagUseCase.get(dataProvider.readerTag)).thenReturn(false)
+        dataProvider.discoverFeed.observeForever { }
+
+        dataProvider.onReaderPostTableAction(ReaderPostTableActionEnded)
+
+        verify(getDiscoverCardsUseCase).refresh()
+    }
+
     @Test
     fun `when loadMoreRequest in progress another started not posted to comm channel`() = test {
         whenever(fetchDiscoverCardsUseCase.fetch(REQUEST_MORE)).thenReturn(Started(REQUEST_MORE))
@@ -1,24 +1,27 @@
 package org.wordpress.android.ui.reader.repository.usecases
 
+import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.anyOrNull
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import kotlinx.coroutines.InternalCoroutinesApi
 import org.assertj.core.api.Assertions.assertThat
-import org.json.JSONArray
-import org.json.JSONObject
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.mockito.ArgumentMatchers.anyBoolean
-import org.mockito.ArgumentMatchers.anyLong
 import org.mockito.junit.MockitoJUnitRunner
 import org.wordpress.android.TEST_DISPATCHER
 import org.wordpress.android.datasets.ReaderBlogTableWrapper
+import org.wordpress.android.datasets.ReaderDiscoverCardRecord
 import org.wordpress.android.datasets.ReaderDiscoverCardsTableWrapper
 import org.wordpress.android.datasets.wrappers.ReaderPostTableWrapper
 import org.wordpress.android.fluxc.utils.AppLogWrapper
 import org.wordpress.android.models.ReaderBlog
+import org.wordpress.android.models.ReaderPost
+import org.wordpress.android.models.ReaderPostList
 import org.wordpress.android.models.discover.ReaderDiscoverCard.InterestsYouMayLikeCard
 import org.wordpress.android.models.discover.ReaderDiscoverCard.ReaderPostCard
 import org.wordpress.android.models.discover.ReaderDiscoverCard.ReaderRecommendedBlogsCard
@@ -33,10 +36,6 @@ class GetDiscoverCardsUseCaseTest {
     private lateinit var useCase: GetDiscoverCardsUseCase
     private val readerDiscoverCardsTableWrapper: ReaderDiscoverCardsTableWrapper = mock()
     private val parseDiscoverCardsJsonUseCase: ParseDiscoverCardsJsonUseCase = mock()
-    private val mockedJsonArray: JSONArray = mock()
-    private val mockedPostCardJson: JSONObject = mock()
-    private val mockedInterestsCardJson: JSONObject = mock()
-    private val mockedRecommendedBlogsCardJson: JSONObject = mock()
     private val readerPostTableWrapper: ReaderPostTableWrapper = mock()
     private val readerBlogTableWrapper: ReaderBlogTableWrapper = mock()
     private val appLogWrapper: AppLogWrapper = mock()
@@ -53,24 +52,12 @@ class GetDiscoverCardsUseCaseTest {
                 appPrefsWrapper,
                 TEST_DISPATCHER
         )
-        whenever(parseDiscoverCardsJsonUseCase.convertListOfJsonArraysIntoSingleJsonArray(anyOrNull()))
-                .thenReturn(mockedJsonArray)
-        whenever(mockedJsonArray.length()).thenReturn(3)
-        whenever(mockedJsonArray.getJSONObject(0)).thenReturn(mockedPostCardJson)
-        whenever(mockedJsonArray.getJSONObject(1)).thenReturn(mockedInterestsCardJson)
-        whenever(mockedJsonArray.getJSONObject(2)).thenReturn(mockedRecommendedBlogsCardJson)
-        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCardsJsons()).thenReturn(listOf(""))
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L)).thenReturn(createCardRecords())
         whenever(parseDiscoverCardsJsonUseCase.parseInterestCard(anyOrNull())).thenReturn(mock())
         whenever(parseDiscoverCardsJsonUseCase.parseSimplifiedRecommendedBlogsCard(anyOrNull()))
                 .thenReturn(listOf(Pair(1L, 0L), Pair(2L, 0L)))
-        whenever(parseDiscoverCardsJsonUseCase.parseSimplifiedPostCard(anyOrNull())).thenReturn(Pair(101, 102))
-        whenever(readerPostTableWrapper.getBlogPost(anyLong(), anyLong(), anyBoolean())).thenReturn(mock())
-        whenever(mockedPostCardJson.getString(ReaderConstants.JSON_CARD_TYPE))
-                .thenReturn(ReaderConstants.JSON_CARD_POST)
-        whenever(mockedInterestsCardJson.getString(ReaderConstants.JSON_CARD_TYPE))
-                .thenReturn(ReaderConstants.JSON_CARD_INTERESTS_YOU_MAY_LIKE)
-        whenever(mockedRecommendedBlogsCardJson.getString(ReaderConstants.JSON_CARD_TYPE))
-                .thenReturn(ReaderConstants.JSON_CARD_RECOMMENDED_BLOGS)
+        whenever(readerPostTableWrapper.getBlogPosts(any(), any(), anyBoolean())).thenReturn(createReaderPostList())
+        whenever(readerBlogTableWrapper.getReaderBlogs(any())).thenReturn(emptyMap())
         whenever(appPrefsWrapper.readerDiscoverWelcomeBannerShown)
                 .thenReturn(true)
     }
@@ -100,7 +87,7 @@ class GetDiscoverCardsUseCaseTest {
     @Test
     fun `welcome card is not added to the list of cards when there are no other cards`() = test {
         // Arrange
-        whenever(mockedJsonArray.length()).thenReturn(0)
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L)).thenReturn(emptyList())
         // Act
         val result = useCase.get()
         // Assert
@@ -110,8 +97,8 @@ class GetDiscoverCardsUseCaseTest {
     @Test
     fun `interest you might like card json is transformed into InterestsYouMayLikeCard object`() = test {
         // Arrange
-        whenever(mockedPostCardJson.getString(ReaderConstants.JSON_CARD_TYPE))
-                .thenReturn(ReaderConstants.JSON_CARD_INTERESTS_YOU_MAY_LIKE)
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L))
+                .thenReturn(createCardRecords(firstCardType = ReaderConstants.JSON_CARD_INTERESTS_YOU_MAY_LIKE))
         // Act
         val result = useCase.get()
         // Assert
@@ -121,8 +108,8 @@ class GetDiscoverCardsUseCaseTest {
     @Test
     fun `recommended blogs card json is transformed into ReaderRecommendedBlogsCard object`() = test {
         // Arrange
-        whenever(mockedPostCardJson.getString(ReaderConstants.JSON_CARD_TYPE))
-                .thenReturn(ReaderConstants.JSON_CARD_RECOMMENDED_BLOGS)
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L))
+                .thenReturn(createCardRecords(firstCardType = ReaderConstants.JSON_CARD_RECOMMENDED_BLOGS))
         // Act
         val result = useCase.get()
         // Assert
@@ -132,8 +119,8 @@ class GetDiscoverCardsUseCaseTest {
     @Test
     fun `post card json is transformed into ReaderPostCard object`() = test {
         // Arrange
-        whenever(mockedPostCardJson.getString(ReaderConstants.JSON_CARD_TYPE))
-                .thenReturn(ReaderConstants.JSON_CARD_POST)
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L))
+                .thenReturn(createCardRecords(firstCardType = ReaderConstants.JSON_CARD_POST))
         // Act
         val result = useCase.get()
         // Assert
@@ -143,7 +130,7 @@ class GetDiscoverCardsUseCaseTest {
     @Test
     fun `if post not found in local db the remaining items are still transformed`() = test {
         // Arrange
-        whenever(readerPostTableWrapper.getBlogPost(anyLong(), anyLong(), anyBoolean())).thenReturn(null)
+        whenever(readerPostTableWrapper.getBlogPosts(any(), any(), anyBoolean())).thenReturn(ReaderPostList())
         // Act
         val result = useCase.get()
         // Assert
@@ -153,7 +140,7 @@ class GetDiscoverCardsUseCaseTest {
     @Test
     fun `all items from the json are transformed into cards`() = test {
         // Arrange
-        whenever(readerPostTableWrapper.getBlogPost(anyLong(), anyLong(), anyBoolean())).thenReturn(mock())
+        whenever(readerPostTableWrapper.getBlogPosts(any(), any(), anyBoolean())).thenReturn(createReaderPostList())
         // Act
         val result = useCase.get()
         // Assert
@@ -163,8 +150,7 @@ class GetDiscoverCardsUseCaseTest {
     @Test
     fun `when cards json is empty an empty ReaderDiscoverCards is returned`() = test {
         // Arrange
-        val emptyList = listOf<String>()
-        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCardsJsons()).thenReturn(emptyList)
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L)).thenReturn(emptyList())
         // Act
         val result = useCase.get()
         // Assert
@@ -175,7 +161,7 @@ class GetDiscoverCardsUseCaseTest {
     fun `recommended blog is retrieved from local db and added to the card`() = test {
         // Arrange
         val localReaderBlog = createReaderBlog()
-        whenever(readerBlogTableWrapper.getReaderBlog(1L, 0L)).thenReturn(localReaderBlog)
+        whenever(readerBlogTableWrapper.getReaderBlogs(any())).thenReturn(mapOf(Pair(1L, 0L) to localReaderBlog))
         // Act
         val result = useCase.get()
 
@@ -187,8 +173,7 @@ class GetDiscoverCardsUseCaseTest {
     fun `if recommended blog retrieved from local db is null it's not added to the card`() = test {
         // Arrange
         val localReaderBlog = createReaderBlog()
-        whenever(readerBlogTableWrapper.getReaderBlog(1L, 0L)).thenReturn(localReaderBlog)
-        whenever(readerBlogTableWrapper.getReaderBlog(2L, 0L)).thenReturn(null)
+        whenever(readerBlogTableWrapper.getReaderBlogs(any())).thenReturn(mapOf(Pair(1L, 0L) to localReaderBlog))
         // Act
         val result = useCase.get()
 
@@ -196,6 +181,87 @@ class GetDiscoverCardsUseCaseTest {
         assertThat((result.cards[2] as ReaderRecommendedBlogsCard).blogs.size).isEqualTo(1)
     }
 
+    @Test
+    fun `posts and recommended blogs are loaded in a single batch`() = test {
+        // Arrange
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L)).thenReturn(
+                createCardRecords() + ReaderDiscoverCardRecord(ReaderConstants.JSON_CARD_POST, 103L, 104L, id = 4L)
+        )
+        // Act
+        useCase.get()
+        // Assert
+        verify(readerPostTableWrapper, times(1)).getBlogPosts(any(), any(), anyBoolean())
+        verify(readerBlogTableWrapper, times(1)).getReaderBlogs(listOf(Pair(1L, 0L), Pair(2L, 0L)))
+    }
+
+    @Test
+    fun `only the cards stored after the last loaded card are loaded when a new page is appended`() = test {
+        // Arrange
+        useCase.get()
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(3L)).thenReturn(
+                listOf(ReaderDiscoverCardRecord(ReaderConstants.JSON_CARD_POST, 101L, 102L, id = 4L))
+        )
+        // Act
+        val result = useCase.getWithNewCards()
+        // Assert
+        verify(readerDiscoverCardsTableWrapper, times(1)).loadDiscoverCards(0L)
+        verify(readerDiscoverCardsTableWrapper, times(1)).loadDiscoverCards(3L)
+        assertThat(result.cards.size).isEqualTo(4)
+        assertThat(result.cards[3]).isInstanceOf(ReaderPostCard::class.java)
+    }
+
+    @Test
+    fun `refresh resolves the loaded cards again without reading the cards table`() = test {
+        // Arrange
+        useCase.get()
+        // Act
+        val result = useCase.refresh()
+        // Assert
+        verify(readerDiscoverCardsTableWrapper, times(1)).loadDiscoverCards(any())
+        verify(readerPostTableWrapper, times(2)).getBlogPosts(any(), any(), anyBoolean())
+        assertThat(result.cards.size).isEqualTo(3)
+    }
+
+    @Test
+    fun `the loaded cards are dropped when the cards table was cleared since they were loaded`() = test {
+        // Arrange
+        useCase.get()
+        whenever(readerDiscoverCardsTableWrapper.getGeneration()).thenReturn(1L)
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L)).thenReturn(
+                listOf(ReaderDiscoverCardRecord(ReaderConstants.JSON_CARD_POST, 101L, 102L, id = 1L))
+        )
+        // Act
+        val result = useCase.getWithNewCards()
+        // Assert
+        verify(readerDiscoverCardsTableWrapper, times(2)).loadDiscoverCards(0L)
+        assertThat(result.cards.size).isEqualTo(1)
+    }
+
+    @Test
+    fun `refresh loads the cards again when the cards table was cleared since they were loaded`() = test {
+        // Arrange
+        useCase.get()
+        whenever(readerDiscoverCardsTableWrapper.getGeneration()).thenReturn(1L)
+        whenever(readerDiscoverCardsTableWrapper.loadDiscoverCards(0L)).thenReturn(emptyList())
+        // Act
+        val result = useCase.refresh()
+        // Assert
+        assertThat(result.cards).isEmpty()
+    }
+
+    private fun createCardRecords(firstCardType: String = ReaderConstants.JSON_CARD_POST) = listOf(
+            ReaderDiscoverCardRecord(firstCardType, 101L, 102L, "{}", 1L),
+            ReaderDiscoverCardRecord(ReaderConstants.JSON_CARD_INTERESTS_YOU_MAY_LIKE, cardJson = "{}", id = 2L),
+            ReaderDiscoverCardRecord(ReaderConstants.JSON_CARD_RECOMMENDED_BLOGS, cardJson = "{}", id = 3L)
+    )
+
+    private fun createReaderPostList() = ReaderPostList().apply {
+        add(ReaderPost().apply {
+            blogId = 101L
+            postId = 102L
+        })
+    }
+
     private fun createReaderBlog() = ReaderBlog().apply {
         blogId = 1L
         description = "description"
@@ -0,0 +1,112 @@
+package org.wordpress.android.ui.reader.utils
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.ui.reader.utils.ReaderHtmlRewriter.TagRewriter
+
+class ReaderHtmlRewriterTest {
+    private val imageRewriter = TagRewriter { _, src -> "<img src='$src' width='100' />" }
+    private val iframeRewriter = TagRewriter { _, src -> "<iframe src='$src' width='200' />" }
+
+    @Test
+    fun `images and iframes are rewritten in place`() {
+        val content = "<p>one</p><img class=\"a\" src=\"https://a.jpg\"><p>two</p>" +
+                "<iframe width='10' src='https://video'></iframe><img src=\"https://b.jpg\" />"
+
+        val result = ReaderHtmlRewriter(content, imageRewriter, iframeRewriter, false).rewrite()
+
+        assertThat(result.content).isEqualTo(
+                "<p>one</p><img src='https://a.jpg' width='100' /><p>two</p>" +
+                        "<iframe src='https://video' width='200' /></iframe><img src='https://b.jpg' width='100' />"
+        )
+        assertThat(result.hasTiledGallery()).isFalse()
+        assertThat(result.jsToInject).isEmpty()
+    }
+
+    @Test
+    fun `tags are kept when the rewriter returns null`() {
+        val content = "a < b <img src=\"https://a.jpg\"> c"
+
+        val result = ReaderHtmlRewriter(content, TagRewriter { _, _ -> null }, null, false).rewrite()
+
+        assertThat(result.content).isEqualTo(content)
+    }
+
+    @Test
+    fun `images are kept when the content contains a tiled gallery`() {
+        val content = "<img src=\"https://a.jpg\"><div class=\"tiled-gallery type-rectangular\">" +
+                "<img src=\"https://b.jpg\"></div>"
+
+        val result = ReaderHtmlRewriter(content, imageRewriter, iframeRewriter, true).rewrite()
+
+        assertThat(result.hasTiledGallery()).isTrue()
+        assertThat(result.content).isEqualTo(content)
+    }
+
+    @Test
+    fun `images are rewritten in a tiled gallery when they don't need to be kept`() {
+        val content = "<div class=\"tiled-gallery\"><img src=\"https://a.jpg\"></div>"
+
+        val result = ReaderHtmlRewriter(content, imageRewriter, iframeRewriter, false).rewrite()
+
+        assertThat(result.hasTiledGallery()).isTrue()
+        assertThat(result.content)
+                .isEqualTo("<div class=\"tiled-gallery\"><img src='https://a.jpg' width='100' /></div>")
+    }
+
+    @Test
+    fun `tiled gallery class prefixes are not detected as galleries`() {
+        val content = "<div class=\"tiled-gallery-item\"></div>"
+
+        val result = ReaderHtmlRewriter(content, imageRewriter, iframeRewriter, true).rewrite()
+
+        assertThat(result.hasTiledGallery()).isFalse()
+    }
+
+    @Test
+    fun `scripts for known embeds are collected`() {
+        val content = "<blockquote class=\"instagram-media\"></blockquote><FB:POST data-href=\"x\"></fb:post>"
+
+        val result = ReaderHtmlRewriter(content, imageRewriter, iframeRewriter, false).rewrite()
+
+        assertThat(result.jsToInject).containsExactlyInAnyOrder(
+                "https://platform.instagram.com/en_US/embeds.js",
+                "https://connect.facebook.net/en_US/sdk.js#xfbml=1&amp;version=v2.8"
+        )
+    }
+
+    @Test
+    fun `background color declarations are stripped`() {
+        val content = "<p style=\"color: red; background-color: #fff; margin: 0\">a; b</p>" +
+                "<img style=\"background-color:blue;\" src=\"https://a.jpg\">"
+
+        val result = ReaderHtmlRewriter(content, null, null, false, null, true).rewrite()
+
+        assertThat(result.content).isEqualTo(
+                "<p style=\"color: red;margin: 0\">a; b</p><img style=\"\" src=\"https://a.jpg\">"
+        )
+    }
+
+    @Test
+    fun `a background color without a closing semicolon in its tag is kept`() {
+        val content = "<p style=\"background-color: red\">a; b</p>"
+
+        val result = ReaderHtmlRewriter(content, null, null, false, null, true).rewrite()
+
+        assertThat(result.content).isEqualTo(content)
+    }
+
+    @Test
+    fun `the gallery class is added to the gallery elements`() {
+        val content = "<div class=\"tiled-gallery \"><div class='gallery-row  x'>" +
+                "<div class=\"tiled-gallery-item \"></div><div class=\"tiled-gallery-caption \"></div></div></div>"
+
+        val result = ReaderHtmlRewriter(content, null, null, true, "only", false).rewrite()
+
+        assertThat(result.content).isEqualTo(
+                "<div class=\"tiled-gallery only\"><div class='gallery-row only x'>" +
+                        "<div class=\"tiled-gallery-item only\"></div><div class=\"tiled-gallery-caption \"></div>" +
+                        "</div></div>"
+        )
+    }
+}
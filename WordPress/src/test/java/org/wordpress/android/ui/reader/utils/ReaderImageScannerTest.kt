@@ -0,0 +1,65 @@
+package org.wordpress.android.ui.reader.utils
+
+import android.os.Build.VERSION_CODES
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import org.wordpress.android.TestApplication
+import org.wordpress.android.ui.reader.models.ReaderImageIndex
+
+private const val CONTENT = "<p>text</p><img src=\"https://a.com/1.jpg\" width=\"800\" height=\"600\">" +
+        "<img class=\"size-large\" src=\"https://a.com/2.jpg?w=300\" " +
+        "srcset=\"https://a.com/2.jpg?w=300 300w, https://a.com/2.jpg?w=1200 1200w\">" +
+        "<img src=\"https://a.com/3.jpg\" data-large-file=\"https://a.com/3-large.jpg\">"
+
+@Config(application = TestApplication::class, sdk = [VERSION_CODES.N])
+@RunWith(RobolectricTestRunner::class)
+class ReaderImageScannerTest {
+    @Test
+    fun `index contains the attributes of every image`() {
+        val images = ReaderImageScanner(CONTENT).imageIndex.images
+
+        assertThat(images).hasSize(3)
+        assertThat(images[0].width).isEqualTo(800)
+        assertThat(images[0].height).isEqualTo(600)
+        assertThat(images[1].width).isEqualTo(300)
+        assertThat(images[1].srcsetUrl).isEqualTo("https://a.com/2.jpg?w=1200")
+        assertThat(images[1].srcsetWidth).isEqualTo(1200)
+        assertThat(images[1].hasSizeClass()).isTrue()
+        assertThat(images[2].largeFileUrl).isEqualTo("https://a.com/3-large.jpg")
+    }
+
+    @Test
+    fun `index survives a round trip through json`() {
+        val index = ReaderImageScanner(CONTENT).imageIndex
+
+        val restored = ReaderImageIndex.fromJson(index.toJson())!!
+
+        assertThat(restored.images).usingFieldByFieldElementComparator().containsExactlyElementsOf(index.images)
+    }
+
+    @Test
+    fun `largest image prefers the largest srcset candidate`() {
+        val index = ReaderImageScanner(CONTENT).imageIndex
+
+        assertThat(index.getLargestImage(500)).isEqualTo("https://a.com/2.jpg?w=1200")
+    }
+
+    @Test
+    fun `image list only contains images above the minimum width`() {
+        val index = ReaderImageScanner(CONTENT).imageIndex
+
+        assertThat(index.getImageList(false, 0, 500)).hasSize(1)
+        assertThat(index.getImageList(false, 0, 0)).hasSize(3)
+        assertThat(index.hasUsableImageCount(2, 250)).isTrue()
+        assertThat(index.hasUsableImageCount(3, 250)).isFalse()
+    }
+
+    @Test
+    fun `content without images has an empty index`() {
+        assertThat(ReaderImageScanner("<p>text</p>").imageIndex.isEmpty).isTrue()
+        assertThat(ReaderImageIndex.fromJson(null)).isNull()
+    }
+}
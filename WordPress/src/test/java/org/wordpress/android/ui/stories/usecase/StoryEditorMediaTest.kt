@@ -197,6 +197,7 @@ class StoryEditorMediaTest : BaseUnitTest() {
                                 anyBoolean(),
                                 anyOrNull(),
                                 anyBoolean(),
+                                anyBoolean(),
                                 anyBoolean()
                         )
                     }.thenReturn(resultForAddNewMediaToEditorAsync)
@@ -0,0 +1,40 @@
+package org.wordpress.android.ui.suggestion
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class SuggestionSearchIndexTest {
+    private val ann = Suggestion("", "annsmith", "Ann Smith")
+    private val bob = Suggestion("", "bobby", "Robert Anderson")
+    private val carl = Suggestion("", "carl", "Carl Van Der Berg")
+    private val index = SuggestionSearchIndex(listOf(ann, bob, carl))
+
+    @Test
+    fun `all suggestions are returned for an empty constraint`() {
+        assertThat(index.search("")).containsExactly(ann, bob, carl)
+        assertThat(index.search(null)).containsExactly(ann, bob, carl)
+    }
+
+    @Test
+    fun `suggestions are matched by value, display value and words of the display value`() {
+        assertThat(index.search("bob")).containsExactly(bob)
+        assertThat(index.search("Rob")).containsExactly(bob)
+        assertThat(index.search("smi")).containsExactly(ann)
+        assertThat(index.search("der")).containsExactly(carl)
+        assertThat(index.search("van der b")).containsExactly(carl)
+    }
+
+    @Test
+    fun `matches are returned once and in list order`() {
+        assertThat(index.search("an")).containsExactly(ann, bob)
+    }
+
+    @Test
+    fun `growing and shrinking the constraint returns the matching suggestions`() {
+        assertThat(index.search("a")).containsExactly(ann, bob)
+        assertThat(index.search("an")).containsExactly(ann, bob)
+        assertThat(index.search("ann")).containsExactly(ann)
+        assertThat(index.search("annx")).isEmpty()
+        assertThat(index.search("c")).containsExactly(carl)
+    }
+}
@@ -0,0 +1,96 @@
+package org.wordpress.android.ui.uploads
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.fluxc.model.MediaModel
+
+private const val SITE_ID = 1
+private const val OTHER_SITE_ID = 2
+private const val POST_ID = 10
+private const val OTHER_POST_ID = 11
+
+class MediaUploadSchedulerTest {
+    private val scheduler = MediaUploadScheduler(2, 1)
+
+    @Test
+    fun `the same media file isn't queued twice for a post`() {
+        assertThat(scheduler.add(createMedia(id = 1, filePath = "/image.jpg"))).isTrue()
+        assertThat(scheduler.add(createMedia(id = 2, filePath = "/image.jpg"))).isFalse()
+        assertThat(scheduler.add(createMedia(id = 3, filePath = "/image.jpg", postId = OTHER_POST_ID))).isTrue()
+        assertThat(scheduler.add(createMedia(id = 4, filePath = "/image.jpg", isFeatured = true))).isTrue()
+
+        assertThat(scheduler.isPendingOrInProgress(1)).isTrue()
+        assertThat(scheduler.isPendingOrInProgress(2)).isFalse()
+    }
+
+    @Test
+    fun `uploads start up to the limit of each site`() {
+        (1..3).forEach { scheduler.add(createMedia(id = it)) }
+        scheduler.add(createMedia(id = 4, siteId = OTHER_SITE_ID))
+
+        assertThat(scheduler.startNextUploads(0).map { it.id }).containsExactly(1, 2, 4)
+        assertThat(scheduler.startNextUploads(0)).isEmpty()
+
+        scheduler.complete(1)
+
+        assertThat(scheduler.startNextUploads(0).map { it.id }).containsExactly(3)
+        assertThat(scheduler.isInProgress(3)).isTrue()
+    }
+
+    @Test
+    fun `videos upload in their own lane`() {
+        scheduler.add(createMedia(id = 1, isVideo = true))
+        scheduler.add(createMedia(id = 2, isVideo = true))
+        scheduler.add(createMedia(id = 3))
+        scheduler.add(createMedia(id = 4))
+
+        assertThat(scheduler.startNextUploads(0).map { it.id }).containsExactly(1, 3, 4)
+    }
+
+    @Test
+    fun `featured images and media of the post in the editor start first`() {
+        scheduler.add(createMedia(id = 1, postId = OTHER_POST_ID))
+        scheduler.add(createMedia(id = 2))
+        scheduler.add(createMedia(id = 3, postId = OTHER_POST_ID, isFeatured = true))
+
+        assertThat(scheduler.startNextUploads(POST_ID).map { it.id }).containsExactly(3, 2)
+    }
+
+    @Test
+    fun `waiting videos are returned in the order they'll start`() {
+        scheduler.add(createMedia(id = 1, isVideo = true))
+        scheduler.add(createMedia(id = 2, isVideo = true, postId = OTHER_POST_ID))
+        scheduler.add(createMedia(id = 3, isVideo = true))
+        scheduler.add(createMedia(id = 4))
+        scheduler.startNextUploads(OTHER_POST_ID)
+
+        assertThat(scheduler.getPendingVideos(OTHER_POST_ID).map { it.id }).containsExactly(1, 3)
+    }
+
+    @Test
+    fun `completed uploads are removed`() {
+        scheduler.add(createMedia(id = 1))
+        scheduler.startNextUploads(0)
+
+        assertThat(scheduler.getUploadsForPost(POST_ID).map { it.id }).containsExactly(1)
+        assertThat(scheduler.complete(1)?.id).isEqualTo(1)
+        assertThat(scheduler.complete(1)).isNull()
+        assertThat(scheduler.isEmpty).isTrue()
+    }
+
+    private fun createMedia(
+        id: Int,
+        siteId: Int = SITE_ID,
+        postId: Int = POST_ID,
+        filePath: String = "/media$id",
+        isVideo: Boolean = false,
+        isFeatured: Boolean = false
+    ) = MediaModel().apply {
+        this.id = id
+        localSiteId = siteId
+        localPostId = postId
+        this.filePath = filePath
+        mimeType = if (isVideo) "video/mp4" else "image/jpeg"
+        markedLocallyAsFeatured = isFeatured
+    }
+}
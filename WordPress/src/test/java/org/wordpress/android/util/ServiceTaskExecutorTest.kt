@@ -0,0 +1,87 @@
+package org.wordpress.android.util
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.wordpress.android.util.ServiceTaskExecutor.Lane
+import java.util.concurrent.Executor
+
+class ServiceTaskExecutorTest {
+    private val submittedTasks = ArrayList<Runnable>()
+    private val executedTasks = ArrayList<String>()
+    private val reportedExceptions = ArrayList<Throwable>()
+    private lateinit var serviceTaskExecutor: ServiceTaskExecutor
+
+    @Before
+    fun setUp() {
+        serviceTaskExecutor = ServiceTaskExecutor(Executor { submittedTasks.add(it) })
+        ServiceTaskExecutor.setExceptionReporter { exception, _ -> reportedExceptions.add(exception) }
+    }
+
+    @After
+    fun tearDown() {
+        ServiceTaskExecutor.setExceptionReporter(null)
+    }
+
+    @Test
+    fun `tasks on a serial lane run one at a time in submission order`() {
+        serviceTaskExecutor.execute(null, Lane.READER_POSTS, Runnable { executedTasks.add("first") })
+        serviceTaskExecutor.execute(null, Lane.READER_POSTS, Runnable { executedTasks.add("second") })
+
+        assertThat(submittedTasks).hasSize(1)
+        assertThat(serviceTaskExecutor.queueDepth).isEqualTo(2)
+
+        runSubmittedTasks()
+
+        assertThat(executedTasks).containsExactly("first", "second")
+        assertThat(serviceTaskExecutor.queueDepth).isEqualTo(0)
+    }
+
+    @Test
+    fun `tasks on different lanes are submitted together`() {
+        serviceTaskExecutor.execute(null, Lane.READER_POSTS, Runnable { executedTasks.add("posts") })
+        serviceTaskExecutor.execute(null, Lane.READER_COMMENTS, Runnable { executedTasks.add("comments") })
+        serviceTaskExecutor.execute(null, Lane.NOTIFICATIONS, Runnable { executedTasks.add("notifications") })
+        serviceTaskExecutor.execute(null, Lane.NOTIFICATIONS, Runnable { executedTasks.add("notifications") })
+
+        assertThat(submittedTasks).hasSize(4)
+    }
+
+    @Test
+    fun `cancelling an owner skips its queued tasks and keeps the lane moving`() {
+        val owner = Any()
+        var hasFailed = false
+        serviceTaskExecutor.execute(owner, Lane.READER_POSTS, Runnable { executedTasks.add("cancelled") },
+                Runnable { hasFailed = true })
+        serviceTaskExecutor.execute(null, Lane.READER_POSTS, Runnable { executedTasks.add("other owner") })
+
+        serviceTaskExecutor.cancel(owner)
+        runSubmittedTasks()
+
+        // the owner is going away, so it isn't told about the cancelled task
+        assertThat(hasFailed).isFalse()
+        assertThat(executedTasks).containsExactly("other owner")
+    }
+
+    @Test
+    fun `a task which throws is reported as a crash and as failed and doesn't block its lane`() {
+        val exception = IllegalStateException()
+        var hasFailed = false
+        serviceTaskExecutor.execute(null, Lane.READER_TAGS, Runnable { throw exception },
+                Runnable { hasFailed = true })
+        serviceTaskExecutor.execute(null, Lane.READER_TAGS, Runnable { executedTasks.add("next") })
+
+        runSubmittedTasks()
+
+        assertThat(reportedExceptions).containsExactly(exception)
+        assertThat(hasFailed).isTrue()
+        assertThat(executedTasks).containsExactly("next")
+    }
+
+    private fun runSubmittedTasks() {
+        while (submittedTasks.isNotEmpty()) {
+            submittedTasks.removeAt(0).run()
+        }
+    }
+}
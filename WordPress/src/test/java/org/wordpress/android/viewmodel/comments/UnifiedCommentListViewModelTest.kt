@@ -1,5 +1,6 @@
 package org.wordpress.android.viewmodel.comments
 
+import android.text.Spanned
 import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.anyOrNull
 import com.nhaarman.mockitokotlin2.eq
@@ -17,6 +18,7 @@ import org.junit.Rule
 import org.junit.Test
 import org.mockito.Mock
 import org.mockito.Mockito.`when`
+import org.mockito.Mockito.lenient
 import org.wordpress.android.BaseUnitTest
 import org.wordpress.android.MainCoroutineScopeRule
 import org.wordpress.android.R.string
@@ -35,6 +37,7 @@ import org.wordpress.android.models.usecases.ModerateCommentsResourceProvider
 import org.wordpress.android.models.usecases.PaginateCommentsResourceProvider
 import org.wordpress.android.models.usecases.PaginateCommentsUseCase
 import org.wordpress.android.models.usecases.UnifiedCommentsListHandler
+import org.wordpress.android.ui.comments.CommentContentSpanCache
 import org.wordpress.android.ui.comments.unified.CommentFilter.ALL
 import org.wordpress.android.ui.comments.unified.CommentListUiModelHelper
 import org.wordpress.android.ui.comments.unified.CommentListUiModelHelper.CommentList
@@ -70,6 +73,8 @@ class UnifiedCommentListViewModelTest : BaseUnitTest() {
     @Mock private lateinit var dateTimeUtilsWrapper: DateTimeUtilsWrapper
     @Mock private lateinit var paginateCommentsResourceProvider: PaginateCommentsResourceProvider
     @Mock private lateinit var moderateCommentsResourceProvider: ModerateCommentsResourceProvider
+    @Mock private lateinit var commentContentSpanCache: CommentContentSpanCache
+    @Mock private lateinit var formattedContent: Spanned
 
     @Mock private lateinit var commentStore: CommentsStore
     private lateinit var localCommentCacheUpdateHandler: LocalCommentCacheUpdateHandler
@@ -112,7 +117,14 @@ class UnifiedCommentListViewModelTest : BaseUnitTest() {
             `when`(commentStore.fetchCommentsPage(any(), any(), eq(30), any(), any()))
         }.thenReturn(testCommentsPayload60)
 
-        commentListUiModelHelper = CommentListUiModelHelper(resourceProvider, dateTimeUtilsWrapper, networkUtilsWrapper)
+        lenient().`when`(commentContentSpanCache.getFormattedContent(any(), anyOrNull())).thenReturn(formattedContent)
+
+        commentListUiModelHelper = CommentListUiModelHelper(
+                resourceProvider,
+                dateTimeUtilsWrapper,
+                networkUtilsWrapper,
+                commentContentSpanCache
+        )
 
         viewModel = UnifiedCommentListViewModel(
                 commentListUiModelHelper,